@@ -3,6 +3,7 @@ package core;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.DoNothing;
+import core.interfaces.IOrderedActionSpace;
 import core.interfaces.IPlayerDecorator;
 import utilities.ActionTreeNode;
 import utilities.ElapsedCpuChessTimer;
@@ -192,6 +193,44 @@ public abstract class AbstractForwardModel {
         return retValue;
     }
 
+    /**
+     * As computeAvailableActions(), but materialises at most maxActions actions.
+     * If the Forward Model implements IOrderedActionSpace, then these are the first maxActions in its priority order
+     * that pass the decorators, and the remaining actions are never constructed. Otherwise (and during extended action
+     * sequences, which have no ordering) there is no order in which to cut the list short, so all the actions are
+     * returned, as from computeAvailableActions().
+     *
+     * @param gameState   - game state to compute the actions for
+     * @param actionSpace - action space type
+     * @param maxActions  - maximum number of actions to return (if the Forward Model implements IOrderedActionSpace)
+     * @return - the list of actions available.
+     */
+    public final List<AbstractAction> computeAvailableActions(AbstractGameState gameState, ActionSpace actionSpace, int maxActions) {
+        if (!(this instanceof IOrderedActionSpace) || gameState.isActionInProgress())
+            return computeAvailableActions(gameState, actionSpace);
+        List<IPlayerDecorator> activeDecorators = decorators.stream()
+                .filter(d -> !d.decisionPlayerOnly() || gameState.getCurrentPlayer() == decisionPlayerID)
+                .toList();
+        List<AbstractAction> retValue = new ArrayList<>(maxActions);
+        List<AbstractAction> rejected = new ArrayList<>();
+        Iterator<AbstractAction> iterator = ((IOrderedActionSpace) this).orderedActions(gameState, actionSpace);
+        // each action is checked by the decorators as it is pulled, so that those filtered out do not count
+        while (retValue.size() < maxActions && iterator.hasNext()) {
+            AbstractAction action = iterator.next();
+            if (activeDecorators.stream().allMatch(d -> d.permits(gameState, action)))
+                retValue.add(action);
+            else
+                rejected.add(action);
+        }
+        // if every action was filtered out, then the decorators decide what to do with all of them (as they would in
+        // computeAvailableActions())
+        if (retValue.isEmpty())
+            retValue = rejected;
+        for (IPlayerDecorator decorator : activeDecorators)
+            retValue = decorator.actionFilter(gameState, retValue);
+        return retValue;
+    }
+
     /**
      * Performs any end of game computations, as needed.
      * This should not normally need to be overriden - but can be. For example if a game is purely co-operative
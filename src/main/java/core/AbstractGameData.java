@@ -4,13 +4,15 @@ import core.components.*;
 import core.components.Component;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AbstractGameData {
 
+    // The data in each directory is read just once per JVM, and then shared by every game that loads it.
+    // This is safe because the find methods (and copy()) only ever return copies of the components.
+    private static final Map<String, AbstractGameData> loaded = new ConcurrentHashMap<>();
+
     private List<GraphBoard> graphBoards = new ArrayList<>();
     private List<GridBoard> gridBoards = new ArrayList<>();
     private List<Deck<Card>> decks = new ArrayList<>();
@@ -18,22 +20,33 @@ public class AbstractGameData {
     private List<Token> tokens = new ArrayList<>();
 
     public void load(String dataPath) {
+        AbstractGameData data = loaded.computeIfAbsent(dataPath, AbstractGameData::readFiles);
+        graphBoards = data.graphBoards;
+        gridBoards = data.gridBoards;
+        decks = data.decks;
+        counters = data.counters;
+        tokens = data.tokens;
+    }
+
+    private static AbstractGameData readFiles(String dataPath) {
+        AbstractGameData data = new AbstractGameData();
         File dir = new File(dataPath);
         if (dir.isDirectory()) {
             List<String> files = Arrays.asList(Objects.requireNonNull(dir.list()));
             if (files.contains("boards.json"))
-                graphBoards = GraphBoard.loadBoards(dataPath + "/boards.json");
+                data.graphBoards = GraphBoard.loadBoards(dataPath + "/boards.json");
             if (files.contains("gridboards.json"))
-                gridBoards = GridBoard.loadBoards(dataPath + "/gridboards.json");
+                data.gridBoards = GridBoard.loadBoards(dataPath + "/gridboards.json");
             if (files.contains("decks.json"))
-                decks = Deck.loadDecksOfCards(dataPath + "/decks.json");
+                data.decks = Deck.loadDecksOfCards(dataPath + "/decks.json");
             if (files.contains("counters.json"))
-                counters = Counter.loadCounters(dataPath + "/counters.json");
+                data.counters = Counter.loadCounters(dataPath + "/counters.json");
             if (files.contains("tokens.json"))
-                tokens = Token.loadTokens(dataPath + "/tokens.json");
+                data.tokens = Token.loadTokens(dataPath + "/tokens.json");
         } else {
             throw new IllegalArgumentException(dataPath + " is not a directory");
         }
+        return data;
     }
 
     public GridBoard findGridBoard(String name) {
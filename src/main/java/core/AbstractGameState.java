@@ -56,7 +56,8 @@ public abstract class AbstractGameState {
     // The history is stored as a list of pairs, where the first element is the player who took the action
     // this is in chronological order
     private List<Pair<Integer, AbstractAction>> history = new ArrayList<>();
-    private List<String> historyText = new ArrayList<>();
+    // Strings, or LogEvents whose text is not built until getHistoryAsText() is called
+    private List<Object> historyText = new ArrayList<>();
 
     // Status of the game, and status for each player (in cooperative games, the game status is also each player's status)
     protected CoreConstants.GameResult gameStatus;
@@ -169,7 +170,10 @@ public abstract class AbstractGameState {
      */
     public List<Pair<Integer, AbstractAction>> getHistory() { return new ArrayList<>(history);}
     public List<String> getHistoryAsText() {
-        return new ArrayList<>(historyText);
+        List<String> retValue = new ArrayList<>(historyText.size());
+        for (Object o : historyText)
+            retValue.add(o.toString());
+        return retValue;
     }
     public int getGameID() {
         return gameID;
@@ -285,6 +289,19 @@ public abstract class AbstractGameState {
         return copy(-1);
     }
 
+    /**
+     * A full copy of the state that also keeps the game ID and the random seed in the game parameters (which copy()
+     * does not), for listeners that process an event after the game has moved on.
+     *
+     * @return - full copy of this game state, with the same game ID and seed.
+     */
+    public final AbstractGameState snapshot() {
+        AbstractGameState s = copy(-1);
+        s.gameID = gameID;
+        s.gameParameters.randomSeed = gameParameters.randomSeed;
+        return s;
+    }
+
     /**
      * Copies the current game state, including super class methods, given player ID.
      * Reduces state variables to only those that the player observes.
@@ -348,31 +365,50 @@ public abstract class AbstractGameState {
     }
 
 
-    // helper function to avoid time-consuming string manipulations if the message is not actually
-    // going to be logged anywhere
+    /**
+     * Logs an event whose text is only built if it is needed (by a listener, or by getHistoryAsText() if
+     * recordEventHistory is set), to avoid time-consuming string manipulations for events that are never read.
+     * The supplier may be called after the state has moved on, so must only use values fixed at the time of the event.
+     */
     public void logEvent(IGameEvent event, Supplier<String> eventText) {
         if (listeners.isEmpty() && !getCoreGameParameters().recordEventHistory)
-            return; // to avoid expensive string manipulations
-        logEvent(event, eventText.get());
+            return;
+        publish(event, new LogEvent(eventText));
     }
+
+    /**
+     * Logs an event with the text String.format(format, args). The arguments are also available to listeners with
+     * LogEvent.getArg(), and the text is only built if it is needed.
+     */
+    public void logEvent(IGameEvent event, String format, Object... args) {
+        if (listeners.isEmpty() && !getCoreGameParameters().recordEventHistory)
+            return;
+        publish(event, new LogEvent(format, args));
+    }
+
     public void logEvent(IGameEvent event, String eventText) {
-        LogEvent logAction = new LogEvent(eventText);
-        listeners.forEach(l -> l.onEvent(Event.createEvent(event, this, logAction)));
-        if (getCoreGameParameters().recordEventHistory) {
-            recordHistory(eventText);
-        }
+        if (listeners.isEmpty() && !getCoreGameParameters().recordEventHistory)
+            return;
+        publish(event, new LogEvent(eventText));
     }
+
     public void logEvent(IGameEvent event) {
-        LogEvent logAction = new LogEvent(event.name());
+        logEvent(event, event.name());
+    }
+
+    private void publish(IGameEvent event, LogEvent logAction) {
         listeners.forEach(l -> l.onEvent(Event.createEvent(event, this, logAction)));
         if (getCoreGameParameters().recordEventHistory) {
-            recordHistory(event.name());
+            recordHistory(logAction);
         }
     }
 
     public void recordHistory(String history) {
         historyText.add(history);
     }
+    public void recordHistory(LogEvent event) {
+        historyText.add(event);
+    }
 
     /* Methods dealing with ExtendedActions and the actionStack */
 
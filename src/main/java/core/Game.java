@@ -56,6 +56,8 @@ public class Game {
     private JFrame frame;
     // Timers for various function calls
     private double nextTime, copyTime, agentTime, actionComputeTime;
+    // Histograms of the above (and more) for the whole game; null unless switched on with setProfiling()
+    private GameProfiler profiler;
     // Keeps track of action spaces for each game tick, pairs of (player ID, #actions)
     private ArrayList<Pair<Integer, Integer>> actionSpaceSize;
     // Number of times an agent is asked for decisions
@@ -410,6 +412,8 @@ public class Game {
         nActionsPerTurn = 1;
         nActionsPerTurnCount = 0;
         lastPlayer = -1;
+        if (profiler != null)
+            profiler.reset();
     }
 
     /**
@@ -521,14 +525,17 @@ public class Game {
         if (debug) System.out.printf("Starting oneAction for player %s%n", activePlayer);
 
         // Get player observation, and time how long it takes
+        if (profiler != null) profiler.startPhase();
         double s = System.nanoTime();
         // copying the gamestate also copies the game parameters and resets the random seed (so agents cannot use this
         // to reconstruct the starting hands etc.)
         AbstractGameState observation = gameState.copy(activePlayer);
         copyTime = (System.nanoTime() - s);
+        if (profiler != null) profiler.endPhase(GameProfiler.Phase.COPY, activePlayer, (long) copyTime);
         //      System.out.printf("Total copyTime in ms = %.2f at tick %d (Avg %.3f) %n", copyTime / 1e6, tick, copyTime / (tick +1.0) / 1e6);
 
         // Get actions for the player
+        if (profiler != null) profiler.startPhase();
         s = System.nanoTime();
         List<AbstractAction> observedActions = forwardModel.computeAvailableActions(observation, currentPlayer.getParameters().actionSpace);
         if (observedActions.isEmpty()) {
@@ -548,6 +555,7 @@ public class Game {
 
         }
         actionComputeTime = (System.nanoTime() - s);
+        if (profiler != null) profiler.endPhase(GameProfiler.Phase.ACTION_COMPUTE, activePlayer, (long) actionComputeTime);
         actionSpaceSize.add(new Pair<>(activePlayer, observedActions.size()));
 
         if (gameState.coreGameParameters.verbose) {
@@ -570,6 +578,7 @@ public class Game {
                 currentPlayer.registerUpdatedObservation(observation);
             } else {
                 // Get action from player, and time it
+                if (profiler != null) profiler.startPhase();
                 s = System.nanoTime();
                 if (debug)
                     System.out.printf("About to get action for player %d%n", gameState.getCurrentPlayer());
@@ -582,6 +591,7 @@ public class Game {
                     System.out.printf("Game: %2d Tick: %3d\t%s%n", gameState.getGameID(), getTick(), action.getString(gameState));
 
                 agentTime = (System.nanoTime() - s);
+                if (profiler != null) profiler.endPhase(GameProfiler.Phase.DECISION, activePlayer, (long) agentTime);
                 nDecisions++;
             }
             if (gameState.coreGameParameters.competitionMode && action != null && !observedActions.contains(action)) {
@@ -611,10 +621,12 @@ public class Game {
             action = forwardModel.disqualifyOrRandomAction(gameState.coreGameParameters.disqualifyPlayerOnTimeout, gameState);
         } else {
             // Resolve action and game rules, time it
+            if (profiler != null) profiler.startPhase();
             s = System.nanoTime();
             // we copy the action before using it..so that the action returned by oneAction() does not have a state link
             forwardModel.next(gameState, action.copy());
             nextTime = (System.nanoTime() - s);
+            if (profiler != null) profiler.endPhase(GameProfiler.Phase.NEXT, activePlayer, (long) nextTime);
         }
 
         lastPlayer = activePlayer;
@@ -639,6 +651,8 @@ public class Game {
 
         // Perform any end of game computations as required by the game
         forwardModel.endGame(gameState);
+        if (profiler != null)
+            profiler.endGame();
         listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, gameState)));
         if (gameState.coreGameParameters.recordEventHistory) {
             gameState.recordHistory(Event.GameEvent.GAME_OVER.name());
@@ -712,6 +726,24 @@ public class Game {
         return actionComputeTime;
     }
 
+    /**
+     * Switches on (or off) the recording of a GameProfiler for each game. If switched on during a game, then it
+     * covers the rest of that game.
+     */
+    public void setProfiling(boolean profiling) {
+        if (!profiling)
+            profiler = null;
+        else if (profiler == null)
+            profiler = new GameProfiler(this);
+    }
+
+    /**
+     * @return the profile of the current (or just finished) game, or null if profiling is not switched on
+     */
+    public GameProfiler getProfiler() {
+        return profiler;
+    }
+
     /**
      * Retrieves the number of game loop repetitions performed in this game.
      *
@@ -0,0 +1,229 @@
+package core;
+
+import evaluation.summarisers.LatencyHistogram;
+import jdk.jfr.*;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records where the time goes in each game that a Game runs, once switched on with Game.setProfiling(true)
+ * (when it is off, which is the default, the only cost is a null check per phase):
+ * <ul>
+ * <li>a LatencyHistogram per player of each Phase of Game.oneAction(), with the bytes allocated in each phase</li>
+ * <li>the bytes allocated by the game thread over the whole game (from ThreadMXBean)</li>
+ * <li>the number of garbage collections, and the time they took, over the game (these are for the whole JVM, so will
+ * include other games if several are run at once)</li>
+ * </ul>
+ * This is available from Game.getProfiler() until the next game starts (so at GAME_OVER, as GameMetrics.PhaseLatencies
+ * uses it). It is also sent to Java Flight Recorder as a tag.GameProfile event at the end of each game, and a
+ * tag.GamePhase event for each phase (if these are enabled in the recording, as they are by default).
+ */
+public class GameProfiler {
+
+    public enum Phase {
+        COPY, ACTION_COMPUTE, DECISION, NEXT
+    }
+
+    private static final com.sun.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+            && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+    private static final EventType phaseEventType = EventType.getEventType(PhaseEvent.class);
+
+    private final Game game;
+    private LatencyHistogram[][] histograms;
+    private long[] phaseAllocated;
+    private long phaseStartBytes;
+    private long startBytes, allocated;
+    private long startGCCount, gcCount;
+    private long startGCTime, gcTime;
+
+    GameProfiler(Game game) {
+        this.game = game;
+        reset();
+    }
+
+    /**
+     * Clears everything recorded, and starts measuring a new game
+     */
+    void reset() {
+        int nPlayers = game.getGameState().getNPlayers();
+        histograms = new LatencyHistogram[Phase.values().length][nPlayers];
+        for (LatencyHistogram[] byPlayer : histograms)
+            for (int p = 0; p < nPlayers; p++)
+                byPlayer[p] = new LatencyHistogram();
+        phaseAllocated = new long[Phase.values().length];
+        startBytes = allocatedBytes();
+        allocated = 0;
+        startGCCount = 0;
+        startGCTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            startGCCount += Math.max(gc.getCollectionCount(), 0);
+            startGCTime += Math.max(gc.getCollectionTime(), 0);
+        }
+        gcCount = 0;
+        gcTime = 0;
+    }
+
+    private static long allocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    void startPhase() {
+        phaseStartBytes = allocatedBytes();
+    }
+
+    /**
+     * @param nanos the time taken by the phase (which the Game has already measured)
+     */
+    void endPhase(Phase phase, int player, long nanos) {
+        long bytes = allocatedBytes() - phaseStartBytes;
+        histograms[phase.ordinal()][player].record(nanos);
+        phaseAllocated[phase.ordinal()] += bytes;
+        if (phaseEventType.isEnabled()) {
+            PhaseEvent event = new PhaseEvent();
+            event.gameType = game.getGameType().name();
+            event.gameID = game.getGameState().getGameID();
+            event.player = player;
+            event.phase = phase.name();
+            event.latency = nanos;
+            event.allocated = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Takes the totals for the game (allocation and GC), and sends the GameProfile event to JFR
+     */
+    void endGame() {
+        allocated = allocatedBytes() - startBytes;
+        gcCount = -startGCCount;
+        gcTime = -startGCTime;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(gc.getCollectionCount(), 0);
+            gcTime += Math.max(gc.getCollectionTime(), 0);
+        }
+        GameProfileEvent event = new GameProfileEvent();
+        if (event.isEnabled()) {
+            event.gameType = game.getGameType().name();
+            event.gameID = game.getGameState().getGameID();
+            event.nPlayers = game.getGameState().getNPlayers();
+            event.ticks = game.getTick();
+            event.copyTotal = histogram(Phase.COPY).total();
+            event.actionComputeTotal = histogram(Phase.ACTION_COMPUTE).total();
+            event.decisionTotal = histogram(Phase.DECISION).total();
+            event.nextTotal = histogram(Phase.NEXT).total();
+            event.decisionP99 = histogram(Phase.DECISION).quantile(0.99);
+            event.nextP99 = histogram(Phase.NEXT).quantile(0.99);
+            event.allocated = allocated;
+            event.gcCount = gcCount;
+            event.gcTime = gcTime;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the latencies (in nanoseconds) of this phase for one player
+     */
+    public LatencyHistogram histogram(Phase phase, int player) {
+        return histograms[phase.ordinal()][player];
+    }
+
+    /**
+     * @return the latencies (in nanoseconds) of this phase for all players
+     */
+    public LatencyHistogram histogram(Phase phase) {
+        LatencyHistogram retValue = new LatencyHistogram();
+        for (LatencyHistogram h : histograms[phase.ordinal()])
+            retValue.add(h);
+        return retValue;
+    }
+
+    /**
+     * @return the bytes allocated by the game thread during this phase (summed over the game so far)
+     */
+    public long allocated(Phase phase) {
+        return phaseAllocated[phase.ordinal()];
+    }
+
+    /**
+     * @return the bytes allocated by the game thread during the game (or -1 if this JVM cannot measure this)
+     */
+    public long allocated() {
+        return threadBean == null ? -1 : allocated;
+    }
+
+    public long gcCount() {
+        return gcCount;
+    }
+
+    /**
+     * @return the time spent in garbage collection during the game, in milliseconds
+     */
+    public long gcTime() {
+        return gcTime;
+    }
+
+    @Name("tag.GamePhase")
+    @Label("Game Phase")
+    @Category({"TAG", "Game"})
+    @Description("One phase of a single action in a game")
+    @StackTrace(false)
+    static class PhaseEvent extends Event {
+        @Label("Game Type")
+        String gameType;
+        @Label("Game ID")
+        int gameID;
+        @Label("Player")
+        int player;
+        @Label("Phase")
+        String phase;
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    @Name("tag.GameProfile")
+    @Label("Game Profile")
+    @Category({"TAG", "Game"})
+    @Description("Where the time went in one game")
+    @StackTrace(false)
+    static class GameProfileEvent extends Event {
+        @Label("Game Type")
+        String gameType;
+        @Label("Game ID")
+        int gameID;
+        @Label("Players")
+        int nPlayers;
+        @Label("Ticks")
+        int ticks;
+        @Label("Copy")
+        @Timespan(Timespan.NANOSECONDS)
+        long copyTotal;
+        @Label("Action Compute")
+        @Timespan(Timespan.NANOSECONDS)
+        long actionComputeTotal;
+        @Label("Decision")
+        @Timespan(Timespan.NANOSECONDS)
+        long decisionTotal;
+        @Label("Next")
+        @Timespan(Timespan.NANOSECONDS)
+        long nextTotal;
+        @Label("Decision P99")
+        @Timespan(Timespan.NANOSECONDS)
+        long decisionP99;
+        @Label("Next P99")
+        @Timespan(Timespan.NANOSECONDS)
+        long nextP99;
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+        @Label("GC Count")
+        long gcCount;
+        @Label("GC Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long gcTime;
+    }
+}
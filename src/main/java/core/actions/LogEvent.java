@@ -2,12 +2,65 @@ package core.actions;
 
 import core.AbstractGameState;
 
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * The payload of an event logged by the game (with AbstractGameState.logEvent()).
+ * <p>
+ * The text is only built the first time it is asked for (with getText() or toString()), so that listeners that only
+ * count events, or that read the arguments, never pay for string formatting. It is either:
+ * <ul>
+ * <li>a format string (as for String.format) and its arguments, which are also available to listeners with getArg()
+ * so they do not need to parse the text. The arguments should be immutable values (numbers, enums, strings)</li>
+ * <li>or a Supplier of the text. This is called later (possibly on another thread if metrics are run asynchronously),
+ * so must not depend on game state that may have changed since the event was logged</li>
+ * </ul>
+ */
 public class LogEvent extends AbstractAction {
 
-    public final String text;
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private String text;
+    private final String format;
+    private final Object[] args;
+    private final Supplier<String> textSupplier;
 
     public LogEvent(String message) {
         text = message;
+        format = null;
+        args = NO_ARGS;
+        textSupplier = null;
+    }
+
+    public LogEvent(String format, Object... args) {
+        this.format = format;
+        this.args = args;
+        textSupplier = null;
+    }
+
+    public LogEvent(Supplier<String> textSupplier) {
+        format = null;
+        args = NO_ARGS;
+        this.textSupplier = textSupplier;
+    }
+
+    public String getText() {
+        if (text == null)
+            text = textSupplier != null ? textSupplier.get() : String.format(format, args);
+        return text;
+    }
+
+    /**
+     * @return the argument at this index (for an event logged with a format string), cast to the type expected
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getArg(int index) {
+        return (T) args[index];
+    }
+
+    public int getArgCount() {
+        return args.length;
     }
 
     @Override
@@ -22,21 +75,25 @@ public class LogEvent extends AbstractAction {
 
     @Override
     public boolean equals(Object obj) {
-        return (obj instanceof LogEvent) && ((LogEvent) obj).text.equals(text);
+        if (!(obj instanceof LogEvent other))
+            return false;
+        if (format != null && format.equals(other.format))
+            return Arrays.equals(args, other.args);
+        return other.getText().equals(getText());
     }
 
     @Override
     public int hashCode() {
-        return text.hashCode() - 31;
+        return getText().hashCode() - 31;
     }
 
     @Override
     public String getString(AbstractGameState gameState) {
-        return text;
+        return getText();
     }
 
     @Override
     public String toString() {
-        return text;
+        return getText();
     }
 }
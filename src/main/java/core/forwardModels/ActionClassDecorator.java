@@ -42,6 +42,15 @@ public class ActionClassDecorator implements IPlayerDecorator {
         return retValue;
     }
 
+    @Override
+    public boolean permits(AbstractGameState state, AbstractAction action) {
+        // actionFilter() keeps a restricted action if it is the only one, so we check the classes directly
+        for (Class<?> c : actionClasses) {
+            if (c.isInstance(action)) return false;
+        }
+        return true;
+    }
+
     @Override
     public boolean decisionPlayerOnly() {
         return decisionPlayerOnly;
@@ -0,0 +1,28 @@
+package core.interfaces;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import core.actions.ActionSpace;
+
+import java.util.Iterator;
+
+/**
+ * A Forward Model that implements this interface can generate the available actions lazily, in descending order
+ * of priority (most promising first). This is intended for games with very large action spaces (e.g. player trades
+ * in Catan), where building the full list of actions is itself expensive. Search algorithms that only consider
+ * a subset of actions (such as MCTS with Progressive Widening) can then materialise just the first few actions,
+ * and pull more as they need them.
+ *
+ * The set of actions returned by the Iterator must be the same as from computeAvailableActions(); only the
+ * order and the timing of their construction can differ.
+ */
+public interface IOrderedActionSpace {
+
+    /**
+     * @param gameState   The current game state. This must not be modified while the Iterator is in use.
+     * @param actionSpace The action space type
+     * @return An Iterator over the available actions, in descending order of priority. Actions (or groups of actions)
+     * are only constructed as the Iterator is advanced.
+     */
+    Iterator<AbstractAction> orderedActions(AbstractGameState gameState, ActionSpace actionSpace);
+}
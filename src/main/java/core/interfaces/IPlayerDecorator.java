@@ -18,6 +18,17 @@ public interface IPlayerDecorator {
      */
     abstract List<AbstractAction> actionFilter(AbstractGameState state, List<AbstractAction> possibleActions);
 
+    /**
+     * Whether actionFilter() would keep this action. This is used when actions are generated one at a time (see
+     * IOrderedActionSpace), so that those filtered out can be skipped before the rest have been generated;
+     * actionFilter() is then applied to the actions that are kept.
+     * The default applies actionFilter() to just this action, which is right for decorators that judge each action
+     * on its own; those that look at the whole list (or use a random number generator) should override this.
+     */
+    default boolean permits(AbstractGameState state, AbstractAction action) {
+        return !actionFilter(state, List.of(action)).isEmpty();
+    }
+
     /**
      * This method needs to apply logic after the decision is made.
      * It provides the actual decision selected by the underlying AbstractPlayer.
@@ -6,6 +6,15 @@ public interface IStateFeatureVector extends IStateKey {
 
     double[] featureVector(AbstractGameState state, int playerID);
 
+    /**
+     * As featureVector(state, playerID), but writing the values into buffer from offset onwards.
+     * This is used when recording training data, and implementations can override it to avoid creating a new array.
+     */
+    default void featureVector(AbstractGameState state, int playerID, double[] buffer, int offset) {
+        double[] features = featureVector(state, playerID);
+        System.arraycopy(features, 0, buffer, offset, features.length);
+    }
+
     String[] names();
 
     @Override
@@ -23,6 +23,23 @@ public interface IStatisticLogger {
      */
     void record(String key, Object datum);
 
+    /**
+     * Use to register several rows of numeric data, with the same keys, in one go.
+     * By default each row is passed to record(Map); loggers that write files override this to avoid the boxing.
+     *
+     * @param keys   The name of each column
+     * @param values nRows * keys.length values, one row after another
+     * @param nRows  The number of rows
+     */
+    default void record(String[] keys, double[] values, int nRows) {
+        for (int r = 0; r < nRows; r++) {
+            Map<String, Double> data = new LinkedHashMap<>();
+            for (int i = 0; i < keys.length; i++)
+                data.put(keys[i], values[r * keys.length + i]);
+            record(data);
+        }
+    }
+
     /**
      * Trigger any specific batch processing of data by this Logger.
      * This should be called once all data has been collected. This may also, for example,
@@ -146,18 +146,22 @@ public abstract class TurnOrder {
         }
     }
 
-    // helper function to avoid time-consuming string manipulations if the message is not actually
-    // going to be logged anywhere
+    // the text is only built if it is needed, to avoid time-consuming string manipulations if the message is not
+    // actually going to be logged anywhere
     public void logEvent(Supplier<String> eventText, AbstractGameState state) {
         if (listeners.isEmpty() && !state.getCoreGameParameters().recordEventHistory)
-            return; // to avoid expensive string manipulations
-        logEvent(eventText.get(), state);
+            return;
+        publish(new LogEvent(eventText), state);
     }
     public void logEvent(String eventText, AbstractGameState state) {
-        LogEvent logAction = new LogEvent(eventText);
+        if (listeners.isEmpty() && !state.getCoreGameParameters().recordEventHistory)
+            return;
+        publish(new LogEvent(eventText), state);
+    }
+    private void publish(LogEvent logAction, AbstractGameState state) {
         listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.GAME_EVENT, state, logAction)));
         if (state.getCoreGameParameters().recordEventHistory) {
-            state.recordHistory(eventText);
+            state.recordHistory(logAction);
         }
     }
 
@@ -0,0 +1,508 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import utilities.JSONUtils;
+import utilities.Utils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * A regression suite for the speed of the forward models, to run locally before and after a change to the framework
+ * or to a game, to tell whether that change slowed any game down.
+ * <p>
+ * It records one canonical trace of each game (the game, number of players, seed, and the index in the list of
+ * available actions of each action taken by a seeded random player), and then replays the traces, timing each call
+ * of the three operations that search agents spend their time in: copy() of the state (as seen by the player to move,
+ * as Game and the agents do), AbstractForwardModel.computeAvailableActions() and AbstractForwardModel.next(). For each
+ * game it reports the mean ns/op and bytes/op of each operation (the median over several replays, after some to warm
+ * up), and compares these with a stored baseline. A game fails if any operation is slower, or allocates more, than the
+ * baseline by more than the threshold. A trace that no longer replays to the same end (because the change altered the
+ * rules or the order of the actions, or see measure()) is played again from its seed, and marked in the report; if
+ * the change was meant to do this, then the traces and the baseline should be recorded again.
+ * <p>
+ * The arguments (as name=value) are:
+ * <ul>
+ * <li>mode: record (the traces), baseline (replay the traces, and store the results as the baseline) or
+ * check (replay the traces, and compare the results with the baseline; the default). check exits with status 1
+ * if any game fails.</li>
+ * <li>game: a pipe-delimited list of games, or all (the default); all|-name1|-name2 is all except name1 and name2</li>
+ * <li>traces, baseline: the files of the traces and the baseline (perf/traces.json and perf/baseline.json)</li>
+ * <li>seed, maxActions: for record, the seed of the games and players (42), and the most actions in a trace (10000)</li>
+ * <li>warmup, time: the milliseconds for which each trace is replayed to warm up (1000), and then to measure (1000)</li>
+ * <li>iterations: the number of parts the measurement is split into (10), from which the median is taken</li>
+ * <li>forks: the number of fresh JVMs each game is measured in (3), from which the median is taken; with 0, all the
+ * games are measured in this JVM (which is quicker, but less repeatable)</li>
+ * <li>threshold: the fraction by which a game can be slower than the baseline before it fails (0.2)</li>
+ * </ul>
+ * Timings are only comparable on the same machine (so a baseline is not shared), and include the cost of reading the
+ * clock and the allocation counter around each call, which is the same in the baseline.
+ */
+public class ForwardModelBenchmark {
+
+    public enum Operation {
+        COPY, COMPUTE_ACTIONS, NEXT
+    }
+
+    static final int MAX_ACTIONS = 10000;
+
+    private static final com.sun.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+            && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+
+    /**
+     * A recorded game. The actions are indices into computeAvailableActions() at each decision, and the game must end
+     * (or not, if it was stopped at maxActions) with the same scores when they are replayed.
+     */
+    public record Trace(GameType game, int nPlayers, long seed, int[] actions, boolean terminal, double[] scores) {
+
+        @SuppressWarnings("unchecked")
+        JSONObject toJSON() {
+            JSONObject retValue = new JSONObject();
+            retValue.put("game", game.name());
+            retValue.put("nPlayers", nPlayers);
+            retValue.put("seed", seed);
+            JSONArray actionArray = new JSONArray();
+            for (int action : actions)
+                actionArray.add(action);
+            retValue.put("actions", actionArray);
+            retValue.put("terminal", terminal);
+            JSONArray scoreArray = new JSONArray();
+            for (double score : scores)
+                scoreArray.add(score);
+            retValue.put("scores", scoreArray);
+            return retValue;
+        }
+
+        static Trace fromJSON(JSONObject json) {
+            JSONArray actionArray = (JSONArray) json.get("actions");
+            int[] actions = new int[actionArray.size()];
+            for (int i = 0; i < actions.length; i++)
+                actions[i] = ((Number) actionArray.get(i)).intValue();
+            JSONArray scoreArray = (JSONArray) json.get("scores");
+            double[] scores = new double[scoreArray.size()];
+            for (int i = 0; i < scores.length; i++)
+                scores[i] = ((Number) scoreArray.get(i)).doubleValue();
+            return new Trace(GameType.valueOf((String) json.get("game")), ((Number) json.get("nPlayers")).intValue(),
+                    ((Number) json.get("seed")).longValue(), actions, (Boolean) json.get("terminal"), scores);
+        }
+    }
+
+    /**
+     * The ns/op and bytes/op of each Operation in one game
+     */
+    public static class Result {
+        final double[] nanosPerOp = new double[Operation.values().length];
+        final double[] bytesPerOp = new double[Operation.values().length];
+        // true if the stored trace did not replay, so this is of a different game (see measure)
+        boolean recordedAgain;
+
+        public double nanosPerOp(Operation op) {
+            return nanosPerOp[op.ordinal()];
+        }
+
+        /**
+         * @return the mean bytes allocated per call (or -1 if this JVM cannot measure this)
+         */
+        public double bytesPerOp(Operation op) {
+            return bytesPerOp[op.ordinal()];
+        }
+
+        @SuppressWarnings("unchecked")
+        JSONObject toJSON() {
+            JSONObject retValue = new JSONObject();
+            for (Operation op : Operation.values()) {
+                JSONObject opJSON = new JSONObject();
+                opJSON.put("nsPerOp", nanosPerOp(op));
+                opJSON.put("bytesPerOp", bytesPerOp(op));
+                retValue.put(op.name(), opJSON);
+            }
+            if (recordedAgain)
+                retValue.put("recordedAgain", true);
+            return retValue;
+        }
+
+        static Result fromJSON(JSONObject json) {
+            Result retValue = new Result();
+            for (Operation op : Operation.values()) {
+                JSONObject opJSON = (JSONObject) json.get(op.name());
+                retValue.nanosPerOp[op.ordinal()] = ((Number) opJSON.get("nsPerOp")).doubleValue();
+                retValue.bytesPerOp[op.ordinal()] = ((Number) opJSON.get("bytesPerOp")).doubleValue();
+            }
+            retValue.recordedAgain = Boolean.TRUE.equals(json.get("recordedAgain"));
+            return retValue;
+        }
+    }
+
+    public static void main(String[] args) {
+        String mode = Utils.getArg(args, "mode", "check");
+        String tracesFile = Utils.getArg(args, "traces", "perf/traces.json");
+        String baselineFile = Utils.getArg(args, "baseline", "perf/baseline.json");
+        List<GameType> games = games(Utils.getArg(args, "game", "all"));
+        int warmup = Utils.getArg(args, "warmup", 1000);
+        int time = Utils.getArg(args, "time", 1000);
+        int iterations = Utils.getArg(args, "iterations", 10);
+        double threshold = Utils.getArg(args, "threshold", 0.2);
+        int forks = Utils.getArg(args, "forks", 3);
+
+        switch (mode) {
+            case "record" -> {
+                long seed = Utils.getArg(args, "seed", 42L);
+                int maxActions = Utils.getArg(args, "maxActions", MAX_ACTIONS);
+                Map<GameType, Trace> traces = new LinkedHashMap<>();
+                for (GameType game : games) {
+                    int nPlayers = Math.min(Math.max(2, game.getMinPlayers()), game.getMaxPlayers());
+                    try {
+                        Trace trace = record(game, nPlayers, seed, maxActions);
+                        // which fails if the game is not the same each time it is played with the same seed
+                        replay(trace, null);
+                        System.out.printf("Recorded %s with %d players: %d actions%n", game.name(), nPlayers, trace.actions().length);
+                        traces.put(game, trace);
+                    } catch (RuntimeException | AssertionError e) {
+                        System.out.printf("Unable to record %s: %s%n", game.name(), e);
+                    }
+                }
+                writeTraces(traces.values(), tracesFile);
+            }
+            case "baseline" -> {
+                Map<GameType, Trace> traces = readTraces(tracesFile, games);
+                Map<GameType, Result> results = forks > 0
+                        ? measureInForks(tracesFile, traces.keySet(), warmup, time, iterations, forks, System.out)
+                        : measure(traces, warmup, time, iterations, System.out);
+                writeResults(results, baselineFile);
+            }
+            case "check" -> {
+                Map<GameType, Trace> traces = readTraces(tracesFile, games);
+                Map<GameType, Result> results = forks > 0
+                        ? measureInForks(tracesFile, traces.keySet(), warmup, time, iterations, forks, System.out)
+                        : measure(traces, warmup, time, iterations, System.out);
+                Map<GameType, Result> baseline = readResults(baselineFile);
+                int failures = compare(results, baseline, threshold, System.out);
+                // the games that did not replay are failures too
+                failures += traces.size() - results.size();
+                System.out.printf("%d of %d games failed (threshold %.0f%%)%n", failures, traces.size(), threshold * 100);
+                System.exit(failures > 0 ? 1 : 0);
+            }
+            default -> throw new IllegalArgumentException("Unknown mode " + mode + " (should be record, baseline or check)");
+        }
+    }
+
+    // as the game argument of RunGames
+    private static List<GameType> games(String arg) {
+        List<String> names = Arrays.asList(arg.split("\\|"));
+        if (names.get(0).equals("all"))
+            return Arrays.stream(GameType.values()).filter(game -> !names.contains("-" + game.name())).toList();
+        return names.stream().map(GameType::valueOf).toList();
+    }
+
+    /**
+     * Plays a game with a random player (seeded with the same seed as the game), recording the actions taken
+     *
+     * @param maxActions the trace stops after this many actions, if the game has not ended
+     */
+    public static Trace record(GameType game, int nPlayers, long seed, int maxActions) {
+        Random rnd = new Random(seed);
+        List<Integer> actions = new ArrayList<>();
+        AbstractGameState state = play(game, nPlayers, seed, maxActions, available -> {
+            int choice = rnd.nextInt(available.size());
+            actions.add(choice);
+            return choice;
+        }, null);
+        return new Trace(game, nPlayers, seed, actions.stream().mapToInt(Integer::intValue).toArray(),
+                !state.isNotTerminal(), scores(state));
+    }
+
+    /**
+     * Replays a trace once, adding the time taken (in nanoseconds), the bytes allocated and the number of calls of
+     * each Operation to these totals (indexed by [operation][0, 1 or 2]).
+     *
+     * @throws AssertionError if the trace does not replay to the same end
+     */
+    public static void replay(Trace trace, long[][] totals) {
+        int[] next = {0};
+        AbstractGameState state = play(trace.game(), trace.nPlayers(), trace.seed(), trace.actions().length, available -> {
+            int choice = trace.actions()[next[0]];
+            if (choice >= available.size())
+                throw new AssertionError(String.format("Trace of %s no longer replays: action %d is %d, but only %d are available",
+                        trace.game().name(), next[0], choice, available.size()));
+            next[0]++;
+            return choice;
+        }, totals);
+        if (next[0] < trace.actions().length || state.isNotTerminal() == trace.terminal()
+                || !Arrays.equals(scores(state), trace.scores()))
+            throw new AssertionError(String.format("Trace of %s no longer replays: it ended after %d of %d actions with scores %s instead of %s",
+                    trace.game().name(), next[0], trace.actions().length, Arrays.toString(scores(state)), Arrays.toString(trace.scores())));
+    }
+
+    // The loop of Game.oneAction(), without the players. totals may be null if nothing is measured.
+    private static AbstractGameState play(GameType game, int nPlayers, long seed, int maxActions,
+                                          ToIntFunction<List<AbstractAction>> chooser, long[][] totals) {
+        Game instance = game.createGameInstance(nPlayers, seed);
+        AbstractForwardModel forwardModel = instance.getForwardModel();
+        AbstractGameState state = instance.getGameState();
+        for (int decision = 0; decision < maxActions && state.isNotTerminal(); decision++) {
+            long s = System.nanoTime(), b = allocatedBytes();
+            state.copy(state.getCurrentPlayer());
+            b = measured(totals, Operation.COPY, s, b);
+            s = System.nanoTime();
+            List<AbstractAction> available = forwardModel.computeAvailableActions(state);
+            b = measured(totals, Operation.COMPUTE_ACTIONS, s, b);
+            if (available.isEmpty())
+                throw new AssertionError("No actions available to player " + state.getCurrentPlayer() + " in " + game.name());
+            AbstractAction action = available.get(chooser.applyAsInt(available));
+            s = System.nanoTime();
+            b = allocatedBytes();
+            forwardModel.next(state, action);
+            measured(totals, Operation.NEXT, s, b);
+        }
+        return state;
+    }
+
+    // adds the time and allocation since the start of the operation to the totals, and returns the bytes allocated now
+    private static long measured(long[][] totals, Operation op, long startNanos, long startBytes) {
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = allocatedBytes();
+        if (totals != null) {
+            totals[op.ordinal()][0] += nanos;
+            totals[op.ordinal()][1] += bytes - startBytes;
+            totals[op.ordinal()][2]++;
+        }
+        return bytes;
+    }
+
+    private static long allocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    private static double[] scores(AbstractGameState state) {
+        double[] retValue = new double[state.getNPlayers()];
+        for (int p = 0; p < retValue.length; p++)
+            retValue[p] = state.getGameScore(p);
+        return retValue;
+    }
+
+    /**
+     * Replays the trace for warmupMillis, and then measures it for millis, in the given number of iterations (each of
+     * which replays the trace at least once).
+     *
+     * @return the median over the iterations of the ns/op and bytes/op of each Operation
+     */
+    public static Result measure(Trace trace, long warmupMillis, long millis, int iterations) {
+        if (iterations < 1)
+            throw new IllegalArgumentException("At least one iteration is needed, not " + iterations);
+        long end = System.nanoTime() + warmupMillis * 1_000_000;
+        do {
+            replay(trace, null);
+        } while (System.nanoTime() < end);
+        int nOps = Operation.values().length;
+        double[][] nanos = new double[nOps][iterations], bytes = new double[nOps][iterations];
+        for (int i = 0; i < iterations; i++) {
+            long[][] totals = new long[nOps][3];
+            end = System.nanoTime() + millis * 1_000_000 / iterations;
+            do {
+                replay(trace, totals);
+            } while (System.nanoTime() < end);
+            for (int op = 0; op < nOps; op++) {
+                long calls = Math.max(totals[op][2], 1);
+                nanos[op][i] = (double) totals[op][0] / calls;
+                bytes[op][i] = threadBean == null ? -1 : (double) totals[op][1] / calls;
+            }
+        }
+        Result retValue = new Result();
+        for (int op = 0; op < nOps; op++) {
+            retValue.nanosPerOp[op] = median(nanos[op]);
+            retValue.bytesPerOp[op] = median(bytes[op]);
+        }
+        return retValue;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
+    }
+
+    /**
+     * Measures each trace (as measure(Trace...)). A trace that no longer replays is recorded again from its seed, and
+     * its result marked as such: some games build their decks by iterating over a HashMap of enum constants, whose
+     * order changes from one JVM to the next, so are only the same with the same seed within one JVM. If even that
+     * does not replay, the game is reported, and is missing from the results.
+     */
+    public static Map<GameType, Result> measure(Map<GameType, Trace> traces, long warmupMillis, long millis, int iterations,
+                                                PrintStream out) {
+        Map<GameType, Result> retValue = new LinkedHashMap<>();
+        for (Trace trace : traces.values()) {
+            try {
+                retValue.put(trace.game(), measure(trace, warmupMillis, millis, iterations));
+            } catch (AssertionError e) {
+                out.printf("%s (recorded again from the seed)%n", e.getMessage());
+                try {
+                    Trace again = record(trace.game(), trace.nPlayers(), trace.seed(),
+                            trace.terminal() ? MAX_ACTIONS : trace.actions().length);
+                    Result result = measure(again, warmupMillis, millis, iterations);
+                    result.recordedAgain = true;
+                    retValue.put(trace.game(), result);
+                } catch (RuntimeException | AssertionError e2) {
+                    out.printf("FAIL %s: %s%n", trace.game().name(), e2.getMessage());
+                }
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Measures each game in fresh JVMs (running this class as this JVM does, with mode=baseline and forks=0), and takes
+     * the median of their results. This keeps the games from affecting each other's timings (through what the JIT
+     * compiler makes of the framework code they share), and evens out some of the variation from one JVM to the next.
+     *
+     * @param forks the number of JVMs for each game
+     */
+    public static Map<GameType, Result> measureInForks(String tracesFile, Collection<GameType> games, long warmupMillis,
+                                                       long millis, int iterations, int forks, PrintStream out) {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        // the same heap and other settings, but not a debugger, which would need the same port
+        ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .filter(arg -> !arg.startsWith("-agentlib:jdwp"))
+                .forEach(command::add);
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), ForwardModelBenchmark.class.getName()));
+        Map<GameType, Result> retValue = new LinkedHashMap<>();
+        for (GameType game : games) {
+            List<Result> results = new ArrayList<>();
+            for (int fork = 0; fork < forks; fork++) {
+                try {
+                    File output = File.createTempFile("ForwardModelBenchmark", ".json");
+                    List<String> forkCommand = new ArrayList<>(command);
+                    forkCommand.addAll(List.of("mode=baseline", "forks=0", "game=" + game.name(), "traces=" + tracesFile,
+                            "baseline=" + output.getPath(), "warmup=" + warmupMillis, "time=" + millis,
+                            "iterations=" + iterations));
+                    Process process = new ProcessBuilder(forkCommand).redirectErrorStream(true).start();
+                    String log = new String(process.getInputStream().readAllBytes());
+                    Result result = process.waitFor() == 0 ? readResults(output.getPath()).get(game) : null;
+                    output.delete();
+                    // the fork reports any trace that does not replay; the first fork is enough for this
+                    if (result == null || fork == 0)
+                        log.lines().filter(line -> !line.startsWith("Written ")).forEach(out::println);
+                    if (result != null)
+                        results.add(result);
+                } catch (IOException e) {
+                    throw new AssertionError("Unable to run a JVM to measure " + game.name(), e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AssertionError("Interrupted while measuring " + game.name(), e);
+                }
+            }
+            if (!results.isEmpty()) {
+                Result median = new Result();
+                for (int op = 0; op < Operation.values().length; op++) {
+                    int index = op;
+                    median.nanosPerOp[op] = median(results.stream().mapToDouble(r -> r.nanosPerOp[index]).toArray());
+                    median.bytesPerOp[op] = median(results.stream().mapToDouble(r -> r.bytesPerOp[index]).toArray());
+                }
+                median.recordedAgain = results.stream().anyMatch(r -> r.recordedAgain);
+                retValue.put(game, median);
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Prints the results against the baseline.
+     *
+     * @param threshold the fraction by which an operation can be slower (or allocate more) than the baseline
+     * @return the number of games that failed (games not in the baseline are reported, but do not fail)
+     */
+    public static int compare(Map<GameType, Result> results, Map<GameType, Result> baseline, double threshold, PrintStream out) {
+        int failures = 0;
+        out.printf("%-20s %-16s %12s %12s %8s %12s %12s %8s%n", "Game", "Operation", "ns/op", "baseline", "change",
+                "bytes/op", "baseline", "change");
+        for (Map.Entry<GameType, Result> entry : results.entrySet()) {
+            Result result = entry.getValue(), base = baseline.get(entry.getKey());
+            boolean failed = false;
+            for (Operation op : Operation.values()) {
+                if (base == null) {
+                    out.printf("%-20s %-16s %12.1f %12s %8s %12.1f %12s %8s%n", entry.getKey().name(), op, result.nanosPerOp(op),
+                            "-", "", result.bytesPerOp(op), "-", "");
+                    continue;
+                }
+                double timeChange = change(result.nanosPerOp(op), base.nanosPerOp(op));
+                double bytesChange = change(result.bytesPerOp(op), base.bytesPerOp(op));
+                boolean slower = timeChange > threshold || bytesChange > threshold;
+                failed |= slower;
+                out.printf("%-20s %-16s %12.1f %12.1f %+7.1f%% %12.1f %12.1f %+7.1f%%%s%n", entry.getKey().name(), op,
+                        result.nanosPerOp(op), base.nanosPerOp(op), timeChange * 100,
+                        result.bytesPerOp(op), base.bytesPerOp(op), bytesChange * 100,
+                        (slower ? "  FAIL" : "") + (result.recordedAgain ? "  (recorded again)" : ""));
+            }
+            if (failed)
+                failures++;
+        }
+        return failures;
+    }
+
+    private static double change(double value, double base) {
+        return base > 0 ? value / base - 1.0 : 0.0;
+    }
+
+    public static void writeTraces(Collection<Trace> traces, String fileName) {
+        // one trace to a line, rather than one action to a line
+        StringJoiner json = new StringJoiner(",\n", "{\n", "\n}\n");
+        for (Trace trace : traces)
+            json.add("\t\"" + trace.game().name() + "\" : " + trace.toJSON().toJSONString());
+        write(json.toString(), fileName);
+    }
+
+    /**
+     * @return the traces of these games in the file (with a warning for any game that has none)
+     */
+    public static Map<GameType, Trace> readTraces(String fileName, List<GameType> games) {
+        JSONObject json = JSONUtils.loadJSONFile(fileName);
+        Map<GameType, Trace> retValue = new LinkedHashMap<>();
+        for (GameType game : games) {
+            if (json.containsKey(game.name()))
+                retValue.put(game, Trace.fromJSON((JSONObject) json.get(game.name())));
+            else
+                System.out.printf("No trace of %s in %s%n", game.name(), fileName);
+        }
+        return retValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void writeResults(Map<GameType, Result> results, String fileName) {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<GameType, Result> entry : results.entrySet())
+            json.put(entry.getKey().name(), entry.getValue().toJSON());
+        write(JSONUtils.prettyPrint(json, 1) + "\n", fileName);
+    }
+
+    public static Map<GameType, Result> readResults(String fileName) {
+        JSONObject json = JSONUtils.loadJSONFile(fileName);
+        Map<GameType, Result> retValue = new LinkedHashMap<>();
+        for (Object key : json.keySet())
+            retValue.put(GameType.valueOf((String) key), Result.fromJSON((JSONObject) json.get(key)));
+        return retValue;
+    }
+
+    private static void write(String content, String fileName) {
+        File file = new File(fileName);
+        if (file.getParentFile() != null)
+            file.getParentFile().mkdirs();
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(content);
+        } catch (IOException e) {
+            throw new AssertionError("Unable to write " + fileName, e);
+        }
+        System.out.println("Written " + fileName);
+    }
+}
@@ -0,0 +1,261 @@
+package evaluation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves counters of a long run (RunGames or ParameterSearch, with the metricsPort argument) while it is running, in
+ * the Prometheus text format at http://localhost:port/metrics, so that it can be watched or scraped:
+ * <ul>
+ * <li>the games completed, and the mean games per second since the start</li>
+ * <li>the games, points and win rate (with a 95% confidence interval) of each agent in each tournament</li>
+ * <li>the number of NTBEA repeats completed, and the estimate of the best settings found so far</li>
+ * <li>JVM heap usage, and the garbage collections and time spent in them</li>
+ * </ul>
+ * The server only listens on the loopback address. The counters are LongAdders and DoubleAdders, so recording a game
+ * is a few uncontended increments; all the formatting is done on the server thread when it is scraped.
+ * <p>
+ * There is one of these for the whole process (as there is one port), available from get() once start() is called.
+ */
+public class LiveMetrics {
+
+    private static volatile LiveMetrics instance;
+
+    private final HttpServer server;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder gamesCompleted = new LongAdder();
+    private final ConcurrentMap<String, TournamentResults> tournaments = new ConcurrentHashMap<>();
+    private final AtomicInteger ntbeaRepeats = new AtomicInteger();
+    private volatile double ntbeaBest = Double.NaN, ntbeaBestStdErr = Double.NaN;
+    private volatile String ntbeaBestSettings = "";
+
+    private LiveMetrics(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    /**
+     * Starts the server (if it is not already running).
+     *
+     * @param port the port to listen on; 0 picks a free port (see getPort())
+     */
+    public static synchronized LiveMetrics start(int port) {
+        if (instance == null) {
+            try {
+                instance = new LiveMetrics(port);
+            } catch (IOException e) {
+                throw new AssertionError("Unable to start the metrics server on port " + port, e);
+            }
+            System.out.printf("Serving live metrics at http://localhost:%d/metrics%n", instance.getPort());
+        }
+        return instance;
+    }
+
+    /**
+     * @return the running server, or null if start() has not been called (so that callers can skip all recording)
+     */
+    public static LiveMetrics get() {
+        return instance;
+    }
+
+    /**
+     * Stops the server (if it is running). The server thread is not a daemon, so this must be called at the end of the
+     * run for the JVM to exit.
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.server.stop(0);
+            instance = null;
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void gameCompleted() {
+        gamesCompleted.increment();
+    }
+
+    public long getGamesCompleted() {
+        return gamesCompleted.sum();
+    }
+
+    /**
+     * @return the results of the agents in this tournament, to be updated as each game completes. This replaces any
+     * earlier tournament of the same game and player count.
+     */
+    public TournamentResults tournament(String game, int nPlayers, List<String> agentNames) {
+        TournamentResults retValue = new TournamentResults(game, nPlayers, agentNames);
+        tournaments.put(game + "_" + nPlayers, retValue);
+        return retValue;
+    }
+
+    /**
+     * Records the estimate (and its standard error) of the best settings found after each NTBEA repeat
+     */
+    public void ntbeaRepeatCompleted(double bestEstimate, double stdErr, String settings) {
+        ntbeaBestSettings = settings;
+        ntbeaBestStdErr = stdErr;
+        ntbeaBest = bestEstimate;
+        ntbeaRepeats.incrementAndGet();
+    }
+
+    public class TournamentResults {
+        final String game;
+        final int nPlayers;
+        final List<String> agentNames;
+        final LongAdder[] games;
+        final DoubleAdder[] points, pointsSquared;
+
+        TournamentResults(String game, int nPlayers, List<String> agentNames) {
+            this.game = game;
+            this.nPlayers = nPlayers;
+            this.agentNames = List.copyOf(agentNames);
+            games = new LongAdder[agentNames.size()];
+            points = new DoubleAdder[agentNames.size()];
+            pointsSquared = new DoubleAdder[agentNames.size()];
+            for (int i = 0; i < games.length; i++) {
+                games[i] = new LongAdder();
+                points[i] = new DoubleAdder();
+                pointsSquared[i] = new DoubleAdder();
+            }
+        }
+
+        public void gameCompleted() {
+            gamesCompleted.increment();
+        }
+
+        /**
+         * @param agent  the index of the agent in the list of names
+         * @param result the points the agent got in one game (1 for a win, a share of 1 for a draw)
+         */
+        public void record(int agent, double result) {
+            games[agent].increment();
+            if (result != 0.0) {
+                points[agent].add(result);
+                pointsSquared[agent].add(result * result);
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @return all the metrics, in the Prometheus text exposition format
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder();
+        long games = gamesCompleted.sum();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        header(sb, "tag_games_completed_total", "counter", "Games completed since the start");
+        sample(sb, "tag_games_completed_total", "", games);
+        header(sb, "tag_games_per_second", "gauge", "Mean games completed per second since the start");
+        sample(sb, "tag_games_per_second", "", seconds > 0 ? games / seconds : 0.0);
+
+        if (!tournaments.isEmpty()) {
+            // all the samples of each metric must follow its header
+            agentMetric(sb, "tag_agent_games_total", "counter", "Games played by each agent", 0);
+            agentMetric(sb, "tag_agent_points_total", "counter", "Points won by each agent (1 for a win, a share of 1 for a draw)", 1);
+            agentMetric(sb, "tag_agent_win_rate", "gauge", "Mean points per game of each agent", 2);
+            agentMetric(sb, "tag_agent_win_rate_lower", "gauge", "Lower bound of the 95% confidence interval of the win rate", 3);
+            agentMetric(sb, "tag_agent_win_rate_upper", "gauge", "Upper bound of the 95% confidence interval of the win rate", 4);
+        }
+
+        int repeats = ntbeaRepeats.get();
+        if (repeats > 0) {
+            header(sb, "tag_ntbea_repeats_completed", "gauge", "NTBEA repeats completed");
+            sample(sb, "tag_ntbea_repeats_completed", "", repeats);
+            String labels = "settings=\"" + escape(ntbeaBestSettings) + "\"";
+            header(sb, "tag_ntbea_best_estimate", "gauge", "Estimated value of the best settings found so far");
+            sample(sb, "tag_ntbea_best_estimate", labels, ntbeaBest);
+            header(sb, "tag_ntbea_best_estimate_stderr", "gauge", "Standard error of the best estimate");
+            sample(sb, "tag_ntbea_best_estimate_stderr", labels, ntbeaBestStdErr);
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        header(sb, "jvm_memory_heap_used_bytes", "gauge", "Heap in use");
+        sample(sb, "jvm_memory_heap_used_bytes", "", heap.getUsed());
+        header(sb, "jvm_memory_heap_committed_bytes", "gauge", "Heap committed");
+        sample(sb, "jvm_memory_heap_committed_bytes", "", heap.getCommitted());
+        header(sb, "jvm_memory_heap_max_bytes", "gauge", "Maximum heap size (-1 if undefined)");
+        sample(sb, "jvm_memory_heap_max_bytes", "", heap.getMax());
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        header(sb, "jvm_gc_collections_total", "counter", "Garbage collections by each collector");
+        for (GarbageCollectorMXBean gc : collectors)
+            sample(sb, "jvm_gc_collections_total", "gc=\"" + escape(gc.getName()) + "\"", Math.max(gc.getCollectionCount(), 0));
+        header(sb, "jvm_gc_collection_seconds_total", "counter", "Time spent in garbage collection by each collector");
+        for (GarbageCollectorMXBean gc : collectors)
+            sample(sb, "jvm_gc_collection_seconds_total", "gc=\"" + escape(gc.getName()) + "\"", Math.max(gc.getCollectionTime(), 0) / 1000.0);
+        return sb.toString();
+    }
+
+    // statistic is 0: games, 1: points, 2: win rate, 3: lower bound, 4: upper bound
+    private void agentMetric(StringBuilder sb, String name, String type, String help, int statistic) {
+        header(sb, name, type, help);
+        for (TournamentResults t : tournaments.values()) {
+            for (int i = 0; i < t.agentNames.size(); i++) {
+                long n = t.games[i].sum();
+                double total = t.points[i].sum();
+                if (statistic > 1 && n == 0)
+                    continue;
+                double mean = total / n;
+                double halfWidth = 1.96 * Math.sqrt(Math.max(t.pointsSquared[i].sum() / n - mean * mean, 0.0) / n);
+                double value = switch (statistic) {
+                    case 0 -> n;
+                    case 1 -> total;
+                    case 2 -> mean;
+                    case 3 -> Math.max(mean - halfWidth, 0.0);
+                    default -> Math.min(mean + halfWidth, 1.0);
+                };
+                sample(sb, name, "game=\"" + escape(t.game) + "\",players=\"" + t.nPlayers + "\",agent=\""
+                        + escape(t.agentNames.get(i)) + "\"", value);
+            }
+        }
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name);
+        if (!labels.isEmpty())
+            sb.append('{').append(labels).append('}');
+        sb.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            sb.append((long) value);
+        else
+            sb.append(value);
+        sb.append('\n');
+    }
+
+    // label values escape backslash, double-quote and line feed
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -4,6 +4,7 @@ import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.interfaces.*;
 import evaluation.listeners.*;
+import evaluation.loggers.ColumnarStatsLogger;
 import evaluation.loggers.FileStatsLogger;
 import evaluation.tournaments.RoundRobinTournament;
 import games.GameType;
@@ -40,6 +41,7 @@ public class ProgressiveLearner {
     String prefix;
     int elite;
     boolean verbose;
+    boolean binaryData;
     List<Integer> currentElite = new ArrayList<>();
 
     public ProgressiveLearner(String[] args) {
@@ -58,6 +60,7 @@ public class ProgressiveLearner {
         iterations = getArg(args, "iterations", 100);
         maxExplore = getArg(args, "explore", 0.0);
         verbose = getArg(args, "verbose", false);
+        binaryData = getArg(args, "binaryData", false);
         elite = getArg(args, "elite", iterations + 1);
         agentsPerGeneration = new AbstractPlayer[iterations];
         dataFilesByIteration = new String[iterations];
@@ -107,7 +110,9 @@ public class ProgressiveLearner {
                             "\tmatchups=      Defaults to 1. The number of games to play before the learning process is called.\n" +
                             "\titerations=    Stop after this number of learning iterations. Defaults to 100.\n" +
                             "\tfinalMatchups= The number of games to run in a final tournament between all agents. Defaults to 1000.\n" +
-                            "\telite=         The number of agents to keep in the tournament. Defaults to iterations.\n"
+                            "\telite=         The number of agents to keep in the tournament. Defaults to iterations.\n" +
+                            "\tbinaryData=    If true, the data for each iteration is recorded with ColumnarStatsLogger rather than as text.\n" +
+                            "\t               This is much smaller and quicker to read. Defaults to false.\n"
             );
             return;
         }
@@ -227,9 +232,9 @@ public class ProgressiveLearner {
         System.out.println("Explore = " + exploreEpsilon);
         randomExplorer.setEpsilon(exploreEpsilon);
 
-        String fileName = String.format("%s_%d.data", prefix, iter);
+        String fileName = String.format("%s_%d%s", prefix, iter, binaryData ? ColumnarStatsLogger.EXTENSION : ".data");
         dataFilesByIteration[iter] = fileName;
-        featureListener.setLogger(new FileStatsLogger(fileName, "\t", false));
+        featureListener.setLogger(binaryData ? new ColumnarStatsLogger(fileName, false) : new FileStatsLogger(fileName, "\t", false));
         tournament.addListener(featureListener);
         tournament.run();
 
@@ -22,6 +22,11 @@ public enum RunArg {
             "\t This may be useful if you want to use the same destDir for multiple experiments.",
             false,
             new Usage[]{Usage.RunGames}),
+    batchSize("The number of NTBEA candidate settings that are proposed and evaluated together at each step (default 1).\n" +
+            "\t With threads > 1 the games for each batch are played concurrently, and all the results are then\n" +
+            "\t added to the NTBEA model before the next batch is proposed.",
+            1,
+            new Usage[]{Usage.ParameterSearch}),
     budget("The budget to be used by all agent (if they support the IAnyTime interface). \n" +
             "\t If non-zero then this will override the value in any JSON definitions.\n",
             0,
@@ -30,6 +35,10 @@ public enum RunArg {
             "\t If false, then each player will be assigned a player type independently.",
             true,
             new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
+    checkpoint("If true (default false), then keep a Checkpoint.json in destDir with the progress of the run, so that it\n" +
+            "\t can be continued if it is interrupted (see resume). This requires the result cache (see resultCache).",
+            false,
+            new Usage[]{Usage.RunGames, Usage.SkillLadder}),
     config("The location of a JSON file from which to read the configuration. \n" +
             "\t If this is specified, then all other arguments are ignored.",
             "",
@@ -44,6 +53,13 @@ public enum RunArg {
             "\t If a seedFile is specified, then this is ignored.",
             0,
             new Usage[]{Usage.RunGames}),
+    earlyStop("(Optional) If greater than zero (e.g. 0.95), the confidence level used to stop playing games early.\n" +
+            "\t In a tournament (exhaustive or random mode) games are only played for matchups that include a pair of\n" +
+            "\t agents whose head-to-head results are not yet separated at this confidence, and the tournament stops\n" +
+            "\t once all pairs are separated. In NTBEA the recommendations from each repeat are raced against each other\n" +
+            "\t over (up to) evalGames each, and are dropped once they are confidently worse than the best.",
+            0.0,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     evalGames("The number of games to run with the best predicted setting to estimate its true value (default is 20% of NTBEA iterations)",
             -1,
             new Usage[]{Usage.ParameterSearch}),
@@ -97,12 +113,32 @@ public enum RunArg {
             "\t from the same set of games.",
             "metrics/MetricsGameListener.json",
             new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
+    listenerBackpressure("What to do when the listenerQueue is full: BLOCK (the default) waits for space, so the results\n" +
+            "\t are the same as running the metrics on the game thread; DROP drops the event, so the game never waits\n" +
+            "\t but data is lost (the start and end of each game are never dropped).",
+            "BLOCK",
+            new Usage[]{Usage.RunGames}),
+    listenerQueue("If greater than zero (default 0), then the metrics of a MetricsGameListener that only need the event\n" +
+            "\t are run on a separate thread, fed with snapshots of the game state by a queue of this size.\n" +
+            "\t Other metrics (and listeners) still run on the game thread.",
+            0,
+            new Usage[]{Usage.RunGames}),
+    listenerSpill("If greater than zero (default 0), then each metric of a MetricsGameListener keeps at most about this\n" +
+            "\t many rows in memory: at the end of a game with more, they are appended to a temporary file and added\n" +
+            "\t to running summaries, so that memory use does not grow with the number of games. The reports are the same.",
+            0,
+            new Usage[]{Usage.RunGames}),
     matchups("The total number of matchups to run in a tournament.\n" +
             "\tIf the mode is 'exhaustive', then this will be the maximum number of games run. TAG will divide\n" +
             "\tthis by the total number of permutations, and run an equal number of games for each permutation.\n" +
             "\tFor NTBEA this will be used as a final tournament between the recommended agents from each run.",
             1,
             new Usage[]{Usage.RunGames, Usage.ParameterSearch, Usage.SkillLadder}),
+    metricsPort("If greater than zero (default 0), then live counters of the run (games completed, the win rates of each agent,\n" +
+            "\t the best NTBEA estimate, and JVM memory and GC) are served in the Prometheus text format at\n" +
+            "\t http://localhost:metricsPort/metrics while it runs.",
+            0,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     mode("exhaustive|exhaustiveSP|random|sequential\n" +
             "\t 'exhaustive' will iterate exhaustively through every possible permutation: \n" +
             "\t every possible player in every possible position, and run an equal number of games'\n" +
@@ -112,12 +148,19 @@ public enum RunArg {
             "\t the same number of games in total. (Unless the number of agents is less than the number of players, \n" +
             "\t in which case self-play will be allowed.)\n" +
             "\t 'sequential' will run tournaments on a ONE_VS_ALL basis between each pair of agents.\n" +
+            "\t 'bandit' chooses each game from the results so far to identify the best topK agents (by their mean\n" +
+            "\t head-to-head score against each other agent) with as few games as possible. With earlyStop it stops\n" +
+            "\t once they are separated from the rest at that confidence.\n" +
             "\t If a focusPlayer is provided, then 'mode' is ignored.",
             "random",
             new Usage[]{Usage.RunGames}),
     multiplier("The multiplier for budget at each iteration of the SkillLadder process. \n",
             2,
             new Usage[]{Usage.SkillLadder}),
+    noCache("If true, then all tournament games are played, rather than taking the results of any identical games\n" +
+            "\t (same game, parameters, seed, and agents in each position) from resultCache (if that is set). Default is false.",
+            false,
+            new Usage[]{Usage.RunGames, Usage.SkillLadder}),
     nPlayers("The number of players in each game. Overrides playerRange.",
             -1,
             new Usage[]{Usage.ParameterSearch, Usage.RunGames}),
@@ -128,6 +171,13 @@ public enum RunArg {
             "\t If not specified, then a random player will be used.",
             "random",
             new Usage[]{Usage.ParameterSearch}),
+    pairedSeeds("If greater than zero (default 0), NTBEA uses paired evaluation with a fixed pool of this many game seeds.\n" +
+            "\t Each candidate setting plays the same seed, seat and opponents as the incumbent (the best setting found\n" +
+            "\t so far, starting with the first one tried), which plays each seed/seat combination just once, and the\n" +
+            "\t incumbent result is used as a control variate to reduce the noise in the candidate score (most useful\n" +
+            "\t for games with a lot of luck in the deal, and score-based heuristics). Not supported for MultiNTBEA.",
+            0,
+            new Usage[]{Usage.ParameterSearch}),
     playerDirectory("The directory containing agent JSON files for the competing Players\n" +
             "\t If not specified, this defaults to very basic OSLA, RND, RHEA and MCTS players.",
             "",
@@ -145,10 +195,22 @@ public enum RunArg {
     repeats("The number of times the whole process should be re-run, to find a single best recommendation ",
             1,
             new Usage[]{Usage.ParameterSearch}),
-    reportPeriod("(Optional) For random mode execution only, after how many games played results are reported.\n" +
-            "\t Defaults to the end of the tournament (-1)",
+    reportPeriod("(Optional) After how many games played the current rankings (win rate, ordinal position, and\n" +
+            "\t alpha-rank) are reported. Defaults to the end of the tournament only (-1)",
             -1,
             new Usage[]{Usage.RunGames}),
+    resultCache("(Optional) The file (in destDir, unless it is an absolute path) in which the results of tournament\n" +
+            "\t games are stored, so that they do not need to be played again when an experiment is re-run (see noCache).\n" +
+            "\t Games taken from the cache are not seen by listeners. If empty (the default), all games are played.",
+            "",
+            new Usage[]{Usage.RunGames, Usage.SkillLadder}),
+    resume("If true (default false), then continue an interrupted run from the Checkpoint.json in destDir (if there is one).\n" +
+            "\t The original run must have set checkpoint (which resuming implies). On resume the seed and time stamp\n" +
+            "\t directory of the original run are used, tournaments that had finished are skipped, and the games already\n" +
+            "\t played in the interrupted tournament are taken from the result cache. The run must use the same arguments.\n" +
+            "\t Listeners only see the games played after resuming.",
+            false,
+            new Usage[]{Usage.RunGames, Usage.SkillLadder}),
     searchSpace("The json-format file of the search space to use. No default.",
             "",
             new Usage[]{Usage.ParameterSearch}),
@@ -164,6 +226,12 @@ public enum RunArg {
     startBudget("The starting budget for the SkillLadder process. \n",
             8,
             new Usage[]{Usage.SkillLadder}),
+    threads("The number of threads to use to play games concurrently (default 1).",
+            1,
+            new Usage[]{Usage.ParameterSearch}),
+    topK("In 'bandit' mode, the number of best agents to identify (default 1).",
+            1,
+            new Usage[]{Usage.RunGames}),
     tuneGame("If true, then we will tune the game instead of tuning the agent.\n" +
             "\tIn this case the searchSpace file must be relevant for the game.",
             false,
@@ -181,7 +249,19 @@ public enum RunArg {
             new Usage[]{Usage.ParameterSearch}),
     verbose("If true, then the result of each game is reported. Default is false.",
             false,
-            new Usage[]{Usage.RunGames, Usage.ParameterSearch});
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
+    workerTimeout("The time (in seconds) that a worker (see workers) can take over one game before it is stopped, and\n" +
+            "\t the game abandoned (the time for its first game includes starting up). Default is 3600; 0 for no limit.",
+            3600,
+            new Usage[]{Usage.RunGames}),
+    workers("If greater than zero, then the games of each tournament are played by this many separate worker JVMs\n" +
+            "\t on this machine (default 0, to play them all in this one). Each worker is started with the same\n" +
+            "\t arguments, and runs its own listeners. The rows of the metrics of each MetricsGameListener are then\n" +
+            "\t added to those of the main process, which reports them as if it had played all the games; any other\n" +
+            "\t listeners write their output to a Worker_N subdirectory. If a worker fails, its unfinished games are\n" +
+            "\t played by the others (see also workerTimeout). Not supported with earlyStop.",
+            0,
+            new Usage[]{Usage.RunGames});
 
     public final String helpText;
     public final Object defaultValue;
@@ -4,8 +4,12 @@ import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.interfaces.IGameRunner;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsEventQueue;
+import evaluation.listeners.MetricsGameListener;
 import evaluation.tournaments.RoundRobinTournament;
 import evaluation.tournaments.SkillGrid;
+import evaluation.tournaments.TournamentCheckpoint;
+import evaluation.tournaments.TournamentWorkers;
 import games.GameType;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -40,11 +44,12 @@ public class RunGames implements IGameRunner {
     Map<GameType, int[]> gamesAndPlayerCounts;
     private LinkedList<AbstractPlayer> agents;
     private String timeDir;
+    // the command line arguments, which are passed on to any workers
+    private String[] args;
 
     /**
      * Main function, creates and runs the tournament with the given settings and players.
      */
-    @SuppressWarnings({"ConstantConditions"})
     public static void main(String[] args) {
         List<String> argsList = Arrays.asList(args);
         if (argsList.contains("--help") || argsList.contains("-h")) {
@@ -52,8 +57,39 @@ public class RunGames implements IGameRunner {
             return;
         }
 
+        RunGames runGames = fromArgs(args);
+
+        // 3. Run!
+        if ((int) runGames.config.get(metricsPort) > 0)
+            LiveMetrics.start((int) runGames.config.get(metricsPort));
+        try {
+            if (runGames.config.get(mode).equals("sequential")) {
+                SkillGrid main = new SkillGrid(runGames.agents, runGames.config);
+                main.run();
+            } else {
+                runGames.run();
+            }
+        } finally {
+            LiveMetrics.stop();
+        }
+    }
+
+    /**
+     * Sets up the tournament settings and players from the command line arguments.
+     * This is used both by main(), and by each TournamentWorker to create the same agents.
+     */
+    public static RunGames fromArgs(String[] args) {
+        return fromArgs(args, new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date()));
+    }
+
+    /**
+     * @param timeDir the subdirectory used for listener output if addTimeStamp is set
+     */
+    @SuppressWarnings({"ConstantConditions"})
+    public static RunGames fromArgs(String[] args, String timeDir) {
         /* 1. Settings for the tournament */
         RunGames runGames = new RunGames();
+        runGames.args = args;
         runGames.config = parseConfig(args, Collections.singletonList(Usage.RunGames));
 
         String setupFile = runGames.config.getOrDefault(RunArg.config, "").toString();
@@ -96,53 +132,90 @@ public class RunGames implements IGameRunner {
             agents.add(0, fp);  // convention is that they go first in the list of agents
         }
 
-        runGames.timeDir = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
-
-        // 3. Run!
-        if (runGames.config.get(mode).equals("sequential")) {
-            SkillGrid main = new SkillGrid(agents, runGames.config);
-            main.run();
-        } else {
-            runGames.run();
-        }
+        runGames.timeDir = timeDir;
+        return runGames;
     }
 
 
     @Override
     public void run() {
+        int nWorkers = (int) config.get(workers);
+        if (nWorkers > 0 && args == null)
+            throw new IllegalArgumentException("Workers can only be used when RunGames is created from command line arguments");
+        TournamentCheckpoint checkpoint = TournamentCheckpoint.open(config, timeDir);
+        if (checkpoint != null)
+            timeDir = checkpoint.getTimeDir();
         // Now we loop over each game and player count combination
         for (GameType gameType : gamesAndPlayerCounts.keySet()) {
             String gameName = gameType.name();
             //     timeDir.insert(0, gameName + "_");
 
             for (int playerCount : gamesAndPlayerCounts.get(gameType)) {
+                String tournamentName = gameName + "_" + playerCount;
+                if (checkpoint != null && checkpoint.isCompleted(tournamentName)) {
+                    System.out.printf("Game: %s, Players: %d already completed\n", gameName, playerCount);
+                    continue;
+                }
                 System.out.printf("Game: %s, Players: %d\n", gameName, playerCount);
-                String playersDir = playerCount + "-players";
-
-                AbstractParameters params = config.get(gameParams).equals("") ? null : AbstractParameters.createFromFile(gameType, (String) config.get(gameParams));
-
-                RoundRobinTournament tournament = new RoundRobinTournament(agents, gameType, playerCount, params, config);
-
-                // Add listeners
-                //noinspection unchecked
-                for (String listenerClass : ((List<String>) config.get(listener))) {
-                    IGameListener gameTracker = IGameListener.createListener(listenerClass);
-                    tournament.addListener(gameTracker);
-                    String outputDir = (String) config.get(destDir);
-                    List<String> directories = new ArrayList<>(Arrays.asList(outputDir.split(Pattern.quote(File.separator))));
-                    if (gamesAndPlayerCounts.size() > 1)
-                        directories.add(gameName);
-                    if (gamesAndPlayerCounts.get(gameType).length > 1)
-                        directories.add(playersDir);
-                    if ((boolean) config.get(addTimeStamp))
-                        directories.add(timeDir);
-                    gameTracker.setOutputDirectory(directories.toArray(new String[0]));
+
+                if (nWorkers > 0) {
+                    // the listeners are run by the workers, as they see the games, and their metrics then added to ours
+                    RoundRobinTournament tournament = createTournament(gameType, playerCount, true);
+                    tournament.setCheckpoint(checkpoint, tournamentName);
+                    List<List<String>> commands = new ArrayList<>();
+                    for (int w = 0; w < nWorkers; w++)
+                        commands.add(TournamentWorkers.workerCommand(gameType, playerCount, w, timeDir, args));
+                    long timeout = (int) config.get(workerTimeout) * 1000L;
+                    try (TournamentWorkers tournamentWorkers = new TournamentWorkers(commands, timeout)) {
+                        tournament.setWorkers(tournamentWorkers);
+                        tournament.run();
+                    }
+                } else {
+                    // run tournament
+                    RoundRobinTournament tournament = createTournament(gameType, playerCount, true);
+                    tournament.setCheckpoint(checkpoint, tournamentName);
+                    tournament.run();
                 }
+            }
+        }
+    }
+
+
+    /**
+     * Creates the tournament for one game and player count, with listeners if required.
+     *
+     * @param subDirectories added to the output directory of the listeners
+     */
+    public RoundRobinTournament createTournament(GameType gameType, int playerCount, boolean withListeners, String... subDirectories) {
+        String playersDir = playerCount + "-players";
+
+        AbstractParameters params = config.get(gameParams).equals("") ? null : AbstractParameters.createFromFile(gameType, (String) config.get(gameParams));
+
+        RoundRobinTournament tournament = new RoundRobinTournament(agents, gameType, playerCount, params, config);
 
-                // run tournament
-                tournament.run();
+        // Add listeners
+        //noinspection unchecked
+        for (String listenerClass : withListeners ? ((List<String>) config.get(listener)) : Collections.<String>emptyList()) {
+            if (listenerClass.isEmpty()) continue;
+            IGameListener gameTracker = IGameListener.createListener(listenerClass);
+            if (gameTracker instanceof MetricsGameListener metricsListener) {
+                metricsListener.setAsync((int) config.get(listenerQueue),
+                        MetricsEventQueue.Backpressure.valueOf(((String) config.get(listenerBackpressure)).toUpperCase()));
+                metricsListener.setSpillRows((int) config.get(listenerSpill));
             }
+            tournament.addListener(gameTracker);
+            String outputDir = (String) config.get(destDir);
+            List<String> directories = new ArrayList<>(Arrays.asList(outputDir.split(Pattern.quote(File.separator))));
+            if (gamesAndPlayerCounts.size() > 1)
+                directories.add(gameType.name());
+            if (gamesAndPlayerCounts.get(gameType).length > 1)
+                directories.add(playersDir);
+            if ((boolean) config.get(addTimeStamp))
+                directories.add(timeDir);
+            directories.addAll(Arrays.asList(subDirectories));
+            gameTracker.setOutputDirectory(directories.toArray(new String[0]));
         }
+        return tournament;
     }
 
     private void initialiseGamesAndPlayerCount() {
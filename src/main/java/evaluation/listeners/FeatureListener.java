@@ -3,13 +3,13 @@ package evaluation.listeners;
 import core.*;
 import core.actions.AbstractAction;
 import core.interfaces.IStatisticLogger;
+import evaluation.loggers.ColumnarStatsLogger;
 import evaluation.loggers.FileStatsLogger;
 import evaluation.metrics.Event;
 import utilities.Utils;
 
 import java.io.File;
 import java.util.*;
-import java.util.stream.IntStream;
 
 import static evaluation.metrics.IDataLogger.ReportDestination.ToBoth;
 import static evaluation.metrics.IDataLogger.ReportDestination.ToFile;
@@ -28,6 +28,14 @@ public abstract class FeatureListener implements IGameListener {
     IStatisticLogger logger;
     Game game;
 
+    // The states recorded by processState() in the current game are held as rows of the standard columns
+    // (GameID, Player, Round, Turn, CurrentScore, features..., PlayerCount, TotalRounds, TotalTurns, TotalTicks,
+    // Win, Ordinal, FinalScore) in a buffer that is reused from game to game, so that recording a state creates no
+    // garbage. The columns that are only known at the end of the game are filled in by writeDataWithStandardHeaders().
+    private String[] columnNames;
+    private double[] rows = new double[0];
+    private int nRows;
+
     protected FeatureListener(Event.GameEvent frequency, boolean currentPlayerOnly) {
         this.currentPlayerOnly = currentPlayerOnly;
         this.frequency = frequency;
@@ -37,6 +45,15 @@ public abstract class FeatureListener implements IGameListener {
         this.logger = logger;
     }
 
+    /**
+     * @return a ColumnarStatsLogger if the file has its extension, otherwise a FileStatsLogger (tab-separated text)
+     */
+    protected static IStatisticLogger createLogger(String fileName) {
+        if (fileName.endsWith(ColumnarStatsLogger.EXTENSION))
+            return new ColumnarStatsLogger(fileName);
+        return new FileStatsLogger(fileName);
+    }
+
     @Override
     public void onEvent(Event event) {
 
@@ -59,25 +76,48 @@ public abstract class FeatureListener implements IGameListener {
 
         if (logger instanceof FileStatsLogger fileLogger) {
             fileLogger.setOutPutDirectory(nestedDirectories);
+        } else if (logger instanceof ColumnarStatsLogger columnarLogger) {
+            columnarLogger.setOutPutDirectory(nestedDirectories);
         }
         return true;
     }
 
     protected void writeDataWithStandardHeaders(AbstractGameState state) {
         int totP = state.getNPlayers();
-        double[] finalScores = IntStream.range(0, totP).mapToDouble(state::getGameScore).toArray();
-        double[] winLoss = Arrays.stream(state.getPlayerResults()).mapToDouble(r -> {
-            switch (r) {
-                case WIN_GAME:
-                    return 1.0;
-                case DRAW_GAME:
-                    return 0.5;
-                default:
-                    return 0.0;
-            }
-        }).toArray();
-        double[] ordinal = IntStream.range(0, totP).mapToDouble(state::getOrdinalPosition).toArray();
+        double[] finalScores = new double[totP];
+        double[] winLoss = new double[totP];
+        double[] ordinal = new double[totP];
+        for (int p = 0; p < totP; p++) {
+            finalScores[p] = state.getGameScore(p);
+            winLoss[p] = switch (state.getPlayerResults()[p]) {
+                case WIN_GAME -> 1.0;
+                case DRAW_GAME -> 0.5;
+                default -> 0.0;
+            };
+            ordinal[p] = state.getOrdinalPosition(p);
+        }
         double finalRound = state.getRoundCounter();
+        double playerCount = getGame().getPlayers().size();
+
+        if (nRows > 0) {
+            int width = columnNames.length;
+            for (int r = 0; r < nRows; r++) {
+                int start = r * width;
+                int player = (int) rows[start + 1];
+                rows[start] = state.getGameID();
+                rows[start + width - 7] = playerCount;
+                rows[start + width - 6] = finalRound;
+                rows[start + width - 5] = state.getTurnCounter();
+                rows[start + width - 4] = state.getGameTick();
+                rows[start + width - 3] = winLoss[player];
+                rows[start + width - 2] = ordinal[player];
+                rows[start + width - 1] = finalScores[player];
+            }
+            logger.record(columnNames, rows, nRows);
+            nRows = 0;
+        }
+
+        String[] names = currentData.isEmpty() ? null : names();
         for (StateFeatureListener.LocalDataWrapper record : currentData) {
             // we use a LinkedHashMap so that the order of the keys is preserved, and hence the
             // data is written to file in a sensible order for human viewing
@@ -88,9 +128,9 @@ public abstract class FeatureListener implements IGameListener {
             data.put("Turn", (double) record.gameTurn);
             data.put("CurrentScore", record.currentScore);
             for (int i = 0; i < record.array.length; i++) {
-                data.put(names()[i], record.array[i]);
+                data.put(names[i], record.array[i]);
             }
-            data.put("PlayerCount", (double) getGame().getPlayers().size());
+            data.put("PlayerCount", playerCount);
             data.put("TotalRounds", finalRound);
             data.put("TotalTurns", (double) state.getTurnCounter());
             data.put("TotalTicks", (double) state.getGameTick());
@@ -125,6 +165,17 @@ public abstract class FeatureListener implements IGameListener {
 
     public abstract double[] extractFeatureVector(AbstractAction action, AbstractGameState state, int perspectivePlayer);
 
+    /**
+     * As extractFeatureVector(), but writing the features into buffer from offset onwards (with room for names().length
+     * values). This is what processState() uses, and subclasses should override it to avoid creating a new array.
+     */
+    public void extractFeatureVector(AbstractAction action, AbstractGameState state, int perspectivePlayer, double[] buffer, int offset) {
+        double[] features = extractFeatureVector(action, state, perspectivePlayer);
+        if (features.length != columnNames.length - 12)
+            throw new AssertionError("Feature vector has " + features.length + " values, but there are " + (columnNames.length - 12) + " names");
+        System.arraycopy(features, 0, buffer, offset, features.length);
+    }
+
 
     /**
      * this takes in the raw JSON string of an agent definition, and applies appropriate
@@ -140,17 +191,36 @@ public abstract class FeatureListener implements IGameListener {
     public void processState(AbstractGameState state, AbstractAction action) {
         // we record one state for each player after each relevant event occurs
         if (currentPlayerOnly && state.isNotTerminal()) {
-            int p = state.getCurrentPlayer();
-            double[] phi = extractFeatureVector(action, state, p);
-            currentData.add(new StateFeatureListener.LocalDataWrapper(p, phi, state, new HashMap<>()));
+            recordState(state, action, state.getCurrentPlayer());
         } else {
             for (int p = 0; p < state.getNPlayers(); p++) {
-                double[] phi = extractFeatureVector(action, state, p);
-                currentData.add(new StateFeatureListener.LocalDataWrapper(p, phi, state, new HashMap<>()));
+                recordState(state, action, p);
             }
         }
     }
 
+    private void recordState(AbstractGameState state, AbstractAction action, int player) {
+        if (columnNames == null) {
+            // names() may create a new array each time, so we only call it once
+            String[] names = names();
+            columnNames = new String[names.length + 12];
+            System.arraycopy(new String[]{"GameID", "Player", "Round", "Turn", "CurrentScore"}, 0, columnNames, 0, 5);
+            System.arraycopy(names, 0, columnNames, 5, names.length);
+            System.arraycopy(new String[]{"PlayerCount", "TotalRounds", "TotalTurns", "TotalTicks", "Win", "Ordinal", "FinalScore"},
+                    0, columnNames, names.length + 5, 7);
+        }
+        int width = columnNames.length;
+        if ((nRows + 1) * width > rows.length)
+            rows = Arrays.copyOf(rows, Math.max(rows.length * 2, width * 64));
+        int start = nRows * width;
+        rows[start + 1] = player;
+        rows[start + 2] = state.getRoundCounter();
+        rows[start + 3] = state.getTurnCounter();
+        rows[start + 4] = state.getGameScore(player);
+        extractFeatureVector(action, state, player, rows, start + 5);
+        nRows++;
+    }
+
     // To avoid incessant boxing / unboxing if we were to use Double
     static class LocalDataWrapper {
         final int player;
@@ -0,0 +1,161 @@
+package evaluation.listeners;
+
+import core.interfaces.IGameEvent;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.Event;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static evaluation.metrics.Event.GameEvent.GAME_OVER;
+
+/**
+ * Runs some of the metrics of a MetricsGameListener on another thread, so that they do not slow down the game.
+ * <p>
+ * The game thread publishes each event that these metrics listen to, with a snapshot of the state (as the game then
+ * carries on), to a bounded queue. This is consumed in order by a single thread, so each metric sees the same events
+ * in the same order as when it is run on the game thread, and records the same data.
+ * Only metrics that can run on a snapshot are run here (see {@link AbstractMetric#canRunAsync()}); the others read
+ * the live Game, and so are still run by the listener on the game thread.
+ * <p>
+ * When the queue is full the game thread either waits for space (BLOCK), which keeps the results the same as running
+ * synchronously; or drops the event (DROP), which never slows the game down, but loses data. ABOUT_TO_START and
+ * GAME_OVER are never dropped.
+ */
+public class MetricsEventQueue {
+
+    public enum Backpressure {
+        BLOCK, DROP
+    }
+
+    final MetricsGameListener listener;
+    final List<AbstractMetric> metrics;
+    final Set<IGameEvent> eventsOfInterest = new HashSet<>();
+    final ArrayBlockingQueue<Event> queue;
+    final Backpressure backpressure;
+
+    Thread consumer;
+    // guarded by this; the consumer notifies when it catches up
+    long published, processed;
+    long dropped;
+    volatile Throwable failure;
+
+    public MetricsEventQueue(MetricsGameListener listener, List<AbstractMetric> metrics, int capacity, Backpressure backpressure) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity of the event queue must be at least 1");
+        this.listener = listener;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.backpressure = backpressure;
+        for (AbstractMetric metric : metrics)
+            eventsOfInterest.addAll(metric.getEventTypes());
+        eventsOfInterest.add(GAME_OVER);
+    }
+
+    /**
+     * Called on the game thread. The event is copied (if any of the metrics here listen to it), so the caller can
+     * carry on changing the state.
+     */
+    public void publish(Event event) {
+        checkFailure();
+        if (!eventsOfInterest.contains(event.type))
+            return;
+        boolean oncePerGame = event.type instanceof Event.GameEvent && ((Event.GameEvent) event.type).isOncePerGame();
+        // we are the only producer, so if there is space now then there will still be space after copying the state
+        if (backpressure == Backpressure.DROP && !oncePerGame && queue.remainingCapacity() == 0) {
+            dropped++;
+            return;
+        }
+        Event snapshot = Event.createEvent(event.type,
+                event.state == null ? null : event.state.snapshot(),
+                event.action == null ? null : event.action.copy(),
+                event.playerID);
+        if (consumer == null) {
+            consumer = new Thread(this::consume, "MetricsEventQueue");
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+        synchronized (this) {
+            published++;
+        }
+        try {
+            queue.put(snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while waiting for space in the metrics event queue");
+        }
+    }
+
+    private void consume() {
+        while (true) {
+            Event event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            // once a metric has failed we just discard events, so that flush() returns and reports the failure
+            if (failure == null) {
+                try {
+                    for (AbstractMetric metric : metrics) {
+                        if (metric.listens(event.type))
+                            metric.run(listener, event);
+                        if (event.type == GAME_OVER)
+                            metric.notifyGameOver();
+                    }
+                } catch (Throwable t) {
+                    failure = t;
+                }
+            }
+            synchronized (this) {
+                processed++;
+                if (processed == published)
+                    notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until all the events published so far have been processed (after which the metrics can be safely read,
+     * reset or reported on the calling thread).
+     */
+    public synchronized void flush() {
+        while (processed < published) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted while waiting for the metrics event queue to empty");
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * Flushes the queue, and stops the consumer thread (a new one is started if more events are published).
+     */
+    public void close() {
+        flush();
+        if (consumer != null) {
+            consumer.interrupt();
+            consumer = null;
+        }
+    }
+
+    /**
+     * @return the number of events dropped as the queue was full (with Backpressure.DROP)
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    private void checkFailure() {
+        Throwable t = failure;
+        if (t != null) {
+            failure = null;
+            throw new AssertionError("Metric failed on the metrics event queue : " + t, t);
+        }
+    }
+}
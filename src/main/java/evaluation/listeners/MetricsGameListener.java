@@ -45,6 +45,9 @@ public class MetricsGameListener implements IGameListener {
     // Destination directory for the reports
     String destDir = "metrics/out/"; //by default
 
+    // If set, the metrics that can run asynchronously are run on its thread rather than the game thread
+    MetricsEventQueue eventQueue;
+
     public MetricsGameListener() {
     }
 
@@ -78,10 +81,15 @@ public class MetricsGameListener implements IGameListener {
         if (!eventsOfInterest.contains(event.type))
             return;
 
+        if (eventQueue != null)
+            eventQueue.publish(event);
+
         // Use of LinkedHashMap so that data is stored in the same order it is listed in the json config file
 
         for (String attrStr : metrics.keySet()) {
             AbstractMetric metric = metrics.get(attrStr);
+            if (eventQueue != null && metric.canRunAsync())
+                continue;
             if (metric.listens(event.type)) {
                 // Apply metric
                 metric.run(this, event);
@@ -92,6 +100,42 @@ public class MetricsGameListener implements IGameListener {
         }
     }
 
+    /**
+     * Runs the metrics that can do so (see {@link AbstractMetric#canRunAsync()}) on a separate thread, which is fed
+     * with snapshots of the events by a bounded queue (see {@link MetricsEventQueue}).
+     *
+     * @param capacity     the size of the queue; or 0 to run all metrics synchronously on the game thread
+     * @param backpressure what to do when the queue is full
+     */
+    public void setAsync(int capacity, MetricsEventQueue.Backpressure backpressure) {
+        if (eventQueue != null)
+            eventQueue.close();
+        List<AbstractMetric> asyncMetrics = metrics.values().stream().filter(AbstractMetric::canRunAsync).toList();
+        eventQueue = capacity == 0 || asyncMetrics.isEmpty() ? null :
+                new MetricsEventQueue(this, asyncMetrics, capacity, backpressure);
+    }
+
+    /**
+     * Keeps at most about this many rows of each metric in memory, spilling the rest to file (see
+     * {@link DataTableSaw#setSpillRows(int)}), so that the memory used does not grow with the number of games.
+     *
+     * @param spillRows the number of rows; or 0 to keep all rows in memory
+     */
+    public void setSpillRows(int spillRows) {
+        for (AbstractMetric metric : metrics.values()) {
+            if (metric.getDataLogger() instanceof DataTableSaw dataTableSaw)
+                dataTableSaw.setSpillRows(spillRows);
+        }
+    }
+
+    /**
+     * Waits for any metrics running asynchronously to process all events so far.
+     */
+    protected void flushEvents() {
+        if (eventQueue != null)
+            eventQueue.flush();
+    }
+
     @Override
     public boolean setOutputDirectory(String... nestedDirectories) {
 
@@ -101,10 +145,50 @@ public class MetricsGameListener implements IGameListener {
             // If the "metrics/out/" does not exist, create it
             String folder = Utils.createDirectory(nestedDirectories);
             destDir = new File(folder).getAbsolutePath() + File.separator;
+        } else {
+            // nothing is reported to file, but the rows may still be written there by writeRows()
+            destDir = new File(String.join(File.separator, nestedDirectories)).getAbsolutePath() + File.separator;
         }
         return success;
     }
 
+    public String getOutputDirectory() {
+        return destDir;
+    }
+
+    /**
+     * Writes the rows recorded by each metric to a csv file (named after the metric) in the output directory, rather
+     * than reporting them. This is used by a TournamentWorker, so that the main process can add the rows of all the
+     * workers to its own listener with addRows(), and report them together.
+     */
+    public void writeRows() {
+        flushEvents();
+        new File(destDir).mkdirs();
+        for (AbstractMetric metric : metrics.values()) {
+            if (metric.getDataLogger() instanceof DataTableSaw dataTableSaw)
+                dataTableSaw.writeRows(new File(destDir, metric.getName() + ".csv"));
+        }
+    }
+
+    /**
+     * Adds the rows written by writeRows() in the given directory (by the same listener in another process), as if
+     * the games had been seen by this listener. Their GameIDs are renumbered to follow the highest GameID here, so
+     * that the games of each process stay distinct (and the same game has the same GameID in every metric).
+     */
+    public void addRows(String directory) {
+        flushEvents();
+        int gameIDOffset = 0;
+        for (AbstractMetric metric : metrics.values()) {
+            if (metric.getDataLogger() instanceof DataTableSaw dataTableSaw)
+                gameIDOffset = Math.max(gameIDOffset, dataTableSaw.lastGameID());
+        }
+        for (AbstractMetric metric : metrics.values()) {
+            File file = new File(directory, metric.getName() + ".csv");
+            if (metric.getDataLogger() instanceof DataTableSaw dataTableSaw && file.exists())
+                dataTableSaw.addRows(file, gameIDOffset);
+        }
+    }
+
     /**
      * This is called when all processing is finished, for example after running a sequence of games
      * As such, no state is provided.
@@ -112,6 +196,11 @@ public class MetricsGameListener implements IGameListener {
      * This is useful for Listeners that are just interested in aggregate data across many runs
      */
     public void report() {
+        if (eventQueue != null) {
+            eventQueue.close();
+            if (eventQueue.getDropped() > 0)
+                System.out.printf("%d events were dropped by the metrics event queue%n", eventQueue.getDropped());
+        }
         boolean success = true;
 
         if (reportDestinations.contains(ToFile) || reportDestinations.contains(ToBoth)) {
@@ -175,6 +264,7 @@ public class MetricsGameListener implements IGameListener {
     }
 
     public void reset() {
+        flushEvents();
         for (AbstractMetric metric : metrics.values()) {
             metric.reset();
         }
@@ -182,6 +272,7 @@ public class MetricsGameListener implements IGameListener {
 
     @Override
     public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        flushEvents();
         this.game = game;
 
         for (AbstractMetric metric : metrics.values()) {
@@ -31,6 +31,7 @@ public class TournamentMetricsGameListener extends MetricsGameListener {
     }
 
     public void tournamentInit(Game game, int nPlayersPerGame, Set<String> playerNames, Set<AbstractPlayer> matchup) {
+        flushEvents();
         for (AbstractMetric metric : metrics.values()) {
             TournamentMetric tournamentMetric = (TournamentMetric) metric;
             tournamentMetric.tournamentInit(game, nPlayersPerGame, playerNames, matchup);
@@ -0,0 +1,441 @@
+package evaluation.loggers;
+
+import core.interfaces.IStatisticLogger;
+import evaluation.summarisers.TAGOccurrenceStatSummary;
+import evaluation.summarisers.TAGStatSummary;
+import utilities.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+
+/**
+ * Logs the same data as FileStatsLogger (one row per call of record(Map)), but to a compact binary file, which is
+ * much faster to write and to read back (see players.learners.ColumnarDataReader, which can also convert it to the
+ * tab-separated text that FileStatsLogger would have written).
+ * <p>
+ * The columns, and their types, are fixed by the first record: integers (Integer/Long) are stored as longs, other
+ * numbers as doubles, and anything else as strings (with TAGOccurrenceStatSummary and Maps converted as by
+ * FileStatsLogger). Missing values are stored as NA.
+ * <p>
+ * The file is a header, followed by blocks of up to blockRows rows. Each block stores each column separately, as an
+ * array of primitives compressed with Deflate:
+ * <pre>
+ * header: int MAGIC, int VERSION, int nColumns, then for each column: byte type, int nameLength, UTF-8 name
+ * block:  int nRows, then for each column: int rawLength, int compressedLength, compressed bytes
+ * </pre>
+ * A block is written when it is full, and whenever processDataAndNotFinish() is called (e.g. at the end of each
+ * game by a FeatureListener).
+ */
+public class ColumnarStatsLogger implements IStatisticLogger {
+
+    public static final int MAGIC = 0x54414743; // "TAGC"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".tcol";
+    // R's NA, which is a NaN that can be told apart from the result of a calculation
+    public static final long NA_DOUBLE_BITS = 0x7ff00000000007a2L;
+    public static final long NA_LONG = Long.MIN_VALUE;
+
+    public enum ColumnType {
+        LONG, DOUBLE, STRING
+    }
+
+    public record Column(String name, ColumnType type) {
+    }
+
+    public static int blockRows = 4096;
+
+    private String fileName;
+    private String actionName;
+    private final boolean append;
+    private FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private List<Column> columns;
+    private Map<String, Integer> columnIndex;
+    private long[][] longValues;
+    private double[][] doubleValues;
+    private String[][] stringValues;
+    private int rows;
+    // which of the keys passed to record(String[], double[], int) is in each column (or -1)
+    private String[] rowKeys;
+    private int[] rowColumns;
+
+    /**
+     * @param fileName The full location of the file to write results to
+     * @param append   If true, and the file exists, then new rows are added to it (which must have the same columns)
+     */
+    public ColumnarStatsLogger(String fileName, boolean append) {
+        this.fileName = fileName;
+        this.append = append;
+    }
+
+    public ColumnarStatsLogger(String fileName) {
+        this(fileName, true);
+    }
+
+    public void setOutPutDirectory(String... nestedDirectories) {
+        if (channel != null) {
+            throw new AssertionError("Cannot set output directory after initialisation");
+        }
+        String folder = Utils.createDirectory(nestedDirectories);
+        this.fileName = folder + File.separator + this.fileName;
+    }
+
+    private void initialise(Map<String, ?> firstRecord) {
+        List<Column> newColumns = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : firstRecord.entrySet()) {
+            String name = entry.getKey();
+            if (actionName != null && name.endsWith(":" + actionName))
+                name = name.substring(0, name.length() - actionName.length() - 1);
+            newColumns.add(new Column(name, typeOf(entry.getValue())));
+        }
+        try {
+            File file = new File(fileName);
+            boolean existing = append && file.exists() && file.length() > 0;
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.READ);
+            if (existing) {
+                // the types already in the file are kept (the new first record might have a missing value)
+                List<Column> existingColumns = readHeader(channel);
+                if (!existingColumns.stream().map(Column::name).toList().equals(newColumns.stream().map(Column::name).toList()))
+                    throw new AssertionError("Cannot append to " + fileName + " as it has different columns : "
+                            + existingColumns + " rather than " + newColumns);
+                newColumns = existingColumns;
+                // drop any incomplete block at the end (from a run that was killed)
+                channel.truncate(endOfCompleteBlocks(channel, existingColumns.size()));
+                channel.position(channel.size());
+            } else {
+                channel.truncate(0);
+                writeHeader(newColumns);
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Problem opening file " + fileName + " : " + e.getMessage());
+        }
+        columns = newColumns;
+        columnIndex = new HashMap<>();
+        int nColumns = columns.size();
+        longValues = new long[nColumns][];
+        doubleValues = new double[nColumns][];
+        stringValues = new String[nColumns][];
+        int index = 0;
+        for (String key : firstRecord.keySet())
+            columnIndex.put(key, index++);
+        for (int c = 0; c < nColumns; c++) {
+            switch (columns.get(c).type) {
+                case LONG -> longValues[c] = new long[blockRows];
+                case DOUBLE -> doubleValues[c] = new double[blockRows];
+                case STRING -> stringValues[c] = new String[blockRows];
+            }
+        }
+    }
+
+    private static ColumnType typeOf(Object datum) {
+        datum = simplify(datum);
+        if (datum instanceof Integer || datum instanceof Long || datum instanceof Short || datum instanceof Byte)
+            return ColumnType.LONG;
+        if (datum instanceof Number || datum == null)
+            return ColumnType.DOUBLE;
+        return ColumnType.STRING;
+    }
+
+    // as for FileStatsLogger
+    @SuppressWarnings("unchecked")
+    private static Object simplify(Object datum) {
+        if (datum instanceof TAGOccurrenceStatSummary summary)
+            return summary.getHighestOccurrence().a;
+        if (datum instanceof Map) {
+            Map<String, ?> map = (Map<String, ?>) datum;
+            return map.size() == 1 ? map.values().iterator().next().toString() : map.toString();
+        }
+        return datum;
+    }
+
+    /**
+     * It is not possible to add new keys after the first call of record(Map); data for any that are not in the first
+     * record is ignored.
+     *
+     * @param rawData A map of name -> value pairs (values that are themselves maps are flattened into this)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void record(Map<String, ?> rawData) {
+        Map<String, ?> data = rawData;
+        if (rawData.values().stream().anyMatch(v -> v instanceof Map)) {
+            Map<String, Object> flattened = new LinkedHashMap<>();
+            for (String key : rawData.keySet()) {
+                Object thing = rawData.get(key);
+                if (thing instanceof Map)
+                    flattened.putAll((Map<? extends String, ?>) thing);
+                else
+                    flattened.put(key, thing);
+            }
+            data = flattened;
+        }
+        if (channel == null)
+            initialise(data);
+
+        int nColumns = columns.size();
+        boolean[] seen = new boolean[nColumns];
+        for (Map.Entry<String, ?> entry : data.entrySet()) {
+            Integer c = columnIndex.get(entry.getKey());
+            if (c == null)
+                continue;
+            seen[c] = true;
+            set(c, simplify(entry.getValue()));
+        }
+        for (int c = 0; c < nColumns; c++) {
+            if (!seen[c])
+                set(c, null);
+        }
+        rows++;
+        if (rows == blockRows)
+            writeBlock();
+    }
+
+    /**
+     * As record(Map) for each row, but copying the values straight into the column buffers
+     */
+    @Override
+    public void record(String[] keys, double[] values, int nRows) {
+        if (channel == null) {
+            Map<String, Double> first = new LinkedHashMap<>();
+            for (String key : keys)
+                first.put(key, 0.0);
+            initialise(first);
+        }
+        if (keys != rowKeys) {
+            rowKeys = keys;
+            rowColumns = new int[columns.size()];
+            Arrays.fill(rowColumns, -1);
+            for (int i = 0; i < keys.length; i++) {
+                Integer c = columnIndex.get(keys[i]);
+                if (c != null)
+                    rowColumns[c] = i;
+            }
+        }
+        for (int r = 0; r < nRows; r++) {
+            int start = r * keys.length;
+            for (int c = 0; c < rowColumns.length; c++) {
+                int i = rowColumns[c];
+                if (i >= 0 && columns.get(c).type == ColumnType.DOUBLE)
+                    doubleValues[c][rows] = values[start + i];
+                else
+                    set(c, i < 0 ? null : values[start + i]);
+            }
+            rows++;
+            if (rows == blockRows)
+                writeBlock();
+        }
+    }
+
+    private void set(int c, Object datum) {
+        Column column = columns.get(c);
+        switch (column.type) {
+            case LONG -> {
+                if (datum == null) {
+                    longValues[c][rows] = NA_LONG;
+                } else {
+                    Number number = (Number) datum;
+                    if (number.doubleValue() != number.longValue())
+                        throw new AssertionError("Column " + column.name + " holds integers (from the first record), not " + datum);
+                    longValues[c][rows] = number.longValue();
+                }
+            }
+            case DOUBLE -> doubleValues[c][rows] = datum == null ? Double.longBitsToDouble(NA_DOUBLE_BITS) :
+                    ((Number) datum).doubleValue();
+            case STRING -> stringValues[c][rows] = datum == null ? null : datum.toString();
+        }
+    }
+
+    @Override
+    public void record(String key, Object datum) {
+        // as for FileStatsLogger, only record(Map) is used
+    }
+
+    private void writeHeader(List<Column> newColumns) throws IOException {
+        List<byte[]> names = newColumns.stream().map(c -> c.name.getBytes(StandardCharsets.UTF_8)).toList();
+        ByteBuffer buffer = ByteBuffer.allocate(12 + names.stream().mapToInt(n -> 5 + n.length).sum());
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(newColumns.size());
+        for (int c = 0; c < newColumns.size(); c++) {
+            buffer.put((byte) newColumns.get(c).type.ordinal());
+            buffer.putInt(names.get(c).length).put(names.get(c));
+        }
+        write(buffer.flip());
+    }
+
+    private void writeBlock() {
+        if (rows == 0)
+            return;
+        try {
+            List<ByteBuffer> buffers = new ArrayList<>();
+            ByteBuffer rowCount = ByteBuffer.allocate(4).putInt(rows);
+            buffers.add(rowCount.flip());
+            for (int c = 0; c < columns.size(); c++) {
+                byte[] raw = encode(c);
+                deflater.reset();
+                deflater.setInput(raw);
+                deflater.finish();
+                byte[] compressed = new byte[raw.length + raw.length / 100 + 64];
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == compressed.length)
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                ByteBuffer lengths = ByteBuffer.allocate(8).putInt(raw.length).putInt(length);
+                buffers.add(lengths.flip());
+                buffers.add(ByteBuffer.wrap(compressed, 0, length));
+            }
+            write(buffers.toArray(new ByteBuffer[0]));
+        } catch (IOException e) {
+            throw new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+        rows = 0;
+    }
+
+    private byte[] encode(int c) {
+        switch (columns.get(c).type) {
+            case LONG -> {
+                ByteBuffer buffer = ByteBuffer.allocate(rows * 8);
+                buffer.asLongBuffer().put(longValues[c], 0, rows);
+                return buffer.array();
+            }
+            case DOUBLE -> {
+                ByteBuffer buffer = ByteBuffer.allocate(rows * 8);
+                for (int r = 0; r < rows; r++)
+                    buffer.putLong(Double.doubleToRawLongBits(doubleValues[c][r]));
+                return buffer.array();
+            }
+            default -> {
+                byte[][] strings = new byte[rows][];
+                int total = 0;
+                for (int r = 0; r < rows; r++) {
+                    strings[r] = stringValues[c][r] == null ? null : stringValues[c][r].getBytes(StandardCharsets.UTF_8);
+                    total += 4 + (strings[r] == null ? 0 : strings[r].length);
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(total);
+                for (byte[] s : strings) {
+                    buffer.putInt(s == null ? -1 : s.length);
+                    if (s != null)
+                        buffer.put(s);
+                }
+                return buffer.array();
+            }
+        }
+    }
+
+    private void write(ByteBuffer... buffers) throws IOException {
+        long remaining = Arrays.stream(buffers).mapToLong(ByteBuffer::remaining).sum();
+        while (remaining > 0)
+            remaining -= channel.write(buffers);
+    }
+
+    /**
+     * Reads the header of a file in this format, leaving the channel positioned at the first block.
+     */
+    public static List<Column> readHeader(FileChannel channel) throws IOException {
+        ByteBuffer start = readFully(channel, 0, 12);
+        if (start.getInt() != MAGIC)
+            throw new IOException("not a " + ColumnarStatsLogger.class.getSimpleName() + " file");
+        int version = start.getInt();
+        if (version != VERSION)
+            throw new IOException("unsupported version " + version);
+        int nColumns = start.getInt();
+        List<Column> retValue = new ArrayList<>();
+        long position = 12;
+        for (int c = 0; c < nColumns; c++) {
+            ByteBuffer typeAndLength = readFully(channel, position, 5);
+            ColumnType type = ColumnType.values()[typeAndLength.get()];
+            int length = typeAndLength.getInt();
+            ByteBuffer name = readFully(channel, position + 5, length);
+            retValue.add(new Column(StandardCharsets.UTF_8.decode(name).toString(), type));
+            position += 5 + length;
+        }
+        channel.position(position);
+        return retValue;
+    }
+
+    /**
+     * @return the position after the last complete block, starting from the current position of the channel
+     */
+    private static long endOfCompleteBlocks(FileChannel channel, int nColumns) throws IOException {
+        long position = channel.position();
+        long size = channel.size();
+        while (true) {
+            long blockEnd = position + 4;
+            for (int c = 0; c < nColumns && blockEnd <= size; c++) {
+                if (blockEnd + 8 > size) {
+                    blockEnd = size + 1;
+                    break;
+                }
+                blockEnd += 8 + readFully(channel, blockEnd + 4, 4).getInt();
+            }
+            if (blockEnd > size)
+                return position;
+            position = blockEnd;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("unexpected end of file");
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * This writes any remaining rows, and closes the file
+     */
+    @Override
+    public void processDataAndFinish() {
+        if (channel == null) return;
+        writeBlock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+        }
+        channel = null;
+        columns = null;
+        rowKeys = null;
+    }
+
+    /**
+     * This writes any rows recorded so far (as a block)
+     */
+    @Override
+    public void processDataAndNotFinish() {
+        if (channel == null) return;
+        writeBlock();
+    }
+
+    /**
+     * This always returns an empty Map
+     *
+     * @return A summary of the data
+     */
+    @Override
+    public Map<String, TAGStatSummary> summary() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public ColumnarStatsLogger emptyCopy(String id) {
+        String[] fileParts = fileName.split(Pattern.quote("."));
+        if (fileParts.length != 2)
+            throw new AssertionError("Filename does not conform to expected <stem>.<type>");
+        String newFileName = fileParts[0] + "_" + id + "." + fileParts[1];
+        ColumnarStatsLogger retValue = new ColumnarStatsLogger(newFileName, append);
+        retValue.actionName = id;
+        return retValue;
+    }
+}
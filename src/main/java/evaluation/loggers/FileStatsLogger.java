@@ -87,12 +87,7 @@ public class FileStatsLogger implements IStatisticLogger {
             if (allKeys.isEmpty()) {
                 allKeys = data.keySet();
                 // then write a header line to the file
-                if (headerNeeded) {
-                    String outputLine = String.join(delimiter, allKeys) + "\n";
-                    outputLine = outputLine.replaceAll(":" + actionName + delimiter, delimiter);
-                    outputLine = outputLine.replaceAll(":" + actionName + "\\n", "\n");
-                    writer.write(outputLine);
-                }
+                writeHeader();
             } else {
                 data.keySet().forEach(s -> {
                             if (!allKeys.contains(s)) {
@@ -142,6 +137,47 @@ public class FileStatsLogger implements IStatisticLogger {
         }
     }
 
+    private void writeHeader() throws IOException {
+        if (headerNeeded) {
+            String outputLine = String.join(delimiter, allKeys) + "\n";
+            outputLine = outputLine.replaceAll(":" + actionName + delimiter, delimiter);
+            outputLine = outputLine.replaceAll(":" + actionName + "\\n", "\n");
+            writer.write(outputLine);
+        }
+    }
+
+    /**
+     * This writes the same as record(Map) would for each row, but without creating a Map for each one
+     */
+    @Override
+    public void record(String[] keys, double[] values, int nRows) {
+        if (!allKeys.isEmpty() && !new ArrayList<>(allKeys).equals(Arrays.asList(keys))) {
+            // the keys are not the ones we already have, so we leave record(Map) to sort this out
+            IStatisticLogger.super.record(keys, values, nRows);
+            return;
+        }
+        if (writer == null) initialise();
+        try {
+            if (allKeys.isEmpty()) {
+                allKeys = new LinkedHashSet<>(Arrays.asList(keys));
+                writeHeader();
+            }
+            StringBuilder outputLine = new StringBuilder();
+            Formatter formatter = new Formatter(outputLine, Locale.getDefault(Locale.Category.FORMAT));
+            for (int r = 0; r < nRows; r++) {
+                outputLine.setLength(0);
+                for (int i = 0; i < keys.length; i++) {
+                    if (i > 0) outputLine.append(delimiter);
+                    formatter.format(doubleFormat, values[r * keys.length + i]);
+                }
+                outputLine.append("\n");
+                writer.append(outputLine);
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Problem writing to file " + writer.toString() + " : " + e.getMessage());
+        }
+    }
+
     @Override
     public void record(String key, Object datum) {
         //   System.out.println("Datum ignored - FileStatsLogger only to be used with other record() : " + key);
@@ -193,6 +193,16 @@ public abstract class AbstractMetric {
         return true;
     }
 
+    /**
+     * @return true if this metric only reads the event (its state, action and player ID), and not the listener's
+     * Game (its players, timings or agents), so that it can be run later on another thread with a snapshot of the
+     * state (see {@link evaluation.listeners.MetricsEventQueue}). Default is false; override to return true only
+     * if this holds.
+     */
+    public boolean canRunAsync() {
+        return false;
+    }
+
     /**
      * Produces reports of data for this metric.
      *
@@ -261,6 +271,8 @@ public abstract class AbstractMetric {
 
     public void notifyGameOver() {
         this.gamesCompleted++;
+        if (dataLogger != null)
+            dataLogger.gameOver();
     }
 
     public int getGamesCompleted() {
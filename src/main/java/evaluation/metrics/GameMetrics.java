@@ -5,6 +5,7 @@ import core.actions.AbstractAction;
 import core.interfaces.IComponentContainer;
 import core.interfaces.IGameEvent;
 import evaluation.listeners.MetricsGameListener;
+import evaluation.summarisers.LatencyHistogram;
 import evaluation.summarisers.TAGStatSummary;
 import evaluation.summarisers.TAGSummariser;
 import utilities.Pair;
@@ -100,6 +101,12 @@ public class GameMetrics implements IMetricsCollection {
 
 
     public static class StateSpace extends AbstractMetric {
+
+        @Override
+        public boolean canRunAsync() {
+            return true;
+        }
+
         @Override
         public boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             records.put("Size", countComponents(e.state).a);
@@ -148,6 +155,11 @@ public class GameMetrics implements IMetricsCollection {
 
     public static class CurrentPlayerVisibility extends AbstractMetric {
 
+        @Override
+        public boolean canRunAsync() {
+            return true;
+        }
+
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             AbstractGameState gs = e.state;
@@ -204,6 +216,74 @@ public class GameMetrics implements IMetricsCollection {
         }
     }
 
+    /**
+     * Switches on profiling of each game (see GameProfiler), and records for each game the mean, median, 99th percentile
+     * and maximum time of each phase of taking an action (for all players, and the mean and 99th percentile for each),
+     * together with the memory allocated and the garbage collections during the game.
+     */
+    public static class PhaseLatencies extends AbstractMetric {
+
+        static final String[] phaseNames = {"Copy", "Actions Available Compute", "Agent", "Next"};
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> columns = new HashMap<>();
+            for (String phase : phaseNames) {
+                columns.put(phase + " Count", Integer.class);
+                columns.put(phase + " Mean (us)", Double.class);
+                columns.put(phase + " P50 (us)", Double.class);
+                columns.put(phase + " P99 (us)", Double.class);
+                columns.put(phase + " Max (us)", Double.class);
+                columns.put(phase + " Allocated (MB)", Double.class);
+                for (int i = 0; i < nPlayersPerGame; i++) {
+                    columns.put(phase + " Mean (us)-" + i, Double.class);
+                    columns.put(phase + " P99 (us)-" + i, Double.class);
+                }
+            }
+            columns.put("Allocated (MB)", Double.class);
+            columns.put("GC Count", Integer.class);
+            columns.put("GC Time (ms)", Integer.class);
+            return columns;
+        }
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            Game game = listener.getGame();
+            if (e.type == ABOUT_TO_START) {
+                game.setProfiling(true);
+                return false;
+            }
+            GameProfiler profiler = game.getProfiler();
+            if (profiler == null)
+                return false;
+            // the latencies are all recorded in nanoseconds, so we convert to microseconds
+            for (GameProfiler.Phase phase : GameProfiler.Phase.values()) {
+                String name = phaseNames[phase.ordinal()];
+                LatencyHistogram all = profiler.histogram(phase);
+                records.put(name + " Count", (int) all.count());
+                records.put(name + " Mean (us)", all.mean() / 1e3);
+                records.put(name + " P50 (us)", all.quantile(0.5) / 1e3);
+                records.put(name + " P99 (us)", all.quantile(0.99) / 1e3);
+                records.put(name + " Max (us)", all.max() / 1e3);
+                records.put(name + " Allocated (MB)", profiler.allocated(phase) / 1e6);
+                for (int i = 0; i < e.state.getNPlayers(); i++) {
+                    LatencyHistogram player = profiler.histogram(phase, i);
+                    records.put(name + " Mean (us)-" + i, player.mean() / 1e3);
+                    records.put(name + " P99 (us)-" + i, player.quantile(0.99) / 1e3);
+                }
+            }
+            records.put("Allocated (MB)", profiler.allocated() / 1e6);
+            records.put("GC Count", (int) profiler.gcCount());
+            records.put("GC Time (ms)", (int) profiler.gcTime());
+            return true;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Arrays.asList(ABOUT_TO_START, GAME_OVER));
+        }
+    }
+
     public static class OrdinalPosition extends AbstractMetric {
         @Override
         public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
@@ -380,6 +460,12 @@ public class GameMetrics implements IMetricsCollection {
 
 
     public static class Winner extends AbstractMetric {
+
+        @Override
+        public boolean canRunAsync() {
+            return true;
+        }
+
         public Winner() {
             super();
         }
@@ -39,6 +39,11 @@ public interface IDataLogger
      */
     void addData(String columnName, Object data);
 
+    /**
+     * Called at the end of each game, once all its data has been added.
+     */
+    default void gameOver() {}
+
     /**
      * Returns a data processor by default that is compatible with this data logger
      * @return - A data processor
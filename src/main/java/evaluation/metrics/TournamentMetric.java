@@ -62,6 +62,11 @@ public class TournamentMetric extends AbstractMetric {
         return wrappedMetric.getColumns(nPlayersPerGame, playerNames);
     }
 
+    @Override
+    public boolean canRunAsync() {
+        return wrappedMetric.canRunAsync();
+    }
+
     public void tournamentInit(Game game, int nPlayers, Set<String> playerNames, Set<AbstractPlayer> matchup) {
         // Create a data logger for this matchup
         // TODO this counts same matchup if same type of players are in, regardless of order
@@ -7,7 +7,16 @@ import evaluation.metrics.IDataLogger;
 import evaluation.metrics.IDataProcessor;
 import tech.tablesaw.api.*;
 import tech.tablesaw.columns.Column;
+import tech.tablesaw.io.csv.CsvReadOptions;
+import tech.tablesaw.io.csv.CsvWriteOptions;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
@@ -20,6 +29,12 @@ public class DataTableSaw implements IDataLogger {
     Table data;
     AbstractMetric metric;
 
+    // If spillRows > 0, then at the end of a game with at least this many rows in data, they are appended to
+    // spillFile and added to the running summary, and data is cleared.
+    int spillRows;
+    File spillFile;
+    RunningTableSummary summary = new RunningTableSummary();
+
     public DataTableSaw(AbstractMetric metric) {
         this.metric = metric;
         this.data = Table.create(metric.getName());
@@ -80,6 +95,124 @@ public class DataTableSaw implements IDataLogger {
     public void reset()
     {
         this.data = Table.create(metric.getName());
+        if (spillFile != null && !spillFile.delete())
+            spillFile.deleteOnExit();
+        spillFile = null;
+        summary = new RunningTableSummary();
+    }
+
+    /**
+     * Keeps at most about this many rows in memory (plus those of a game in progress): at the end of a game with more,
+     * they are appended to a temporary file, and added to running summaries from which the summaries and plots are
+     * reported (see {@link RunningTableSummary}), so that the memory used does not grow with the number of games.
+     * The reports are the same as if all the rows had been kept, except that the means in progression plots are
+     * summed in a different order, so may differ in the last digit.
+     *
+     * @param spillRows the number of rows; or 0 to keep all rows in memory (the default)
+     */
+    public void setSpillRows(int spillRows) {
+        if (spillRows < 0)
+            throw new IllegalArgumentException("spillRows must not be negative : " + spillRows);
+        this.spillRows = spillRows;
+    }
+
+    public boolean isSpilling() {
+        return spillRows > 0;
+    }
+
+    @Override
+    public void gameOver() {
+        if (spillRows > 0 && data.rowCount() >= spillRows)
+            spill();
+    }
+
+    /**
+     * Appends the rows in memory to the spill file (which is the same as the csv file of the whole table), and adds
+     * them to the running summary.
+     */
+    void spill() {
+        if (data.rowCount() == 0)
+            return;
+        try {
+            boolean header = spillFile == null;
+            if (header) {
+                spillFile = Files.createTempFile(data.name() + "_", ".csv").toFile();
+                spillFile.deleteOnExit();
+            }
+            // the same charset as data.write().csv(fileName)
+            try (Writer writer = Files.newBufferedWriter(spillFile.toPath(), Charset.defaultCharset(), StandardOpenOption.APPEND)) {
+                data.write().csv(CsvWriteOptions.builder(writer).header(header).build());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        summary.add(data, metric.getColumnNames());
+        data.clear();
+    }
+
+    /**
+     * @return the number of rows recorded, including any spilled to file
+     */
+    public long rowCount() {
+        return summary.rows + data.rowCount();
+    }
+
+    /**
+     * @return all the rows recorded. If rows were spilled to file, then they are read back into a new table, so this
+     * should only be used when all of them are needed at once.
+     */
+    public Table allData() {
+        if (spillFile == null)
+            return data;
+        ColumnType[] types = data.columns().stream().map(Column::type).toArray(ColumnType[]::new);
+        Table retValue = Table.read().usingOptions(CsvReadOptions.builder(spillFile)
+                .tableName(data.name())
+                .columnTypes(types));
+        return retValue.append(data);
+    }
+
+    /**
+     * Writes all the rows recorded (including any spilled to file) to a csv file, from which they can be added to
+     * another DataTableSaw of the same metric with addRows().
+     */
+    public void writeRows(File file) {
+        allData().write().csv(file);
+    }
+
+    /**
+     * @return the highest GameID recorded (including in any rows spilled to file), or 0 if there are none
+     */
+    public int lastGameID() {
+        int retValue = 0;
+        for (String gameID : summary.rowsPerGame.keySet())
+            retValue = Math.max(retValue, Integer.parseInt(gameID));
+        StringColumn gameIDs = data.stringColumn("GameID");
+        for (int i = 0; i < gameIDs.size(); i++)
+            if (!gameIDs.isMissing(i))
+                retValue = Math.max(retValue, Integer.parseInt(gameIDs.get(i)));
+        return retValue;
+    }
+
+    /**
+     * Adds the rows in a csv file written by writeRows() (by this metric in another process), as if they had been
+     * recorded here. The GameIDs of the other process are increased by gameIDOffset, so that they do not clash with
+     * those here (see lastGameID()). This must be called after init().
+     */
+    public void addRows(File file, int gameIDOffset) {
+        Map<String, ColumnType> types = new HashMap<>();
+        for (Column<?> column : data.columns())
+            types.put(column.name(), column.type());
+        Table rows = Table.read().usingOptions(CsvReadOptions.builder(file)
+                .tableName(data.name())
+                .columnTypes(name -> types.getOrDefault(name, ColumnType.STRING)));
+        if (rows.rowCount() == 0)
+            return;
+        StringColumn gameIDs = rows.stringColumn("GameID");
+        for (int i = 0; i < gameIDs.size(); i++)
+            if (!gameIDs.isMissing(i))
+                gameIDs.set(i, String.valueOf(Integer.parseInt(gameIDs.get(i)) + gameIDOffset));
+        data.append(rows.selectColumns(data.columnNames().toArray(new String[0])));
+        gameOver();
     }
 
     public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
@@ -122,7 +255,7 @@ public class DataTableSaw implements IDataLogger {
 
     @Override
     public IDataLogger copy() {
-        return new DataTableSaw(metric, data.copy());
+        return new DataTableSaw(metric, allData().copy());
     }
 
     @Override
@@ -132,7 +265,9 @@ public class DataTableSaw implements IDataLogger {
 
     @Override
     public IDataLogger create() {
-        return new DataTableSaw(metric);
+        DataTableSaw retValue = new DataTableSaw(metric);
+        retValue.spillRows = spillRows;
+        return retValue;
     }
 
     /**
@@ -142,6 +277,7 @@ public class DataTableSaw implements IDataLogger {
      * @param indexingColumnName - Name of the column to use for indexing.
      *                           Assumes a single row exists for each unique value in this column per game.
      *                           e.g. ROUND_OVER metrics can be grouped by specifying "Round" as the indexing column.
+     *                           The rows of the metrics are all read into memory, including any spilled to file.
      */
     public DataTableSaw(List<AbstractMetric> metricGroup, IGameEvent event, String indexingColumnName) {
         this.data = Table.create(event.name());
@@ -153,7 +289,7 @@ public class DataTableSaw implements IDataLogger {
         // TODO: Apply same filtering for all other data processing, separate table into different events before reporting
         Map<AbstractMetric, Table> metricTables = new HashMap<>();
         for (AbstractMetric m : metricGroup) {
-            Table metricData = ((DataTableSaw)m.getDataLogger()).data;
+            Table metricData = ((DataTableSaw)m.getDataLogger()).allData();
             if (m.filterByEventTypeWhenReporting()) {
                 metricTables.put(m, metricData.where(metricData.stringColumn("Event").isEqualTo(event.name())));
             } else {
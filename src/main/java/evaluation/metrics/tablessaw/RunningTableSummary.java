@@ -0,0 +1,149 @@
+package evaluation.metrics.tablessaw;
+
+import evaluation.summarisers.TAGNumericStatSummary;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import tech.tablesaw.api.*;
+import tech.tablesaw.columns.Column;
+
+import java.util.*;
+
+/**
+ * Summaries of the rows of a DataTableSaw, updated as they are spilled to file (see DataTableSaw.setSpillRows), from
+ * which TableSawDataProcessor makes the same summaries and progression plots as it does from the whole table:
+ * <ul>
+ * <li>the number of rows of each game</li>
+ * <li>for each numeric column, the moments of its values (kept by the same SummaryStatistics that TableSaw uses for
+ * column.summary()), and the statistics of the values at each row of a game, across games</li>
+ * <li>for each categorical (String or Boolean) column, the count of each value, overall and in each game</li>
+ * </ul>
+ * These grow with the number of games, the number of rows in a game and the number of values of a category, but
+ * not with the total number of rows.
+ */
+class RunningTableSummary {
+
+    long rows;
+    // number of rows of each game, in the order the games were first seen
+    final Map<String, Integer> rowsPerGame = new LinkedHashMap<>();
+    final Map<String, SummaryStatistics> moments = new HashMap<>();
+    // statistics of the values in the nth row of each game
+    final Map<String, List<TAGNumericStatSummary>> statsPerRow = new HashMap<>();
+    // counts of each value, in the order they were first seen; overall, and then per game
+    final Map<String, Map<String, Integer>> counts = new HashMap<>();
+    final Map<String, Map<String, Map<String, Integer>>> countsPerGame = new HashMap<>();
+
+    /**
+     * Adds the rows of this table, recording the given columns.
+     */
+    void add(Table chunk, Set<String> columnNames) {
+        StringColumn gameIDs = chunk.stringColumn("GameID");
+        for (int row = 0; row < chunk.rowCount(); row++) {
+            String gameID = gameIDs.get(row);
+            int rowInGame = rowsPerGame.merge(gameID, 1, Integer::sum) - 1;
+            for (String name : columnNames) {
+                Column<?> column = chunk.column(name);
+                if (column.isMissing(row))
+                    continue;
+                if (column instanceof NumericColumn<?> numbers) {
+                    double value = numbers.getDouble(row);
+                    moments.computeIfAbsent(name, k -> new SummaryStatistics()).addValue(value);
+                    List<TAGNumericStatSummary> stats = statsPerRow.computeIfAbsent(name, k -> new ArrayList<>());
+                    while (stats.size() <= rowInGame)
+                        stats.add(new TAGNumericStatSummary());
+                    stats.get(rowInGame).add(value);
+                } else {
+                    String value = column.getString(row);
+                    counts.computeIfAbsent(name, k -> new LinkedHashMap<>()).merge(value, 1, Integer::sum);
+                    countsPerGame.computeIfAbsent(name, k -> new LinkedHashMap<>())
+                            .computeIfAbsent(gameID, k -> new LinkedHashMap<>()).merge(value, 1, Integer::sum);
+                }
+            }
+            rows++;
+        }
+    }
+
+    /**
+     * @return true if at least one value (that is not missing) was recorded in this column
+     */
+    boolean hasValues(String columnName) {
+        SummaryStatistics stats = moments.get(columnName);
+        return stats != null ? stats.getN() > 0 : counts.containsKey(columnName);
+    }
+
+    /**
+     * @return the same table as column.summary() of the values (that are not missing) recorded in this column
+     */
+    Table summary(Column<?> column) {
+        String name = column.name();
+        if (column instanceof StringColumn) {
+            return countByCategory(name, counts.getOrDefault(name, Collections.emptyMap()));
+        } else if (column instanceof BooleanColumn) {
+            Table retValue = BooleanColumn.create(name).summary();
+            Map<String, Integer> booleanCounts = counts.getOrDefault(name, Collections.emptyMap());
+            for (int i = 0; i < retValue.rowCount(); i++)
+                retValue.doubleColumn(1).set(i, (double) booleanCounts.getOrDefault(retValue.stringColumn(0).get(i), 0));
+            return retValue;
+        }
+        // as tech.tablesaw.columns.numbers.Stats.asTable()
+        SummaryStatistics stats = moments.getOrDefault(name, new SummaryStatistics());
+        Table retValue = Table.create("Column: " + name);
+        StringColumn measure = StringColumn.create("Measure");
+        DoubleColumn value = DoubleColumn.create("Value");
+        retValue.addColumns(measure, value);
+        measure.append("Count");
+        value.append((float) stats.getN());
+        measure.append("sum");
+        value.append(stats.getSum());
+        measure.append("Mean");
+        value.append(stats.getMean());
+        measure.append("Min");
+        value.append(stats.getMin());
+        measure.append("Max");
+        value.append(stats.getMax());
+        measure.append("Range");
+        value.append(stats.getMax() - stats.getMin());
+        measure.append("Variance");
+        value.append(stats.getVariance());
+        measure.append("Std. Dev");
+        value.append(stats.getStandardDeviation());
+        return retValue;
+    }
+
+    /**
+     * @return the games in which this column has values, in the order that column.unique() of their IDs has
+     */
+    List<String> gamesWithValues(String columnName) {
+        Map<String, Map<String, Integer>> games = countsPerGame.getOrDefault(columnName, Collections.emptyMap());
+        return uniqueOrder(games.keySet());
+    }
+
+    /**
+     * @return all the games, in the order that column.unique() of their IDs has
+     */
+    List<String> games() {
+        return uniqueOrder(rowsPerGame.keySet());
+    }
+
+    // unique() depends only on the distinct values, and the order they were first seen in
+    private static List<String> uniqueOrder(Collection<String> values) {
+        return StringColumn.create("GameID", values).unique().asList();
+    }
+
+    /**
+     * @return the same table as countByCategory() of the values of this column in this game
+     */
+    Table countByCategory(String columnName, String gameID) {
+        Map<String, Integer> gameCounts = countsPerGame.getOrDefault(columnName, Collections.emptyMap()).get(gameID);
+        return countByCategory(columnName, gameCounts == null ? Collections.emptyMap() : gameCounts);
+    }
+
+    // The order of the rows of countByCategory() depends only on the distinct values, and the order they were
+    // first seen in, so it is built from a column of those and then given the counts.
+    private static Table countByCategory(String columnName, Map<String, Integer> categoryCounts) {
+        Table retValue = StringColumn.create(columnName, categoryCounts.keySet()).countByCategory();
+        StringColumn categories = retValue.stringColumn(0);
+        IntColumn categoryCount = retValue.intColumn(1);
+        for (int i = 0; i < retValue.rowCount(); i++)
+            categoryCount.set(i, categoryCounts.get(categories.get(i)));
+        return retValue;
+    }
+}
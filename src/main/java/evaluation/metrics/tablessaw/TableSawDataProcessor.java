@@ -18,6 +18,7 @@ import tech.tablesaw.plotly.traces.Trace;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 public class TableSawDataProcessor implements IDataProcessor {
@@ -26,20 +27,39 @@ public class TableSawDataProcessor implements IDataProcessor {
     @Override
     public void processRawDataToFile(IDataLogger logger, String folderName) {
         DataTableSaw dts = (DataTableSaw) logger;
-        dts.data.write().csv(folderName + "/" + dts.data.name() + ".csv");
+        String fileName = folderName + "/" + dts.data.name() + ".csv";
+        if (dts.isSpilling()) {
+            dts.spill();
+            if (dts.spillFile != null) {
+                try {
+                    Files.copy(dts.spillFile.toPath(), new File(fileName).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+        }
+        dts.data.write().csv(fileName);
     }
 
     @Override
     public void processRawDataToConsole(IDataLogger logger) {
         DataTableSaw dts = (DataTableSaw) logger;
         System.out.println();
-        System.out.println(dts.data);
+        System.out.println(dts.allData());
     }
 
     private Map<String, List<Table>> getSummarisedData(DataTableSaw dts)
     {
         Map<String, List<Table>> summarisedData;
-        if (dts.metric.getGamesCompleted() < dts.data.column(0).size()) {
+        if (dts.isSpilling()) {
+            dts.spill();
+            if (dts.metric.getGamesCompleted() < dts.rowCount()) {
+                summarisedData = summariseSpilledDataProgression(dts);
+            } else {
+                summarisedData = summariseSpilledData(dts);
+            }
+        } else if (dts.metric.getGamesCompleted() < dts.data.column(0).size()) {
             summarisedData = summariseDataProgression(dts.metric, dts.data);
         } else {
             summarisedData = summariseData(dts.metric, dts.data);
@@ -100,7 +120,14 @@ public class TableSawDataProcessor implements IDataProcessor {
         }
         if (success) {
             Map<String, Figure> figures;
-            if (dts.metric.getGamesCompleted() < dts.data.column(0).size()) {
+            if (dts.isSpilling()) {
+                dts.spill();
+                if (dts.metric.getGamesCompleted() < dts.rowCount()) {
+                    figures = plotSpilledDataProgression(dts);
+                } else {
+                    figures = plotData(dts.metric, dts.allData());
+                }
+            } else if (dts.metric.getGamesCompleted() < dts.data.column(0).size()) {
                 figures = plotDataProgression(dts.metric, dts.data);
             } else {
                 figures = plotData(dts.metric, dts.data);
@@ -168,66 +195,18 @@ public class TableSawDataProcessor implements IDataProcessor {
                 if (column instanceof StringColumn) {
                     // Create counts of each category per game
                     Table[] tablesPerGame = new Table[nGames];
-                    Set<String> categoryNames = new HashSet<>();
                     int i = 0;
                     for (Object id: gameIds) {
                         tablesPerGame[i] = ((StringColumn)column.where(filteredData.stringColumn("GameID").isEqualTo((String) id))).countByCategory();
-                        // Needs transposing because the output of previous is several rows with category value, count (2 columns)
-                        try {
-                            tablesPerGame[i] = tablesPerGame[i].transpose(false, true);
-                        }catch (Exception e){
-                            System.out.println("Error transposing table: " + e);
-                        }
-                        // Save all column names for the summary table
-                        categoryNames.addAll(tablesPerGame[i].columnNames());
                         i++;
                     }
 
-                    // Create summary table with columns for each category
-                    Table summaryTable = Table.create("Summary " + column.name());
-                    for (String categoryName: categoryNames) {
-                        summaryTable.addColumns(IntColumn.create(categoryName));
-                    }
-
-                    // Append all data to the summary table. We'll have 1 column per categorical value
-                    // And 1 row per game, with the counts of each category
-                    for (i = 0; i < nGames; i++) {
-                        for (String category: categoryNames) {
-                            if (tablesPerGame[i].columnNames().contains(category)) {
-                                IntColumn categoryColumn = tablesPerGame[i].intColumn(category);
-                                summaryTable.intColumn(category).append(categoryColumn);
-                            } else {
-                                summaryTable.intColumn(category).append(0);
-                            }
-                        }
-                    }
-
-                    if (summaryTable.isEmpty()) {
+                    List<Table> countSummaries = summariseCountsPerGame(column.name(), tablesPerGame);
+                    if (countSummaries == null) {
 //                        System.out.println("Empty summary table for " + column.name());
                         continue;
                     }
-
-                    // Make a print table with detail counts per game, transposed for more compact printing
-                    Table printTable = summaryTable.transpose(true,false);
-                    printTable.column(0).setName(column.name() + " \\ Game #");
-                    // Add table to the summary to print
-                    summary.add(printTable);
-
-                    // Make a print table with summary stats over all game
-                    // Taking the summary of the first category as start table. All have 2 columns, measure and value.
-                    Table statsTable = summaryTable.intColumn(0).summary();
-                    // Change the name of the second column ('value') to the actual name of the category
-                    statsTable.column(1).setName(summaryTable.column(0).name());
-                    // Name the table appropriately
-                    statsTable.setName("Stats " + column.name());
-                    // Add the other categories as columns, taking only the second column (value) for each and naming them appropriately, according to the category name
-                    for (i = 1; i < summaryTable.columnCount(); i++) {
-                        DoubleColumn dc = summaryTable.intColumn(i).summary().doubleColumn(1);
-                        dc.setName(summaryTable.column(i).name());
-                        statsTable.addColumns(dc);
-                    }
-                    // Add table to the summary to print
-                    summary.add(statsTable.transpose(true, true).sortDescendingOn("Mean"));
+                    summary.addAll(countSummaries);
                 } else {
                     // This is the same as summariseData for numerical data
                     Table sum = column.summary();
@@ -241,6 +220,118 @@ public class TableSawDataProcessor implements IDataProcessor {
         return allDataSummaries;
     }
 
+    /**
+     * Summarises the counts of each category of a column in each game:
+     *  - one table showing detailed counts in each game for each categorical value
+     *  - one table showing statistics overall for each categorical value (mean, std, min, max etc.)
+     * @param tablesPerGame - the countByCategory() table of the column in each game
+     * @return - the two tables, or null if there are no counts
+     */
+    private List<Table> summariseCountsPerGame(String columnName, Table[] tablesPerGame) {
+        int nGames = tablesPerGame.length;
+        Set<String> categoryNames = new HashSet<>();
+        for (int i = 0; i < nGames; i++) {
+            // Needs transposing because the output of countByCategory is several rows with category value, count (2 columns)
+            try {
+                tablesPerGame[i] = tablesPerGame[i].transpose(false, true);
+            }catch (Exception e){
+                System.out.println("Error transposing table: " + e);
+            }
+            // Save all column names for the summary table
+            categoryNames.addAll(tablesPerGame[i].columnNames());
+        }
+
+        // Create summary table with columns for each category
+        Table summaryTable = Table.create("Summary " + columnName);
+        for (String categoryName: categoryNames) {
+            summaryTable.addColumns(IntColumn.create(categoryName));
+        }
+
+        // Append all data to the summary table. We'll have 1 column per categorical value
+        // And 1 row per game, with the counts of each category
+        for (int i = 0; i < nGames; i++) {
+            for (String category: categoryNames) {
+                if (tablesPerGame[i].columnNames().contains(category)) {
+                    IntColumn categoryColumn = tablesPerGame[i].intColumn(category);
+                    summaryTable.intColumn(category).append(categoryColumn);
+                } else {
+                    summaryTable.intColumn(category).append(0);
+                }
+            }
+        }
+
+        if (summaryTable.isEmpty()) {
+            return null;
+        }
+
+        List<Table> summary = new ArrayList<>();
+        // Make a print table with detail counts per game, transposed for more compact printing
+        Table printTable = summaryTable.transpose(true,false);
+        printTable.column(0).setName(columnName + " \\ Game #");
+        // Add table to the summary to print
+        summary.add(printTable);
+
+        // Make a print table with summary stats over all game
+        // Taking the summary of the first category as start table. All have 2 columns, measure and value.
+        Table statsTable = summaryTable.intColumn(0).summary();
+        // Change the name of the second column ('value') to the actual name of the category
+        statsTable.column(1).setName(summaryTable.column(0).name());
+        // Name the table appropriately
+        statsTable.setName("Stats " + columnName);
+        // Add the other categories as columns, taking only the second column (value) for each and naming them appropriately, according to the category name
+        for (int i = 1; i < summaryTable.columnCount(); i++) {
+            DoubleColumn dc = summaryTable.intColumn(i).summary().doubleColumn(1);
+            dc.setName(summaryTable.column(i).name());
+            statsTable.addColumns(dc);
+        }
+        // Add table to the summary to print
+        summary.add(statsTable.transpose(true, true).sortDescendingOn("Mean"));
+        return summary;
+    }
+
+    /**
+     * As summariseData, from the running summary of a DataTableSaw that spills its rows to file.
+     */
+    protected Map<String, List<Table>> summariseSpilledData(DataTableSaw dts) {
+        Map<String, List<Table>> allDataSummaries = new HashMap<>();
+        for (Column<?> column : dts.data.columns()) {
+            if (dts.metric.getColumnNames().contains(column.name())) {
+                Table summary = dts.summary.summary(column);
+                summary.setName(dts.data.name() + "_" + column.name());
+                allDataSummaries.put(column.name(), Collections.singletonList(summary));
+            }
+        }
+        return allDataSummaries;
+    }
+
+    /**
+     * As summariseDataProgression, from the running summary of a DataTableSaw that spills its rows to file.
+     */
+    protected Map<String, List<Table>> summariseSpilledDataProgression(DataTableSaw dts) {
+        Map<String, List<Table>> allDataSummaries = new HashMap<>();
+        for (Column<?> column : dts.data.columns()) {
+            if (!dts.metric.getColumnNames().contains(column.name()) || !dts.summary.hasValues(column.name()))
+                continue;
+            List<Table> summary;
+            if (column instanceof StringColumn) {
+                List<String> gameIds = dts.summary.gamesWithValues(column.name());
+                Table[] tablesPerGame = new Table[gameIds.size()];
+                for (int i = 0; i < tablesPerGame.length; i++) {
+                    tablesPerGame[i] = dts.summary.countByCategory(column.name(), gameIds.get(i));
+                }
+                summary = summariseCountsPerGame(column.name(), tablesPerGame);
+                if (summary == null)
+                    continue;
+            } else {
+                Table sum = dts.summary.summary(column);
+                sum.setName(dts.data.name() + "_" + column.name());
+                summary = Collections.singletonList(sum);
+            }
+            allDataSummaries.put(column.name(), summary);
+        }
+        return allDataSummaries;
+    }
+
     /**
      * Plot the data recorded by this metric. Progression over the course of a game, averaged across the different
      * games recorded.
@@ -268,14 +359,7 @@ public class TableSawDataProcessor implements IDataProcessor {
             if (metric.getColumnNames().contains(column.name())) {
                 //TODO Not checked that this doesn't break with missing values. If error found, it may be that! o.O
                 if (column instanceof NumberColumn) {
-                    // Make a line plot - actually 3 lines, mean, mean+sd, mean-sd
-                    double[] x = new double[maxTick];
-                    for (int j = 0; j < maxTick; j++) {
-                        x[j] = j;
-                    }
-                    double[] yMean = new double[column.size()];
-                    double[] yMeanSdMinus = new double[column.size()];
-                    double[] yMeanSdPlus = new double[column.size()];
+                    TAGNumericStatSummary[] statsPerTick = new TAGNumericStatSummary[maxTick];
                     for (int j = 0; j < maxTick; j++) {
                         TAGNumericStatSummary ss = new TAGNumericStatSummary();
                         for (int k = 0; k < nGames; k++) {
@@ -284,37 +368,9 @@ public class TableSawDataProcessor implements IDataProcessor {
                                 ss.add(Double.parseDouble(String.valueOf(columnThisGame.get(j))));
                             }
                         }
-
-                        double err = 0;
-                        if (ss.n() > 1) err = ss.stdErr();
-                        yMean[j] = ss.mean();
-                        yMeanSdMinus[j] = yMean[j] - err;
-                        yMeanSdPlus[j] = yMean[j] + err;
+                        statsPerTick[j] = ss;
                     }
-
-                    Trace yMeanSdPlusTrace = ScatterTrace.builder(x, yMeanSdPlus).name("Mean + SD")
-                            .opacity(0.3)
-                            .line(Line.builder().simplify(true).dash(Line.Dash.DASH_DOT).color("rgb(0, 0, 255)").build())
-                            .mode(ScatterTrace.Mode.LINE).build();
-                    Trace yMeanTrace = ScatterTrace.builder(x, yMean).name("Mean")
-                            .mode(ScatterTrace.Mode.LINE)
-                            .line(Line.builder().width(2).color("rgb(0, 0, 255)").build())
-                            .build();
-                    Trace yMeanSdMinusTrace = ScatterTrace.builder(x, yMeanSdMinus).name("Mean - SD")
-                            .opacity(0.3)
-                            .line(Line.builder().simplify(true).dash(Line.Dash.DASH_DOT).color("rgb(0, 0, 255)").build())
-                            .mode(ScatterTrace.Mode.LINE).build();
-
-                    Layout layout = Layout.builder().title(data.name())
-                            .height(600).width(800)
-                            .yAxis(Axis.builder().title(column.name()).build())
-                            .xAxis(Axis.builder().title(getLabel(metric)).build())
-                            .build();
-
-                    Figure figure = new Figure(layout, yMeanSdPlusTrace, yMeanTrace, yMeanSdMinusTrace);
-
-//                figures.put(column.name(), LinePlot.create(data.name(), "Data point", x, column.name(), y));
-                    figures.put(column.name(), figure);
+                    figures.put(column.name(), plotMeanProgression(metric, data.name(), column.name(), statsPerTick, column.size()));
                 } else {
                     // Make box plots from the categorical counts across games
 
@@ -327,27 +383,111 @@ public class TableSawDataProcessor implements IDataProcessor {
                                 .countByCategory();
                         idx++;
                     }
-                    Table countsPerGame = tablesCountsPerGame[0];
-                    for (idx = 1; idx < nGames; idx++) {
-                        countsPerGame = countsPerGame.append(tablesCountsPerGame[idx]);
-                    }
+                    figures.put(column.name(), plotCountsPerGame(data.name(), column.name(), tablesCountsPerGame));
+                }
+            }
+        }
+        return figures;
+    }
 
-                    // Create box plots from the counts
-                    Layout layout = Layout.builder().title(data.name())
-                            .height(600).width(800)
-                            .yAxis(Axis.builder().title("Count").range(0, 30).build())  //  TODO hard-coded range
-                            .xAxis(Axis.builder().title(column.name()).categoryOrder(Axis.CategoryOrder.CATEGORY_ASCENDING).build())
-                            .build();
-                    BoxTrace trace = BoxTrace.builder(countsPerGame.categoricalColumn("Category"), countsPerGame.nCol("Count"))
-                            .build();
+    /**
+     * As plotDataProgression, from the running summary of a DataTableSaw that spills its rows to file.
+     */
+    protected Map<String, Figure> plotSpilledDataProgression(DataTableSaw dts) {
+        RunningTableSummary summary = dts.summary;
+        List<String> gameIds = summary.games();
+        int maxTick = summary.rowsPerGame.values().stream().mapToInt(Integer::intValue).max().orElse(0);
 
-                    figures.put(column.name(), new Figure(layout, trace));
+        Map<String, Figure> figures = new HashMap<>();
+        for (Column<?> column : dts.data.columns()) {
+            if (dts.metric.getColumnNames().contains(column.name())) {
+                if (column instanceof NumberColumn) {
+                    List<TAGNumericStatSummary> statsPerRow = summary.statsPerRow.getOrDefault(column.name(), Collections.emptyList());
+                    TAGNumericStatSummary[] statsPerTick = new TAGNumericStatSummary[maxTick];
+                    for (int j = 0; j < maxTick; j++) {
+                        statsPerTick[j] = j < statsPerRow.size() ? statsPerRow.get(j) : new TAGNumericStatSummary();
+                    }
+                    figures.put(column.name(), plotMeanProgression(dts.metric, dts.data.name(), column.name(), statsPerTick, (int) dts.rowCount()));
+                } else if (column instanceof StringColumn) {
+                    Table[] tablesCountsPerGame = new Table[gameIds.size()];
+                    for (int i = 0; i < tablesCountsPerGame.length; i++) {
+                        tablesCountsPerGame[i] = summary.countByCategory(column.name(), gameIds.get(i));
+                    }
+                    figures.put(column.name(), plotCountsPerGame(dts.data.name(), column.name(), tablesCountsPerGame));
                 }
             }
         }
         return figures;
     }
 
+    /**
+     * Makes a line plot of the progression of a column over the course of a game - actually 3 lines, mean, mean+sd, mean-sd
+     * @param statsPerTick - statistics of the values of the column at each point of a game, across games
+     * @param nRows - the number of rows of data
+     */
+    private Figure plotMeanProgression(AbstractMetric metric, String tableName, String columnName, TAGNumericStatSummary[] statsPerTick, int nRows) {
+        int maxTick = statsPerTick.length;
+        double[] x = new double[maxTick];
+        for (int j = 0; j < maxTick; j++) {
+            x[j] = j;
+        }
+        double[] yMean = new double[nRows];
+        double[] yMeanSdMinus = new double[nRows];
+        double[] yMeanSdPlus = new double[nRows];
+        for (int j = 0; j < maxTick; j++) {
+            TAGNumericStatSummary ss = statsPerTick[j];
+            double err = 0;
+            if (ss.n() > 1) err = ss.stdErr();
+            yMean[j] = ss.mean();
+            yMeanSdMinus[j] = yMean[j] - err;
+            yMeanSdPlus[j] = yMean[j] + err;
+        }
+
+        Trace yMeanSdPlusTrace = ScatterTrace.builder(x, yMeanSdPlus).name("Mean + SD")
+                .opacity(0.3)
+                .line(Line.builder().simplify(true).dash(Line.Dash.DASH_DOT).color("rgb(0, 0, 255)").build())
+                .mode(ScatterTrace.Mode.LINE).build();
+        Trace yMeanTrace = ScatterTrace.builder(x, yMean).name("Mean")
+                .mode(ScatterTrace.Mode.LINE)
+                .line(Line.builder().width(2).color("rgb(0, 0, 255)").build())
+                .build();
+        Trace yMeanSdMinusTrace = ScatterTrace.builder(x, yMeanSdMinus).name("Mean - SD")
+                .opacity(0.3)
+                .line(Line.builder().simplify(true).dash(Line.Dash.DASH_DOT).color("rgb(0, 0, 255)").build())
+                .mode(ScatterTrace.Mode.LINE).build();
+
+        Layout layout = Layout.builder().title(tableName)
+                .height(600).width(800)
+                .yAxis(Axis.builder().title(columnName).build())
+                .xAxis(Axis.builder().title(getLabel(metric)).build())
+                .build();
+
+        return new Figure(layout, yMeanSdPlusTrace, yMeanTrace, yMeanSdMinusTrace);
+    }
+
+    /**
+     * Makes box plots from the counts of each category of a column across games
+     * @param tablesCountsPerGame - the countByCategory() table of the column in each game
+     */
+    private Figure plotCountsPerGame(String tableName, String columnName, Table[] tablesCountsPerGame) {
+        Table countsPerGame = tablesCountsPerGame[0];
+        for (int idx = 1; idx < tablesCountsPerGame.length; idx++) {
+            countsPerGame = countsPerGame.append(tablesCountsPerGame[idx]);
+        }
+
+        // Create box plots from the counts
+        Layout layout = Layout.builder().title(tableName)
+                .height(600).width(800)
+                .yAxis(Axis.builder().title("Count").range(0, 30).build())  //  TODO hard-coded range
+                .xAxis(Axis.builder().title(columnName).categoryOrder(Axis.CategoryOrder.CATEGORY_ASCENDING).build())
+                .build();
+        BoxTrace trace = BoxTrace.builder(countsPerGame.categoricalColumn("Category"), countsPerGame.nCol("Count"))
+                .build();
+
+        return new Figure(layout, trace);
+    }
+
+
     /**
      * Defines x-axis label for a progression plot, based on the events the metric listens to.
      * Chooses the lowest level of granularity that the metric listens to.
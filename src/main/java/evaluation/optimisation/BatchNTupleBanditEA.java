@@ -0,0 +1,143 @@
+package evaluation.optimisation;
+
+import evodef.SearchSpace;
+import evodef.SearchSpaceUtil;
+import ntbea.NTupleSystem;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.Comparator.comparingDouble;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A batched version of NTupleBanditEA from the NTBEA library.
+ * At each step we evaluate the current point together with the (batchSize - 1) distinct neighbours of it that have
+ * the highest UCB value in the landscape model. The games for a batch can be played concurrently, and all the results
+ * are added to the model before we move on to the best neighbour (as in the sequential version).
+ * With a batchSize of 1 this is the same algorithm as NTupleBanditEA.
+ * <p>
+ * NTupleBanditEA uses unseeded static random number generators for mutation and tie-breaking. Here all random
+ * choices are taken from the Random provided, so that a run is reproducible for a given seed.
+ */
+public class BatchNTupleBanditEA {
+
+    static double epsilon = 0.5;
+    static double tieBreakNoise = 1e-6;
+
+    final NTupleSystem model;
+    final double kExplore;
+    final int neighbourhoodSize;
+    final int batchSize;
+    final Random rnd;
+    // the points evaluated in the last trial, in the order they were evaluated
+    final List<int[]> sampled = new ArrayList<>();
+
+    public BatchNTupleBanditEA(NTupleSystem model, double kExplore, int neighbourhoodSize, int batchSize, Random rnd) {
+        if (batchSize < 1)
+            throw new AssertionError("batchSize must be at least 1");
+        this.model = model;
+        this.kExplore = kExplore;
+        this.neighbourhoodSize = neighbourhoodSize;
+        this.batchSize = batchSize;
+        this.rnd = rnd;
+    }
+
+    /**
+     * Runs nEvals evaluations, and returns the best of the sampled points using the mean estimate of the model.
+     *
+     * @param executor passed to the evaluator to play the games in each batch; null to play them on this thread
+     */
+    public double[] runTrial(GameEvaluator evaluator, int nEvals, ExecutorService executor) {
+        SearchSpace searchSpace = evaluator.searchSpace();
+        int nNeighbours = (int) Math.max(5, Math.min(neighbourhoodSize, SearchSpaceUtil.size(searchSpace) / 4));
+        model.setEpsilon(epsilon);
+        sampled.clear();
+
+        int[] current = new int[searchSpace.nDims()];
+        for (int i = 0; i < current.length; i++)
+            current[i] = rnd.nextInt(searchSpace.nValues(i));
+
+        while (sampled.size() < nEvals) {
+            int thisBatch = Math.min(batchSize, nEvals - sampled.size());
+            List<int[]> batch = new ArrayList<>(thisBatch);
+            batch.add(current);
+            if (thisBatch > 1)
+                batch.addAll(bestNeighbours(current, searchSpace, Math.max(nNeighbours, 2 * thisBatch), thisBatch - 1));
+
+            double[] results = evaluator.evaluate(batch, executor);
+            for (int i = 0; i < batch.size(); i++) {
+                model.addPoint(batch.get(i), results[i]);
+                sampled.add(batch.get(i));
+            }
+            current = bestNeighbours(current, searchSpace, nNeighbours, 1).get(0);
+        }
+        return bestOfSampled();
+    }
+
+    /**
+     * The equivalent of NTupleSystem.getBestOfSampled(), but with ties broken by the order in which the points were
+     * sampled (the library iterates over a HashSet of arrays, so the order is not stable between runs).
+     */
+    public double[] bestOfSampled() {
+        int[] best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int[] point : sampled) {
+            double value = model.getMeanEstimate(point);
+            if (best == null || value > bestValue) {
+                best = point;
+                bestValue = value;
+            }
+        }
+        if (best == null)
+            return new double[0];
+        return Arrays.stream(best).asDoubleStream().toArray();
+    }
+
+    /**
+     * Generates nNeighbours random mutations of the point, and returns up to n distinct ones in order of UCB value.
+     * The point itself is excluded (unless nothing else can be generated).
+     */
+    private List<int[]> bestNeighbours(int[] point, SearchSpace searchSpace, int nNeighbours, int n) {
+        Map<List<Integer>, int[]> neighbours = new LinkedHashMap<>();
+        for (int i = 0; i < nNeighbours; i++) {
+            int[] neighbour = mutate(point, searchSpace);
+            if (!Arrays.equals(neighbour, point))
+                neighbours.putIfAbsent(Arrays.stream(neighbour).boxed().collect(toList()), neighbour);
+        }
+        if (neighbours.isEmpty())
+            return Collections.singletonList(point);
+        Map<int[], Double> ucb = new HashMap<>();
+        for (int[] neighbour : neighbours.values())
+            ucb.put(neighbour, model.getMeanEstimate(neighbour) + kExplore * model.getExplorationEstimate(neighbour)
+                    + rnd.nextDouble() * tieBreakNoise);
+        return neighbours.values().stream()
+                .sorted(comparingDouble(x -> -ucb.get(x)))
+                .limit(n)
+                .collect(toList());
+    }
+
+    /**
+     * As DefaultMutator.randMut(): each dimension is changed with probability 1/nDims, and at least one is always
+     * changed (to a different value, if it has more than one).
+     */
+    private int[] mutate(int[] point, SearchSpace searchSpace) {
+        int[] retValue = new int[point.length];
+        double mutationProbability = 1.0 / point.length;
+        int flipAtLeastOne = rnd.nextInt(point.length);
+        for (int i = 0; i < point.length; i++) {
+            if (i == flipAtLeastOne || rnd.nextDouble() < mutationProbability) {
+                int nValues = searchSpace.nValues(i);
+                if (nValues <= 1) {
+                    retValue[i] = point[i];
+                } else {
+                    int newValue = rnd.nextInt(nValues - 1);
+                    retValue[i] = newValue < point[i] ? newValue : newValue + 1;
+                }
+            } else {
+                retValue[i] = point[i];
+            }
+        }
+        return retValue;
+    }
+}
@@ -6,6 +6,7 @@ import core.Game;
 import core.interfaces.IGameHeuristic;
 import core.interfaces.IStateHeuristic;
 import core.interfaces.IStatisticLogger;
+import evaluation.LiveMetrics;
 import evaluation.listeners.IGameListener;
 import evodef.SearchSpace;
 import evodef.SolutionEvaluator;
@@ -13,6 +14,7 @@ import games.GameType;
 import players.IAnyTimePlayer;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.IntStream;
 
 import static evaluation.optimisation.NTBEAParameters.Mode.CoopNTBEA;
@@ -40,6 +42,25 @@ public class GameEvaluator implements SolutionEvaluator {
     IStateHeuristic stateHeuristic;
     IGameHeuristic gameHeuristic;
     List<IGameListener> listeners = new ArrayList<>();
+    // If true (and params.pairedSeeds > 0), then evaluate() uses paired evaluation against the incumbent (see below)
+    boolean paired;
+    // The best settings found so far in paired mode, against which the others are scored (see updateIncumbent())
+    int[] incumbent;
+    // Incremented each time the incumbent changes, so that results paired with an earlier incumbent can be told apart
+    int incumbentGeneration;
+    // The sum of the results of each setting evaluated in paired mode, and the number of evaluations
+    Map<List<Integer>, double[]> resultsPerSetting = new HashMap<>();
+    // The fixed pool of seeds used in paired mode
+    long[] seedPool;
+    // The result of the incumbent for each seed (index in seedPool) and seat, each played just once
+    Map<Integer, FutureTask<Double>> incumbentResults = new HashMap<>();
+    // Running sums over the (candidate, incumbent) pairs so far, used to estimate the control variate coefficient
+    int pairs;
+    double sumCandidate, sumIncumbent, sumIncumbentSq, sumProduct;
+    // Pairs needed before the incumbent result is used to adjust the candidate one
+    static int minPairs = 10;
+    // Evaluations of a setting needed before it can replace the incumbent
+    static int minIncumbentEvals = 3;
 
     /**
      * GameEvaluator
@@ -77,6 +98,12 @@ public class GameEvaluator implements SolutionEvaluator {
     @Override
     public void reset() {
         nEvals = 0;
+        incumbent = null;
+        incumbentGeneration = 0;
+        resultsPerSetting.clear();
+        incumbentResults.clear();
+        pairs = 0;
+        sumCandidate = sumIncumbent = sumIncumbentSq = sumProduct = 0.0;
     }
 
     @Override
@@ -95,6 +122,54 @@ public class GameEvaluator implements SolutionEvaluator {
      */
     @Override
     public double evaluate(int[] settings) {
+        return evaluate(Collections.singletonList(settings), null)[0];
+    }
+
+    /**
+     * Evaluates a batch of settings, returning the score for each in the same order.
+     * Everything that uses the search space or our random number generator (creating the agents, assigning
+     * opponents and drawing the game seeds) is done on the calling thread in batch order. Only the games are
+     * then played on the executor, so the results for a given seed do not depend on how these are scheduled.
+     *
+     * @param executor The games are played concurrently on this; or on the calling thread if it is null
+     */
+    public double[] evaluate(List<int[]> batch, ExecutorService executor) {
+        List<Callable<double[]>> evaluations = batch.stream().map(this::prepareEvaluation).collect(toList());
+        double[] retValue = new double[evaluations.size()];
+        try {
+            if (executor == null) {
+                for (int i = 0; i < retValue.length; i++)
+                    retValue[i] = adjustForIncumbent(batch.get(i), evaluations.get(i).call());
+            } else {
+                List<Future<double[]>> results = executor.invokeAll(evaluations);
+                for (int i = 0; i < retValue.length; i++)
+                    retValue[i] = adjustForIncumbent(batch.get(i), results.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while evaluating settings", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Error while evaluating settings", e.getCause());
+        } catch (Exception e) {
+            throw new AssertionError("Error while evaluating settings", e);
+        }
+        return retValue;
+    }
+
+    /**
+     * Normally each evaluation is one game with a new random seed, and the tuned agent cycling through each seat.
+     * <p>
+     * In paired mode (params.pairedSeeds > 0) we use common random numbers to reduce the variance of the comparison
+     * between settings. Seeds are taken in turn from a fixed pool, with the seat moving on by one each time we go
+     * round the pool (so that each seed is used in every seat), and the opponents are chosen and seeded using the seed.
+     * The same games are played (just once each) with the incumbent settings, which are the best settings found so far
+     * (starting with the first evaluated after reset()). The result of the incumbent is then used as a control variate
+     * (see adjustForIncumbent()).
+     *
+     * @return a Callable that plays the games, and returns the results of the candidate and of the incumbent (NaN if
+     * not paired), followed (if paired) by the generation of the incumbent
+     */
+    private Callable<double[]> prepareEvaluation(int[] settings) {
         if (debug)
             System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
                     Arrays.toString(settings), System.currentTimeMillis());
@@ -106,43 +181,162 @@ public class GameEvaluator implements SolutionEvaluator {
         // we assign one player to each team (the default for a game is each player being their own team of 1)
         int nTeams = newGame.getGameState().getNTeams();
 
+        boolean pairedEvaluation = paired && params.pairedSeeds > 0;
+        if (pairedEvaluation && !tuningPlayer)
+            throw new AssertionError("Paired evaluation requires tuning of player");
+        int seedIndex = pairedEvaluation ? nEvals % params.pairedSeeds : -1;
+        if (pairedEvaluation && seedPool == null)
+            seedPool = rnd.longs(params.pairedSeeds).toArray();
+
         // We can reduce variance here by cycling the teamIndex on each iteration
         // If we're not tuning the player, then setting index to -99 means we just use the provided opponents list
         // in setupPlayers()
-        int teamIndex = tuningPlayer ? nEvals % nTeams : -99;
+        int teamIndex = tuningPlayer ? (pairedEvaluation ? seedIndex + nEvals / params.pairedSeeds : nEvals) % nTeams : -99;
 
         // We generally one game per evaluation, unless we are in 'Stable' mode,
         // in which case we reduce variance by running one game for each position the tuned agent can be in
         if (params.mode == StableNTBEA && !tuningPlayer)
             throw new AssertionError("StableNTBEA mode requires tuning of player");
         int gamesToRun = params.mode == StableNTBEA ? nTeams : 1;
-        long seed = rnd.nextLong();
-        double retValue = 0.0;
+        long seed = pairedEvaluation ? seedPool[seedIndex] : rnd.nextLong();
+        int[] teamIndices = new int[gamesToRun];
+        List<List<AbstractPlayer>> playersPerGame = new ArrayList<>(gamesToRun);
         for (int loop = 0; loop < gamesToRun; loop++) {
-            int thisTeamIndex = teamIndex == -99 ? -99 : (teamIndex + loop) % nTeams;
-            List<AbstractPlayer> allPlayers = setupPlayers(thisTeamIndex, nTeams, settings);
-
-            // always reset the random seed for each new game
-            newGame.reset(allPlayers, seed);
-            newGame.run();
-
-            int playerOnTeam = -1;
-            for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
-                if (newGame.getGameState().getTeam(p) == thisTeamIndex) {
-                    playerOnTeam = p;
-                }
-            }
-            if (tuningPlayer && playerOnTeam == -1)
-                throw new AssertionError("No Player found on team " + thisTeamIndex);
-            retValue += tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
+            teamIndices[loop] = teamIndex == -99 ? -99 : (teamIndex + loop) % nTeams;
+            List<AbstractPlayer> players = setupPlayers(teamIndices[loop], nTeams, settings, pairedEvaluation ? new Random(seed) : rnd);
+            if (pairedEvaluation)
+                seedPlayers(players, seed);
+            playersPerGame.add(players);
         }
-        //    System.out.println("GameEvaluator: " + retValue);
 
+        List<FutureTask<Double>> incumbentGames = new ArrayList<>();
+        int generation = incumbentGeneration;
+        if (pairedEvaluation) {
+            if (incumbent == null)
+                incumbent = settings.clone();
+            for (int teamIdx : teamIndices) {
+                incumbentGames.add(incumbentResults.computeIfAbsent(seedIndex * nTeams + teamIdx, k -> {
+                    List<AbstractPlayer> incumbentPlayers = setupPlayers(teamIdx, nTeams, incumbent, new Random(seed));
+                    seedPlayers(incumbentPlayers, seed);
+                    Game incumbentGame = game.createGameInstance(nPlayers, gameParams);
+                    return new FutureTask<>(() -> playGame(incumbentGame, incumbentPlayers, seed, teamIdx, true, false));
+                }));
+            }
+        }
         nEvals++;
+
+        return () -> {
+            double retValue = 0.0;
+            for (int loop = 0; loop < gamesToRun; loop++)
+                retValue += playGame(newGame, playersPerGame.get(loop), seed, teamIndices[loop], tuningPlayer, tuningGame);
+            //    System.out.println("GameEvaluator: " + retValue);
+            if (!pairedEvaluation)
+                return new double[]{retValue, Double.NaN};
+            // each incumbent game is played by the first evaluation that needs it (and any others wait for this)
+            double incumbentValue = 0.0;
+            for (FutureTask<Double> incumbentGame : incumbentGames) {
+                incumbentGame.run();
+                incumbentValue += incumbentGame.get();
+            }
+            return new double[]{retValue, incumbentValue, generation};
+        };
+    }
+
+    /**
+     * In paired mode the candidate result C is adjusted by the incumbent result I on the same games to
+     * C - beta * (I - mean(I)), where beta = cov(C, I) / var(I) over the earlier pairs.
+     * This has the same expectation as C (so the landscape model still estimates the raw score), and a variance
+     * reduced by a factor of (1 - correlation^2). With beta = 1 this would be the plain paired difference (plus a
+     * constant), but that adds the variance of the incumbent, and is worse than unpaired evaluation whenever the
+     * correlation is below about 0.5 - as it often is for win/loss results.
+     * This is called on the calling thread in batch order, so that the results are reproducible.
+     * A result paired with an earlier incumbent (prepared before the incumbent last changed) is not adjusted.
+     */
+    double adjustForIncumbent(int[] settings, double[] result) {
+        double candidate = result[0], incumbentValue = result[1];
+        if (Double.isNaN(incumbentValue))
+            return candidate;
+        if (result[2] != incumbentGeneration) {
+            updateIncumbent(settings, candidate);
+            return candidate;
+        }
+        double retValue = candidate;
+        if (pairs >= minPairs) {
+            double meanIncumbent = sumIncumbent / pairs;
+            double varIncumbent = sumIncumbentSq / pairs - meanIncumbent * meanIncumbent;
+            double covariance = sumProduct / pairs - meanIncumbent * sumCandidate / pairs;
+            if (varIncumbent > 1e-12)
+                retValue -= covariance / varIncumbent * (incumbentValue - meanIncumbent);
+        }
+        pairs++;
+        sumCandidate += candidate;
+        sumIncumbent += incumbentValue;
+        sumIncumbentSq += incumbentValue * incumbentValue;
+        sumProduct += candidate * incumbentValue;
+        updateIncumbent(settings, candidate);
         return retValue;
     }
 
-    private List<AbstractPlayer> setupPlayers(int teamIndex, int nTeams, int[] settings) {
+    /**
+     * Records the (unadjusted) result of these settings, and makes them the incumbent if they have now been evaluated
+     * at least minIncumbentEvals times, with a better mean result than the incumbent has had in the pairs since it
+     * became the incumbent. The incumbent games, and the pairs used to estimate the control variate coefficient, then
+     * start again with the new incumbent.
+     */
+    private void updateIncumbent(int[] settings, double candidate) {
+        double[] totals = resultsPerSetting.computeIfAbsent(Arrays.stream(settings).boxed().collect(toList()),
+                k -> new double[2]);
+        totals[0] += candidate;
+        totals[1]++;
+        if (totals[1] < minIncumbentEvals || pairs == 0 || Arrays.equals(settings, incumbent))
+            return;
+        double candidateMean = totals[0] / totals[1];
+        double incumbentMean = sumIncumbent / pairs;
+        if (candidateMean <= incumbentMean)
+            return;
+        if (debug)
+            System.out.printf("New incumbent %s, with mean %.3g over %d evaluations (was %s, with %.3g)%n",
+                    Arrays.toString(settings), candidateMean, (int) totals[1], Arrays.toString(incumbent), incumbentMean);
+        incumbent = settings.clone();
+        incumbentGeneration++;
+        incumbentResults.clear();
+        pairs = 0;
+        sumCandidate = sumIncumbent = sumIncumbentSq = sumProduct = 0.0;
+    }
+
+    /**
+     * In paired mode the random number generator of each player is seeded from the game seed (and seat), so that the
+     * opponents (and the agent, as far as its settings allow) make the same choices in the games being compared.
+     */
+    private static void seedPlayers(List<AbstractPlayer> players, long seed) {
+        for (int i = 0; i < players.size(); i++)
+            players.get(i).getRnd().setSeed(seed + i);
+    }
+
+    private double playGame(Game newGame, List<AbstractPlayer> players, long seed, int thisTeamIndex,
+                            boolean tuningPlayer, boolean tuningGame) {
+        // always reset the random seed for each new game
+        newGame.reset(players, seed);
+        newGame.run();
+        LiveMetrics liveMetrics = LiveMetrics.get();
+        if (liveMetrics != null)
+            liveMetrics.gameCompleted();
+
+        int playerOnTeam = -1;
+        for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
+            if (newGame.getGameState().getTeam(p) == thisTeamIndex) {
+                playerOnTeam = p;
+            }
+        }
+        if (tuningPlayer && playerOnTeam == -1)
+            throw new AssertionError("No Player found on team " + thisTeamIndex);
+        return tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
+    }
+
+    /**
+     * @param oppRnd used to choose the opponents
+     */
+    private List<AbstractPlayer> setupPlayers(int teamIndex, int nTeams, int[] settings, Random oppRnd) {
         List<AbstractPlayer> allPlayers = new ArrayList<>(nPlayers);
         // create a random permutation of opponents - this is used if we want to avoid opponent duplicates
         // if we allow duplicates, then we randomise them all independently
@@ -151,7 +345,7 @@ public class GameEvaluator implements SolutionEvaluator {
         int count = 0;
         for (int i = 0; i < nTeams; i++) {
             if (params.mode != CoopNTBEA && i != teamIndex) {
-                int oppIndex = (avoidOppDupes) ? count : rnd.nextInt(opponents.size());
+                int oppIndex = (avoidOppDupes) ? count : oppRnd.nextInt(opponents.size());
                 count = (count + 1) % nTeams;
                 allPlayers.add(opponents.get(oppIndex).copy());
             } else {
@@ -4,6 +4,7 @@ import evodef.SearchSpace;
 import games.GameType;
 import ntbea.MultiNTupleBanditEA;
 import ntbea.NTupleSystem;
+import utilities.Pair;
 
 import java.util.*;
 import java.util.stream.IntStream;
@@ -17,6 +18,10 @@ public class MultiNTBEA extends NTBEA {
     public MultiNTBEA(NTBEAParameters parameters, GameType game, int nPlayers) {
         super(parameters, game, nPlayers);
         params.evalGames = 0;  // these are not used in the multi-player case (yet)
+        if (params.batchSize > 1)
+            throw new AssertionError("batchSize > 1 is not supported for MultiNTBEA");
+        if (params.pairedSeeds > 0)
+            throw new AssertionError("pairedSeeds is not supported for MultiNTBEA");
 
         searchFramework = new MultiNTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize, nPlayers);
 
@@ -31,15 +36,29 @@ public class MultiNTBEA extends NTBEA {
     }
 
     @Override
-    protected void runIteration() {
-        super.runIteration();
+    protected NTBEA createRepeat(long seed) {
+        MultiNTBEA repeat = new MultiNTBEA(params, game, nPlayers);
+        repeat.initialiseRepeat(this, seed);
+        return repeat;
+    }
+
+    @Override
+    protected void initialiseRepeat(NTBEA parent, long seed) {
+        super.initialiseRepeat(parent, seed);
+        multiPlayerEvaluator.rnd = new Random(rnd.nextLong());
+    }
+
+    @Override
+    protected Pair<Pair<Double, Double>, int[]> runIteration() {
+        Pair<Pair<Double, Double>, int[]> retValue = super.runIteration();
         printDiversityResults(landscapeModel, params.kExplore);
+        return retValue;
     }
 
     @Override
     protected void runTrials() {
         multiPlayerEvaluator.reset();
-        searchFramework.runTrial(multiPlayerEvaluator, params.iterationsPerRun);
+        bestOfSampled = searchFramework.runTrial(multiPlayerEvaluator, params.iterationsPerRun);
     }
 
 
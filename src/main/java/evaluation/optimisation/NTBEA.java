@@ -5,10 +5,12 @@ import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.interfaces.IGameHeuristic;
 import core.interfaces.IStateHeuristic;
+import evaluation.LiveMetrics;
 import evaluation.RunArg;
 import evaluation.listeners.IGameListener;
 import evaluation.tournaments.AbstractTournament;
 import evaluation.tournaments.RoundRobinTournament;
+import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.util.CombinatoricsUtils;
 import games.GameType;
 import ntbea.NTupleBanditEA;
@@ -28,6 +30,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.IntToDoubleFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -52,6 +55,13 @@ public class NTBEA {
     int currentIteration = 0;
     IStateHeuristic stateHeuristic;
     IGameHeuristic gameHeuristic;
+    Random rnd;
+    // the best sampled settings from the last call to runTrials()
+    double[] bestOfSampled;
+    // true if the recommendations from each repeat are raced against each other after all repeats are complete
+    boolean racingWinners;
+    // used to play games concurrently (if there are more threads than concurrent repeats) while a repeat is in progress
+    ExecutorService executor;
 
     public NTBEA(NTBEAParameters parameters, GameType game, int nPlayers) {
         // Now initialise the other bits and pieces needed for the NTBEA package
@@ -61,6 +71,7 @@ public class NTBEA {
         landscapeModel.addTuples();
 
         searchFramework = new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
+        rnd = new Random(params.seed);
         this.game = game;
         this.nPlayers = nPlayers;
         // Set up opponents
@@ -136,11 +147,44 @@ public class NTBEA {
      * @return
      */
     public Pair<Object, int[]> run() {
-
-        for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
-            runIteration();
-            writeAgentJSON(winnerSettings.get(winnerSettings.size() - 1),
-                    params.destDir + File.separator + "Recommended_" + currentIteration + ".json");
+        // Each repeat is run on an independent instance (see createRepeat()), with a seed derived from params.seed,
+        // so that the results are the same whether or not the repeats are run concurrently
+        long[] repeatSeeds = new Random(params.seed).longs(params.repeats).toArray();
+        int concurrentRepeats = Math.max(1, Math.min(params.threads, params.repeats));
+        int threadsPerRepeat = Math.max(1, params.threads / concurrentRepeats);
+        ExecutorService repeatExecutor = concurrentRepeats > 1 ? Executors.newFixedThreadPool(concurrentRepeats) : null;
+        // with early stopping, the recommendations from each repeat are raced against each other once all are known
+        racingWinners = params.earlyStop > 0.0 && params.evalGames > 0 && params.repeats > 1;
+        try {
+            List<Future<Pair<Pair<Double, Double>, int[]>>> repeats = new ArrayList<>();
+            if (repeatExecutor != null) {
+                for (long seed : repeatSeeds) {
+                    NTBEA repeat = createRepeat(seed);
+                    repeats.add(repeatExecutor.submit(() -> repeat.runRepeat(threadsPerRepeat)));
+                }
+            }
+            // the results are then recorded in order, as each repeat completes
+            List<Pair<Pair<Double, Double>, int[]>> results = new ArrayList<>();
+            for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
+                results.add(repeatExecutor == null
+                        ? createRepeat(repeatSeeds[currentIteration]).runRepeat(threadsPerRepeat)
+                        : repeats.get(currentIteration).get());
+                if (!racingWinners)
+                    recordRepeat(results.get(currentIteration));
+            }
+            if (racingWinners) {
+                raceWinners(results);
+                for (currentIteration = 0; currentIteration < params.repeats; currentIteration++)
+                    recordRepeat(results.get(currentIteration));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while waiting for NTBEA repeats", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Error in NTBEA repeat " + currentIteration, e.getCause());
+        } finally {
+            if (repeatExecutor != null)
+                repeatExecutor.shutdownNow();
         }
 
         // After all runs are complete, if tournamentGames are specified, then we allow all the
@@ -179,6 +223,7 @@ public class NTBEA {
                 }
                 config.put(byTeam, true);
                 config.put(RunArg.distinctRandomSeeds, 0);
+                config.put(RunArg.earlyStop, params.earlyStop);
                 config.put(RunArg.budget, params.budget);
                 config.put(RunArg.verbose, false);
                 config.put(RunArg.destDir, params.destDir);
@@ -235,10 +280,107 @@ public class NTBEA {
 
     protected void runTrials() {
         evaluator.reset();
-        searchFramework.runTrial(evaluator, params.iterationsPerRun);
+        // paired evaluation (if pairedSeeds > 0) only applies to the search; later evaluation games are unpaired
+        evaluator.paired = true;
+        try {
+            if (params.batchSize > 1) {
+                BatchNTupleBanditEA batchFramework = new BatchNTupleBanditEA(landscapeModel, params.kExplore,
+                        params.neighbourhoodSize, params.batchSize, rnd);
+                bestOfSampled = batchFramework.runTrial(evaluator, params.iterationsPerRun, executor);
+            } else {
+                bestOfSampled = searchFramework.runTrial(evaluator, params.iterationsPerRun);
+            }
+        } finally {
+            evaluator.paired = false;
+        }
+    }
+
+    private void recordRepeat(Pair<Pair<Double, Double>, int[]> result) {
+        recordIteration(result);
+        writeAgentJSON(winnerSettings.get(winnerSettings.size() - 1),
+                params.destDir + File.separator + "Recommended_" + currentIteration + ".json");
+    }
+
+    /**
+     * Plays evaluation games for the recommendation from each repeat in rounds of one game each, and drops a
+     * recommendation once the upper end of its confidence interval (at params.earlyStop, with a Bonferroni
+     * correction) is below the lower end of the best one. We stop once only one is left, or after evalGames rounds.
+     * The scores in results are replaced by those from the evaluation games.
+     */
+    protected void raceWinners(List<Pair<Pair<Double, Double>, int[]>> results) {
+        int n = results.size();
+        double z = new NormalDistribution().inverseCumulativeProbability(1.0 - (1.0 - params.earlyStop) / (2.0 * n));
+        List<List<Double>> scores = IntStream.range(0, n).mapToObj(i -> new ArrayList<Double>()).collect(Collectors.toList());
+        Set<Integer> active = IntStream.range(0, n).boxed().collect(Collectors.toCollection(TreeSet::new));
+        int gamesPlayed = 0;
+        if (params.threads > 1)
+            executor = Executors.newFixedThreadPool(params.threads);
+        try {
+            for (int round = 0; round < params.evalGames && active.size() > 1; round++) {
+                List<Integer> toPlay = new ArrayList<>(active);
+                double[] roundScores = evaluator.evaluate(toPlay.stream().map(i -> results.get(i).b).collect(Collectors.toList()), executor);
+                for (int k = 0; k < toPlay.size(); k++)
+                    scores.get(toPlay.get(k)).add(roundScores[k]);
+                gamesPlayed += toPlay.size();
+                if (round + 1 < RoundRobinTournament.earlyStopMinGames)
+                    continue;
+                double bestLowerBound = active.stream()
+                        .map(i -> meanAndStdErr(scores.get(i)))
+                        .mapToDouble(p -> p.a - z * p.b).max().orElseThrow();
+                active.removeIf(i -> {
+                    Pair<Double, Double> score = meanAndStdErr(scores.get(i));
+                    return score.a + z * score.b < bestLowerBound;
+                });
+            }
+        } finally {
+            if (executor != null)
+                executor.shutdownNow();
+            executor = null;
+        }
+        for (int i = 0; i < n; i++)
+            results.set(i, new Pair<>(meanAndStdErr(scores.get(i)), results.get(i).b));
+        System.out.printf("Early stopping at %.3f confidence: played %d of %d evaluation games (%d saved)%n",
+                params.earlyStop, gamesPlayed, n * params.evalGames, n * params.evalGames - gamesPlayed);
+    }
+
+    /**
+     * Creates an independent instance to run a single repeat. This has its own landscape model, evaluator (with
+     * copies of our opponents), forward models and random number generators, so repeats can be run concurrently.
+     */
+    protected NTBEA createRepeat(long seed) {
+        NTBEA repeat = new NTBEA(params, game, nPlayers);
+        repeat.initialiseRepeat(this, seed);
+        return repeat;
+    }
+
+    protected void initialiseRepeat(NTBEA parent, long seed) {
+        Random seeds = new Random(seed);
+        rnd = new Random(seeds.nextLong());
+        evaluator.rnd = new Random(seeds.nextLong());
+        racingWinners = parent.racingWinners;
+        evaluator.opponents = parent.evaluator.opponents.stream().map(AbstractPlayer::copy).collect(Collectors.toList());
+    }
+
+    /**
+     * Runs a single repeat on this instance (as created by createRepeat()), with games played on up to the
+     * specified number of threads.
+     */
+    protected Pair<Pair<Double, Double>, int[]> runRepeat(int threads) {
+        if (threads > 1)
+            executor = Executors.newFixedThreadPool(threads);
+        try {
+            return runIteration();
+        } finally {
+            if (executor != null)
+                executor.shutdownNow();
+            executor = null;
+        }
     }
 
-    protected void runIteration() {
+    /**
+     * @return The score of the recommended settings (mean and std error), and the settings
+     */
+    protected Pair<Pair<Double, Double>, int[]> runIteration() {
         landscapeModel.reset();
 
         runTrials();
@@ -246,23 +388,29 @@ public class NTBEA {
         if (params.verbose)
             logResults();
 
-        int[] thisWinnerSettings = Arrays.stream(landscapeModel.getBestOfSampled())
+        int[] thisWinnerSettings = Arrays.stream(bestOfSampled)
                 .mapToInt(d -> (int) d)
                 .toArray();
 
         // now run the evaluation games on the final recommendation (if any...if not we report the NTBEA landscape estimate)
-        Pair<Double, Double> scoreOfBestAgent = params.evalGames == 0
-                ? new Pair<>(landscapeModel.getMeanEstimate(landscapeModel.getBestOfSampled()), 0.0)
+        Pair<Double, Double> scoreOfBestAgent = params.evalGames == 0 || racingWinners
+                ? new Pair<>(landscapeModel.getMeanEstimate(bestOfSampled), 0.0)
                 : evaluateWinner(thisWinnerSettings);
 
-        winnersPerRun.add(params.searchSpace.getAgent(thisWinnerSettings));
-        winnerSettings.add(thisWinnerSettings);
-        Pair<Pair<Double, Double>, int[]> resultToReport = new Pair<>(scoreOfBestAgent, thisWinnerSettings);
+        return new Pair<>(scoreOfBestAgent, thisWinnerSettings);
+    }
+
+    protected void recordIteration(Pair<Pair<Double, Double>, int[]> resultToReport) {
+        winnersPerRun.add(params.searchSpace.getAgent(resultToReport.b));
+        winnerSettings.add(resultToReport.b);
         if (params.verbose)
             printDetailsOfRun(resultToReport);
         logDetailsOfRun(resultToReport);
         if (resultToReport.a.a > bestResult.a.a)
             bestResult = resultToReport;
+        LiveMetrics liveMetrics = LiveMetrics.get();
+        if (liveMetrics != null)
+            liveMetrics.ntbeaRepeatCompleted(bestResult.a.a, bestResult.a.b, Arrays.toString(bestResult.b));
     }
 
     private List<IGameListener> createListeners() {
@@ -274,12 +422,14 @@ public class NTBEA {
 
     protected Pair<Double, Double> evaluateWinner(int[] winnerSettings) {
 
-        double[] results = IntStream.range(0, params.evalGames)
-                .mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
+        double[] results = evaluator.evaluate(Collections.nCopies(params.evalGames, winnerSettings), executor);
+        return meanAndStdErr(Arrays.stream(results).boxed().collect(Collectors.toList()));
+    }
 
-        double avg = Arrays.stream(results).average().orElse(0.0);
-        double stdErr = Math.sqrt(Arrays.stream(results)
-                .map(d -> Math.pow(d - avg, 2.0)).sum()) / (params.evalGames - 1.0);
+    private static Pair<Double, Double> meanAndStdErr(List<Double> results) {
+        double avg = results.stream().mapToDouble(d -> d).average().orElse(0.0);
+        double stdErr = Math.sqrt(results.stream()
+                .mapToDouble(d -> Math.pow(d - avg, 2.0)).sum()) / (results.size() - 1.0);
 
         return new Pair<>(avg, stdErr);
     }
@@ -288,8 +438,8 @@ public class NTBEA {
     private void logResults() {
 
         System.out.println("Current best sampled point (using mean estimate): " +
-                Arrays.toString(landscapeModel.getBestOfSampled()) +
-                String.format(", %.3g", landscapeModel.getMeanEstimate(landscapeModel.getBestOfSampled())));
+                Arrays.toString(bestOfSampled) +
+                String.format(", %.3g", landscapeModel.getMeanEstimate(bestOfSampled)));
 
         String tuplesExploredBySize = Arrays.toString(IntStream.rangeClosed(1, params.searchSpace.nDims())
                 .map(size -> landscapeModel.getTuples().stream()
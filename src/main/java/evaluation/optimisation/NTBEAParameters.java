@@ -26,8 +26,12 @@ public class NTBEAParameters {
     public boolean tuningGame;
     public int iterationsPerRun;
     public int repeats;
+    public int batchSize;
+    public int threads;
+    public int pairedSeeds;
     public int budget;
     public int evalGames;
+    public double earlyStop;
     public double kExplore;
     public int tournamentGames;
     public int neighbourhoodSize;
@@ -52,9 +56,15 @@ public class NTBEAParameters {
         tuningGame = (boolean) args.get(RunArg.tuneGame);
         iterationsPerRun = (int) args.get(RunArg.iterations);
         repeats = (int) args.get(RunArg.repeats);
+        batchSize = (int) args.get(RunArg.batchSize);
+        threads = (int) args.get(RunArg.threads);
+        pairedSeeds = (int) args.get(RunArg.pairedSeeds);
+        if (batchSize < 1 || threads < 1)
+            throw new IllegalArgumentException("batchSize and threads must be at least 1");
         tournamentGames = (int) args.get(RunArg.matchups);
         evalGames = (int) args.get(RunArg.evalGames);
         if (evalGames == -1) evalGames = iterationsPerRun / 5;
+        earlyStop = ((Number) args.get(RunArg.earlyStop)).doubleValue();
         kExplore = (double) args.get(RunArg.kExplore);
         neighbourhoodSize = (int) args.get(RunArg.neighbourhood);
         opponentDescriptor = (String) args.get(RunArg.opponent);
@@ -1,5 +1,6 @@
 package evaluation.optimisation;
 
+import evaluation.LiveMetrics;
 import evaluation.RunArg;
 import games.GameType;
 import org.json.simple.JSONObject;
@@ -65,17 +66,23 @@ public class ParameterSearch {
         NTBEAParameters params = new NTBEAParameters(config);
         params.printSearchSpaceDetails();
 
-        switch (params.mode) {
-            case NTBEA:
-            case CoopNTBEA:
-            case StableNTBEA:
-                NTBEA singleNTBEA = new NTBEA(params, game, nPlayers);
-                singleNTBEA.run();
-                break;
-            case MultiNTBEA:
-                MultiNTBEA multiNTBEA = new MultiNTBEA(params, game, nPlayers);
-                multiNTBEA.run();
-                break;
+        if ((int) config.get(RunArg.metricsPort) > 0)
+            LiveMetrics.start((int) config.get(RunArg.metricsPort));
+        try {
+            switch (params.mode) {
+                case NTBEA:
+                case CoopNTBEA:
+                case StableNTBEA:
+                    NTBEA singleNTBEA = new NTBEA(params, game, nPlayers);
+                    singleNTBEA.run();
+                    break;
+                case MultiNTBEA:
+                    MultiNTBEA multiNTBEA = new MultiNTBEA(params, game, nPlayers);
+                    multiNTBEA.run();
+                    break;
+            }
+        } finally {
+            LiveMetrics.stop();
         }
 
     }
@@ -0,0 +1,131 @@
+package evaluation.summarisers;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative long values (typically latencies in nanoseconds), in the style of HdrHistogram:
+ * values below 2 * SUB_BUCKETS are counted exactly, and above that each power of two is split into SUB_BUCKETS
+ * equal buckets, so a value is known to within 1 / SUB_BUCKETS (about 1.6%) of itself.
+ * <p>
+ * Recording a value is a few shifts and an array increment; the array only grows to cover the largest value seen
+ * (a few thousand ints for values of a few seconds in nanoseconds). Histograms can be merged with add().
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private int[] counts = new int[2 * SUB_BUCKETS];
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Values must not be negative : " + value);
+        int index = index(value);
+        if (index >= counts.length)
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length + SUB_BUCKETS * 4));
+        counts[index]++;
+        count++;
+        total += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    private static int index(long value) {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // the smallest value in the bucket
+    private static long lowestValue(int index) {
+        if (index < 2 * SUB_BUCKETS)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    // the largest value in the bucket
+    private static long highestValue(int index) {
+        return lowestValue(index + 1) - 1;
+    }
+
+    /**
+     * Adds all the values recorded by the other histogram (which is unchanged) to this one.
+     */
+    public void add(LatencyHistogram other) {
+        if (other.counts.length > counts.length)
+            counts = Arrays.copyOf(counts, other.counts.length);
+        for (int i = 0; i < other.counts.length; i++)
+            counts[i] += other.counts[i];
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public long min() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return count == 0 ? 0.0 : total / (double) count;
+    }
+
+    /**
+     * @param q between 0 and 1
+     * @return the value at this quantile (the top of the bucket it is in, so that this is never an under-estimate,
+     * but not above the largest value recorded). Zero if nothing has been recorded.
+     */
+    public long quantile(double q) {
+        if (count == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(q * count));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target)
+                return Math.min(highestValue(i), max);
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram retValue = new LatencyHistogram();
+        retValue.counts = counts.clone();
+        retValue.count = count;
+        retValue.total = total;
+        retValue.min = min;
+        retValue.max = max;
+        return retValue;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.0f p50=%d p99=%d max=%d", count, mean(), quantile(0.5), quantile(0.99), max);
+    }
+}
@@ -0,0 +1,145 @@
+package evaluation.summarisers;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable sketch of a stream of numbers, from which quantiles (such as the median) can be estimated in bounded
+ * memory. This is a compactor stack as used by KLL (with every level having the same capacity k):
+ * level h holds values that each stand for 2^h of the original ones. When a level reaches k values they are sorted,
+ * and every other one is promoted to the next level (alternating which half is kept, so that the estimates are not
+ * biased one way).
+ * <p>
+ * Until k values have been added, all of them are kept, and the quantiles are exact. After that the error in the
+ * rank of a quantile is of the order of log2(n/k)/k of n, and memory is O(k log(n/k)).
+ * Two sketches are merged level by level, in time proportional to their size.
+ */
+public class QuantileSketch {
+
+    public static int defaultK = 256;
+
+    private final int k;
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+    private boolean[] keepOdd = new boolean[0];
+    private long count;
+
+    public QuantileSketch() {
+        this(defaultK);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < 2 || k % 2 != 0)
+            throw new IllegalArgumentException("The size of a QuantileSketch must be even and at least 2 : " + k);
+        this.k = k;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the number of values currently held (which bounds the memory used)
+     */
+    public int retained() {
+        int total = 0;
+        for (int size : sizes)
+            total += size;
+        return total;
+    }
+
+    public void add(double x) {
+        append(0, x);
+        count++;
+        if (sizes[0] >= k)
+            compact(0);
+    }
+
+    /**
+     * Adds all the values summarised by the other sketch (which is unchanged) to this one.
+     */
+    public void add(QuantileSketch other) {
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++)
+                append(h, other.levels[h][i]);
+        }
+        count += other.count;
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] >= k)
+                compact(h);
+        }
+    }
+
+    /**
+     * @param q between 0 and 1
+     * @return the smallest value for which more than q of the values are at or below it; so with an even number of
+     * values, the median (q = 0.5) is the upper of the middle two.
+     * NaN if there are no values.
+     */
+    public double quantile(double q) {
+        if (count == 0)
+            return Double.NaN;
+        // sort each level, and then walk through them together in order of value
+        double[][] sorted = new double[levels.length][];
+        for (int h = 0; h < levels.length; h++) {
+            sorted[h] = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(sorted[h]);
+        }
+        int[] next = new int[levels.length];
+        double target = q * count;
+        long cumulative = 0;
+        double value = Double.NaN;
+        while (cumulative <= target) {
+            int best = -1;
+            for (int h = 0; h < sorted.length; h++) {
+                if (next[h] < sorted[h].length && (best == -1 || sorted[h][next[h]] < sorted[best][next[best]]))
+                    best = h;
+            }
+            if (best == -1)
+                break;
+            value = sorted[best][next[best]++];
+            cumulative += 1L << best;
+        }
+        return value;
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch(k);
+        copy.levels = new double[levels.length][];
+        for (int h = 0; h < levels.length; h++)
+            copy.levels[h] = levels[h].clone();
+        copy.sizes = sizes.clone();
+        copy.keepOdd = keepOdd.clone();
+        copy.count = count;
+        return copy;
+    }
+
+    private void append(int h, double x) {
+        if (h >= levels.length) {
+            levels = Arrays.copyOf(levels, h + 1);
+            sizes = Arrays.copyOf(sizes, h + 1);
+            keepOdd = Arrays.copyOf(keepOdd, h + 1);
+            // small to start with, as many sketches only ever see a few values
+            levels[h] = new double[Math.min(16, k)];
+        }
+        if (sizes[h] == levels[h].length)
+            levels[h] = Arrays.copyOf(levels[h], levels[h].length * 2);
+        levels[h][sizes[h]++] = x;
+    }
+
+    private void compact(int h) {
+        double[] level = levels[h];
+        int size = sizes[h];
+        Arrays.sort(level, 0, size);
+        // an odd value out (the largest) stays at this level
+        int pairs = size / 2;
+        int offset = keepOdd[h] ? 1 : 0;
+        keepOdd[h] = !keepOdd[h];
+        for (int i = 0; i < pairs; i++)
+            append(h + 1, level[2 * i + offset]);
+        if (size % 2 == 1)
+            level[0] = level[size - 1];
+        sizes[h] = size % 2;
+        if (sizes[h + 1] >= k)
+            compact(h + 1);
+    }
+}
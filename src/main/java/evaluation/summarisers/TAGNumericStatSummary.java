@@ -4,14 +4,16 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.IntStream;
 
 import static evaluation.summarisers.TAGStatSummary.StatType.Numeric;
 
 /**
- * This class is used to model the statistics of several numbers.  For the statistics
- * we choose here it is not necessary to store all the numbers - just keeping a running total
- * of how many, the sum and the sum of the squares is sufficient (plus max and min, for max and min).
+ * This class is used to model the statistics of several numbers.
+ * <p>
+ * By default the numbers themselves are not stored: the mean, sd, skew and kurtosis are kept as running (Welford)
+ * moments, and the median and other quantiles are estimated from a QuantileSketch, so the memory used is bounded
+ * however many numbers are added (and the median is exact until QuantileSketch.defaultK have been).
+ * In exact mode every number is kept, as is needed by getElements(), and all statistics are computed from them.
  */
 
 public class TAGNumericStatSummary extends TAGStatSummary {
@@ -22,14 +24,30 @@ public class TAGNumericStatSummary extends TAGStatSummary {
     private double lastAdded;
     private boolean valid;
 
+    private boolean exact;
     private ArrayList<Double> elements;
+    // running moments: the mean, and the sums of the 2nd, 3rd and 4th powers of the differences from it
+    private double runningMean, m2, m3, m4;
+    private QuantileSketch sketch;
+    // for the Delta summary: the first and last numbers added, and how often consecutive numbers differed
+    private double firstElement, lastElement;
+    private int changes;
 
     public TAGNumericStatSummary() {
         this("");
     }
 
     public TAGNumericStatSummary(String name) {
+        this(name, false);
+    }
+
+    /**
+     * @param exact if true, then all the numbers are kept (rather than a bounded sketch of them)
+     */
+    public TAGNumericStatSummary(String name, boolean exact) {
         super(name, Numeric);
+        this.exact = exact;
+        reset();
     }
 
     public void reset() {
@@ -40,7 +58,18 @@ public class TAGNumericStatSummary extends TAGStatSummary {
         min = Double.POSITIVE_INFINITY;
         max = Double.NEGATIVE_INFINITY;
         valid = false;
-        elements = new ArrayList<>();
+        runningMean = 0;
+        m2 = 0;
+        m3 = 0;
+        m4 = 0;
+        changes = 0;
+        // this is called by the super-class constructor before exact is set, and then again once it is
+        elements = exact ? new ArrayList<>() : null;
+        sketch = exact ? null : new QuantileSketch();
+    }
+
+    public boolean isExact() {
+        return exact;
     }
 
     public double max() {
@@ -67,19 +96,30 @@ public class TAGNumericStatSummary extends TAGStatSummary {
         return median;
     }
 
-    public double kurtosis() {
-        if (n < 4 || sd < 0.001) return 0.0;
+    /**
+     * @param q between 0 and 1 (e.g. 0.9 for the 90th percentile)
+     * @return the smallest number for which more than q of the numbers are at or below it (estimated, unless in
+     * exact mode)
+     */
+    public double quantile(double q) {
+        if (n == 0)
+            return 0.0;
+        if (!exact)
+            return sketch.quantile(q);
         if (!valid)
             computeStats();
-        double sumQuarticDiffs = elements.stream().mapToDouble(d -> Math.pow(d - mean, 4)).sum();
+        return elements.get(Math.min(n - 1, (int) Math.floor(q * n)));
+    }
+
+    public double kurtosis() {
+        if (n < 4 || sd() < 0.001) return 0.0;
+        double sumQuarticDiffs = exact ? elements.stream().mapToDouble(d -> Math.pow(d - mean, 4)).sum() : m4;
         return sumQuarticDiffs / Math.pow(sd, 4) * n * (n + 1) / (n - 1) / (n - 2) / (n - 3);
     }
 
     public double skew() {
-        if (n < 3 || sd < 0.001) return 0.0;
-        if (!valid)
-            computeStats();
-        double sumCubeDiffs = elements.stream().mapToDouble(d -> Math.pow(d - mean, 3)).sum();
+        if (n < 3 || sd() < 0.001) return 0.0;
+        double sumCubeDiffs = exact ? elements.stream().mapToDouble(d -> Math.pow(d - mean, 3)).sum() : m3;
         return sumCubeDiffs / Math.pow(sd, 3) * n / (n - 1) / (n - 2);
     }
 
@@ -87,26 +127,29 @@ public class TAGNumericStatSummary extends TAGStatSummary {
      * @return the sum of the squares of the differences between the mean and the ith values
      */
     public double sumSquareDiff() {
-        return sumsq - n * mean() * mean();
+        return exact ? sumsq - n * mean() * mean() : m2;
     }
 
     private void computeStats() {
         if (!valid) {
-            if (!elements.isEmpty()) {
-                max = elements.stream().mapToDouble(i -> i).max().getAsDouble();
-                min = elements.stream().mapToDouble(i -> i).min().getAsDouble();
-            } else {
+            if (n == 0)
                 return;
+            if (exact) {
+                mean = sum / n;
+                double num = sumsq - (n * mean * mean);
+                if (num < 0) {
+                    // Avoids tiny negative numbers possible through imprecision
+                    num = 0;
+                }
+                sd = Math.sqrt(num / (n - 1));
+                // the elements are sorted in place, so getElements() is in order of value once any stats are used
+                Collections.sort(elements);
+                median = elements.get(elements.size() / 2);
+            } else {
+                mean = runningMean;
+                sd = Math.sqrt(m2 / (n - 1));
+                median = sketch.quantile(0.5);
             }
-            mean = sum / n;
-            double num = sumsq - (n * mean * mean);
-            if (num < 0) {
-                // Avoids tiny negative numbers possible through imprecision
-                num = 0;
-            }
-            sd = Math.sqrt(num / (n - 1));
-            Collections.sort(elements);
-            median = elements.get(elements.size() / 2);
             valid = true;
         }
     }
@@ -121,22 +164,76 @@ public class TAGNumericStatSummary extends TAGStatSummary {
         return sd() / Math.sqrt(n);
     }
 
+    /**
+     * Adds all the numbers summarised by ss (in the order they were added to it) to this summary.
+     * In exact mode this requires ss to be exact too; otherwise this is O(size of the sketch).
+     */
     public void add(TAGNumericStatSummary ss) {
+        if (ss.n == 0)
+            return;
+        if (exact && !ss.exact)
+            throw new AssertionError("Cannot add a summary that does not keep its numbers to an exact summary");
+        if (n > 0 && Double.compare(lastElement, ss.firstElement) != 0)
+            changes++;
+        if (n == 0)
+            firstElement = ss.firstElement;
+        changes += ss.changes;
+        lastElement = ss.lastElement;
+
+        // combine the moments (Pebay, 2008)
+        double na = n, nb = ss.n, nt = na + nb;
+        double delta = ss.runningMean - runningMean;
+        double delta2 = delta * delta;
+        m4 += ss.m4 + delta2 * delta2 * na * nb * (na * na - na * nb + nb * nb) / (nt * nt * nt)
+                + 6.0 * delta2 * (na * na * ss.m2 + nb * nb * m2) / (nt * nt)
+                + 4.0 * delta * (na * ss.m3 - nb * m3) / nt;
+        m3 += ss.m3 + delta2 * delta * na * nb * (na - nb) / (nt * nt)
+                + 3.0 * delta * (na * ss.m2 - nb * m2) / nt;
+        m2 += ss.m2 + delta2 * na * nb / nt;
+        runningMean += delta * nb / nt;
+
         super.add(ss);
         sum += ss.sum;
         sumsq += ss.sumsq;
+        min = Math.min(min, ss.min);
+        max = Math.max(max, ss.max);
         lastAdded = ss.lastAdded;
         valid = false;
-        elements.addAll(ss.getElements());
+        if (exact)
+            elements.addAll(ss.getElements());
+        else if (ss.exact)
+            ss.getElements().forEach(sketch::add);
+        else
+            sketch.add(ss.sketch);
     }
 
     public void add(double d) {
+        if (n > 0 && Double.compare(lastElement, d) != 0)
+            changes++;
+        if (n == 0)
+            firstElement = d;
+        lastElement = d;
+
         n++;
+        double delta = d - runningMean;
+        double deltaN = delta / n;
+        double deltaN2 = deltaN * deltaN;
+        double term = delta * deltaN * (n - 1);
+        runningMean += deltaN;
+        m4 += term * deltaN2 * ((double) n * n - 3.0 * n + 3) + 6.0 * deltaN2 * m2 - 4.0 * deltaN * m3;
+        m3 += term * deltaN * (n - 2) - 3.0 * deltaN * m2;
+        m2 += term;
+
         sum += d;
         sumsq += d * d;
+        min = Math.min(min, d);
+        max = Math.max(max, d);
         lastAdded = d;
         valid = false;
-        elements.add(d);
+        if (exact)
+            elements.add(d);
+        else
+            sketch.add(d);
     }
 
     public void add(Number n) {
@@ -187,14 +284,18 @@ public class TAGNumericStatSummary extends TAGStatSummary {
                 ;
     }
 
+    /**
+     * @return all the numbers added (only kept in exact mode)
+     */
     public ArrayList<Double> getElements() {
+        if (!exact)
+            throw new AssertionError("The numbers are only kept by a TAGNumericStatSummary in exact mode");
         return elements;
     }
 
     public TAGNumericStatSummary copy() {
-        TAGNumericStatSummary ss = new TAGNumericStatSummary();
+        TAGNumericStatSummary ss = new TAGNumericStatSummary(this.name, this.exact);
 
-        ss.name = this.name;
         ss.n = this.n;
         ss.type = this.type;
 
@@ -203,10 +304,23 @@ public class TAGNumericStatSummary extends TAGStatSummary {
         ss.min = this.min;
         ss.max = this.max;
         ss.mean = this.mean;
+        ss.median = this.median;
         ss.sd = this.sd;
         ss.valid = this.valid;
         ss.lastAdded = this.lastAdded;
 
+        ss.runningMean = this.runningMean;
+        ss.m2 = this.m2;
+        ss.m3 = this.m3;
+        ss.m4 = this.m4;
+        ss.firstElement = this.firstElement;
+        ss.lastElement = this.lastElement;
+        ss.changes = this.changes;
+        if (exact)
+            ss.elements = new ArrayList<>(this.elements);
+        else
+            ss.sketch = this.sketch.copy();
+
         return ss;
     }
 
@@ -240,12 +354,7 @@ public class TAGNumericStatSummary extends TAGStatSummary {
         data.put("Skew", skew());
         data.put("Kurtosis", kurtosis());
 
-        TAGNumericStatSummary delta = elements.size() > 1 ?
-                IntStream.range(0, elements.size() - 1)
-                        .mapToObj(i -> !elements.get(i + 1).equals(elements.get(i)) ? 1.0 : 0.0)
-                        .collect(new TAGSummariser())
-                : new TAGNumericStatSummary();
-        data.put("Delta", delta.mean()); // percentage of times this value changed consecutively
+        data.put("Delta", n > 1 ? changes / (double) (n - 1) : 0.0); // percentage of times this value changed consecutively
         return data;
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package evaluation.tournaments;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The Markov chain used by alpha-rank, with a transition from agent i to each agent j that it has played of
+ * exp(-alpha * values[i][j] / gamesPlayed[i][j]) (and exp(0) to stay at i), normalised over each row.
+ * So the chain moves towards the agents that do better against the current one, and the stationary distribution
+ * ranks the agents.
+ * <p>
+ * The stationary distribution is found by power iteration over only the pairs of agents that have played each other,
+ * which is O(pairs) per iteration rather than the O(agents^3) of an eigen-decomposition. It can also be started from
+ * a previous estimate, which converges quickly when only a few more games have been played.
+ */
+public class AlphaRank {
+
+    public static double tolerance = 1e-10;
+    public static int maxIterations = 100000;
+
+    final int nAgents;
+    // for each agent, the opponents it has played, and the (normalised) transition probability to each of them
+    final int[][] opponents;
+    final double[][] transitions;
+    final double[] stay;
+
+    public AlphaRank(int[][] values, int[][] gamesPlayed, double alpha) {
+        nAgents = values.length;
+        opponents = new int[nAgents][];
+        transitions = new double[nAgents][];
+        stay = new double[nAgents];
+        for (int i = 0; i < nAgents; i++) {
+            int finalI = i;
+            opponents[i] = IntStream.range(0, nAgents)
+                    .filter(j -> j != finalI && gamesPlayed[finalI][j] > 0).toArray();
+            transitions[i] = new double[opponents[i].length];
+            double rowSum = Math.exp(0);
+            for (int k = 0; k < opponents[i].length; k++) {
+                int j = opponents[i][k];
+                transitions[i][k] = Math.exp(-alpha * values[i][j] / (double) gamesPlayed[i][j]);
+                rowSum += transitions[i][k];
+            }
+            stay[i] = Math.exp(0) / rowSum;
+            for (int k = 0; k < opponents[i].length; k++)
+                transitions[i][k] /= rowSum;
+        }
+    }
+
+    /**
+     * @param start the initial estimate (for example from an earlier call), or null to start from uniform
+     * @return the stationary distribution, or null if the power iteration did not converge
+     */
+    public double[] stationaryDistribution(double[] start) {
+        double[] pi = new double[nAgents];
+        if (start == null)
+            Arrays.fill(pi, 1.0 / nAgents);
+        else
+            System.arraycopy(start, 0, pi, 0, nAgents);
+        double[] next = new double[nAgents];
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            // next = T^T pi
+            for (int i = 0; i < nAgents; i++)
+                next[i] = stay[i] * pi[i];
+            for (int i = 0; i < nAgents; i++) {
+                for (int k = 0; k < opponents[i].length; k++)
+                    next[opponents[i][k]] += transitions[i][k] * pi[i];
+            }
+            double sum = Arrays.stream(next).sum();
+            double change = 0.0;
+            for (int i = 0; i < nAgents; i++) {
+                next[i] /= sum;
+                change += Math.abs(next[i] - pi[i]);
+            }
+            double[] temp = pi;
+            pi = next;
+            next = temp;
+            if (change < tolerance)
+                return pi;
+        }
+        return null;
+    }
+
+    /**
+     * The full transition matrix (for reporting).
+     */
+    public double[][] transitionMatrix() {
+        double[][] T = new double[nAgents][nAgents];
+        for (int i = 0; i < nAgents; i++) {
+            T[i][i] = stay[i];
+            for (int k = 0; k < opponents[i].length; k++)
+                T[i][opponents[i][k]] = transitions[i][k];
+        }
+        return T;
+    }
+}
@@ -0,0 +1,53 @@
+package evaluation.tournaments;
+
+import core.AbstractGameState;
+
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
+
+import static core.CoreConstants.GameResult;
+
+/**
+ * The part of the result of a finished game that a tournament needs to score it: the result, ordinal position and
+ * team of each player. This is what is stored in a GameResultCache, and returned by a TournamentWorker.
+ * <p>
+ * The compact text form is result:ordinalPosition:team for each player, tab-separated.
+ */
+public record GameOutcome(GameResult[] results, int[] ordinalPositions, int[] teams) {
+
+    public static GameOutcome of(AbstractGameState finalState) {
+        int nPlayers = finalState.getNPlayers();
+        return new GameOutcome(finalState.getPlayerResults().clone(),
+                IntStream.range(0, nPlayers).map(finalState::getOrdinalPosition).toArray(),
+                IntStream.range(0, nPlayers).map(finalState::getTeam).toArray());
+    }
+
+    /**
+     * @param fields the text form of each player, starting at fields[from]
+     */
+    public static GameOutcome parse(String[] fields, int from) {
+        int nPlayers = fields.length - from;
+        if (nPlayers < 1)
+            throw new IllegalArgumentException("No players in game outcome");
+        GameResult[] results = new GameResult[nPlayers];
+        int[] ordinals = new int[nPlayers];
+        int[] teams = new int[nPlayers];
+        for (int p = 0; p < nPlayers; p++) {
+            String[] playerFields = fields[p + from].split(":");
+            if (playerFields.length != 3)
+                throw new IllegalArgumentException("Invalid game outcome for player " + p + " : " + fields[p + from]);
+            results[p] = GameResult.valueOf(playerFields[0]);
+            ordinals[p] = Integer.parseInt(playerFields[1]);
+            teams[p] = Integer.parseInt(playerFields[2]);
+        }
+        return new GameOutcome(results, ordinals, teams);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner("\t");
+        for (int p = 0; p < results.length; p++)
+            sj.add(results[p] + ":" + ordinalPositions[p] + ":" + teams[p]);
+        return sj.toString();
+    }
+}
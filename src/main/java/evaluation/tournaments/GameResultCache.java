@@ -0,0 +1,155 @@
+package evaluation.tournaments;
+
+import core.AbstractGameState;
+import core.AbstractParameters;
+import core.AbstractPlayer;
+import core.interfaces.ITunableParameters;
+import evaluation.RunArg;
+import utilities.JSONUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * An on-disk store of the results of tournament games, so that re-running an experiment with one agent changed only
+ * replays the games that agent is in.
+ * <p>
+ * A game is keyed on a hash of the game type and parameters, the seed, and the definition of the agent in each seat
+ * (its class, name and parameters, as JSON with the keys sorted). The random seeds of the game and agent parameters
+ * are excluded from these definitions - the seed of the game is part of the key in its own right, and agents that are
+ * not seeded explicitly would otherwise never match. A cached result is therefore one sample of the game for that
+ * key; if the same key is played more than once in a tournament, then each occurrence is cached separately.
+ * <p>
+ * Games that cannot be keyed (because the parameters of an agent or of the game cannot be written to JSON) are
+ * always played.
+ * Each line of the file is: key, occurrence, and then the GameOutcome (tab-separated).
+ */
+public class GameResultCache {
+
+    final File file;
+    final Map<String, GameOutcome> results = new HashMap<>();
+    // the number of times each key has been seen by this instance
+    final Map<String, Integer> occurrences = new HashMap<>();
+
+    /**
+     * @return the file of the cache to use (resultCache, in destDir unless it is absolute), or an empty String if
+     * the cache is not being used (because resultCache is not set, or noCache is)
+     */
+    public static String fileName(Map<RunArg, Object> config) {
+        String fileName = (String) config.getOrDefault(RunArg.resultCache, RunArg.resultCache.defaultValue);
+        if (fileName.isEmpty() || (boolean) config.getOrDefault(RunArg.noCache, false))
+            return "";
+        String destDir = (String) config.getOrDefault(RunArg.destDir, "");
+        if (destDir.isEmpty() || new File(fileName).isAbsolute())
+            return fileName;
+        return destDir + File.separator + fileName;
+    }
+
+    public GameResultCache(String fileName) {
+        file = new File(fileName);
+        if (!file.exists())
+            return;
+        try {
+            String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+            int end = content.lastIndexOf('\n') + 1;
+            if (end < content.length()) {
+                // the last line was cut short when the process was killed while writing it, so we remove it
+                // (otherwise the next result would be appended to it)
+                System.out.println("Removing incomplete last line of game result cache " + fileName);
+                content = content.substring(0, end);
+                Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+            }
+            for (String line : content.split("\\R")) {
+                String[] fields = line.split("\t");
+                if (fields.length < 3)
+                    continue;
+                results.put(fields[0] + "\t" + fields[1], GameOutcome.parse(fields, 2));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Could not load game result cache from " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the key for the next game with these players and seed, or null if the game cannot be cached.
+     * Each call counts as an occurrence of the game, so this should be called once for each game played.
+     *
+     * @param players the agents in seat order (one per team if playing by team)
+     */
+    public String nextKey(AbstractGameState gameState, List<AbstractPlayer> players, long seed, boolean byTeam) {
+        StringBuilder definition = new StringBuilder();
+        definition.append(gameState.getGameType().name()).append('|')
+                .append(gameState.getNPlayers()).append('|')
+                .append(byTeam).append('|')
+                .append(seed).append('|');
+        String params = definition(gameState.getGameParameters());
+        if (params == null)
+            return null;
+        definition.append(params);
+        for (AbstractPlayer player : players) {
+            String playerDefinition = definition(player);
+            if (playerDefinition == null)
+                return null;
+            definition.append('|').append(playerDefinition);
+        }
+        String hash = sha256(definition.toString());
+        int occurrence = occurrences.merge(hash, 1, Integer::sum);
+        return hash + "\t" + occurrence;
+    }
+
+    public GameOutcome get(String key) {
+        return results.get(key);
+    }
+
+    /**
+     * Records the outcome of a finished game, and appends it to the file.
+     */
+    public void put(String key, GameOutcome outcome) {
+        results.put(key, outcome);
+        try {
+            if (file.getParentFile() != null)
+                file.getParentFile().mkdirs();
+            Files.writeString(file.toPath(), key + "\t" + outcome + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new AssertionError("Could not write to game result cache " + file + " : " + e.getMessage());
+        }
+    }
+
+    private static String definition(AbstractPlayer player) {
+        String params = player.getParameters() == null ? "" : definition(player.getParameters());
+        if (params == null)
+            return null;
+        return player.getClass().getName() + ":" + player + ":" + params;
+    }
+
+    private static String definition(AbstractParameters params) {
+        if (params == null)
+            return "";
+        if (!(params instanceof ITunableParameters tunable))
+            // hashCode() excludes the random seed
+            return params.getClass().getName() + ":" + params.hashCode();
+        try {
+            // with the keys of each object sorted, so that equal definitions give equal strings
+            return JSONUtils.canonicalString(tunable.instanceToJSON(false), Set.of("randomSeed"));
+        } catch (AssertionError e) {
+            // some parameter values can only be written out if they were originally read from JSON
+            return null;
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 not available", e);
+        }
+    }
+}
@@ -2,11 +2,13 @@ package evaluation.tournaments;
 
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import evaluation.LiveMetrics;
 import evaluation.RunArg;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
 import evaluation.listeners.TournamentMetricsGameListener;
 import games.GameType;
-import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 import players.IAnyTimePlayer;
@@ -55,6 +57,34 @@ public class RoundRobinTournament extends AbstractTournament {
     String seedFile;
     Random seedRnd;
 
+    // Early stopping (see matchUpResolved()). This is off if earlyStop is zero
+    public static int earlyStopMinGames = 10;
+    double earlyStop;
+    double earlyStopZ;
+    int plannedGames;
+    // In BANDIT mode, the number of top agents to identify, and the width of the confidence bounds used
+    int topK;
+    double banditZ;
+    // Results of previous games (see GameResultCache). This is null if we are not using the cache
+    protected GameResultCache resultCache;
+    private int gamesFromCache;
+    // If set, games are played in separate processes (see TournamentWorkers)
+    protected TournamentWorkers workers;
+    protected List<TournamentWorkers.PendingGame> pendingGames = new ArrayList<>();
+    private List<Integer> lastMatchUp;
+    private int gamesAbandoned;
+    // the alpha values used for alpha-rank (the first is used for the reports every reportPeriod games)
+    private final double[] alphaValues = new double[]{10.0};
+    protected int reportPeriod;
+    private int gamesRecorded;
+    private double[] progressAlphaRank;
+    // If set, the progress of the tournament is written to this every checkpointPeriod games (see TournamentCheckpoint)
+    public static int checkpointPeriod = 100;
+    protected TournamentCheckpoint checkpoint;
+    protected String checkpointName;
+    // If the LiveMetrics server is running, the result of each game is also recorded in this
+    protected LiveMetrics.TournamentResults liveResults;
+
     /**
      * Create a round robin tournament, which plays all agents against all others.
      *
@@ -71,6 +101,7 @@ public class RoundRobinTournament extends AbstractTournament {
             case "EXHAUSTIVE" -> EXHAUSTIVE;
             case "EXHAUSTIVESP" -> EXHAUSTIVE_SELF_PLAY;
             case "ONEVSALL" -> ONE_VS_ALL;
+            case "BANDIT" -> BANDIT;
             default -> RANDOM;
         };
         if (tournamentMode == EXHAUSTIVE && nTeams > this.agents.size()) {
@@ -134,14 +165,41 @@ public class RoundRobinTournament extends AbstractTournament {
                 actualGames = this.gamesPerMatchup * Utils.playerPermutations(agentPositions, agents.size(), selfPlay);
                 break;
             case RANDOM:
+            case BANDIT:
                 this.gamesPerMatchup = 1; // not actually used, we just run the totalGameBudget number of games
                 break;
             default:
                 throw new IllegalArgumentException("Unknown tournament mode " + config.get(RunArg.mode));
         }
+        this.plannedGames = actualGames * Math.max(1, tournamentSeeds);
+        this.earlyStop = ((Number) config.getOrDefault(RunArg.earlyStop, 0.0)).doubleValue();
+        if (earlyStop > 0.0) {
+            if (earlyStop >= 1.0)
+                throw new IllegalArgumentException("earlyStop must be a confidence level less than 1.0");
+            if (tournamentMode == ONE_VS_ALL)
+                throw new IllegalArgumentException("earlyStop is not supported in ONE_VS_ALL mode");
+            // we apply a Bonferroni correction for the number of pairs of agents
+            int nPairs = Math.max(1, agents.size() * (agents.size() - 1) / 2);
+            earlyStopZ = new NormalDistribution().inverseCumulativeProbability(1.0 - (1.0 - earlyStop) / (2.0 * nPairs));
+        }
+        this.topK = (int) config.getOrDefault(RunArg.topK, 1);
+        if (tournamentMode == BANDIT) {
+            if (topK < 1 || topK >= agents.size())
+                throw new IllegalArgumentException("topK must be at least 1, and less than the number of agents");
+            // with a Bonferroni correction for the number of agents (at 95% if we are not stopping early)
+            double confidence = earlyStop > 0.0 ? earlyStop : 0.95;
+            banditZ = new NormalDistribution().inverseCumulativeProbability(1.0 - (1.0 - confidence) / (2.0 * agents.size()));
+        }
         this.randomSeed = ((Number) config.getOrDefault(RunArg.seed, System.currentTimeMillis())).longValue();
         this.seedRnd = new Random(randomSeed);
         this.randomGameParams = (boolean) config.getOrDefault(RunArg.randomGameParams, false);
+        this.reportPeriod = (int) config.getOrDefault(RunArg.reportPeriod, -1);
+        // the cache is only used if requested, and never with randomised game parameters
+        String cacheFile = GameResultCache.fileName(config);
+        if (!cacheFile.isEmpty() && !randomGameParams) {
+            this.resultCache = new GameResultCache(cacheFile);
+            System.out.println("Taking the results of games already played from " + cacheFile);
+        }
 
         this.name = String.format("Game: %s, Players: %d, Mode: %s, TotalGames: %d, GamesPerMatchup: %d",
                 gameToPlay.name(), playersPerGame, tournamentMode, actualGames, gamesPerMatchup);
@@ -159,14 +217,11 @@ public class RoundRobinTournament extends AbstractTournament {
         if (verbose)
             System.out.println("Playing " + game.getGameType().name());
 
-        Set<String> agentNames = agents.stream()
-                //           .peek(a -> System.out.println(a.toString()))
-                .map(AbstractPlayer::toString).collect(Collectors.toSet());
-
-        for (IGameListener gameTracker : listeners) {
-            gameTracker.init(game, nPlayers, agentNames);
-            game.addListener(gameTracker);
-        }
+        initListeners();
+        LiveMetrics liveMetrics = LiveMetrics.get();
+        if (liveMetrics != null)
+            liveResults = liveMetrics.tournament(game.getGameType().name(), nPlayers,
+                    agents.stream().map(AbstractPlayer::toString).collect(toList()));
 
         LinkedList<Integer> matchUp = new LinkedList<>();
         // add outer loop if we have tournamentSeeds enabled; if not this will just run once
@@ -182,11 +237,73 @@ public class RoundRobinTournament extends AbstractTournament {
                 gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> seedRnd.nextInt()).collect(toList());
             }
             createAndRunMatchUp(matchUp);
+            if (workers != null)
+                playPendingGames();
         }
+        if (workers != null)
+            addWorkerRows();
         reportResults();
 
         for (IGameListener listener : listeners)
             listener.report();
+        if (checkpoint != null)
+            checkpoint.completed(checkpointName);
+    }
+
+    /**
+     * Waits for the workers to write out the rows of their metrics (see TournamentWorker), and adds these to our
+     * listeners, so that they report on all the games as if they had been played in this process. The files
+     * of the workers are then removed.
+     */
+    protected void addWorkerRows() {
+        workers.close();
+        for (IGameListener listener : listeners) {
+            if (!(listener instanceof MetricsGameListener metricsListener))
+                continue;
+            for (int w = 0; w < workers.size(); w++) {
+                File workerDir = new File(metricsListener.getOutputDirectory(), "Worker_" + w);
+                metricsListener.addRows(workerDir.getPath());
+                File[] files = workerDir.listFiles((dir, fileName) -> fileName.endsWith(".csv"));
+                if (files != null)
+                    for (File file : files)
+                        file.delete();
+                workerDir.delete(); // if no other listener has written there
+            }
+        }
+    }
+
+    protected void initListeners() {
+        Set<String> agentNames = agents.stream()
+                //           .peek(a -> System.out.println(a.toString()))
+                .map(AbstractPlayer::toString).collect(Collectors.toSet());
+
+        for (IGameListener gameTracker : listeners) {
+            gameTracker.init(game, nPlayers, agentNames);
+            game.addListener(gameTracker);
+        }
+    }
+
+    /**
+     * Records the progress of this tournament in the checkpoint (under the given name) as games are played, and marks
+     * it as completed at the end.
+     */
+    public void setCheckpoint(TournamentCheckpoint checkpoint, String name) {
+        if (checkpoint != null && resultCache == null)
+            throw new IllegalArgumentException("Checkpoints require the result cache (resultCache must be set)");
+        this.checkpoint = checkpoint;
+        this.checkpointName = name;
+    }
+
+    /**
+     * Plays the games of the tournament on these workers rather than in this process. The workers must have been
+     * started with the same agents (in the same order) and game.
+     */
+    public void setWorkers(TournamentWorkers workers) {
+        if (workers != null && earlyStop > 0.0)
+            throw new IllegalArgumentException("earlyStop is not supported when games are played by workers");
+        if (workers != null && tournamentMode == BANDIT)
+            throw new IllegalArgumentException("BANDIT mode is not supported when games are played by workers");
+        this.workers = workers;
     }
 
     protected List<Integer> loadSeedsFromFile() {
@@ -231,11 +348,32 @@ public class RoundRobinTournament extends AbstractTournament {
             case RANDOM:
                 // In the RANDOM case we use a new seed for each game
                 PermutationCycler idStream = new PermutationCycler(agents.size(), seedRnd, nTeams);
-                for (int i = 0; i < totalGameBudget; i++) {
+                // With early stopping, resolved matchups are skipped (so the budget goes to the others), and we
+                // stop once all pairs are resolved. The number of matchups we skip is capped to ensure termination.
+                int gamesStarted = totalGamesRun;
+                for (int i = 0; totalGamesRun - gamesStarted < totalGameBudget && i < 100 * totalGameBudget; i++) {
                     List<Integer> matchup = new ArrayList<>(nTeams);
                     for (int j = 0; j < nTeams; j++)
                         matchup.add(idStream.getAsInt());
-                    evaluateMatchUp(matchup, 1, Collections.singletonList(seedRnd.nextInt()));
+                    int seed = seedRnd.nextInt();
+                    if (allPairsResolved())
+                        break;
+                    if (!matchUpResolved(matchup))
+                        evaluateMatchUp(matchup, 1, Collections.singletonList(seed));
+                }
+                break;
+            case BANDIT:
+                // Each game is chosen from the results so far, and (with early stopping) we stop once the top agents
+                // are identified
+                int banditGames = 0;
+                while (banditGames < totalGameBudget) {
+                    List<List<Integer>> round = banditRound(nTeams);
+                    if (round == null)
+                        break;
+                    for (List<Integer> matchup : round.subList(0, Math.min(round.size(), totalGameBudget - banditGames))) {
+                        evaluateMatchUp(matchup, 1, Collections.singletonList(seedRnd.nextInt()));
+                        banditGames++;
+                    }
                 }
                 break;
             case ONE_VS_ALL:
@@ -275,6 +413,18 @@ public class RoundRobinTournament extends AbstractTournament {
                 break;
             case EXHAUSTIVE:
             case EXHAUSTIVE_SELF_PLAY:
+                if (earlyStop > 0.0) {
+                    // we play one game of each matchup in turn (with each seed), so that we can stop at any point
+                    List<List<Integer>> allMatchUps = new ArrayList<>();
+                    addAllMatchUps(new ArrayList<>(), nTeams, allMatchUps);
+                    for (int i = 0; i < gamesPerMatchup && !allPairsResolved(); i++) {
+                        for (List<Integer> m : allMatchUps) {
+                            if (!matchUpResolved(m))
+                                evaluateMatchUp(m, 1, Collections.singletonList(gameSeeds.get(i)));
+                        }
+                    }
+                    break;
+                }
                 // in this case we are in exhaustive mode, so we recursively construct all possible combinations of players
                 if (matchUp.size() == nTeams) {
                     evaluateMatchUp(matchUp, gamesPerMatchup, gameSeeds);
@@ -290,6 +440,163 @@ public class RoundRobinTournament extends AbstractTournament {
         }
     }
 
+    private void addAllMatchUps(List<Integer> matchUp, int nTeams, List<List<Integer>> allMatchUps) {
+        if (matchUp.size() == nTeams) {
+            allMatchUps.add(new ArrayList<>(matchUp));
+            return;
+        }
+        for (Integer agentID : this.allAgentIds) {
+            if (tournamentMode == EXHAUSTIVE_SELF_PLAY || !matchUp.contains(agentID)) {
+                matchUp.add(agentID);
+                addAllMatchUps(matchUp, nTeams, allMatchUps);
+                matchUp.remove(agentID);
+            }
+        }
+    }
+
+    /**
+     * With early stopping, a matchup is resolved once the head-to-head results of every pair of (different)
+     * agents in it are separated. We then learn nothing more about the ranking from playing it.
+     */
+    protected boolean matchUpResolved(List<Integer> matchUp) {
+        if (earlyStop <= 0.0)
+            return false;
+        for (int i = 0; i < matchUp.size(); i++)
+            for (int j = i + 1; j < matchUp.size(); j++)
+                if (!matchUp.get(i).equals(matchUp.get(j)) && !pairResolved(matchUp.get(i), matchUp.get(j)))
+                    return false;
+        return true;
+    }
+
+    protected boolean allPairsResolved() {
+        if (earlyStop <= 0.0)
+            return false;
+        for (int i = 0; i < agents.size(); i++)
+            for (int j = i + 1; j < agents.size(); j++)
+                if (!pairResolved(i, j))
+                    return false;
+        return true;
+    }
+
+    /**
+     * Each game with both agents scores +1 if i won, -1 if j won and 0 otherwise. The pair is resolved when the
+     * confidence interval on the mean of this excludes zero (after at least earlyStopMinGames games).
+     * One win each is added as a prior so that the variance is never zero.
+     */
+    private boolean pairResolved(int i, int j) {
+        if (nGamesPlayedPerOpponent[i][j] < earlyStopMinGames)
+            return false;
+        double[] headToHead = headToHead(i, j);
+        return Math.abs(headToHead[0]) > earlyStopZ * sqrt(headToHead[1]);
+    }
+
+    /**
+     * @return the mean head-to-head score of i against j (as in pairResolved()), and the variance of this mean
+     */
+    private double[] headToHead(int i, int j) {
+        int n = nGamesPlayedPerOpponent[i][j];
+        double winsI = winsPerPlayerPerOpponent[i][j] + 1;
+        double winsJ = winsPerPlayerPerOpponent[j][i] + 1;
+        double mean = (winsI - winsJ) / (n + 2);
+        double variance = (winsI + winsJ) / (n + 2) - mean * mean;
+        return new double[]{mean, variance / (n + 2)};
+    }
+
+    /**
+     * The score of each agent used in BANDIT mode is its mean head-to-head score against each of the other agents.
+     * Unlike the overall win rate, this does not depend on which opponents an agent happened to play most.
+     *
+     * @return the score of each agent, and the standard error of each
+     */
+    protected double[][] pairwiseScores() {
+        int n = agents.size();
+        double[][] retValue = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            double variance = 0.0;
+            for (int j = 0; j < n; j++) {
+                if (j == i)
+                    continue;
+                double[] headToHead = headToHead(i, j);
+                retValue[0][i] += headToHead[0] / (n - 1);
+                variance += headToHead[1] / ((n - 1) * (n - 1));
+            }
+            retValue[1][i] = sqrt(variance);
+        }
+        return retValue;
+    }
+
+    /**
+     * The next round of games in BANDIT mode, using LUCB on the pairwise scores. Of the current top topK agents we
+     * take the one with the lowest lower confidence bound, and of the others the one with the highest upper bound.
+     * These are the two agents most likely to be on the wrong side of the boundary, and both are given a seat in
+     * each round: in the same game if there is room for another agent, and otherwise in one game each. The other
+     * seats go to the agents they have played least.
+     * So games are spent on agents near the boundary, rather than on confirming that the worst agents are bad.
+     *
+     * @return the agent IDs in seat order of each game in the round, or null (with early stopping) once the top
+     * agents are separated
+     */
+    protected List<List<Integer>> banditRound(int nTeams) {
+        double[][] scores = pairwiseScores();
+        List<Integer> order = new ArrayList<>(allAgentIds);
+        order.sort(Comparator.comparingDouble((Integer i) -> -scores[0][i]).thenComparingInt(i -> i));
+        int lowestTop = order.get(0), highestRest = order.get(topK);
+        for (int k = 0; k < order.size(); k++) {
+            int i = order.get(k);
+            if (k < topK && scores[0][i] - banditZ * scores[1][i] < scores[0][lowestTop] - banditZ * scores[1][lowestTop])
+                lowestTop = i;
+            if (k >= topK && scores[0][i] + banditZ * scores[1][i] > scores[0][highestRest] + banditZ * scores[1][highestRest])
+                highestRest = i;
+        }
+        if (earlyStop > 0.0 && scores[0][lowestTop] - banditZ * scores[1][lowestTop] > scores[0][highestRest] + banditZ * scores[1][highestRest])
+            return null;
+
+        if (nTeams > 2)
+            return List.of(banditMatchUp(List.of(lowestTop, highestRest), nTeams));
+        return List.of(banditMatchUp(List.of(lowestTop), nTeams), banditMatchUp(List.of(highestRest), nTeams));
+    }
+
+    /**
+     * @param seated the agents that must play
+     * @return the agent IDs in seat order, with the other seats filled by the agents the seated ones have played least
+     */
+    private List<Integer> banditMatchUp(List<Integer> seated, int nTeams) {
+        List<Integer> matchup = new ArrayList<>(seated);
+        List<Integer> opponents = new ArrayList<>(allAgentIds);
+        Collections.shuffle(opponents, seedRnd);
+        opponents.sort(Comparator.comparingInt(j -> seated.stream().mapToInt(i -> nGamesPlayedPerOpponent[i][j]).sum()));
+        for (int j : opponents) {
+            if (matchup.size() == nTeams)
+                break;
+            if (!matchup.contains(j))
+                matchup.add(j);
+        }
+        // if there are fewer agents than seats, then there is self-play
+        while (matchup.size() < nTeams)
+            matchup.add(opponents.get(matchup.size() % opponents.size()));
+        Collections.shuffle(matchup, seedRnd);
+        return matchup;
+    }
+
+    public int getGamesFromCache() {
+        return gamesFromCache;
+    }
+
+    public int getGamesSaved() {
+        return plannedGames - totalGamesRun - gamesAbandoned;
+    }
+
+    /**
+     * @return the number of games whose results have been recorded (which excludes any abandoned)
+     */
+    public int getTotalGamesRun() {
+        return totalGamesRun;
+    }
+
+    public int getGamesAbandoned() {
+        return gamesAbandoned;
+    }
+
     /**
      * Evaluates one combination of players.
      *
@@ -300,12 +607,7 @@ public class RoundRobinTournament extends AbstractTournament {
             throw new AssertionError("Not enough seeds for the number of games requested");
         if (debug)
             System.out.printf("Evaluate %s at %tT%n", agentIDsInThisGame.toString(), System.currentTimeMillis());
-        LinkedList<AbstractPlayer> matchUpPlayers = new LinkedList<>();
-
-        // If we are in self-play mode, we need to create a copy of the player to avoid them sharing the same state
-        // If not in self-play mode then this is unnecessary, as the same agent will never be in the same game twice
-        for (int agentID : agentIDsInThisGame)
-            matchUpPlayers.add(tournamentMode == EXHAUSTIVE_SELF_PLAY ? this.agents.get(agentID).copy() : this.agents.get(agentID));
+        List<AbstractPlayer> matchUpPlayers = matchUpPlayers(agentIDsInThisGame);
 
         if (verbose) {
             StringBuffer sb = new StringBuffer();
@@ -316,6 +618,42 @@ public class RoundRobinTournament extends AbstractTournament {
             System.out.println(sb);
         }
 
+        initMatchUpListeners(matchUpPlayers);
+
+        // Run the game N = gamesPerMatchUp times with these players
+        for (int i = 0; i < nGames; i++) {
+            // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
+            // so we override the standard random seeds
+            String cacheKey = resultCache == null ? null
+                    : resultCache.nextKey(game.getGameState(), matchUpPlayers, seeds.get(i), byTeam);
+            GameOutcome outcome = cacheKey == null ? null : resultCache.get(cacheKey);
+            if (outcome != null) {
+                // we have played exactly this game before, so use the result from then
+                gamesFromCache++;
+            } else if (workers != null) {
+                // the game will be played by a worker, and recorded in playPendingGames()
+                pendingGames.add(new TournamentWorkers.PendingGame(new ArrayList<>(agentIDsInThisGame), seeds.get(i), cacheKey));
+                continue;
+            } else {
+                outcome = runGame(matchUpPlayers, seeds.get(i));
+                if (cacheKey != null)
+                    resultCache.put(cacheKey, outcome);
+            }
+            recordOutcome(agentIDsInThisGame, outcome);
+        }
+        totalGamesRun += nGames;
+    }
+
+    private List<AbstractPlayer> matchUpPlayers(List<Integer> agentIDsInThisGame) {
+        // If we are in self-play mode, we need to create a copy of the player to avoid them sharing the same state
+        // If not in self-play mode then this is unnecessary, as the same agent will never be in the same game twice
+        List<AbstractPlayer> matchUpPlayers = new LinkedList<>();
+        for (int agentID : agentIDsInThisGame)
+            matchUpPlayers.add(tournamentMode == EXHAUSTIVE_SELF_PLAY ? this.agents.get(agentID).copy() : this.agents.get(agentID));
+        return matchUpPlayers;
+    }
+
+    private void initMatchUpListeners(List<AbstractPlayer> matchUpPlayers) {
         // TODO : Not sure this is the ideal place for this...ask Raluca
         Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
         for (IGameListener listener : listeners) {
@@ -323,81 +661,148 @@ public class RoundRobinTournament extends AbstractTournament {
                 ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
             }
         }
+    }
 
-        // Run the game N = gamesPerMatchUp times with these players
-        for (int i = 0; i < nGames; i++) {
-            // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
-            // so we override the standard random seeds
-            game.reset(matchUpPlayers, seeds.get(i));
+    private GameOutcome runGame(List<AbstractPlayer> matchUpPlayers, long seed) {
+        game.reset(matchUpPlayers, seed);
+
+        // Randomize parameters
+        if (randomGameParams) {
+            game.getGameState().getGameParameters().randomize();
+            System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+        }
+
+        game.run();  // Always running tournaments without visuals
+        return GameOutcome.of(game.getGameState());
+    }
 
-            // Randomize parameters
-            if (randomGameParams) {
-                game.getGameState().getGameParameters().randomize();
-                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+    /**
+     * Plays a single game with the specified agents (in seat order) and seed, without recording the result.
+     * This is used by TournamentWorker to play games for a tournament running in another process.
+     * The listeners are initialised for the matchup when it changes from the previous call.
+     */
+    public GameOutcome playGame(List<Integer> agentIDsInThisGame, long seed) {
+        List<AbstractPlayer> matchUpPlayers = matchUpPlayers(agentIDsInThisGame);
+        if (!agentIDsInThisGame.equals(lastMatchUp)) {
+            initMatchUpListeners(matchUpPlayers);
+            lastMatchUp = new ArrayList<>(agentIDsInThisGame);
+        }
+        return runGame(matchUpPlayers, seed);
+    }
+
+    /**
+     * Plays all the games queued by evaluateMatchUp() on the workers, and then records their results in the order
+     * they were queued.
+     */
+    protected void playPendingGames() {
+        if (pendingGames.isEmpty())
+            return;
+        List<GameOutcome> outcomes = workers.play(pendingGames,
+                g -> runGame(matchUpPlayers(g.agentIDs()), g.seed()));
+        for (int i = 0; i < pendingGames.size(); i++) {
+            TournamentWorkers.PendingGame pending = pendingGames.get(i);
+            if (outcomes.get(i) == null) {
+                // this was counted in totalGamesRun when it was queued, but has no result to record
+                gamesAbandoned++;
+                totalGamesRun--;
+                continue;
             }
+            if (pending.cacheKey() != null)
+                resultCache.put(pending.cacheKey(), outcomes.get(i));
+            recordOutcome(pending.agentIDs(), outcomes.get(i));
+        }
+        pendingGames.clear();
+    }
 
-            game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
+    private void recordOutcome(List<Integer> agentIDsInThisGame, GameOutcome outcome) {
+        GameResult[] results = outcome.results();
+        int[] ordinals = outcome.ordinalPositions();
+        int[] teams = outcome.teams();
+        int nTeams = agentIDsInThisGame.size();
 
-            int numDraws = 0;
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
-                for (int k = 0; k < matchUpPlayers.size(); k++) {
-                    if (k != j) {
-                        nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
-                    }
+        int numDraws = 0;
+        for (int j = 0; j < nTeams; j++) {
+            nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
+            for (int k = 0; k < nTeams; k++) {
+                if (k != j) {
+                    nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
                 }
+            }
 
-                // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
-                if (byTeam) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+            // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
+            if (byTeam) {
+                for (int player = 0; player < teams.length; player++) {
+                    if (teams[player] == j) {
+                        numDraws += updatePoints(results, ordinals, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
+                        break; // we stop after one player on the team to avoid double counting
                     }
-                } else {
-                    numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
                 }
+            } else {
+                numDraws += updatePoints(results, ordinals, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
             }
+        }
 
-            if (numDraws > 0) {
-                double pointsPerDraw = 1.0 / numDraws;
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
-                    if (results[j] == GameResult.DRAW_GAME)
-                        pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
-                }
+        if (numDraws > 0) {
+            double pointsPerDraw = 1.0 / numDraws;
+            for (int j = 0; j < nTeams; j++) {
+                if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
+                if (results[j] == GameResult.DRAW_GAME)
+                    pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
             }
+        }
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            sb.append(results[player]).append(",");
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+        if (liveResults != null)
+            recordLiveResults(agentIDsInThisGame, results, teams, numDraws);
+
+        if (verbose) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int j = 0; j < nTeams; j++) {
+                for (int player = 0; player < teams.length; player++) {
+                    if (teams[player] == j) {
+                        sb.append(results[player]).append(",");
+                        break; // we stop after one player on the team to avoid double counting
                     }
                 }
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
             }
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
+        }
+
+        gamesRecorded++;
+        if (reportPeriod > 0 && gamesRecorded % reportPeriod == 0)
+            reportProgress();
+        if (checkpoint != null && gamesRecorded % checkpointPeriod == 0)
+            checkpoint.update(checkpointName, gamesRecorded);
+    }
 
+    // the points given to each agent by updatePoints() and the draws in recordOutcome()
+    private void recordLiveResults(List<Integer> agentIDsInThisGame, GameResult[] results, int[] teams, int numDraws) {
+        liveResults.gameCompleted();
+        for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+            int player = j;
+            if (byTeam) {
+                player = -1;
+                for (int p = 0; p < teams.length && player == -1; p++)
+                    if (teams[p] == j)
+                        player = p;
+            }
+            double points = player != -1 && results[player] == GameResult.WIN_GAME ? 1.0 : 0.0;
+            if (numDraws > 0 && results[j] == GameResult.DRAW_GAME)
+                points += 1.0 / numDraws;
+            liveResults.record(agentIDsInThisGame.get(j), points);
         }
-        totalGamesRun += nGames;
     }
 
-    private int updatePoints(GameResult[] results, List<Integer> matchUpPlayers, int j, int player) {
+    private int updatePoints(GameResult[] results, int[] ordinals, List<Integer> matchUpPlayers, int j, int player) {
         // j is the index of the agent in the matchup; player is the corresponding player number in the game
-        int ordinalPos = game.getGameState().getOrdinalPosition(player);
+        int ordinalPos = ordinals[player];
         rankPerPlayer[j] += ordinalPos;
         rankPerPlayerSquared[j] += ordinalPos * ordinalPos;
 
-        for (int playerPos = 0; playerPos < game.getGameState().getNPlayers(); playerPos++) {
+        for (int playerPos = 0; playerPos < ordinals.length; playerPos++) {
             if (playerPos != player) {
-                int ordinalOther = game.getGameState().getOrdinalPosition(playerPos);
+                int ordinalOther = ordinals[playerPos];
                 ordinalDeltaPerOpponent[j][matchUpPlayers.get(playerPos)] += ordinalOther - ordinalPos;
             }
         }
@@ -422,13 +827,8 @@ public class RoundRobinTournament extends AbstractTournament {
         finalWinRanking = new LinkedHashMap<>();
         finalOrdinalRanking = new LinkedHashMap<>();
         for (int i = 0; i < this.agents.size(); i++) {
-            // We calculate the standard deviation, and hence the standard error on the mean value
-            // (using a normal approximation, which is valid for large N)
-            double stdDev = Math.sqrt(pointsPerPlayerSquared[i] / nGamesPlayed[i] - (pointsPerPlayer[i] / nGamesPlayed[i])
-                    * (pointsPerPlayer[i] / nGamesPlayed[i]));
-            finalWinRanking.put(i, new Pair<>(pointsPerPlayer[i] / nGamesPlayed[i], stdDev / sqrt(nGamesPlayed[i])));
-            stdDev = Math.sqrt(rankPerPlayerSquared[i] / nGamesPlayed[i] - (rankPerPlayer[i] / nGamesPlayed[i]) * (rankPerPlayer[i] / nGamesPlayed[i]));
-            finalOrdinalRanking.put(i, new Pair<>(rankPerPlayer[i] / nGamesPlayed[i], stdDev / sqrt(nGamesPlayed[i])));
+            finalWinRanking.put(i, meanAndStdErr(pointsPerPlayer[i], pointsPerPlayerSquared[i], nGamesPlayed[i]));
+            finalOrdinalRanking.put(i, meanAndStdErr(rankPerPlayer[i], rankPerPlayerSquared[i], nGamesPlayed[i]));
         }
         // Sort by points.
         finalWinRanking = finalWinRanking.entrySet().stream()
@@ -442,6 +842,13 @@ public class RoundRobinTournament extends AbstractTournament {
 
     }
 
+    // We calculate the standard deviation, and hence the standard error on the mean value
+    // (using a normal approximation, which is valid for large N)
+    private static Pair<Double, Double> meanAndStdErr(double sum, double sumSquared, int n) {
+        double stdDev = Math.sqrt(sumSquared / n - (sum / n) * (sum / n));
+        return new Pair<>(sum / n, stdDev / sqrt(n));
+    }
+
     protected void reportResults() {
         calculateFinalResults();
         boolean toFile = resultsFile != null && !resultsFile.isEmpty();
@@ -458,13 +865,7 @@ public class RoundRobinTournament extends AbstractTournament {
             dataDump.add("Alpha calculations using Win Rate\n");
             if (verbose)
                 System.out.println("Alpha calculations using Win Rate");
-            int[][] symmetrisedWins = new int[agents.size()][agents.size()];
-            for (int i = 0; i < agents.size(); i++) {
-                for (int j = 0; j < agents.size(); j++) {
-                    symmetrisedWins[i][j] = (winsPerPlayerPerOpponent[i][j] - winsPerPlayerPerOpponent[j][i]);
-                }
-            }
-            alphaRankByWin = reportAlphaRank(dataDump, symmetrisedWins);
+            alphaRankByWin = reportAlphaRank(dataDump, symmetrisedWins());
         }
 
         // To console
@@ -498,7 +899,35 @@ public class RoundRobinTournament extends AbstractTournament {
             if (verbose) System.out.println();
         }
 
-        String str = "---- Ranking ---- (+/- are standard errors on the mean calculated using a Normal approximation) \n";
+        String str;
+        if (earlyStop > 0.0) {
+            str = String.format("Early stopping at %.3f confidence: played %d of %d games (%d saved)\n",
+                    earlyStop, totalGamesRun, plannedGames, getGamesSaved());
+            if (toFile) dataDump.add(str);
+            System.out.print(str);
+        }
+        if (tournamentMode == BANDIT) {
+            double[][] scores = pairwiseScores();
+            StringBuilder sb = new StringBuilder(String.format("Pairwise scores after %d games (top %d sought):", totalGamesRun, topK));
+            allAgentIds.stream().sorted(Comparator.comparingDouble(i -> -scores[0][i]))
+                    .forEach(i -> sb.append(String.format(" %s %.3f +/- %.3f,", agents.get(i), scores[0][i], 2 * scores[1][i])));
+            sb.setCharAt(sb.length() - 1, '\n');
+            str = sb.toString();
+            if (toFile) dataDump.add(str);
+            System.out.print(str);
+        }
+        if (gamesAbandoned > 0) {
+            str = String.format("Games abandoned as a worker took too long over them (not counted above): %d\n", gamesAbandoned);
+            if (toFile) dataDump.add(str);
+            System.out.print(str);
+        }
+        if (resultCache != null) {
+            str = String.format("Results of %d of the %d games were taken from the cache\n", gamesFromCache, totalGamesRun);
+            if (toFile) dataDump.add(str);
+            System.out.print(str);
+        }
+
+        str = "---- Ranking ---- (+/- are standard errors on the mean calculated using a Normal approximation) \n";
         if (toFile) dataDump.add(str);
         if (verbose) System.out.print(str);
 
@@ -556,99 +985,78 @@ public class RoundRobinTournament extends AbstractTournament {
         }
     }
 
+    private int[][] symmetrisedWins() {
+        int[][] symmetrisedWins = new int[agents.size()][agents.size()];
+        for (int i = 0; i < agents.size(); i++) {
+            for (int j = 0; j < agents.size(); j++) {
+                symmetrisedWins[i][j] = (winsPerPlayerPerOpponent[i][j] - winsPerPlayerPerOpponent[j][i]);
+            }
+        }
+        return symmetrisedWins;
+    }
+
+    /**
+     * A short report of the current rankings (the top ten agents), made every reportPeriod games.
+     * The alpha-rank by win rate is started from the estimate at the previous report, so that it only needs a few
+     * iterations to update.
+     */
+    protected void reportProgress() {
+        double[] alphaRank = null;
+        if (agents.size() > game.getGameState().getNPlayers()) {
+            alphaRank = new AlphaRank(symmetrisedWins(), nGamesPlayedPerOpponent, alphaValues[0])
+                    .stationaryDistribution(progressAlphaRank);
+            if (alphaRank != null)
+                progressAlphaRank = alphaRank;
+        }
+        System.out.printf("---- Ranking after %d games ----%n", gamesRecorded);
+        // taken from the running totals of points and ranks, as calculateFinalResults() does for the whole table
+        List<Integer> top = IntStream.range(0, agents.size()).boxed()
+                .sorted(Comparator.comparingDouble(i -> -pointsPerPlayer[i] / nGamesPlayed[i]))
+                .limit(10).toList();
+        for (int i : top) {
+            Pair<Double, Double> winRate = meanAndStdErr(pointsPerPlayer[i], pointsPerPlayerSquared[i], nGamesPlayed[i]);
+            Pair<Double, Double> ordinal = meanAndStdErr(rankPerPlayer[i], rankPerPlayerSquared[i], nGamesPlayed[i]);
+            System.out.printf("%s: Win rate %.2f +/- %.3f\tMean Ordinal %.2f +/- %.2f%s%n",
+                    agents.get(i).toString(), winRate.a, winRate.b, ordinal.a, ordinal.b,
+                    alphaRank == null ? "" : String.format("\tAlpha-rank %.3f", alphaRank[i]));
+        }
+    }
+
     protected double[] reportAlphaRank(List<String> dataDump, int[][] values) {
         // alpha-rank calculations
-        double[] alphaValues = new double[]{10.0};
         double[] retValue = new double[agents.size()];
         for (double alpha : alphaValues) {
-            // T is our transition matrix
-            double[][] T = new double[agents.size()][agents.size()];
+            // We find the stationary distribution of the transition matrix T, i.e. the pi for which T^T pi = pi
+            AlphaRank alphaRank = new AlphaRank(values, nGamesPlayedPerOpponent, alpha);
+            double[] pi = alphaRank.stationaryDistribution(null);
+            if (pi == null) {
+                System.out.println("Power iteration did not converge - unable to calculate alpha-rank.");
+                return new double[agents.size()];
+            }
+            String header = "Alpha: " + alpha;
+            dataDump.add(header + "\n");
+            if (verbose) System.out.println(header);
             for (int i = 0; i < agents.size(); i++) {
-                for (int j = 0; j < agents.size(); j++) {
-                    if (i == j) {
-                        T[i][j] = Math.exp(0);
-                    } else {
-                        double baseValue = values[i][j] / (double) nGamesPlayedPerOpponent[i][j];
-                        T[i][j] = Math.exp(-alpha * baseValue);
-                    }
-                }
-                // then normalise the row
-                double rowSum = Arrays.stream(T[i]).sum();
-                for (int j = 0; j < agents.size(); j++) {
-                    T[i][j] /= rowSum;
-                }
+                retValue[i] = pi[i];
+                String str = String.format("\t%.3f\t%s%n", pi[i], agents.get(i));
+                dataDump.add(str);
+                if (verbose) System.out.print(str);
             }
-            RealMatrix transitionMatrix = MatrixUtils.createRealMatrix(T);
+            dataDump.add("\n");
+            if (verbose) System.out.println();
 
-            // We now find the stationary distribution of this transition matrix
-            // i.e. the pi for which T^T pi = pi
-            try {
-                EigenDecomposition eig = new EigenDecomposition(transitionMatrix.transpose());
-                double[] eigenValues = eig.getRealEigenvalues();
-                // we now expect one of these to have a value of +1.0
-                for (int eigenIndex = 0; eigenIndex < eigenValues.length; eigenIndex++) {
-                    if (Math.abs(eigenValues[eigenIndex] - 1.0) < 1e-6) {
-                        // we have found the eigenvector we want
-                        double[] pi = eig.getEigenvector(eigenIndex).toArray();
-                        // normalise pi
-                        double piSum = Arrays.stream(pi).sum();
-                        for (int i = 0; i < agents.size(); i++) {
-                            pi[i] /= piSum;
-                        }
-                        String str = "Alpha: " + alpha;
-                        dataDump.add(str + "\n");
-                        if (verbose) System.out.println(str);
-                        for (int i = 0; i < agents.size(); i++) {
-                            retValue[i] = pi[i];
-                            str = String.format("\t%.3f\t%s%n", pi[i], agents.get(i));
-                            dataDump.add(str);
-                            if (verbose) System.out.print(str);
-                        }
-                        dataDump.add("\n");
-                        if (verbose) System.out.println();
-                        break;
-                    }
-                }
-            } catch (Exception e) {
-                System.out.println("Error in eigen decomposition - unable to calculate alpha-rank.");
-                return new double[agents.size()];
-            }
+            // the rest is only for reporting (and uses the full matrix)
+            if (!alphaRankDetails)
+                continue;
+            double[][] T = alphaRank.transitionMatrix();
+            RealMatrix transitionMatrix = MatrixUtils.createRealMatrix(T);
 
-            // print the transition matrix
-            if (alphaRankDetails) {
-                String str = "Transition matrix for alpha = " + alpha;
-                dataDump.add(str + "\n");
-                if (verbose) System.out.println(str);
-                for (int i = 0; i < agents.size(); i++) {
-                    for (int j = 0; j < agents.size(); j++) {
-                        str = String.format("%.3f\t", T[i][j]);
-                        dataDump.add(str);
-                        if (verbose) System.out.print(str);
-                    }
-                    dataDump.add("\n");
-                    if (verbose) System.out.println();
-                }
-            }
+            reportMatrix(dataDump, "Transition matrix for alpha = " + alpha, T);
 
             // B = A^TA + A A^T
             RealMatrix B = transitionMatrix.transpose().multiply(transitionMatrix).add(transitionMatrix.multiply(transitionMatrix.transpose()));
             // This provides useful clustering information
-
-            // print the B matrix
-            if (alphaRankDetails) {
-                String str = "B matrix for alpha = " + alpha;
-                dataDump.add(str + "\n");
-                if (verbose) System.out.println(str);
-                for (int i = 0; i < agents.size(); i++) {
-                    for (int j = 0; j < agents.size(); j++) {
-                        str = String.format("%.3f\t", B.getEntry(i, j));
-                        dataDump.add(str);
-                        if (verbose) System.out.print(str);
-                    }
-                    dataDump.add("\n");
-                    if (verbose) System.out.println();
-                }
-            }
+            reportMatrix(dataDump, "B matrix for alpha = " + alpha, B.getData());
 
             // Now we cluster based on the bibliometrically symmetrised matrix B
             double thresholdForCluster = 0.15 * sqrt(agents.size());
@@ -692,7 +1100,7 @@ public class RoundRobinTournament extends AbstractTournament {
             }
 
             // print the cluster membership
-            if (alphaRankDetails && Arrays.stream(clusterMembership).anyMatch(Objects::nonNull)) {
+            if (Arrays.stream(clusterMembership).anyMatch(Objects::nonNull)) {
 
                 String str = "The following agents cluster together, and may be considered equivalent: ";
                 dataDump.add(str + "\n");
@@ -721,6 +1129,20 @@ public class RoundRobinTournament extends AbstractTournament {
         return retValue;
     }
 
+    private void reportMatrix(List<String> dataDump, String title, double[][] matrix) {
+        dataDump.add(title + "\n");
+        if (verbose) System.out.println(title);
+        for (double[] row : matrix) {
+            for (double value : row) {
+                String str = String.format("%.3f\t", value);
+                dataDump.add(str);
+                if (verbose) System.out.print(str);
+            }
+            dataDump.add("\n");
+            if (verbose) System.out.println();
+        }
+    }
+
     public double getWinRate(int agentID) {
         return finalWinRanking.get(agentID).a;
     }
@@ -58,6 +58,10 @@ public class SkillLadder {
             }
         }
 
+        TournamentCheckpoint checkpoint = TournamentCheckpoint.open(config, "");
+        // each tournament has its own seed (drawn whether or not it is run, so that they are the same on resume)
+        Random seedStream = new Random(((Number) config.get(RunArg.seed)).longValue());
+
         @SuppressWarnings("unchecked")
         List<String> listenerClasses = (List<String>) config.get(RunArg.listener);
 
@@ -131,6 +135,12 @@ public class SkillLadder {
                 int otherBudget = (int) (Math.pow(timeBudgetMultiplier, agentIndex) * startingTimeBudget);
                 if (newBudget == startGridBudget && otherBudget < startMinorGridBudget) // we fast forward to where we want to start the minor grid
                     continue;
+                String tournamentName = "Budget_" + newBudget + " vs Budget_" + otherBudget;
+                long tournamentSeed = seedStream.nextLong();
+                if (checkpoint != null && checkpoint.isCompleted(tournamentName)) {
+                    System.out.println(tournamentName + " already completed");
+                    continue;
+                }
                 List<AbstractPlayer> agents = Arrays.asList(allAgents.get(i + 1), allAgents.get(agentIndex));
                 Map<RunArg, Object> finalConfig = new HashMap<>();
                 finalConfig.put(RunArg.matchups, matchups);
@@ -139,6 +149,8 @@ public class SkillLadder {
                 finalConfig.put(RunArg.mode, "onevsall");
                 finalConfig.put(RunArg.verbose, false);
                 finalConfig.put(RunArg.gameParams, params);
+                finalConfig.put(RunArg.seed, tournamentSeed);
+                finalConfig.put(RunArg.resultCache, GameResultCache.fileName(config));
                 RoundRobinTournament RRT = new RoundRobinTournament(agents, gameType, nPlayers, params, finalConfig);
                 for (String listenerClass : listenerClasses) {
                     if (listenerClass.isEmpty()) continue;
@@ -153,6 +165,8 @@ public class SkillLadder {
                     }
                 }
 
+                RRT.setCheckpoint(checkpoint, tournamentName);
+
                 long startTime = System.currentTimeMillis();
                 RRT.run();
                 long endTime = System.currentTimeMillis();
@@ -0,0 +1,150 @@
+package evaluation.tournaments;
+
+import evaluation.RunArg;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The progress of a long experiment (a RunGames or SkillLadder run of one or more tournaments), so that it can be
+ * resumed if the process dies.
+ * <p>
+ * The results of the games themselves are in the GameResultCache, which is appended to as each game finishes. What
+ * this adds is what is needed to regenerate the same schedule of games on resume: the seed of the run (which
+ * otherwise defaults to the time) and its time stamp directory, together with the tournaments that have been
+ * completed (and so can be skipped). The tournament in progress is replayed from the start, taking the games already
+ * played from the cache, which also rebuilds the per-agent results; so only the number of its games recorded so far
+ * is written here, for information.
+ * <p>
+ * The file is written to a temporary file first, and then moved over the previous one, so that it is never left
+ * half-written.
+ */
+public class TournamentCheckpoint {
+
+    public static final String FILE_NAME = "Checkpoint.json";
+
+    final File file;
+    final long seed;
+    final String timeDir;
+    final Set<String> completed = new LinkedHashSet<>();
+    JSONObject current;
+
+    /**
+     * Starts a new checkpoint (which is written immediately, replacing any existing one).
+     */
+    public TournamentCheckpoint(String fileName, long seed, String timeDir) {
+        this.file = new File(fileName);
+        this.seed = seed;
+        this.timeDir = timeDir;
+        write();
+    }
+
+    private TournamentCheckpoint(File file, JSONObject json) {
+        this.file = file;
+        this.seed = ((Number) json.get("seed")).longValue();
+        this.timeDir = (String) json.get("timeDir");
+        for (Object name : (JSONArray) json.get("completed"))
+            completed.add((String) name);
+        this.current = (JSONObject) json.get("current");
+    }
+
+    /**
+     * Creates the checkpoint for a run in destDir (if checkpoint is set); or, if resume is set, loads the one from the
+     * interrupted run, and puts its seed into the config.
+     *
+     * @param timeDir the time stamp directory of this run, which is kept unless resuming
+     * @return the checkpoint, or null if there is none
+     */
+    public static TournamentCheckpoint open(Map<RunArg, Object> config, String timeDir) {
+        boolean resuming = (boolean) config.get(RunArg.resume);
+        if (!resuming && !(boolean) config.get(RunArg.checkpoint))
+            return null;
+        if (GameResultCache.fileName(config).isEmpty())
+            throw new IllegalArgumentException((resuming ? "resume" : "checkpoint") +
+                    " requires the result cache (resultCache must be set)");
+        String fileName = config.get(RunArg.destDir) + File.separator + FILE_NAME;
+        TournamentCheckpoint checkpoint = resuming ? load(fileName) : null;
+        if (checkpoint == null) {
+            if (resuming)
+                System.out.println("No checkpoint found in " + fileName + "; starting from the beginning");
+            return new TournamentCheckpoint(fileName, ((Number) config.get(RunArg.seed)).longValue(), timeDir);
+        }
+        System.out.printf("Resuming from %s with seed %d%n", fileName, checkpoint.getSeed());
+        config.put(RunArg.seed, checkpoint.getSeed());
+        return checkpoint;
+    }
+
+    /**
+     * @return the checkpoint in the file, or null if there is none
+     */
+    public static TournamentCheckpoint load(String fileName) {
+        File file = new File(fileName);
+        if (!file.exists())
+            return null;
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return new TournamentCheckpoint(file, (JSONObject) new JSONParser().parse(reader));
+        } catch (IOException | ParseException | ClassCastException | NullPointerException e) {
+            throw new IllegalArgumentException("Could not load checkpoint from " + fileName + " : " + e);
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getTimeDir() {
+        return timeDir;
+    }
+
+    public boolean isCompleted(String tournament) {
+        return completed.contains(tournament);
+    }
+
+    /**
+     * Records the progress of a tournament that has not yet finished.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void update(String tournament, int gamesRecorded) {
+        current = new JSONObject();
+        current.put("tournament", tournament);
+        current.put("gamesRecorded", gamesRecorded);
+        write();
+    }
+
+    public synchronized void completed(String tournament) {
+        completed.add(tournament);
+        current = null;
+        write();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write() {
+        JSONObject json = new JSONObject();
+        json.put("seed", seed);
+        json.put("timeDir", timeDir);
+        JSONArray completedArray = new JSONArray();
+        completedArray.addAll(completed);
+        json.put("completed", completedArray);
+        if (current != null)
+            json.put("current", current);
+        try {
+            if (file.getAbsoluteFile().getParentFile() != null)
+                file.getAbsoluteFile().getParentFile().mkdirs();
+            Path temp = Paths.get(file.getPath() + ".tmp");
+            Files.writeString(temp, json.toJSONString(), StandardCharsets.UTF_8);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new AssertionError("Could not write checkpoint to " + file + " : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package evaluation.tournaments;
+
+import evaluation.RunGames;
+import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
+import games.GameType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plays games for a tournament run in another process (see TournamentWorkers).
+ * <p>
+ * The arguments are: game, number of players, worker index, the time stamp directory used by RunGames, and then the
+ * RunGames arguments, which are used to create the same agents (in the same order) as the main process.
+ * Any listeners write their output to a Worker_[index] subdirectory of the usual one; for a MetricsGameListener this
+ * is just the rows of its metrics, which the main process adds to its own listener (see TournamentWorkers).
+ * <p>
+ * Games are read from stdin and their outcomes written to stdout, until stdin is closed. Anything else that would
+ * be printed to stdout (by the games or agents) goes to stderr instead.
+ */
+public class TournamentWorker {
+
+    public static void main(String[] args) {
+        PrintStream results = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+
+        GameType gameType = GameType.valueOf(args[0]);
+        int nPlayers = Integer.parseInt(args[1]);
+        int workerIndex = Integer.parseInt(args[2]);
+        RunGames runGames = RunGames.fromArgs(Arrays.copyOfRange(args, 4, args.length), args[3]);
+        RoundRobinTournament tournament = runGames.createTournament(gameType, nPlayers, true, "Worker_" + workerIndex);
+        // results are cached by the main process
+        tournament.resultCache = null;
+        tournament.initListeners();
+
+        try (BufferedReader games = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = games.readLine()) != null) {
+                String[] fields = line.split("\t");
+                List<Integer> agentIDs = Arrays.stream(fields[2].split(",")).map(Integer::valueOf).toList();
+                GameOutcome outcome = tournament.playGame(agentIDs, Long.parseLong(fields[1]));
+                results.println(fields[0] + "\t" + outcome);
+                results.flush();
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Tournament worker " + workerIndex + " could not read games : " + e.getMessage());
+        }
+
+        // the rows of the metrics are added to those of the main process, which reports them all together
+        for (IGameListener listener : tournament.listeners) {
+            if (listener instanceof MetricsGameListener metricsListener)
+                metricsListener.writeRows();
+            else
+                listener.report();
+        }
+    }
+}
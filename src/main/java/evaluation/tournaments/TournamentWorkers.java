@@ -0,0 +1,261 @@
+package evaluation.tournaments;
+
+import games.GameType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * A set of worker processes (each running TournamentWorker) that play the games of a tournament.
+ * This avoids the limits of a single JVM (heap, and agents that are not thread-safe).
+ * <p>
+ * Each worker is sent one game at a time on its stdin as: index, seed, and agent IDs (comma-separated), tab-separated.
+ * It replies on its stdout with: index, and then the GameOutcome, tab-separated.
+ * If a worker dies (or replies with anything else), then it is not used again, and its unfinished game is played
+ * by one of the others; if there are none left, then the remaining games are played in this process.
+ * <p>
+ * If a worker takes longer than the time limit over one game, then it is killed, and the game is abandoned (rather
+ * than given to another worker, which would most likely get stuck in the same way). Its outcome is null.
+ */
+public class TournamentWorkers implements AutoCloseable {
+
+    /**
+     * A game that has been scheduled by the tournament, but not yet played.
+     *
+     * @param cacheKey the key to store the result under in the GameResultCache (or null)
+     */
+    public record PendingGame(List<Integer> agentIDs, long seed, String cacheKey) {
+    }
+
+    private static class Worker {
+        final int index;
+        final Process process;
+        final BufferedWriter toWorker;
+        final BufferedReader fromWorker;
+        volatile boolean alive = true;
+
+        Worker(int index, List<String> command) {
+            this.index = index;
+            try {
+                process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            } catch (IOException e) {
+                throw new AssertionError("Could not start tournament worker " + index + " : " + e.getMessage());
+            }
+            toWorker = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            fromWorker = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+
+    final List<Worker> workers = new ArrayList<>();
+    final long gameTimeoutMillis;
+    final ScheduledExecutorService watchdog;
+    private final List<PendingGame> abandoned = Collections.synchronizedList(new ArrayList<>());
+    private boolean closed;
+
+    /**
+     * @param commands the command line to start each worker process
+     */
+    public TournamentWorkers(List<List<String>> commands) {
+        this(commands, 0);
+    }
+
+    /**
+     * @param commands          the command line to start each worker process
+     * @param gameTimeoutMillis the time a worker can take over one game before it is killed (0 for no limit)
+     */
+    public TournamentWorkers(List<List<String>> commands, long gameTimeoutMillis) {
+        this.gameTimeoutMillis = gameTimeoutMillis;
+        watchdog = gameTimeoutMillis > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "TournamentWorkers-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        for (int i = 0; i < commands.size(); i++)
+            workers.add(new Worker(i, commands.get(i)));
+    }
+
+    /**
+     * The command line to run a TournamentWorker in a new JVM, with the same classpath as this one.
+     *
+     * @param runGamesArgs the arguments used to create the agents for the tournament (as for RunGames)
+     */
+    public static List<String> workerCommand(GameType gameType, int nPlayers, int workerIndex, String timeDir,
+                                             String[] runGamesArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(TournamentWorker.class.getName());
+        command.add(gameType.name());
+        command.add(String.valueOf(nPlayers));
+        command.add(String.valueOf(workerIndex));
+        command.add(timeDir);
+        command.addAll(Arrays.asList(runGamesArgs));
+        return command;
+    }
+
+    public int getLiveWorkers() {
+        return (int) workers.stream().filter(w -> w.alive).count();
+    }
+
+    /**
+     * @return the number of workers started (the index of each is used in the name of its output directory)
+     */
+    public int size() {
+        return workers.size();
+    }
+
+    /**
+     * @return the games abandoned so far because a worker took too long over them
+     */
+    public List<PendingGame> getAbandoned() {
+        return new ArrayList<>(abandoned);
+    }
+
+    /**
+     * Plays all the games, and returns their outcomes in the same order (with null for any that were abandoned).
+     *
+     * @param playLocally used to play any games left if all the workers have died
+     */
+    public List<GameOutcome> play(List<PendingGame> games, Function<PendingGame, GameOutcome> playLocally) {
+        GameOutcome[] outcomes = new GameOutcome[games.size()];
+        LinkedBlockingDeque<Integer> toPlay = new LinkedBlockingDeque<>();
+        for (int i = 0; i < games.size(); i++)
+            toPlay.add(i);
+        AtomicInteger unfinished = new AtomicInteger(games.size());
+
+        List<Thread> threads = new ArrayList<>();
+        for (Worker worker : workers) {
+            if (!worker.alive)
+                continue;
+            Thread thread = new Thread(() -> serve(worker, games, toPlay, unfinished, outcomes),
+                    "TournamentWorker-" + worker.index);
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while waiting for tournament workers");
+        }
+
+        Integer next;
+        while ((next = toPlay.poll()) != null)
+            outcomes[next] = playLocally.apply(games.get(next));
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * Sends games to the worker one at a time, until all games are finished, or the worker dies.
+     * A worker with nothing to do waits, in case another one dies and its game has to be reassigned.
+     */
+    private void serve(Worker worker, List<PendingGame> games, LinkedBlockingDeque<Integer> toPlay,
+                       AtomicInteger unfinished, GameOutcome[] outcomes) {
+        while (worker.alive && unfinished.get() > 0) {
+            Integer next;
+            try {
+                next = toPlay.poll(10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (next == null)
+                continue;
+            PendingGame game = games.get(next);
+            ScheduledFuture<?> timeout = null;
+            // claimed by whichever comes first of the worker (replying or failing) and the time limit, so that
+            // exactly one of them decides what happens to the game
+            AtomicBoolean claimed = new AtomicBoolean();
+            boolean replied = false;
+            try {
+                worker.toWorker.write(next + "\t" + game.seed() + "\t" +
+                        game.agentIDs().stream().map(String::valueOf).collect(joining(",")));
+                worker.toWorker.newLine();
+                worker.toWorker.flush();
+                if (watchdog != null)
+                    timeout = watchdog.schedule(() -> {
+                        if (claimed.compareAndSet(false, true))
+                            worker.process.destroyForcibly(); // this ends the readLine() below
+                    }, gameTimeoutMillis, TimeUnit.MILLISECONDS);
+                String reply = worker.fromWorker.readLine();
+                replied = claimed.compareAndSet(false, true);
+                if (!replied)
+                    throw new IOException("timed out");
+                if (timeout != null)
+                    timeout.cancel(false);
+                if (reply == null)
+                    throw new IOException("worker has exited");
+                String[] fields = reply.split("\t");
+                if (!fields[0].equals(String.valueOf(next)))
+                    throw new IOException("unexpected reply " + reply);
+                outcomes[next] = GameOutcome.parse(fields, 1);
+                unfinished.decrementAndGet();
+            } catch (IOException | IllegalArgumentException e) {
+                if (timeout != null)
+                    timeout.cancel(false);
+                worker.alive = false;
+                worker.process.destroy();
+                // if the worker did not claim the game (with a reply), then the time limit may have done so
+                boolean timedOut = !replied && !claimed.compareAndSet(false, true);
+                if (timedOut) {
+                    System.err.printf("Tournament worker %d took more than %d seconds over game %d (seed %d, agents %s), " +
+                                    "so has been stopped; the game is abandoned%n",
+                            worker.index, gameTimeoutMillis / 1000, next, game.seed(), game.agentIDs());
+                    abandoned.add(game);
+                    unfinished.decrementAndGet();
+                    continue;
+                }
+                System.err.printf("Tournament worker %d failed (%s); its game will be played by another worker%n",
+                        worker.index, e.getMessage());
+                // the remaining workers (if any) will pick this up; and if there are none, then it is left for play()
+                toPlay.addFirst(next);
+                if (getLiveWorkers() == 0)
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Closes the input of each worker, which then writes out its listeners and exits; and waits for them to do so.
+     * This can be called more than once.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        if (watchdog != null)
+            watchdog.shutdownNow();
+        for (Worker worker : workers) {
+            try {
+                worker.toWorker.close();
+            } catch (IOException e) {
+                // the worker has already gone
+            }
+        }
+        for (Worker worker : workers) {
+            try {
+                if (gameTimeoutMillis <= 0) {
+                    worker.process.waitFor();
+                } else if (!worker.process.waitFor(gameTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    System.err.printf("Tournament worker %d did not finish writing its listeners within %d seconds, so has been stopped%n",
+                            worker.index, gameTimeoutMillis / 1000);
+                    worker.process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                worker.process.destroy();
+            }
+        }
+    }
+}
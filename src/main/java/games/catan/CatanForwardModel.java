@@ -10,6 +10,7 @@ import core.components.Counter;
 import core.components.Deck;
 import core.components.Edge;
 import core.components.GraphBoardWithEdges;
+import core.interfaces.IOrderedActionSpace;
 import evaluation.metrics.Event;
 import games.catan.actions.build.BuyAction;
 import games.catan.actions.discard.DiscardResourcesPhase;
@@ -20,6 +21,7 @@ import games.catan.components.CatanTile;
 import games.catan.stats.CatanMetrics;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 import static core.CoreConstants.DefaultGamePhase.Main;
 import static games.catan.CatanConstants.HEX_SIDES;
@@ -29,7 +31,7 @@ import static games.catan.stats.CatanMetrics.CatanEvent.RobberRoll;
 import static games.catan.stats.CatanMetrics.CatanEvent.SevenOut;
 
 @SuppressWarnings("OptionalGetWithoutIsPresent")
-public class CatanForwardModel extends StandardForwardModel {
+public class CatanForwardModel extends StandardForwardModel implements IOrderedActionSpace {
 
     @Override
     protected void _setup(AbstractGameState firstState) {
@@ -63,14 +65,14 @@ public class CatanForwardModel extends StandardForwardModel {
         // Setup areas
         for (int i = 0; i < state.getNPlayers(); i++) {
             state.playerDevCards.add(new Deck<>("Player Development Deck", i, CoreConstants.VisibilityMode.VISIBLE_TO_OWNER));
-            HashMap<BuyAction.BuyType, Counter> tokens = new HashMap<>();
+            HashMap<BuyAction.BuyType, Counter> tokens = new LinkedHashMap<>();
             for (Map.Entry<BuyAction.BuyType, Integer> type: params.tokenCounts.entrySet()) {
                 tokens.put(type.getKey(), new Counter(type.getValue(), type.getKey().name() + " Counter " + i));
             }
             state.playerTokens.add(tokens);
 
-            HashMap<CatanParameters.Resource, Counter> resources = new HashMap<>();
-            HashMap<CatanParameters.Resource, Counter> exchange = new HashMap<>();
+            HashMap<CatanParameters.Resource, Counter> resources = new LinkedHashMap<>();
+            HashMap<CatanParameters.Resource, Counter> exchange = new LinkedHashMap<>();
             for (CatanParameters.Resource res: CatanParameters.Resource.values()) {
                 resources.put(res, new Counter(res + " " + i));
                 exchange.put(res, new Counter(params.default_exchange_rate,1, params.default_exchange_rate,res + " " + i));
@@ -81,7 +83,7 @@ public class CatanForwardModel extends StandardForwardModel {
         }
 
         // create resource pool
-        state.resourcePool = new HashMap<>();
+        state.resourcePool = new LinkedHashMap<>();
         for (CatanParameters.Resource res : CatanParameters.Resource.values()) {
             state.resourcePool.put(res, new Counter(res.name()));
             state.resourcePool.get(res).increment(params.n_resource_cards);
@@ -205,7 +207,7 @@ public class CatanForwardModel extends StandardForwardModel {
             for (int p = 0; p < gs.getNPlayers(); p++) {
                 int nResInHand = gs.getNResourcesInHand(p);
                 if (nResInHand > cp.max_cards_without_discard) {
-                    gs.logEvent(SevenOut, String.valueOf(p));
+                    gs.logEvent(SevenOut, "%d", p);
                     int r = (int)(nResInHand * cp.perc_discard_robber); // remove half of the resources
                     new DiscardResourcesPhase(p, r).execute(gs);
                 }
@@ -284,6 +286,39 @@ public class CatanForwardModel extends StandardForwardModel {
         return mainActions;
     }
 
+    /**
+     * Generates the same actions as _computeAvailableActions(), but lazily. Building and development cards come first,
+     * then ending the turn, and the (very numerous) trading actions last, so that these are only constructed if
+     * they are actually needed.
+     */
+    @Override
+    public Iterator<AbstractAction> orderedActions(AbstractGameState gameState, ActionSpace actionSpace) {
+        CatanGameState cgs = (CatanGameState) gameState;
+        CatanParameters cp = (CatanParameters) gameState.getGameParameters();
+        int player = cgs.getCurrentPlayer();
+
+        if (cgs.getGamePhase() == Setup) {
+            return CatanActionFactory.getSetupActions(cgs, actionSpace, player).iterator();
+        }
+        if (cgs.getGamePhase() == Robber) {
+            return CatanActionFactory.getRobberActions(cgs, actionSpace, player, false).iterator();
+        }
+        if (cgs.tradeOffer != null) {
+            // Only replies allowed
+            return CatanActionFactory.getPlayerTradeActions(cgs, actionSpace, player).iterator();
+        }
+        List<Supplier<List<AbstractAction>>> generators = List.of(
+                () -> CatanActionFactory.getBuyActions(cgs, actionSpace, player),
+                () -> cgs.noDevelopmentCardPlayed() ? CatanActionFactory.getDevCardActions(cgs, actionSpace, player) : Collections.emptyList(),
+                () -> Collections.singletonList(new DoNothing()),  // End turn
+                () -> CatanActionFactory.getDefaultTradeActions(cgs, actionSpace, player),
+                () -> cp.tradingAllowed && cgs.nTradesThisTurn < cp.max_trade_actions_allowed ?
+                        CatanActionFactory.getPlayerTradeActions(cgs, actionSpace, player) : Collections.emptyList()
+        );
+        // flatMap only calls each generator when the previous one has been exhausted
+        return generators.stream().flatMap(g -> g.get().stream()).iterator();
+    }
+
     private CatanTile[][] generateBoard(CatanParameters params, Random rnd) {
         // Shuffle the tile types
         ArrayList<CatanTile.TileType> tileList = new ArrayList<>();
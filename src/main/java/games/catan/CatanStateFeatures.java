@@ -6,6 +6,7 @@ import players.heuristics.AbstractStateFeature;
 public class CatanStateFeatures extends AbstractStateFeature {
 
     String[] localNames = new String[0];
+    private static final double[] localFeatures = new double[0];
 
     @Override
     protected double maxScore() {
@@ -24,7 +25,7 @@ public class CatanStateFeatures extends AbstractStateFeature {
 
     @Override
     protected double[] localFeatureVector(AbstractGameState gs, int playerID) {
-        return new double[0];
+        return localFeatures;
     }
 
 }
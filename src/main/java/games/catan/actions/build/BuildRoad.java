@@ -57,7 +57,7 @@ public class BuildRoad extends AbstractAction {
                 // add points for longest road and set the new road in gamestate
                 if (cgs.getLongestRoadOwner() >= 0) {
                     // in this case the longest road was already claimed
-                    cgs.logEvent(LongestRoadSteal, String.valueOf(playerID));
+                    cgs.logEvent(LongestRoadSteal, "%d", playerID);
                     cgs.addScore(cgs.getLongestRoadOwner(), -cp.longest_road_value);
                 }
                 cgs.addScore(playerID, cp.longest_road_value);
@@ -51,7 +51,7 @@ public class BuildSettlement extends AbstractAction {
 
             settlement.setOwnerId(playerID);
             if(settlement.getHarbour() != null){
-                gs.logEvent(PortSettle, String.valueOf(playerID));
+                gs.logEvent(PortSettle, "%d", playerID);
 
                 Map<CatanParameters.Resource, Counter> exchangeRates = cgs.getExchangeRates(playerID);
                 CatanParameters.Resource harbour = settlement.getHarbour();
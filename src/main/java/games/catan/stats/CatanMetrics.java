@@ -150,7 +150,7 @@ public class CatanMetrics implements IMetricsCollection {
     public static class PortSettle extends AbstractMetric {
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
-            int playerId = Integer.parseInt(((LogEvent)e.action).text);
+            int playerId = ((LogEvent) e.action).getArg(0);
             String playerName = listener.getGame().getPlayers().get(playerId).toString();
             records.put(playerName + "_portSettle", 1);
             return true;
@@ -212,7 +212,7 @@ public class CatanMetrics implements IMetricsCollection {
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             CatanGameState gs = (CatanGameState) e.state;
             if (e.type == CatanEvent.SevenOut) {
-                sevenOuts.add(Integer.parseInt(((LogEvent)e.action).text));
+                sevenOuts.add(((LogEvent) e.action).<Integer>getArg(0));
                 return false;
             }
             else {
@@ -247,11 +247,11 @@ public class CatanMetrics implements IMetricsCollection {
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             if (e.type == CatanEvent.LongestRoadSteal) {
-                String playerName = listener.getGame().getPlayers().get(Integer.parseInt(((LogEvent)e.action).text)).toString();
+                String playerName = listener.getGame().getPlayers().get(((LogEvent) e.action).getArg(0)).toString();
                 records.put(playerName + "_nLongestRoadSteals", 1);
             }
             else if (e.type == CatanEvent.LargestArmySteal) {
-                String playerName = listener.getGame().getPlayers().get(Integer.parseInt(((LogEvent)e.action).text)).toString();
+                String playerName = listener.getGame().getPlayers().get(((LogEvent) e.action).getArg(0)).toString();
                 records.put(playerName + "_nLargestArmySteals", 1);
             }
             return true;
@@ -330,7 +330,7 @@ public class CatanMetrics implements IMetricsCollection {
             }
             else if (e.type == Event.GameEvent.TURN_OVER) {
                 CatanGameState gs = (CatanGameState) e.state;
-                int pId = Integer.parseInt(((LogEvent)e.action).text);
+                int pId = e.playerID;
                 int[] scores = gs.getScores();
                 int[] vps = gs.getVictoryPoints();
                 IntStream.range(0, e.state.getNPlayers()).forEach(i -> scores[i] += vps[i]);
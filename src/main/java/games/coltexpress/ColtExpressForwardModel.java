@@ -41,7 +41,7 @@ public class ColtExpressForwardModel extends StandardForwardModelWithTurnOrder {
         setupTrain(cegs);
         cegs.playerCharacters = new HashMap<>();
 
-        HashSet<CharacterType> characters = new HashSet<>();
+        HashSet<CharacterType> characters = new LinkedHashSet<>();
         Collections.addAll(characters, CharacterType.values());
 
         cegs.playerDecks = new ArrayList<>(cegs.getNPlayers());
@@ -172,7 +172,7 @@ public class ColtExpressForwardModel extends StandardForwardModelWithTurnOrder {
         ColtExpressTurnOrder ceto = (ColtExpressTurnOrder) cegs.getTurnOrder();
         int player = cegs.getCurrentPlayer();
 
-        HashSet<ColtExpressCard.CardType> types = new HashSet<>();
+        HashSet<ColtExpressCard.CardType> types = new LinkedHashSet<>();
 
         Deck<ColtExpressCard> playerHand = cegs.playerHandCards.get(player);
         int fromID = playerHand.getComponentID();
@@ -266,7 +266,7 @@ public class ColtExpressForwardModel extends StandardForwardModelWithTurnOrder {
                         else if (compartment.playersInsideCompartment.contains(player))
                             availableLoot = compartment.lootInside;
                         if (availableLoot != null && availableLoot.getSize() > 0) {
-                            HashSet<LootType> lootTypes = new HashSet<>();
+                            HashSet<LootType> lootTypes = new LinkedHashSet<>();
                             for (Loot loot : availableLoot.getComponents()) {
                                 lootTypes.add(loot.getLootType());
                             }
@@ -379,7 +379,7 @@ public class ColtExpressForwardModel extends StandardForwardModelWithTurnOrder {
 
                     if (availableLoot.getSize() > 0) {
                         // Punch and make them drop random loot of type
-                        HashSet<LootType> lootTypes = new HashSet<>();
+                        HashSet<LootType> lootTypes = new LinkedHashSet<>();
                         for (Loot loot : availableLoot.getComponents()) {
                             lootTypes.add(loot.getLootType());
                         }
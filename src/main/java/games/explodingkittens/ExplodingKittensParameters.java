@@ -8,13 +8,14 @@ import games.explodingkittens.cards.ExplodingKittensCard;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Objects;
 
 public class ExplodingKittensParameters extends TunableParameters {
 
     String dataPath = "data/explodingkittens/";
 
-    HashMap<ExplodingKittensCard.CardType, Integer> cardCounts = new HashMap<ExplodingKittensCard.CardType, Integer>() {{
+    HashMap<ExplodingKittensCard.CardType, Integer> cardCounts = new LinkedHashMap<ExplodingKittensCard.CardType, Integer>() {{
         put(ExplodingKittensCard.CardType.ATTACK, 4);
         put(ExplodingKittensCard.CardType.SKIP, 4);
         put(ExplodingKittensCard.CardType.FAVOR, 4);
@@ -189,7 +189,7 @@ public class LoveLetterGameState extends AbstractGameState implements IPrintable
         while (playerHandCards.get(targetPlayer).getSize() > 0)
             playerDiscardCards.get(targetPlayer).add(playerHandCards.get(targetPlayer).draw());
 
-        logEvent(Event.GameEvent.GAME_EVENT, "Killed player: " + whoKill + "," + targetPlayer + "," + cardType + "," + getCurrentPlayer());
+        logEvent(Event.GameEvent.GAME_EVENT, "Killed player: %d,%d,%s,%d", whoKill, targetPlayer, cardType, getCurrentPlayer());
     }
 
     // Getters, Setters
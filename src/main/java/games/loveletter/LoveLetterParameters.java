@@ -8,6 +8,7 @@ import games.loveletter.cards.LoveLetterCard;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Objects;
 
 /** This class allows to modify the balance of the game. Each modification may result in several problems with the
@@ -18,7 +19,7 @@ public class LoveLetterParameters extends TunableParameters {
     String dataPath = "data/loveletter/";
 
     // Occurrence count for each card
-    public HashMap<LoveLetterCard.CardType, Integer> cardCounts = new HashMap<LoveLetterCard.CardType, Integer>() {{
+    public HashMap<LoveLetterCard.CardType, Integer> cardCounts = new LinkedHashMap<LoveLetterCard.CardType, Integer>() {{
         put(LoveLetterCard.CardType.Princess, 1);
         put(LoveLetterCard.CardType.Countess, 1);
         put(LoveLetterCard.CardType.King, 1);
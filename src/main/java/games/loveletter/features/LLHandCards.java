@@ -8,22 +8,24 @@ import games.loveletter.cards.LoveLetterCard;
 public class LLHandCards implements IStateFeatureVector {
     @Override
     public double[] featureVector(AbstractGameState state, int playerID) {
+        double[] retValue = new double[2];
+        featureVector(state, playerID, retValue, 0);
+        return retValue;
+    }
+
+    @Override
+    public void featureVector(AbstractGameState state, int playerID, double[] buffer, int offset) {
         LoveLetterGameState llgs = (LoveLetterGameState) state;
         if (!llgs.isNotTerminalForPlayer(playerID)) {
-            return new double[]{0.0, 0.0};
+            buffer[offset] = 0.0;
+            buffer[offset + 1] = 0.0;
+            return;
         }
-        double[] retValue = new double[2];
         LoveLetterCard card1 = llgs.getPlayerHandCards().get(playerID).peek(0);
         LoveLetterCard card2 = llgs.getPlayerHandCards().get(playerID).peek(1);
         // we take the highest value card first
-        if (card1.cardType.getValue() > card2.cardType.getValue()) {
-            retValue[0] = card1.cardType.getValue();
-            retValue[1] = card2.cardType.getValue();
-        } else {
-            retValue[0] = card2.cardType.getValue();
-            retValue[1] = card1.cardType.getValue();
-        }
-        return retValue;
+        buffer[offset] = Math.max(card1.cardType.getValue(), card2.cardType.getValue());
+        buffer[offset + 1] = Math.min(card1.cardType.getValue(), card2.cardType.getValue());
     }
 
     @Override
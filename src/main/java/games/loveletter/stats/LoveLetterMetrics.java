@@ -112,12 +112,12 @@ public class LoveLetterMetrics implements IMetricsCollection {
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             if (e.type == Event.GameEvent.GAME_EVENT) {
-                String[] text = ((LogEvent) e.action).text.split(":")[1].split(",");
-                int killer = Integer.parseInt(text[0].trim());
-                int killed = Integer.parseInt(text[1].trim());
-                int activePlayer = Integer.parseInt(text[3].trim());
+                // logged by LoveLetterGameState.killPlayer()
+                LogEvent event = (LogEvent) e.action;
+                int killed = event.getArg(1);
+                int activePlayer = event.getArg(3);
 
-                cardPlayed = LoveLetterCard.CardType.valueOf(text[2].trim());
+                cardPlayed = event.getArg(2);
                 successfulPlay = activePlayer != killed;
 
                 return false;
@@ -235,9 +235,9 @@ public class LoveLetterMetrics implements IMetricsCollection {
         @Override
         public boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             if (e.type == Event.GameEvent.GAME_EVENT) {
-                String[] text = ((LogEvent) e.action).text.split(":")[1].split(",");
-                killer = Integer.parseInt(text[0].trim());
-                victim = Integer.parseInt(text[1].trim());
+                LogEvent event = (LogEvent) e.action;
+                killer = event.getArg(0);
+                victim = event.getArg(1);
                 eliminatedPlayers.add(victim);
                 return false;
             } else {
@@ -334,10 +334,10 @@ public class LoveLetterMetrics implements IMetricsCollection {
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             // This is spawned whenever a player is eliminated
-            String[] text = ((LogEvent) e.action).text.split(":")[1].split(",");
-            int killer = Integer.parseInt(text[0].trim());
-            int killed = Integer.parseInt(text[1].trim());
-            LoveLetterCard.CardType cardUsed = LoveLetterCard.CardType.valueOf(text[2].trim());
+            LogEvent event = (LogEvent) e.action;
+            int killer = event.getArg(0);
+            int killed = event.getArg(1);
+            LoveLetterCard.CardType cardUsed = event.getArg(2);
             records.put("EliminatingCard", cardUsed + (killed == killer ? ".self" : ""));
             return true;
         }
@@ -43,7 +43,7 @@ public class Settler extends PuertoRicoRole<Settler> {
         haciendaStep[currentPlayer] = false;
 
         Set<PuertoRicoConstants.Crop> uniqueVisibleCrops = state.getAvailablePlantations().stream()
-                .map(p -> p.crop).collect(toSet());
+                .map(p -> p.crop).collect(toCollection(LinkedHashSet::new));
         List<AbstractAction> retValue = uniqueVisibleCrops.stream().map(DrawPlantation::new).collect(toList());
         if (state.getQuarriesLeft() > 0 && (currentPlayer == roleOwner || state.hasActiveBuilding(currentPlayer, CONSTRUCTION_HUT)))
             retValue.add(new BuildQuarry());
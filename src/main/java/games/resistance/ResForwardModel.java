@@ -168,7 +168,9 @@ public class ResForwardModel extends StandardForwardModel {
                 return;
             }
 
-            resgs.logEvent(GAME_EVENT, "Vote was " + Arrays.stream(resgs.votingChoice).map(Objects::toString).collect(Collectors.joining(",")));
+            // clearVoteChoices() replaces the array, so this one is unchanged when the text is built
+            ResPlayerCards.CardType[] votes = resgs.votingChoice;
+            resgs.logEvent(GAME_EVENT, () -> "Vote was " + Arrays.stream(votes).map(Objects::toString).collect(Collectors.joining(",")));
             resgs.clearVoteChoices();
 
             if (resgs.voteSuccess) {
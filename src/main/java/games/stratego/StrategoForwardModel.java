@@ -105,7 +105,7 @@ public class StrategoForwardModel extends StandardForwardModel implements ITreeA
 
         List<AbstractAction> actions = _computeAvailableActions(sgs, currentState.getCoreGameParameters().actionSpace);
         if (actions.isEmpty()){
-            sgs.logEvent(StrategoMetrics.StrategoEvent.EndCondition, EndCondition.NO_MOVES_LEFT.name() + ":" + sgs.getCurrentPlayer());
+            sgs.logEvent(StrategoMetrics.StrategoEvent.EndCondition, "%s:%d", EndCondition.NO_MOVES_LEFT, sgs.getCurrentPlayer());
             // If the player can't take any actions, they lose
             _computeAvailableActions(sgs, currentState.getCoreGameParameters().actionSpace);
             sgs.setGameStatus(CoreConstants.GameResult.GAME_END);
@@ -113,7 +113,7 @@ public class StrategoForwardModel extends StandardForwardModel implements ITreeA
             sgs.setPlayerResult(CoreConstants.GameResult.WIN_GAME, 1-sgs.getCurrentPlayer());
         } else {
             if (sgs.getTurnCounter() >= ((StrategoParams)sgs.getGameParameters()).maxRounds) {
-                sgs.logEvent(StrategoMetrics.StrategoEvent.EndCondition, EndCondition.MAX_TURNS.name());
+                sgs.logEvent(StrategoMetrics.StrategoEvent.EndCondition, "%s", EndCondition.MAX_TURNS);
                 // Max rounds reached, draw
                 sgs.setGameStatus(CoreConstants.GameResult.GAME_END);
                 sgs.setPlayerResult(CoreConstants.GameResult.DRAW_GAME, sgs.getCurrentPlayer());
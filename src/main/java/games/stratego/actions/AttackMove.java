@@ -53,17 +53,14 @@ public class AttackMove extends Move {
         attackedPiece.setPieceKnown(true);
 
         if (attackedPiece.getPieceType() == Piece.PieceType.FLAG){
-            gs.logEvent(StrategoMetrics.StrategoEvent.EndCondition, StrategoForwardModel.EndCondition.FLAG_CAPTURE.name() + ":" + gs.getCurrentPlayer());
+            gs.logEvent(StrategoMetrics.StrategoEvent.EndCondition, "%s:%d", StrategoForwardModel.EndCondition.FLAG_CAPTURE, gs.getCurrentPlayer());
             gs.setGameStatus(CoreConstants.GameResult.GAME_END);
             gs.setPlayerResult(CoreConstants.GameResult.WIN_GAME, gs.getCurrentPlayer());
             gs.setPlayerResult(CoreConstants.GameResult.LOSE_GAME, 1-gs.getCurrentPlayer());
 
         } else if (attackedPiece.getPieceType() == Piece.PieceType.BOMB){
             if (movedPiece.getPieceType() == Piece.PieceType.MINER){
-                gs.logEvent(StrategoMetrics.StrategoEvent.BattleOutcome,
-                        movedPiece.getOwnerId() + " vs " + attackedPiece.getOwnerId() +
-                        " : " + movedPiece.getPieceType().name() + " vs " + attackedPiece.getPieceType().name() + ":" +
-                        movedPiece.getOwnerId());
+                logBattle(gs, movedPiece, attackedPiece, movedPiece.getOwnerId());
 
                 // Bomb is lost and miner moves into bomb's location
                 movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
@@ -72,10 +69,7 @@ public class AttackMove extends Move {
                         attackedPiece.getPiecePosition().getY(), movedPiece);
                 movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
             } else {
-                gs.logEvent(StrategoMetrics.StrategoEvent.BattleOutcome,
-                        movedPiece.getOwnerId() + " vs " + attackedPiece.getOwnerId() +
-                        " : " + movedPiece.getPieceType().name() + " vs " + attackedPiece.getPieceType().name() + ":" +
-                        attackedPiece.getOwnerId());
+                logBattle(gs, movedPiece, attackedPiece, attackedPiece.getOwnerId());
                 // Piece is lost and removed from the board
                 movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
                         movedPiece.getPiecePosition().getY(), null);
@@ -83,10 +77,7 @@ public class AttackMove extends Move {
 
         } else if (attackedPiece.getPieceType() == Piece.PieceType.MARSHAL && movedPiece.getPieceType() == Piece.PieceType.SPY){
 
-            gs.logEvent(StrategoMetrics.StrategoEvent.BattleOutcome,
-                    movedPiece.getOwnerId() + " vs " + attackedPiece.getOwnerId() +
-                    " : " + movedPiece.getPieceType().name() + " vs " + attackedPiece.getPieceType().name() + ":" +
-                    movedPiece.getOwnerId());
+            logBattle(gs, movedPiece, attackedPiece, movedPiece.getOwnerId());
 
             // Spy removes Marshal, but only if spy is the one attacking
             movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
@@ -97,10 +88,7 @@ public class AttackMove extends Move {
 
         } else if (movedPieceRank > attackedPieceRank){
 
-            gs.logEvent(StrategoMetrics.StrategoEvent.BattleOutcome,
-                    movedPiece.getOwnerId() + " vs " + attackedPiece.getOwnerId() +
-                    " : " + movedPiece.getPieceType().name() + " vs " + attackedPiece.getPieceType().name() + ":" +
-                    movedPiece.getOwnerId());
+            logBattle(gs, movedPiece, attackedPiece, movedPiece.getOwnerId());
 
             // Higher rank wins
             movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
@@ -111,10 +99,7 @@ public class AttackMove extends Move {
 
         } else if (movedPieceRank == attackedPieceRank){
 
-            gs.logEvent(StrategoMetrics.StrategoEvent.BattleOutcome,
-                    movedPiece.getOwnerId() + " vs " + attackedPiece.getOwnerId() +
-                    " : " + movedPiece.getPieceType().name() + " vs " + attackedPiece.getPieceType().name() + ":" +
-                    -1);  // a tie
+            logBattle(gs, movedPiece, attackedPiece, -1);  // a tie
 
             // Both pieces are lost
             movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
@@ -123,10 +108,7 @@ public class AttackMove extends Move {
                     attackedPiece.getPiecePosition().getY(), null);
         } else {
 
-            gs.logEvent(StrategoMetrics.StrategoEvent.BattleOutcome,
-                    movedPiece.getOwnerId() + " vs " + attackedPiece.getOwnerId() +
-                    " : " + movedPiece.getPieceType().name() + " vs " + attackedPiece.getPieceType().name() + ":" +
-                    attackedPiece.getOwnerId());
+            logBattle(gs, movedPiece, attackedPiece, attackedPiece.getOwnerId());
 
             // Defender wins, does not move, attacker just gets removed from the board
             movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
@@ -138,6 +120,13 @@ public class AttackMove extends Move {
         return (movedTileEmptied && destinationTileEmptied && destinationTileSet);
     }
 
+    // winner is -1 for a tie
+    private static void logBattle(AbstractGameState gs, Piece movedPiece, Piece attackedPiece, int winner) {
+        gs.logEvent(StrategoMetrics.StrategoEvent.BattleOutcome, "%d vs %d : %s vs %s:%d",
+                movedPiece.getOwnerId(), attackedPiece.getOwnerId(),
+                movedPiece.getPieceType(), attackedPiece.getPieceType(), winner);
+    }
+
     @Override
     public AttackMove copy() {
         return new AttackMove(position, movedPieceID, attackedPosition, attackedPieceID);
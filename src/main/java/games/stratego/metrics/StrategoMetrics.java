@@ -40,8 +40,7 @@ public class StrategoMetrics implements IMetricsCollection {
 
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
-            String[] text = ((LogEvent)e.action).text.split(":");
-            StrategoForwardModel.EndCondition condition = StrategoForwardModel.EndCondition.valueOf(text[0]);
+            StrategoForwardModel.EndCondition condition = ((LogEvent) e.action).getArg(0);
             records.put("GameEnd", condition.toString());
             return true;
         }
@@ -71,15 +70,16 @@ public class StrategoMetrics implements IMetricsCollection {
 
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
-            String[] text = ((LogEvent)e.action).text.split(":");
-            String[] players = text[0].split(" vs ");
-            String[] pieces = text[1].split(" vs ");
-            int winner = Integer.parseInt(text[2].trim());
-            String attackerName = listener.getGame().getPlayers().get(Integer.parseInt(players[0].trim())).toString();
-            String defenderName = listener.getGame().getPlayers().get(Integer.parseInt(players[1].trim())).toString();
-
-            for (String s : players) {
-                int i = Integer.parseInt(s.trim());
+            // logged by AttackMove.logBattle()
+            LogEvent event = (LogEvent) e.action;
+            int[] players = {event.getArg(0), event.getArg(1)};
+            Piece.PieceType attackerPiece = event.getArg(2);
+            Piece.PieceType defenderPiece = event.getArg(3);
+            int winner = event.getArg(4);
+            String attackerName = listener.getGame().getPlayers().get(players[0]).toString();
+            String defenderName = listener.getGame().getPlayers().get(players[1]).toString();
+
+            for (int i : players) {
                 String player = listener.getGame().getPlayers().get(i).toString();
                 if (winner == i) {
                     records.put(player + "_wins", 1);
@@ -98,8 +98,8 @@ public class StrategoMetrics implements IMetricsCollection {
             records.put(defenderName + "_defender", 1);
             records.put(defenderName + "_attacker", 0);
 
-            if (Piece.PieceType.valueOf(pieces[0].trim()) == Piece.PieceType.SPY) {
-                if (Piece.PieceType.valueOf(pieces[1].trim()) == Piece.PieceType.MARSHAL) {
+            if (attackerPiece == Piece.PieceType.SPY) {
+                if (defenderPiece == Piece.PieceType.MARSHAL) {
                     records.put(attackerName + "_spykill", 1);
                 } else {
                     records.put(attackerName + "_spykill", 0);
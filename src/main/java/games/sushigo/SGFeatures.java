@@ -79,6 +79,11 @@ public class SGFeatures implements IStateFeatureVector, IStateFeatureJSON {
         return new double[0];
     }
 
+    @Override
+    public void featureVector(AbstractGameState state, int playerID, double[] buffer, int offset) {
+        // there are no features yet (see the todo above), so there is nothing to calculate
+    }
+
 //    public int[] encodeCardType(List<SGCard> deck){
 //        int nUnique = (int) Arrays.stream(SGCard.SGCardType.values()).map(e -> e.getIconCountVariation().length).count();
 //        String uniqueCards[] = new String[nUnique];
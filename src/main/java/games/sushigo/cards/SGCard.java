@@ -114,7 +114,7 @@ public class SGCard extends Card {
                     for (Integer mostPlayer : mostPlayers) {
                         gs.addPlayerScore(mostPlayer, mostScore, Maki);
                         if (gs.getCoreGameParameters().recordEventHistory) {
-                            gs.logEvent(Event.GameEvent.GAME_EVENT, "Player " + mostPlayer + " scores " + mostScore + " from Maki rolls (most:" + most + ")");
+                            gs.logEvent(Event.GameEvent.GAME_EVENT, "Player %d scores %d from Maki rolls (most:%d)", mostPlayer, mostScore, most);
                         }
                     }
                 }
@@ -124,7 +124,7 @@ public class SGCard extends Card {
                     for (Integer secondPlayer : secondPlayers) {
                         gs.addPlayerScore(secondPlayer, secondScore, Maki);
                         if (gs.getCoreGameParameters().recordEventHistory) {
-                            gs.logEvent(Event.GameEvent.GAME_EVENT, "Player " + secondPlayer + " scores " + secondScore + " from Maki rolls (second most:" + secondMost + ")");
+                            gs.logEvent(Event.GameEvent.GAME_EVENT, "Player %d scores %d from Maki rolls (second most:%d)", secondPlayer, secondScore, secondMost);
                         }
                     }
                 }
@@ -164,7 +164,7 @@ public class SGCard extends Card {
                         for (Integer mostPlayer : mostPlayers) {
                             gs.addPlayerScore(mostPlayer, mostScore, Pudding);
                             if (gs.getCoreGameParameters().recordEventHistory) {
-                                gs.logEvent(Event.GameEvent.GAME_EVENT, "Player " + mostPlayer + " scores " + mostScore + " from Puddings (most:" + best + ")");
+                                gs.logEvent(Event.GameEvent.GAME_EVENT, "Player %d scores %d from Puddings (most:%d)", mostPlayer, mostScore, best);
                             }
                         }
                     }
@@ -174,7 +174,7 @@ public class SGCard extends Card {
                         for (Integer leastPlayer : leastPlayers) {
                             gs.addPlayerScore(leastPlayer, leastScore, Pudding);
                             if (gs.getCoreGameParameters().recordEventHistory) {
-                                gs.logEvent(Event.GameEvent.GAME_EVENT, "Player " + leastPlayer + " scores " + leastScore + " from Puddings (least:" + worst + ")");
+                                gs.logEvent(Event.GameEvent.GAME_EVENT, "Player %d scores %d from Puddings (least:%d)", leastPlayer, leastScore, worst);
                             }
                         }
                     }
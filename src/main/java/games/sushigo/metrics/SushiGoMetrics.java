@@ -26,6 +26,11 @@ public class SushiGoMetrics implements IMetricsCollection {
      */
     public static class CardPlayedCount extends AbstractMetric {
 
+        @Override
+        public boolean canRunAsync() {
+            return true;
+        }
+
         @Override
         public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
             Map<String, Class<?>> columns = new HashMap<>();
@@ -72,6 +77,12 @@ public class SushiGoMetrics implements IMetricsCollection {
      *
      */
     public static class CardNotChosenInFavourOf extends AbstractMetric {
+
+        @Override
+        public boolean canRunAsync() {
+            return true;
+        }
+
         String[] focusTypes;
         String[] allTypes;
         public CardNotChosenInFavourOf() {
@@ -153,6 +164,12 @@ public class SushiGoMetrics implements IMetricsCollection {
      {"class": "games.sushigo.metrics.SushiGoMetrics$CardPoints" }
      */
     public static class CardPlayedWin extends AbstractMetric {
+
+        @Override
+        public boolean canRunAsync() {
+            return true;
+        }
+
         SGCard.SGCardType[] types = SGCard.SGCardType.values();
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
@@ -188,6 +205,12 @@ public class SushiGoMetrics implements IMetricsCollection {
      * How many points does each card type bring to a player on average
      */
     public static class CardPoints extends AbstractMetric {
+
+        @Override
+        public boolean canRunAsync() {
+            return true;
+        }
+
         SGCard.SGCardType[] types = SGCard.SGCardType.values();
 
         @Override
@@ -16,9 +16,9 @@ import utilities.Vector2D;
 import java.awt.*;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static games.terraformingmars.components.TMMapTile.parseMapTile;
 
@@ -301,80 +301,92 @@ public class TMTypes {
 
         /* custom loading info from json */
 
+        // The files are read just once per JVM: boards are kept as parsed JSON (which is only read from), and cards
+        // as loaded TMCards, of which each game gets copies (with the same component IDs)
+        private static final Map<String, JSONObject> loadedBoards = new ConcurrentHashMap<>();
+        private static final Map<String, List<TMCard>> loadedCards = new ConcurrentHashMap<>();
+
         public void loadBoard(GridBoard<TMMapTile> board, HashSet<TMMapTile> extraTiles, HashSet<Bonus> bonuses,
                               HashSet<Milestone> milestones, HashSet<Award> awards, HashMap<GlobalParameter, games.terraformingmars.components.GlobalParameter> globalParameters) {
-            JSONParser jsonParser = new JSONParser();
-            try (FileReader reader = new FileReader(getBoardPath())) {
-                JSONObject data = (JSONObject) jsonParser.parse(reader);
-
-                // Process main map
-                if (data.get("board") != null) {
-                    JSONArray b = (JSONArray) data.get("board");
-                    int y = 0;
-                    for (Object g : b) {
-                        JSONArray row = (JSONArray) g;
-                        int x = 0;
-                        for (Object o1 : row) {
-                            board.setElement(x, y, parseMapTile((String) o1, x, y));
-                            x++;
-                        }
-                        y++;
+            JSONObject data = loadedBoards.computeIfAbsent(getBoardPath(), Expansion::readBoard);
+            // Process main map
+            if (data.get("board") != null) {
+                JSONArray b = (JSONArray) data.get("board");
+                int y = 0;
+                for (Object g : b) {
+                    JSONArray row = (JSONArray) g;
+                    int x = 0;
+                    for (Object o1 : row) {
+                        board.setElement(x, y, parseMapTile((String) o1, x, y));
+                        x++;
                     }
+                    y++;
                 }
+            }
 
-                // Process extra tiles not on regular board
-                if (data.get("extra") != null) {
-                    JSONArray extra = (JSONArray) data.get("extra");
-                    for (Object o : extra) {
-                        extraTiles.add(parseMapTile((String) o));
-                    }
+            // Process extra tiles not on regular board
+            if (data.get("extra") != null) {
+                JSONArray extra = (JSONArray) data.get("extra");
+                for (Object o : extra) {
+                    extraTiles.add(parseMapTile((String) o));
                 }
+            }
 
-                // Process milestones and awards
-                if (data.get("milestones") != null) {
-                    JSONArray milestonesStr = (JSONArray) data.get("milestones");
-                    for (Object o : milestonesStr) {
-                        String[] split = ((String) o).split(":");
-                        milestones.add(new Milestone(split[0], Integer.parseInt(split[2]), split[1]));
-                    }
+            // Process milestones and awards
+            if (data.get("milestones") != null) {
+                JSONArray milestonesStr = (JSONArray) data.get("milestones");
+                for (Object o : milestonesStr) {
+                    String[] split = ((String) o).split(":");
+                    milestones.add(new Milestone(split[0], Integer.parseInt(split[2]), split[1]));
                 }
-                if (data.get("awards") != null) {
-                    JSONArray awardsStr = (JSONArray) data.get("awards");
-                    for (Object o : awardsStr) {
-                        String[] split = ((String) o).split(":");
-                        awards.add(new Award(split[0], split[1]));
-                    }
+            }
+            if (data.get("awards") != null) {
+                JSONArray awardsStr = (JSONArray) data.get("awards");
+                for (Object o : awardsStr) {
+                    String[] split = ((String) o).split(":");
+                    awards.add(new Award(split[0], split[1]));
                 }
+            }
 
-                // Process global parameters enabled
-                if (data.get("globalParameters") != null) {
-                    JSONArray gps = (JSONArray) data.get("globalParameters");
-                    for (Object o : gps) {
-                        JSONObject gp = (JSONObject) o;
-                        GlobalParameter p = GlobalParameter.valueOf((String) gp.get("name"));
-                        JSONArray valuesJSON = (JSONArray) gp.get("range");
-                        int[] values = new int[valuesJSON.size()];
-                        for (int i = 0; i < valuesJSON.size(); i++) {
-                            values[i] = (int)(long)valuesJSON.get(i);
-                        }
-                        globalParameters.put(p, new games.terraformingmars.components.GlobalParameter(values, p.name()));
-
-                        // Process bonuses for this game when counters reach specific points
-                        if (gp.get("bonus") != null) {
-                            JSONArray bonus = (JSONArray) gp.get("bonus");
-                            for (Object o2 : bonus) {
-                                JSONObject b = (JSONObject) o2;
-                                String effectString = (String) b.get("effect");
-                                int threshold = (int)(long) b.get("threshold");
-                                bonuses.add(new Bonus(p, threshold, TMAction.parseActionOnCard(effectString, null, true)));
-                            }
+            // Process global parameters enabled
+            if (data.get("globalParameters") != null) {
+                JSONArray gps = (JSONArray) data.get("globalParameters");
+                for (Object o : gps) {
+                    JSONObject gp = (JSONObject) o;
+                    GlobalParameter p = GlobalParameter.valueOf((String) gp.get("name"));
+                    JSONArray valuesJSON = (JSONArray) gp.get("range");
+                    int[] values = new int[valuesJSON.size()];
+                    for (int i = 0; i < valuesJSON.size(); i++) {
+                        values[i] = (int)(long)valuesJSON.get(i);
+                    }
+                    globalParameters.put(p, new games.terraformingmars.components.GlobalParameter(values, p.name()));
+
+                    // Process bonuses for this game when counters reach specific points
+                    if (gp.get("bonus") != null) {
+                        JSONArray bonus = (JSONArray) gp.get("bonus");
+                        for (Object o2 : bonus) {
+                            JSONObject b = (JSONObject) o2;
+                            String effectString = (String) b.get("effect");
+                            int threshold = (int)(long) b.get("threshold");
+                            bonuses.add(new Bonus(p, threshold, TMAction.parseActionOnCard(effectString, null, true)));
                         }
                     }
                 }
+            }
+        }
+
+        /**
+         * @return the board data, or an empty object if there is none for this expansion
+         */
+        private static JSONObject readBoard(String path) {
+            JSONParser jsonParser = new JSONParser();
+            try (FileReader reader = new FileReader(path)) {
+                return (JSONObject) jsonParser.parse(reader);
             } catch (IOException ignored) {
             } catch (ParseException e) {
                 e.printStackTrace();
             }
+            return new JSONObject();
         }
 
         public void loadProjectCards(Deck<TMCard> deck) {
@@ -386,23 +398,31 @@ public class TMTypes {
         }
 
         private void loadCards(Deck<TMCard> deck, String path) {
+            boolean corporations = deck.getComponentName().equalsIgnoreCase("corporations");
+            for (TMCard card : loadedCards.computeIfAbsent(path, p -> readCards(p, corporations)))
+                deck.add(card.copy());
+        }
+
+        private static List<TMCard> readCards(String path, boolean corporations) {
+            List<TMCard> cards = new ArrayList<>();
             JSONParser jsonParser = new JSONParser();
             try (FileReader reader = new FileReader(path)) {
                 JSONArray data = (JSONArray) jsonParser.parse(reader);
                 for (Object o: data) {
                     TMCard card;
-                    if (deck.getComponentName().equalsIgnoreCase("corporations")) {
+                    if (corporations) {
                         card = TMCard.loadCorporation((JSONObject)o);
                     } else {
 //                        card = TMCard.loadCardHTML((JSONObject) o);
                         card = TMCard.loadCardJSON((JSONObject) o);
                     }
-                    deck.add(card);
+                    cards.add(card);
                 }
             } catch (IOException ignored) {
             } catch (ParseException e) {
                 e.printStackTrace();
             }
+            return cards;
         }
     }
 
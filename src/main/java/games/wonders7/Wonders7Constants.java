@@ -32,13 +32,13 @@ public class Wonders7Constants {
 
     public static Map<Resource, Long> createCardHash(Resource... resources){
         // This will have to create the resource hashmaps for each card and return them
-        return Arrays.stream(resources).collect(Collectors.groupingBy(e -> e, Collectors.counting()));
+        return Arrays.stream(resources).collect(Collectors.groupingBy(e -> e, () -> new EnumMap<>(Resource.class), Collectors.counting()));
     }
 
     @SafeVarargs
     public static Map<Resource, Long> createCardHash(Pair<Resource, Integer>... resources){
         // This will have to create the resource hashmaps for each card and return them
-        Map<Resource, Long> map = new HashMap<>();
+        Map<Resource, Long> map = new EnumMap<>(Resource.class);
         for (Pair<Resource, Integer> resource : resources) {
             map.put(resource.a, Long.valueOf(resource.b));
         }
@@ -49,7 +49,7 @@ public class Wonder7Board extends Card {
                Wonders7Constants.Resource... resourcesProduced) {
             this.constructionCosts = constructionCosts;
             this.stageProduce = stageProduce;
-            this.resourcesProduced = Arrays.stream(resourcesProduced).collect(Collectors.groupingBy(e -> e, Collectors.counting()));
+            this.resourcesProduced = Arrays.stream(resourcesProduced).collect(Collectors.groupingBy(e -> e, () -> new EnumMap<>(Wonders7Constants.Resource.class), Collectors.counting()));
             if (constructionCosts != null) {
                 this.wonderStages = constructionCosts.size();
             } else this.wonderStages = 0;
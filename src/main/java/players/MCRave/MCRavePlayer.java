@@ -11,10 +11,15 @@ import java.util.*;
 
 public class MCRavePlayer extends AbstractPlayer {
 
-    Map<AbstractAction, Double> AMAFValue = new HashMap<>(); //This contains the AMAF Values for all states
-    Map<AbstractAction, Double> AMAFCount = new HashMap<>(); //This contains the count for appearances for all states
-    Map<AbstractAction, Double> RAVECount = new HashMap<>(); //This contains the AMAFValue's that have already been selected as best action
-    List<AbstractAction> currentROActions = new ArrayList<>(); //This contains all the actions in the current rollout
+    // Interning table from action to its index in the AMAF arrays below. This is rebuilt for every search tree,
+    // so that the backup only needs to do primitive array updates rather than hash lookups
+    Map<AbstractAction, Integer> actionIndex = new HashMap<>();
+    // All the AMAF arrays are indexed by actionIndex. A count of zero means the action has not yet been backed up
+    double[] AMAFValue = new double[64]; //This contains the AMAF Values for all states
+    double[] AMAFCount = new double[64]; //This contains the count for appearances for all states
+    double[] RAVECount = new double[64]; //This contains the AMAFValue's that have already been selected as best action
+    int[] currentROActions = new int[64]; //This contains the indices of all the actions in the current rollout
+    int currentROLength = 0;
 
     public MCRavePlayer() {
         this(System.currentTimeMillis());
@@ -59,11 +64,41 @@ public class MCRavePlayer extends AbstractPlayer {
         getParameters().heuristic = heuristic;
     }
 
-    //Resets all the AMAF Maps
+    //Resets all the AMAF data, and the action interning table
     public void resetAMAFData() {
-        AMAFValue.clear();
-        RAVECount.clear();
-        AMAFCount.clear();
+        actionIndex.clear();
+        Arrays.fill(AMAFValue, 0.0);
+        Arrays.fill(AMAFCount, 0.0);
+        Arrays.fill(RAVECount, 0.0);
+        currentROLength = 0;
+    }
+
+    /**
+     * Returns the index of the action in the AMAF arrays, adding it to the interning table (and growing the arrays)
+     * if it has not been seen before in this search.
+     */
+    int indexOf(AbstractAction action) {
+        Integer index = actionIndex.get(action);
+        if (index == null) {
+            index = actionIndex.size();
+            actionIndex.put(action, index);
+            if (index >= AMAFValue.length) {
+                int newLength = AMAFValue.length * 2;
+                AMAFValue = Arrays.copyOf(AMAFValue, newLength);
+                AMAFCount = Arrays.copyOf(AMAFCount, newLength);
+                RAVECount = Arrays.copyOf(RAVECount, newLength);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Records that the action (by interned index) was taken in the current rollout
+     */
+    void addRolloutAction(int index) {
+        if (currentROLength == currentROActions.length)
+            currentROActions = Arrays.copyOf(currentROActions, currentROLength * 2);
+        currentROActions[currentROLength++] = index;
     }
 
     @Override
@@ -21,6 +21,8 @@ class RAVETreeNode {
     Map<AbstractAction, RAVETreeNode> children = new HashMap<>();
     // Depth of this node
     final int depth;
+    // Index (in the player's AMAF arrays) of the action taken to reach this node; -1 at the root
+    private int actionIndex = -1;
 
     // Total value of this node
     private double totValue;
@@ -171,6 +173,7 @@ class RAVETreeNode {
 
         // then instantiate a new node
         RAVETreeNode tn = new RAVETreeNode(player, this, nextState, rnd);
+        tn.actionIndex = player.indexOf(chosen);
         children.put(chosen, tn);
         return tn;
     }
@@ -189,6 +192,7 @@ class RAVETreeNode {
     private AbstractAction ucb() {
         // Find child with highest UCB value, maximising for ourselves and minimizing for opponent
         AbstractAction bestAction = null;
+        int bestIndex = -1;
         double bestValue = -Double.MAX_VALUE;
         MCRaveParams params = player.getParameters();
         double alpha = params.raveWeight;
@@ -197,16 +201,18 @@ class RAVETreeNode {
             RAVETreeNode child = children.get(action);
             if (child == null)
                 throw new AssertionError("Should not be here");
-            else if (bestAction == null)
+            else if (bestAction == null) {
                 bestAction = action;
+                bestIndex = child.actionIndex;
+            }
 
             // Find child value
             double hvVal = child.totValue;
             double childValue = hvVal / (child.nVisits + params.epsilon);
 
-            //Get AMAF value and count
-            double AMAFValue = player.AMAFValue.getOrDefault(action, 0.0);
-            double AMAFCount = player.AMAFCount.getOrDefault(action, 0.0);
+            //Get AMAF value and count (both zero if the action has not yet been backed up)
+            double AMAFValue = player.AMAFValue[child.actionIndex];
+            double AMAFCount = player.AMAFCount[child.actionIndex];
             //Combines both original value and AMAF value
             double combinedValue = (1 - alpha) * childValue + alpha * (AMAFValue / (AMAFCount + params.epsilon));
 
@@ -227,6 +233,7 @@ class RAVETreeNode {
             // Assign value
             if (uctValue > bestValue) {
                 bestAction = action;
+                bestIndex = child.actionIndex;
                 bestValue = uctValue;
             }
         }
@@ -235,8 +242,8 @@ class RAVETreeNode {
             throw new AssertionError("We have a null value in UCT : shouldn't really happen!");
 
         root.fmCallsCount++;  // log one iteration complete
-        if(player.AMAFCount.containsKey(bestAction)){
-            player.RAVECount.put(bestAction,player.AMAFCount.get(bestAction));
+        if (player.AMAFCount[bestIndex] > 0) {
+            player.RAVECount[bestIndex] = player.AMAFCount[bestIndex];
         }
         return bestAction;
     }
@@ -247,7 +254,7 @@ class RAVETreeNode {
      * @return - value of rollout.
      */
     private double rollOut(int numIters) {
-        player.currentROActions.clear();
+        player.currentROLength = 0;
         int rolloutDepth = 0; // Counting from the end of the tree
 
         // Copy the current state for rollout
@@ -258,14 +265,14 @@ class RAVETreeNode {
                 if (numIters < delayThreshold) {
                     // Perform actions normally without biased rollout
                     AbstractAction next = randomPlayer.getAction(rolloutState, randomPlayer.getForwardModel().computeAvailableActions(rolloutState, randomPlayer.parameters.actionSpace));
-                    player.currentROActions.add(next);
+                    player.addRolloutAction(player.indexOf(next));
                     advance(rolloutState, next);
                     //Console.print("Random action: " + next + "\n");
 
                 } else {
                     // Perform biased rollout after the delay threshold is reached
                     AbstractAction next = biasedRollout(rolloutState);
-                    player.currentROActions.add(next);
+                    player.addRolloutAction(player.indexOf(next));
                     advance(rolloutState, next);
                     //Console.print("Bias action: " + next + "\n");
                 }
@@ -290,25 +297,27 @@ class RAVETreeNode {
      */
     private AbstractAction biasedRollout(AbstractGameState rolloutState) {
         List<AbstractAction> availableActions = player.getForwardModel().computeAvailableActions(rolloutState, player.getParameters().actionSpace);
-        Map<AbstractAction, Double> actionProbability = new HashMap<>();
+        double[] actionProbability = new double[availableActions.size()];
         double totalBias = 0.0;
 
-        // Calculate biases based on AMAF values
-        for (AbstractAction action : availableActions) {
-            double AMAFValue = player.AMAFValue.getOrDefault(action, 1.0);
-            double AMAFCount = player.AMAFCount.getOrDefault(action, 1.0);
+        // Calculate biases based on AMAF values (actions not yet backed up default to a value and count of 1.0)
+        for (int i = 0; i < availableActions.size(); i++) {
+            int index = player.indexOf(availableActions.get(i));
+            boolean seen = player.AMAFCount[index] > 0;
+            double AMAFValue = seen ? player.AMAFValue[index] : 1.0;
+            double AMAFCount = seen ? player.AMAFCount[index] : 1.0;
             double bias = AMAFValue / (AMAFCount + player.getParameters().epsilon);
-            actionProbability.put(action, bias);
+            actionProbability[i] = bias;
             totalBias += bias;
         }
 
         // Normalize probabilities
-        for (AbstractAction action : actionProbability.keySet()) {
-            actionProbability.put(action, actionProbability.get(action) / totalBias);
+        for (int i = 0; i < actionProbability.length; i++) {
+            actionProbability[i] /= totalBias;
         }
 
         // Select an action based on the calculated probabilities
-        return weightedRandomSelect(availableActions, new ArrayList<>(actionProbability.values()));
+        return weightedRandomSelect(availableActions, actionProbability);
     }
 
     /**
@@ -319,12 +328,12 @@ class RAVETreeNode {
      * @param probabilities - list of biases, generated from AMF Values
      * @return - the action defined by the cumulative probability and random value
      */
-    private AbstractAction weightedRandomSelect(List<AbstractAction> actions, List<Double> probabilities) {
+    private AbstractAction weightedRandomSelect(List<AbstractAction> actions, double[] probabilities) {
         double r = Math.random();
         double cumulativeProbability = 0.0;
 
         for (int i = 0; i < actions.size(); i++) {
-            cumulativeProbability += probabilities.get(i);
+            cumulativeProbability += probabilities[i];
             if (r <= cumulativeProbability) {
                 return actions.get(i);
             }
@@ -355,25 +364,28 @@ class RAVETreeNode {
     /**
      * Back up the value of the child through all parents. Increase number of visits and total value.
      * Also now incriments the AMAF Count for unused actions and calulcates the AMAFValue
+     * The rollout actions are held as interned indices, so this is purely primitive array updates.
      * @param result - value of rollout to backup
      */
     private void backUp(double result) {
         RAVETreeNode n = this;
+        int[] rolloutActions = player.currentROActions;
+        int rolloutLength = player.currentROLength;
         while (n != null) {
             n.nVisits++;
             n.totValue += result;
 
             // Check if the currentROActions list is not empty before proceeding
-            if (!player.currentROActions.isEmpty()) {
-                for (AbstractAction action : player.currentROActions) {
+            if (rolloutLength > 0) {
+                for (int i = 0; i < rolloutLength; i++) {
+                    int action = rolloutActions[i];
+                    // a zero count means that no AMAFValue has been stored for this action yet
+                    boolean hasValue = player.AMAFCount[action] > 0;
                     // Check to see if the AMAFValue has been selected as bestaction before
-                    if(!player.RAVECount.containsKey(action)) {
-                        player.AMAFCount.put(action, player.AMAFCount.getOrDefault(action, 0.0) + 1);
-                        player.AMAFValue.put(action, calculateAMAFValue(action, result, n.nVisits));
-                        //Console.print(player.AMAFCount);
-                    }else{
-                        player.AMAFValue.put(action, calculateAMAFValue(action, result, n.nVisits));
+                    if (player.RAVECount[action] == 0) {
+                        player.AMAFCount[action]++;
                     }
+                    player.AMAFValue[action] = calculateAMAFValue(action, hasValue, result, n.nVisits);
                 }
             } else {
                 // Log or handle the case when there are no actions
@@ -420,19 +432,15 @@ class RAVETreeNode {
     /**
      * Calculates the AMAFValue for a specific action, it takes the result of the branch, the amount of visits that node has
      * and the action as parameters, it will then check whether that AMAFValue is
-     * @param action - current action
+     * @param action - index of the current action
+     * @param hasValue     - false if this is the first AMAFValue to be stored for the action
      * @param result       - current depth
      * @param nVisits       - current depth
      * @return - the best AbstractAction
      */
-    private double calculateAMAFValue(AbstractAction action, double result, double nVisits) {
-        double currentAMAFValue = player.AMAFValue.getOrDefault(action, 1.0);
-        double currentAMAFCount;
-        if(!player.RAVECount.containsKey(action)) {
-             currentAMAFCount = player.AMAFCount.getOrDefault(action, 1.0);
-        }else{
-             currentAMAFCount = player.RAVECount.getOrDefault(action, 1.0);
-        }
+    private double calculateAMAFValue(int action, boolean hasValue, double result, double nVisits) {
+        double currentAMAFValue = hasValue ? player.AMAFValue[action] : 1.0;
+        double currentAMAFCount = player.RAVECount[action] == 0 ? player.AMAFCount[action] : player.RAVECount[action];
         double AMAFDecay =Math.max(0,(currentAMAFCount - nVisits) / (currentAMAFCount));
         double calculatedAMAFValue = currentAMAFValue + (result - currentAMAFValue) / currentAMAFCount;
         return calculatedAMAFValue * AMAFDecay;
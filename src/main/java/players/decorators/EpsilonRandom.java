@@ -45,4 +45,9 @@ public class EpsilonRandom implements IPlayerDecorator {
         }
     }
 
+    @Override
+    public boolean permits(AbstractGameState state, AbstractAction action) {
+        // this picks from the whole list, rather than filtering out any action
+        return true;
+    }
 }
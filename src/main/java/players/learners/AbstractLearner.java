@@ -60,6 +60,15 @@ public abstract class AbstractLearner implements ILearner {
     protected void loadData(String... files) {
         List<double[]> data = new ArrayList<>();
         for (String file : files) {
+            if (ColumnarDataReader.isColumnar(file)) {
+                try (ColumnarDataReader reader = new ColumnarDataReader(file)) {
+                    header = reader.getHeader();
+                    descriptions = new String[header.length - 11];
+                    System.arraycopy(header, 5, descriptions, 0, descriptions.length);
+                    data.addAll(reader.readRows());
+                }
+                continue;
+            }
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                 header = reader.readLine().split("\\t");
                 descriptions = new String[header.length - 11];
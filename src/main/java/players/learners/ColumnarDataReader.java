@@ -0,0 +1,221 @@
+package players.learners;
+
+import evaluation.loggers.ColumnarStatsLogger;
+import evaluation.loggers.ColumnarStatsLogger.Column;
+import evaluation.loggers.ColumnarStatsLogger.ColumnType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the files written by ColumnarStatsLogger, by memory-mapping them (a window at a time, so that files larger
+ * than 2GB can be read).
+ * <p>
+ * Numeric data can be read as rows (as AbstractLearner needs it), with NA read as NaN; or the whole file can be
+ * converted to the tab-separated text that FileStatsLogger writes, either with toTSV(), or from the command line with
+ * the input and output files as arguments.
+ */
+public class ColumnarDataReader implements AutoCloseable {
+
+    private static final long WINDOW = 1L << 28;
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final List<Column> columns;
+    private final long dataStart;
+    private final Inflater inflater = new Inflater();
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    public ColumnarDataReader(String fileName) {
+        this.fileName = fileName;
+        try {
+            channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ);
+            columns = ColumnarStatsLogger.readHeader(channel);
+            dataStart = channel.position();
+        } catch (IOException e) {
+            throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if the file starts as a ColumnarStatsLogger file does
+     */
+    public static boolean isColumnar(String fileName) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fileName))) {
+            return in.readInt() == ColumnarStatsLogger.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public String[] getHeader() {
+        return columns.stream().map(Column::name).toArray(String[]::new);
+    }
+
+    public ColumnType[] getTypes() {
+        return columns.stream().map(Column::type).toArray(ColumnType[]::new);
+    }
+
+    /**
+     * @return all the rows in the file, with every column (which must be numeric) as a double
+     */
+    public List<double[]> readRows() {
+        for (Column column : columns) {
+            if (column.type() == ColumnType.STRING)
+                throw new AssertionError("Column " + column.name() + " in " + fileName + " is not numeric");
+        }
+        List<double[]> retValue = new ArrayList<>();
+        forEachBlock((rows, values) -> {
+            for (int r = 0; r < rows; r++) {
+                double[] row = new double[columns.size()];
+                for (int c = 0; c < row.length; c++) {
+                    long bits = values[c].getLong(r * 8);
+                    if (columns.get(c).type() == ColumnType.LONG)
+                        row[c] = bits == ColumnarStatsLogger.NA_LONG ? Double.NaN : bits;
+                    else
+                        row[c] = Double.longBitsToDouble(bits);
+                }
+                retValue.add(row);
+            }
+        });
+        return retValue;
+    }
+
+    /**
+     * Writes the data as FileStatsLogger would have done (with the same formatting of numbers)
+     */
+    public void toTSV(String outputFile) {
+        try (Writer writer = new BufferedWriter(new FileWriter(outputFile), 1 << 16)) {
+            writer.write(String.join("\t", getHeader()) + "\n");
+            IOException[] problem = new IOException[1];
+            StringBuilder line = new StringBuilder();
+            forEachBlock((rows, values) -> {
+                int[] stringPositions = new int[columns.size()];
+                for (int r = 0; r < rows && problem[0] == null; r++) {
+                    line.setLength(0);
+                    for (int c = 0; c < columns.size(); c++) {
+                        if (c > 0) line.append('\t');
+                        ByteBuffer value = values[c];
+                        switch (columns.get(c).type()) {
+                            case LONG -> {
+                                long datum = value.getLong(r * 8);
+                                line.append(datum == ColumnarStatsLogger.NA_LONG ? "NA" : String.format("%d", datum));
+                            }
+                            case DOUBLE -> {
+                                long bits = value.getLong(r * 8);
+                                line.append(bits == ColumnarStatsLogger.NA_DOUBLE_BITS ? "NA" :
+                                        String.format("%.3g", Double.longBitsToDouble(bits)));
+                            }
+                            case STRING -> {
+                                int length = value.getInt(stringPositions[c]);
+                                stringPositions[c] += 4;
+                                if (length < 0) {
+                                    line.append("NA");
+                                } else {
+                                    line.append(new String(value.array(), stringPositions[c], length, StandardCharsets.UTF_8));
+                                    stringPositions[c] += length;
+                                }
+                            }
+                        }
+                    }
+                    line.append('\n');
+                    try {
+                        writer.write(line.toString());
+                    } catch (IOException e) {
+                        problem[0] = e;
+                    }
+                }
+            });
+            if (problem[0] != null)
+                throw problem[0];
+        } catch (IOException e) {
+            throw new AssertionError("Problem writing file " + outputFile + " : " + e.getMessage());
+        }
+    }
+
+    private interface BlockConsumer {
+        /**
+         * @param rows   the number of rows in the block
+         * @param values the uncompressed data for each column
+         */
+        void accept(int rows, ByteBuffer[] values);
+    }
+
+    private void forEachBlock(BlockConsumer consumer) {
+        try {
+            long position = dataStart;
+            long size = channel.size();
+            ByteBuffer[] values = new ByteBuffer[columns.size()];
+            while (position + 4 <= size) {
+                int rows = map(position, 4).getInt();
+                position += 4;
+                for (int c = 0; c < columns.size(); c++) {
+                    if (position + 8 > size)
+                        return; // incomplete final block, from a run that was stopped part way through
+                    ByteBuffer lengths = map(position, 8);
+                    int rawLength = lengths.getInt();
+                    int compressedLength = lengths.getInt();
+                    position += 8;
+                    if (position + compressedLength > size)
+                        return;
+                    if (values[c] == null || values[c].capacity() < rawLength)
+                        values[c] = ByteBuffer.allocate(Math.max(rawLength, 1024));
+                    inflater.reset();
+                    inflater.setInput(map(position, compressedLength));
+                    values[c].clear();
+                    while (values[c].position() < rawLength && !inflater.finished())
+                        inflater.inflate(values[c]);
+                    if (values[c].position() != rawLength)
+                        throw new IOException("column " + columns.get(c).name() + " is corrupt");
+                    position += compressedLength;
+                }
+                consumer.accept(rows, values);
+            }
+        } catch (IOException | DataFormatException e) {
+            throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return a view of the file from position, of the given length, remapping the window if needed
+     */
+    private ByteBuffer map(long position, int length) throws IOException {
+        if (window == null || position < windowStart || position + length > windowStart + window.capacity()) {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(channel.size() - position, Math.max(WINDOW, length)));
+        }
+        return window.slice((int) (position - windowStart), length);
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: ColumnarDataReader <input file> <output TSV file>");
+            return;
+        }
+        try (ColumnarDataReader reader = new ColumnarDataReader(args[0])) {
+            reader.toTSV(args[1]);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A pseudo-action used when MCTS searches over the ActionTreeNode hierarchy of a game that implements
+ * ITreeActionSpace (see MCTSParams.actionTreeSearch).
+ * Choosing one of these moves down one level of the action tree, and does not change the game state.
+ * The full path from the root of the action tree is held, so that a node in the search tree can work out
+ * which level of the action tree it represents from the action that reached it.
+ */
+public class ActionTreeBranch extends AbstractAction {
+
+    public final List<String> path;
+
+    public ActionTreeBranch(List<String> path) {
+        this.path = List.copyOf(path);
+    }
+
+    @Override
+    public boolean execute(AbstractGameState gs) {
+        throw new AssertionError("ActionTreeBranch is only used within MCTS, and should never be executed : " + this);
+    }
+
+    @Override
+    public ActionTreeBranch copy() {
+        return this;  // immutable
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof ActionTreeBranch other && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path) + 31;
+    }
+
+    @Override
+    public String getString(AbstractGameState gameState) {
+        return toString();
+    }
+
+    @Override
+    public String toString() {
+        return "Branch: " + String.join("/", path);
+    }
+}
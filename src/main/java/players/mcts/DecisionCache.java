@@ -0,0 +1,308 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import core.interfaces.IStateKey;
+import core.interfaces.ITunableParameters;
+import utilities.JSONUtils;
+import utilities.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * A persistent cache of the root statistics of previous MCTS searches, stored in a memory-mapped file.
+ * <p>
+ * Each entry is keyed on a 64-bit hash of (agent parameters, game, decision player, information set key), and
+ * records the visits and mean value of the (up to MAX_ACTIONS) most visited actions at the root.
+ * The information set key is provided by an IStateKey (MCTSParams.decisionCacheKey, or MCGSStateKey if that is null),
+ * and is hashed in its canonical JSON form (see canonicalKey), so that the same state has the same key in every run.
+ * Actions are identified by the hashCode() of getString(state), as this is stable across runs (unlike toString(),
+ * which can include component IDs).
+ * <p>
+ * The file is a fixed size open-addressing hash table. When all the probe slots for a key are full, the entry with
+ * the fewest visits is overwritten. As the file persists, a later run with the same file warm-starts from the
+ * decisions of earlier runs; MCTSPlayer can then either seed the root statistics from the cache
+ * (decisionCacheSeedVisits) or skip search altogether (decisionCacheSkipVisits).
+ * <p>
+ * All players in the same JVM that use the same file share a single instance (see open()), and access is synchronized.
+ * There is no locking between processes, so only one process at a time should write to a given file.
+ */
+public class DecisionCache {
+
+    public static final int MAX_ACTIONS = 32;
+    static final long MAGIC = 0x5441474443414348L; // "TAGDCACH"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int ACTION_BYTES = 12; // action hash, visits, mean value
+    static final int RECORD_BYTES = 16 + MAX_ACTIONS * ACTION_BYTES; // key, total visits, number of actions
+    static final int MAX_PROBES = 8;
+
+    private static final Map<String, DecisionCache> openCaches = new HashMap<>();
+
+    private final String fileName;
+    private final int slots;
+    private final MappedByteBuffer buffer;
+
+    public record Entry(int totalVisits, int[] actionHashes, int[] visits, double[] meanValues) {
+
+        /**
+         * @return the action from the list with the most visits recorded in this entry, or null if none of them are
+         */
+        public AbstractAction mostVisited(List<AbstractAction> actions, AbstractGameState state) {
+            AbstractAction retValue = null;
+            int bestVisits = 0;
+            for (AbstractAction action : actions) {
+                int visits = visits(action, state);
+                if (visits > bestVisits) {
+                    bestVisits = visits;
+                    retValue = action;
+                }
+            }
+            return retValue;
+        }
+
+        public int visits(AbstractAction action, AbstractGameState state) {
+            int index = indexOf(action, state);
+            return index < 0 ? 0 : visits[index];
+        }
+
+        public int indexOf(AbstractAction action, AbstractGameState state) {
+            int hash = actionHash(action, state);
+            for (int i = 0; i < actionHashes.length; i++)
+                if (actionHashes[i] == hash)
+                    return i;
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the cache backed by the specified file; creating the file if it does not exist.
+     * If the file already exists, then the number of slots it was created with is used, and the slots argument ignored.
+     */
+    public static synchronized DecisionCache open(String fileName, int slots) {
+        String path = new File(fileName).getAbsolutePath();
+        return openCaches.computeIfAbsent(path, p -> new DecisionCache(p, slots));
+    }
+
+    /**
+     * Removes the cache from the set of open caches, so that the next call to open() will re-read the file.
+     * (The mapping itself is released when the DecisionCache is garbage collected.)
+     */
+    public static synchronized void close(String fileName) {
+        DecisionCache cache = openCaches.remove(new File(fileName).getAbsolutePath());
+        if (cache != null)
+            cache.flush();
+    }
+
+    private DecisionCache(String fileName, int requestedSlots) {
+        this.fileName = fileName;
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "rw"); FileChannel channel = file.getChannel()) {
+            int slotCount = requestedSlots;
+            boolean existing = file.length() >= HEADER_BYTES;
+            if (existing) {
+                if (file.readLong() != MAGIC || file.readInt() != VERSION)
+                    throw new AssertionError("File is not a decision cache (or is from a different version) : " + fileName);
+                slotCount = file.readInt();
+                if (file.readInt() != RECORD_BYTES)
+                    throw new AssertionError("Decision cache has an unexpected record size : " + fileName);
+            }
+            if (slotCount <= 0 || HEADER_BYTES + (long) slotCount * RECORD_BYTES > Integer.MAX_VALUE)
+                throw new AssertionError("Invalid number of slots for a decision cache : " + slotCount);
+            slots = slotCount;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slots * RECORD_BYTES);
+            if (!existing) {
+                buffer.putLong(0, MAGIC);
+                buffer.putInt(8, VERSION);
+                buffer.putInt(12, slots);
+                buffer.putInt(16, RECORD_BYTES);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open decision cache " + fileName, e);
+        }
+    }
+
+    /**
+     * The part of the cache key that depends on the agent. This is a stable hash of the parameter values,
+     * excluding the random seed and the decision cache settings (so that agents that differ only in
+     * these share cache entries).
+     */
+    public static long parametersHash(MCTSParams params) {
+        return JSONUtils.canonicalHash(describe(params),
+                Set.of("randomSeed", "decisionCacheFile", "decisionCacheSlots", "decisionCacheSeedVisits", "decisionCacheSkipVisits"));
+    }
+
+    // A JSON-like description of the parameter values. This differs from TunableParameters.instanceToJSON()
+    // in that non-primitive values (heuristics, state keys etc.) are described by their class.
+    private static Map<String, Object> describe(ITunableParameters params) {
+        Map<String, Object> retValue = new HashMap<>();
+        retValue.put("class", params.getClass().getName());
+        for (String name : params.getParameterNames()) {
+            Object value = params.getParameterValue(name);
+            if (name.contains(".") || value == null)
+                continue;
+            if (value instanceof ITunableParameters tp) {
+                value = describe(tp);
+            } else if (!(value instanceof Number || value instanceof String || value instanceof Boolean || value instanceof Enum)) {
+                // the generated part of a lambda class name is not stable across runs
+                String className = value.getClass().getName();
+                value = className.contains("$$Lambda") ? className.substring(0, className.indexOf("$$Lambda")) : className;
+            }
+            retValue.put(name, value);
+        }
+        return retValue;
+    }
+
+    /**
+     * The full cache key for a decision by the current player in the given state.
+     */
+    public static long key(long parametersHash, IStateKey stateKey, AbstractGameState state) {
+        int player = state.getCurrentPlayer();
+        String description = String.format("%016x|%s|%d|%d|%s", parametersHash, state.getGameType().name(),
+                state.getNPlayers(), player, JSONUtils.canonicalString(canonicalKey(stateKey.getKey(state, player)), Set.of()));
+        long retValue = Utils.stableHash64(description);
+        return retValue == 0 ? 1 : retValue; // 0 marks an empty slot
+    }
+
+    // The state key in a form whose canonicalString is the same in every JVM: arrays become lists, and enums
+    // their names (as their hashCode() and a default toString() depend on the JVM). Any other object must override
+    // toString(), as the default includes its identity hash code.
+    static Object canonicalKey(Object key) {
+        if (key == null || key instanceof String || key instanceof Number || key instanceof Boolean)
+            return key;
+        if (key instanceof Enum<?> e)
+            return e.name();
+        if (key instanceof Map<?, ?> map) {
+            Map<String, Object> retValue = new HashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet())
+                retValue.put(String.valueOf(canonicalKey(entry.getKey())), canonicalKey(entry.getValue()));
+            return retValue;
+        }
+        if (key instanceof Set<?> set) // in an order that does not depend on the hash codes of the elements
+            return set.stream().map(DecisionCache::canonicalKey)
+                    .sorted(Comparator.comparing(k -> JSONUtils.canonicalString(k, Set.of()))).toList();
+        if (key instanceof Collection<?> collection)
+            return collection.stream().map(DecisionCache::canonicalKey).toList();
+        if (key.getClass().isArray()) {
+            List<Object> retValue = new ArrayList<>();
+            for (int i = 0; i < java.lang.reflect.Array.getLength(key); i++)
+                retValue.add(canonicalKey(java.lang.reflect.Array.get(key, i)));
+            return retValue;
+        }
+        try {
+            if (key.getClass().getMethod("toString").getDeclaringClass() == Object.class)
+                throw new AssertionError("The decision cache cannot use a state key of " + key.getClass().getName() +
+                        " as it has no toString() that is the same in every run");
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+        return key.toString();
+    }
+
+    static int actionHash(AbstractAction action, AbstractGameState state) {
+        return action.getString(state).hashCode();
+    }
+
+    public synchronized Entry get(long key) {
+        int slot = findSlot(key);
+        if (slot < 0 || buffer.getLong(offset(slot)) != key)
+            return null;
+        int offset = offset(slot);
+        int totalVisits = buffer.getInt(offset + 8);
+        int nActions = buffer.getInt(offset + 12);
+        int[] hashes = new int[nActions];
+        int[] visits = new int[nActions];
+        double[] values = new double[nActions];
+        for (int i = 0; i < nActions; i++) {
+            int actionOffset = offset + 16 + i * ACTION_BYTES;
+            hashes[i] = buffer.getInt(actionOffset);
+            visits[i] = buffer.getInt(actionOffset + 4);
+            values[i] = buffer.getFloat(actionOffset + 8);
+        }
+        return new Entry(totalVisits, hashes, visits, values);
+    }
+
+    /**
+     * Records the root statistics of a search, replacing any previous entry for the same key.
+     * Only the MAX_ACTIONS most visited actions are retained.
+     */
+    public synchronized void put(long key, Map<AbstractAction, ActionStats> actionStats, int player, AbstractGameState state) {
+        List<Map.Entry<AbstractAction, ActionStats>> visited = actionStats.entrySet().stream()
+                .filter(e -> e.getValue() != null && e.getValue().nVisits > 0)
+                .sorted(Comparator.comparingInt((Map.Entry<AbstractAction, ActionStats> e) -> e.getValue().nVisits).reversed())
+                .limit(MAX_ACTIONS)
+                .toList();
+        if (visited.isEmpty())
+            return;
+        int slot = findSlot(key);
+        if (slot < 0)
+            slot = leastVisitedSlot(key);
+        int offset = offset(slot);
+        int totalVisits = 0;
+        for (int i = 0; i < visited.size(); i++) {
+            ActionStats stats = visited.get(i).getValue();
+            int actionOffset = offset + 16 + i * ACTION_BYTES;
+            buffer.putInt(actionOffset, actionHash(visited.get(i).getKey(), state));
+            buffer.putInt(actionOffset + 4, stats.nVisits);
+            buffer.putFloat(actionOffset + 8, (float) (stats.totValue[player] / stats.nVisits));
+            totalVisits += stats.nVisits;
+        }
+        buffer.putInt(offset + 8, totalVisits);
+        buffer.putInt(offset + 12, visited.size());
+        // the key is written last, so that a concurrent reader in another process does not see a half-written entry
+        // for a key that was not previously there
+        buffer.putLong(offset, key);
+    }
+
+    /**
+     * Writes any changes to disk. This is not needed for other users of the file in the same JVM, nor for
+     * them to persist after the JVM exits; only to guard against a crash of the OS.
+     */
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    // returns the slot holding the key, or else the first empty slot in the probe sequence (or -1 if neither exists)
+    private int findSlot(long key) {
+        int start = (int) Long.remainderUnsigned(key, slots);
+        for (int i = 0; i < Math.min(MAX_PROBES, slots); i++) {
+            int slot = (start + i) % slots;
+            long slotKey = buffer.getLong(offset(slot));
+            if (slotKey == key || slotKey == 0)
+                return slot;
+        }
+        return -1;
+    }
+
+    private int leastVisitedSlot(long key) {
+        int start = (int) Long.remainderUnsigned(key, slots);
+        int retValue = start;
+        int fewestVisits = Integer.MAX_VALUE;
+        for (int i = 0; i < Math.min(MAX_PROBES, slots); i++) {
+            int slot = (start + i) % slots;
+            int visits = buffer.getInt(offset(slot) + 8);
+            if (visits < fewestVisits) {
+                fewestVisits = visits;
+                retValue = slot;
+            }
+        }
+        return retValue;
+    }
+
+    private int offset(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+}
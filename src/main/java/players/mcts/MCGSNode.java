@@ -16,6 +16,9 @@ public class MCGSNode extends SingleTreeNode {
     @Override
     protected void instantiate(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
         super.instantiate(parent, actionToReach, state);
+        // a new root is not yet in the table, so was not counted by resetDepth()
+        if (parent == null && !transpositionMap.containsValue(this))
+            telemetry.nodeAdded(0, terminalNode);
         // the only additional instantiation we need to do is to add the state to the transposition table
         addToTranspositionTable(this, state);
     }
@@ -94,9 +97,13 @@ public class MCGSNode extends SingleTreeNode {
     protected void resetDepth(SingleTreeNode unusedArgument) {
         int depthDelta = depth;
         root = this;
+        telemetry = new SearchTelemetry();
         for (MCGSNode node : transpositionMap.values()) {
             node.depth -= depthDelta;
             node.root = this;
+            // nodes that are no longer reachable from the new root are left in the table, at a negative depth
+            if (node.depth >= 0)
+                telemetry.nodeAdded(node.depth, node.terminalNode);
         }
     }
 
@@ -12,13 +12,43 @@ import java.util.stream.Collectors;
 
 public class MCTSMetrics implements IMetricsCollection {
 
+    /**
+     * @return the first argument, if there is one: the metric then records only one in this many decisions
+     */
+    static int sampleEvery(String[] args) {
+        if (args == null || args.length == 0)
+            return 1;
+        int retValue = Integer.parseInt(args[0]);
+        if (retValue < 1)
+            throw new IllegalArgumentException("Sampling rate must be at least 1 : " + retValue);
+        return retValue;
+    }
 
+    /**
+     * This walks the whole tree after each decision, which can take as long as the search with large trees;
+     * TreeTelemetry is much cheaper. An argument of N records only one in every N decisions.
+     */
     public static class TreeStats extends AbstractMetric {
 
+        final int sampleEvery;
+        int decisions;
+
+        public TreeStats() {
+            super();
+            sampleEvery = 1;
+        }
+
+        public TreeStats(String[] args) {
+            super(args);
+            sampleEvery = sampleEvery(args);
+        }
+
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
             if (player instanceof MCTSPlayer mctsPlayer) {
+                if (decisions++ % sampleEvery != 0)
+                    return false;
                 SingleTreeNode root = mctsPlayer.root;
                 if (root instanceof MultiTreeNode) {
                     root = Arrays.stream(((MultiTreeNode) root).roots).filter(Objects::nonNull)
@@ -51,6 +81,11 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("copyCalls", mctsPlayer.root.copyCount / visits);
                 records.put("time", mctsPlayer.root.timeTaken);
                 records.put("initTime", mctsPlayer.root.initialisationTimeTaken);
+                int actionCalls = Math.max(1, mctsPlayer.root.actionGenerationCalls);
+                records.put("actionGenMicros", mctsPlayer.root.actionGenerationNanos / 1000.0 / actionCalls);
+                records.put("actionsGenerated", mctsPlayer.root.actionsGenerated / (double) actionCalls);
+                records.put("PonderIterations", mctsPlayer.ponderIterations);
+                records.put("PonderTime", mctsPlayer.ponderCpuNanos / 1e6);
                 return true;
             }
             return false;
@@ -85,6 +120,134 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("copyCalls", Integer.class);
             cols.put("time", Double.class);
             cols.put("initTime", Double.class);
+            cols.put("actionGenMicros", Double.class);  // mean time to compute the actions at a node visit
+            cols.put("actionsGenerated", Double.class); // mean number of actions materialised at a node visit
+            // Iterations run while pondering before this decision (those in the matching subtree are included in ReusedVisits)
+            cols.put("PonderIterations", Integer.class);
+            cols.put("PonderTime", Double.class); // CPU milliseconds, on the ponder thread
+            return cols;
+        }
+    }
+
+    /**
+     * The counters kept up to date during each search (see SearchTelemetry), so this costs almost nothing to record.
+     * An argument of N records only one in every N decisions.
+     */
+    public static class TreeTelemetry extends AbstractMetric {
+
+        final int sampleEvery;
+        int decisions;
+
+        public TreeTelemetry() {
+            super();
+            sampleEvery = 1;
+        }
+
+        public TreeTelemetry(String[] args) {
+            super(args);
+            sampleEvery = sampleEvery(args);
+        }
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof MCTSPlayer mctsPlayer && (mctsPlayer.root != null || mctsPlayer.lastDecisionSkipped)) {
+                if (decisions++ % sampleEvery != 0)
+                    return false;
+                // the search counters are on the overall root, but with MultiTree the nodes are in each player's tree;
+                // a decision taken from the decision cache without search has no tree, so is recorded as all zeros
+                SearchTelemetry search = mctsPlayer.lastDecisionSkipped ? new SearchTelemetry() : mctsPlayer.root.getTelemetry();
+                SearchTelemetry tree = search;
+                if (!mctsPlayer.lastDecisionSkipped && mctsPlayer.root instanceof MultiTreeNode multiTree) {
+                    SingleTreeNode ownTree = multiTree.roots[e.state.getCurrentPlayer()];
+                    if (ownTree == null) return false;
+                    tree = ownTree.getTelemetry();
+                }
+                records.put("PlayerType", mctsPlayer.toString());
+                records.put("PlayerID", e.state.getCurrentPlayer());
+                records.put("Iterations", search.getIterations());
+                records.put("IterationsPerSecond", search.getIterationsPerSecond());
+                records.put("SearchTime", search.getSearchNanos() / 1e6);
+                records.put("fmCalls", search.getFmCalls());
+                records.put("copyCalls", search.getCopies());
+                records.put("RolloutLength", search.getRolloutLengths().mean());
+                records.put("RolloutLengthP90", (int) search.getRolloutLengths().quantile(0.9));
+                records.put("RolloutLengthMax", (int) search.getRolloutLengths().max());
+                records.put("Nodes", tree.getNodes());
+                records.put("TerminalNodes", tree.getTerminalNodes());
+                records.put("MaxDepth", tree.getMaxDepth());
+                records.put("MeanNodeDepth", tree.getMeanNodeDepth());
+                records.put("NodesAtDepth", Arrays.stream(tree.getNodesAtDepth()).mapToObj(String::valueOf).collect(Collectors.joining(";")));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> cols = new HashMap<>();
+            cols.put("PlayerType", String.class);
+            cols.put("PlayerID", Integer.class);
+            cols.put("Iterations", Integer.class);
+            cols.put("IterationsPerSecond", Double.class);
+            cols.put("SearchTime", Double.class); // milliseconds
+            cols.put("fmCalls", Integer.class);
+            cols.put("copyCalls", Integer.class);
+            cols.put("RolloutLength", Double.class); // mean
+            cols.put("RolloutLengthP90", Integer.class);
+            cols.put("RolloutLengthMax", Integer.class);
+            cols.put("Nodes", Integer.class);
+            cols.put("TerminalNodes", Integer.class);
+            cols.put("MaxDepth", Integer.class);
+            cols.put("MeanNodeDepth", Double.class);
+            cols.put("NodesAtDepth", String.class); // semicolon-separated, from the root down
+            return cols;
+        }
+    }
+
+    public static class DecisionCacheStats extends AbstractMetric {
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof MCTSPlayer mctsPlayer && mctsPlayer.decisionCache != null) {
+                records.put("PlayerType", mctsPlayer.toString());
+                records.put("PlayerID", e.state.getCurrentPlayer());
+                records.put("CacheHit", mctsPlayer.lastDecisionCacheHit);
+                records.put("SearchSkipped", mctsPlayer.lastDecisionSkipped);
+                records.put("Lookups", mctsPlayer.cacheLookups);
+                records.put("HitRate", mctsPlayer.cacheHits / (double) Math.max(1, mctsPlayer.cacheLookups));
+                records.put("Skips", mctsPlayer.cacheSkips);
+                records.put("SeededVisits", mctsPlayer.cacheSeededVisits);
+                records.put("SavedTime", mctsPlayer.decisionCacheSavedMillis());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> cols = new HashMap<>();
+            cols.put("PlayerType", String.class);
+            cols.put("PlayerID", Integer.class);
+            cols.put("CacheHit", Boolean.class);
+            cols.put("SearchSkipped", Boolean.class);
+            // the remaining columns are cumulative over the lifetime of the player
+            cols.put("Lookups", Integer.class);
+            cols.put("HitRate", Double.class);
+            cols.put("Skips", Integer.class);
+            cols.put("SeededVisits", Integer.class);
+            cols.put("SavedTime", Double.class); // estimated milliseconds of search saved by skipping
             return cols;
         }
     }
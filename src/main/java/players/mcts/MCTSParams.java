@@ -57,6 +57,11 @@ public class MCTSParams extends PlayerParameters {
     public IActionKey MASTActionKey;
     public IStateKey MCGSStateKey;
     public boolean MCGSExpandAfterClash = true;
+    public String decisionCacheFile = ""; // if set, root statistics are persisted across games in this file - see DecisionCache
+    public IStateKey decisionCacheKey; // the information set key for the decision cache; defaults to MCGSStateKey
+    public int decisionCacheSlots = 16384;
+    public int decisionCacheSeedVisits = 0; // the maximum number of visits with which to seed the root from the cache
+    public int decisionCacheSkipVisits = 0; // if > 0, search is skipped when the cached entry has at least this many visits
     public double firstPlayUrgency = 1000000000.0;
     @NotNull public IActionHeuristic actionHeuristic = IActionHeuristic.nullReturn;
     public int actionHeuristicRecalculationThreshold = 20;
@@ -66,8 +71,12 @@ public class MCTSParams extends PlayerParameters {
     public int initialiseVisits = 0;  // This is the number of visits to initialise the MCTS tree with (using the actionHeuristic)
     public double progressiveWideningConstant = 0.0; //  Zero indicates switched off (well, less than 1.0)
     public double progressiveWideningExponent = 0.0;
+    public boolean actionTreeSearch = false; // if true, search one level of the game's ITreeActionSpace at a time
+    public boolean lazyActionGeneration = false; // if true (and PW is on) only the widened actions are generated, for games with an IOrderedActionSpace
     public double progressiveBias = 0.0;
     public boolean reuseTree = false;
+    public boolean ponder = false; // if true, search continues on a background thread while other players act
+    public int ponderBudget = 100000; // maximum iterations while pondering between two decisions
     public MCTSEnums.BackupPolicy backupPolicy = MCTSEnums.BackupPolicy.MonteCarlo;
     public double backupLambda = 1.0;
     public int maxBackupThreshold = 1000000;
@@ -99,6 +108,8 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("useMASTAsActionHeuristic", false);
         addTunableParameter("progressiveWideningConstant", 0.0, Arrays.asList(0.0, 1.0, 2.0, 4.0, 8.0, 16.0, 32.0));
         addTunableParameter("progressiveWideningExponent", 0.0, Arrays.asList(0.0, 0.1, 0.2, 0.3, 0.5));
+        addTunableParameter("lazyActionGeneration", false);
+        addTunableParameter("actionTreeSearch", false);
         addTunableParameter("normaliseRewards", true);
         addTunableParameter("maintainMasterState", false);
         addTunableParameter("discardStateAfterEachIteration", true);
@@ -108,6 +119,11 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("MASTDefaultValue", 0.0);
         addTunableParameter("MCGSStateKey", IStateKey.class);
         addTunableParameter("MCGSExpandAfterClash", true);
+        addTunableParameter("decisionCacheFile", "");
+        addTunableParameter("decisionCacheKey", IStateKey.class);
+        addTunableParameter("decisionCacheSlots", 16384);
+        addTunableParameter("decisionCacheSeedVisits", 0);
+        addTunableParameter("decisionCacheSkipVisits", 0);
         addTunableParameter("FPU", 1000000000.0);
         addTunableParameter("actionHeuristic",  IActionHeuristic.nullReturn);
         addTunableParameter("progressiveBias", 0.0);
@@ -116,6 +132,8 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("initialiseVisits", 0);
         addTunableParameter("actionHeuristicRecalculation", 20);
         addTunableParameter("reuseTree", false);
+        addTunableParameter("ponder", false);
+        addTunableParameter("ponderBudget", 100000);
         addTunableParameter("backupPolicy", MCTSEnums.BackupPolicy.MonteCarlo, Arrays.asList(MCTSEnums.BackupPolicy.values()));
         addTunableParameter("backupLambda", 1.0);
         addTunableParameter("maxBackupThreshold", 1000000);
@@ -148,6 +166,8 @@ public class MCTSParams extends PlayerParameters {
         omaVisits = (int) getParameterValue("omaVisits");
         progressiveWideningConstant = (double) getParameterValue("progressiveWideningConstant");
         progressiveWideningExponent = (double) getParameterValue("progressiveWideningExponent");
+        lazyActionGeneration = (boolean) getParameterValue("lazyActionGeneration");
+        actionTreeSearch = (boolean) getParameterValue("actionTreeSearch");
         normaliseRewards = (boolean) getParameterValue("normaliseRewards");
         maintainMasterState = (boolean) getParameterValue("maintainMasterState");
         paranoid = (boolean) getParameterValue("paranoid");
@@ -164,6 +184,11 @@ public class MCTSParams extends PlayerParameters {
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
         MCGSStateKey = (IStateKey) getParameterValue("MCGSStateKey");
         MCGSExpandAfterClash = (boolean) getParameterValue("MCGSExpandAfterClash");
+        decisionCacheFile = (String) getParameterValue("decisionCacheFile");
+        decisionCacheKey = (IStateKey) getParameterValue("decisionCacheKey");
+        decisionCacheSlots = (int) getParameterValue("decisionCacheSlots");
+        decisionCacheSeedVisits = (int) getParameterValue("decisionCacheSeedVisits");
+        decisionCacheSkipVisits = (int) getParameterValue("decisionCacheSkipVisits");
         rolloutPolicyParams = (TunableParameters) getParameterValue("rolloutPolicyParams");
         opponentModelParams = (TunableParameters) getParameterValue("opponentModelParams");
         // we then null those elements of params which are constructed (lazily) from the above
@@ -171,6 +196,8 @@ public class MCTSParams extends PlayerParameters {
         initialiseVisits = (int) getParameterValue("initialiseVisits");
         actionHeuristicRecalculationThreshold = (int) getParameterValue("actionHeuristicRecalculation");
         reuseTree = (boolean) getParameterValue("reuseTree");
+        ponder = (boolean) getParameterValue("ponder");
+        ponderBudget = (int) getParameterValue("ponderBudget");
         backupPolicy = (MCTSEnums.BackupPolicy) getParameterValue("backupPolicy");
         backupLambda = (double) getParameterValue("backupLambda");
         maxBackupThreshold = (int) getParameterValue("maxBackupThreshold");
@@ -7,8 +7,10 @@ import core.actions.AbstractAction;
 import core.interfaces.IActionHeuristic;
 import evaluation.listeners.IGameListener;
 import core.interfaces.IStateHeuristic;
+import core.interfaces.IStateKey;
 import evaluation.metrics.Event;
 import players.IAnyTimePlayer;
+import utilities.ElapsedCpuTimer;
 import utilities.Pair;
 import utilities.Utils;
 
@@ -29,6 +31,22 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected Pair<Integer, AbstractAction> lastAction;
     List<Map<Object, Pair<Integer, Double>>> MASTStats;
     protected Map<Object, Integer> oldGraphKeys = new HashMap<>();
+    // Decision cache (see DecisionCache). The counters are cumulative over the lifetime of the player
+    protected DecisionCache decisionCache;
+    protected long decisionCacheParamsHash;
+    protected int cacheLookups, cacheHits, cacheSkips, cacheSeededVisits;
+    protected long searchNanos, searches;
+    protected boolean lastDecisionCacheHit, lastDecisionSkipped;
+    // Pondering (see startPondering). ponderIterations and ponderCpuNanos are for the period before the last decision
+    protected SingleTreeNode ponderRoot;
+    protected Thread ponderThread;
+    protected volatile boolean stopPondering;
+    protected int ponderIterations;
+    protected long ponderCpuNanos;
+    // these are only written by the ponder thread
+    private Throwable ponderFailure;
+    private int ponderThreadIterations;
+    private long ponderThreadCpuNanos;
 
     public MCTSPlayer() {
         this(new MCTSParams());
@@ -60,11 +78,29 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         }
         if (getParameters().actionHeuristic instanceof AbstractPlayer)
             ((AbstractPlayer) getParameters().actionHeuristic).initializePlayer(state);
+        stopPondering();
+        ponderRoot = null;
+        if (getParameters().ponder && (getParameters().opponentTreePolicy.selfOnlyTree ||
+                getParameters().opponentTreePolicy == MCGS))
+            throw new AssertionError("Pondering is only supported with OneTree or OMA opponent tree policies");
         MASTStats = null;
         root = null;
         oldGraphKeys = new HashMap<>();
         getParameters().getRolloutStrategy().initializePlayer(state);
         getParameters().getOpponentModel().initializePlayer(state);
+        decisionCache = null;
+        if (!getParameters().decisionCacheFile.isEmpty()) {
+            if (getParameters().opponentTreePolicy == MultiTree)
+                throw new AssertionError("The decision cache is not supported with MultiTree");
+            if (decisionCacheStateKey() == null)
+                throw new AssertionError("The decision cache requires either decisionCacheKey or MCGSStateKey to be set");
+            decisionCache = DecisionCache.open(getParameters().decisionCacheFile, getParameters().decisionCacheSlots);
+            decisionCacheParamsHash = DecisionCache.parametersHash(getParameters());
+        }
+    }
+
+    protected IStateKey decisionCacheStateKey() {
+        return getParameters().decisionCacheKey != null ? getParameters().decisionCacheKey : getParameters().MCGSStateKey;
     }
 
     /**
@@ -103,7 +139,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
                 continue;
             if (debug)
                 System.out.println("\tBacktracking for player " + mtRoot.roots[p].decisionPlayer);
-            mtRoot.roots[p] = backtrack(mtRoot.roots[p], state);
+            mtRoot.roots[p] = backtrack(mtRoot.roots[p], state, false);
             if (mtRoot.roots[p] != null) {
                 // here we do not do a full rootification as that would set the turnOwner and currentPlayer
                 // to the decision player, which we want to avoid
@@ -157,7 +193,21 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
         // Now for standard open loop processing
         SingleTreeNode newRoot = null;
-        if (params.reuseTree && root != null) {
+        SingleTreeNode oldRoot = root;
+        if (ponderRoot != null) {
+            // the ponder tree starts from the state after our last action, so we only need to track forward from there
+            oldRoot = ponderRoot;
+            newRoot = backtrack(ponderRoot, gameState, true);
+            ponderRoot = null;
+            // the pondered states were redeterminised from other players' perspectives, so we may not have a
+            // consistent node to use (unlike tree reuse, this is not an error)
+            if (newRoot != null && (newRoot.turnOwner != gameState.getCurrentPlayer() || newRoot.decisionPlayer != gameState.getCurrentPlayer()))
+                newRoot = null;
+            if (newRoot != null)
+                newRoot.setRedeterminisationPlayer(-1); // (re)set to the decision player when search starts
+            if (debug)
+                System.out.println("Pondered tree " + (newRoot == null ? "not matched" : "matched"));
+        } else if (params.reuseTree && root != null) {
             // we see if we can reuse the tree
             // We need to look at all actions taken since our last action
             if (debug)
@@ -166,7 +216,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
             if (params.opponentTreePolicy == MultiTree)
                 return newMultiTreeRootNode(gameState);
 
-            newRoot = backtrack(root, gameState);
+            newRoot = backtrack(root, gameState, false);
 
             if (root == newRoot)
                 throw new AssertionError("Root node should not be the same as the new root node");
@@ -186,12 +236,19 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
             // We need to make the new root the root of the tree
             // We need to remove the parent link from the new root
             //   newRoot.instantiate(null, null, gameState);
-            newRoot.rootify(root, gameState);
+            newRoot.rootify(oldRoot, gameState);
         }
         return newRoot;
     }
 
-    protected SingleTreeNode backtrack(SingleTreeNode startingRoot, AbstractGameState gameState) {
+    /**
+     * Finds the node in the tree that corresponds to the current state, by following the actions taken
+     * since our last action.
+     *
+     * @param afterLastAction true if startingRoot is the state after our last action (as for pondering), rather
+     *                        than the state in which we took it
+     */
+    protected SingleTreeNode backtrack(SingleTreeNode startingRoot, AbstractGameState gameState, boolean afterLastAction) {
         List<Pair<Integer, AbstractAction>> history = gameState.getHistory();
         Pair<Integer, AbstractAction> lastExpected = lastAction;
         MCTSParams params = getParameters();
@@ -206,7 +263,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
                 foundPointInHistory = true;
                 if (debug)
                     System.out.println("Matching action found at " + backwardLoop + " of " + history.size() + " - tracking forward");
-                for (int forwardLoop = backwardLoop; forwardLoop < history.size(); forwardLoop++) {
+                for (int forwardLoop = afterLastAction ? backwardLoop + 1 : backwardLoop; forwardLoop < history.size(); forwardLoop++) {
                     if (selfOnly && history.get(forwardLoop).a != rootPlayer)
                         continue; // we only care about our actions
                     AbstractAction action = history.get(forwardLoop).b;
@@ -259,9 +316,39 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
     @Override
     public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
-        // Search for best action from the root
+        stopPondering();
         long currentTimeNano = System.nanoTime();
+        lastDecisionCacheHit = false;
+        lastDecisionSkipped = false;
+        long cacheKey = 0;
+        DecisionCache.Entry cached = null;
+        if (decisionCache != null) {
+            cacheKey = DecisionCache.key(decisionCacheParamsHash, decisionCacheStateKey(), gameState);
+            cached = decisionCache.get(cacheKey);
+            cacheLookups++;
+            if (cached != null) {
+                cacheHits++;
+                lastDecisionCacheHit = true;
+                int skipVisits = getParameters().decisionCacheSkipVisits;
+                AbstractAction cachedAction = skipVisits > 0 && cached.totalVisits() >= skipVisits ? cached.mostVisited(actions, gameState) : null;
+                if (cachedAction != null) {
+                    cacheSkips++;
+                    lastDecisionSkipped = true;
+                    // there is no tree to reuse after skipping search; and the ponder tree from our last decision
+                    // does not follow the action we take now, so must not be used for the next one
+                    root = null;
+                    ponderRoot = null;
+                    oldGraphKeys = new HashMap<>();
+                    lastAction = new Pair<>(gameState.getCurrentPlayer(), cachedAction);
+                    return cachedAction.copy();
+                }
+            }
+        }
+
+        // Search for best action from the root
         createRootNode(gameState);
+        if (cached != null)
+            seedRootFromCache(cached);
         long timeTaken = System.nanoTime() - currentTimeNano;
 
         root.mctsSearch(timeTaken / 1000000);
@@ -283,14 +370,127 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         }
         MASTStats = root.MASTStatistics;
 
-        if (root.children.size() > 3 * actions.size() && !(root instanceof MCGSNode) && !getParameters().reuseTree && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
+        if (root.children.size() > 3 * actions.size() && !(root instanceof MCGSNode) && !getParameters().reuseTree && !getParameters().ponder && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
             throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()));
         lastAction = new Pair<>(gameState.getCurrentPlayer(), root.bestAction());
+        if (decisionCache != null)
+            decisionCache.put(cacheKey, root.actionValues, root.decisionPlayer, gameState);
+        searchNanos += System.nanoTime() - currentTimeNano;
+        searches++;
+        if (getParameters().ponder)
+            startPondering();
         return lastAction.b.copy();
     }
 
+    /**
+     * Starts a new tree from the state after our chosen action, and searches this on a background thread
+     * until we are next asked for a decision (when the node matching the actual state is used as the new root).
+     * A separate tree is used (rather than continuing to search the main one) so that the main tree can be safely
+     * inspected by listeners while pondering is in progress.
+     * <p>
+     * The pondering thread measures its own CPU time (ponderCpuNanos). This is not included in the CPU time of the
+     * thread that runs the game, so any ElapsedCpuChessTimer budget is not consumed by pondering (except on Windows,
+     * where ElapsedCpuTimer measures wall time).
+     */
+    protected void startPondering() {
+        AbstractGameState ponderState = root.state.copy();
+        getForwardModel().next(ponderState, lastAction.b.copy());
+        if (!ponderState.isNotTerminal())
+            return;
+        // Information Set redeterminisation is then from the perspective of the next player to act (applied to
+        // our observation). This is necessary for the states visited to be consistent with the tree, as some games
+        // change the current player when copying from a player's perspective.
+        ponderRoot = SingleTreeNode.createRootNode(this, ponderState, rnd, getFactory());
+        SingleTreeNode treeToSearch = ponderRoot;
+        stopPondering = false;
+        ponderFailure = null;
+        ponderThread = new Thread(() -> {
+            ElapsedCpuTimer timer = new ElapsedCpuTimer();
+            ponderThreadIterations = 0;
+            try {
+                ponderThreadIterations = treeToSearch.ponder(() -> stopPondering, getParameters().ponderBudget);
+            } catch (Throwable e) {
+                ponderFailure = e;
+            }
+            ponderThreadCpuNanos = timer.elapsedNanos();
+        }, "MCTS-ponder-" + getPlayerID());
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+    /**
+     * Stops any pondering in progress, and waits for the ponder thread to finish.
+     */
+    protected void stopPondering() {
+        ponderIterations = 0;
+        ponderCpuNanos = 0;
+        if (ponderThread == null)
+            return;
+        stopPondering = true;
+        try {
+            ponderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while waiting for pondering to stop", e);
+        }
+        ponderThread = null;
+        ponderIterations = ponderThreadIterations;
+        ponderCpuNanos = ponderThreadCpuNanos;
+        if (ponderFailure != null) {
+            ponderRoot = null;
+            throw new AssertionError("Error while pondering", ponderFailure);
+        }
+    }
+
+    /**
+     * Initialises the statistics of a new root node from a cached entry, as if the actions had already been
+     * visited (up to decisionCacheSeedVisits in total, in the proportions recorded in the cache).
+     */
+    protected void seedRootFromCache(DecisionCache.Entry cached) {
+        int seedVisits = Math.min(cached.totalVisits(), getParameters().decisionCacheSeedVisits);
+        if (seedVisits <= 0 || root.nVisits > 0)
+            return;
+        double scale = seedVisits / (double) cached.totalVisits();
+        int player = root.decisionPlayer;
+        int totalSeeded = 0;
+        for (Map.Entry<AbstractAction, ActionStats> entry : root.actionValues.entrySet()) {
+            int index = cached.indexOf(entry.getKey(), root.state);
+            int visits = index < 0 ? 0 : (int) Math.round(cached.visits()[index] * scale);
+            if (visits == 0)
+                continue;
+            double meanValue = cached.meanValues()[index];
+            if (getParameters().normaliseRewards) {
+                if (meanValue > root.highReward) root.highReward = meanValue;
+                if (meanValue < root.lowReward) root.lowReward = meanValue;
+            }
+            ActionStats stats = entry.getValue();
+            stats.nVisits += visits;
+            stats.totValue[player] += meanValue * visits;
+            stats.squaredTotValue[player] += meanValue * meanValue * visits;
+            if (getParameters().paranoid)
+                for (int i = 0; i < stats.totValue.length; i++)
+                    if (i != player)
+                        stats.totValue[i] = -stats.totValue[player];
+            totalSeeded += visits;
+        }
+        for (ActionStats stats : root.actionValues.values())
+            if (stats != null)
+                stats.validVisits += totalSeeded;
+        root.nVisits += totalSeeded;
+        cacheSeededVisits += totalSeeded;
+    }
+
+    /**
+     * @return an estimate of the total search time (in milliseconds) saved by using cached decisions
+     */
+    public double decisionCacheSavedMillis() {
+        return searches == 0 ? 0.0 : cacheSkips * (searchNanos / (double) searches) / 1e6;
+    }
+
     @Override
     public void finalizePlayer(AbstractGameState state) {
+        stopPondering();
+        ponderRoot = null;
         getParameters().getRolloutStrategy().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         getParameters().getOpponentModel().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (getParameters().heuristic instanceof IGameListener)
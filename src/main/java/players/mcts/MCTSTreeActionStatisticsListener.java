@@ -15,6 +15,9 @@ import static java.util.stream.Collectors.toList;
 public class MCTSTreeActionStatisticsListener extends ActionFeatureListener {
 
     public int visitThreshold, maxDepth;
+    // the tree is only walked after one in every sampleEvery decisions (as this can take as long as the search)
+    public int sampleEvery = 1;
+    private int decisions;
 
     /**
      * Two sets of features are provided.
@@ -29,13 +32,21 @@ public class MCTSTreeActionStatisticsListener extends ActionFeatureListener {
         this.maxDepth = maxDepth;
     }
 
+    public MCTSTreeActionStatisticsListener(IActionFeatureVector actionFeatures, IStateFeatureVector stateFeatures,
+                                            int visitThreshold, int maxDepth, int sampleEvery, String fileName) {
+        this(actionFeatures, stateFeatures, visitThreshold, maxDepth, fileName);
+        if (sampleEvery < 1)
+            throw new IllegalArgumentException("Sampling rate must be at least 1 : " + sampleEvery);
+        this.sampleEvery = sampleEvery;
+    }
+
 
     @Override
     public void onEvent(Event event) {
         if (event.type == Event.GameEvent.ACTION_CHOSEN) {
             // We extract the root node from the current player's tree
             AbstractPlayer player = this.getGame().getPlayers().get(event.state.getCurrentPlayer());
-            if (player instanceof MCTSPlayer mctsPlayer) {
+            if (player instanceof MCTSPlayer mctsPlayer && decisions++ % sampleEvery == 0) {
                 recordData(mctsPlayer.root, this.getGame().getForwardModel());
             }
         } else if (event.type == Event.GameEvent.GAME_OVER) {
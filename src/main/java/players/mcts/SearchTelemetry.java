@@ -0,0 +1,108 @@
+package players.mcts;
+
+import evaluation.summarisers.LatencyHistogram;
+
+import java.util.Arrays;
+
+/**
+ * Counters for a search tree that are kept up to date as the search runs (on the root of each tree), so that they
+ * can be read after each decision at no cost, unlike TreeStatistics, which walks the whole tree.
+ * <p>
+ * The nodes are counted as they are added to the tree; when a tree is reused, the nodes kept are counted when the
+ * depths are reset for the new root (which walks the kept nodes anyway). Iterations, rollout lengths, forward model
+ * calls and copies are for the last search (or ponder) only.
+ */
+public class SearchTelemetry {
+
+    int nodes, terminalNodes, maxDepth;
+    int[] nodesAtDepth = new int[16];
+    int iterations;
+    final LatencyHistogram rolloutLengths = new LatencyHistogram();
+    int fmCalls, copies;
+    long searchNanos;
+    private int fmCallsAtStart, copiesAtStart;
+    private long startNanos;
+
+    void nodeAdded(int depth, boolean terminal) {
+        nodes++;
+        if (terminal)
+            terminalNodes++;
+        if (depth > maxDepth)
+            maxDepth = depth;
+        if (depth >= nodesAtDepth.length)
+            nodesAtDepth = Arrays.copyOf(nodesAtDepth, Math.max(depth + 1, nodesAtDepth.length * 2));
+        nodesAtDepth[depth]++;
+    }
+
+    void startSearch(int fmCallsCount, int copyCount) {
+        iterations = 0;
+        rolloutLengths.reset();
+        fmCallsAtStart = fmCallsCount;
+        copiesAtStart = copyCount;
+        startNanos = System.nanoTime();
+    }
+
+    void iterationDone(int rolloutLength) {
+        iterations++;
+        rolloutLengths.record(rolloutLength);
+    }
+
+    void endSearch(int fmCallsCount, int copyCount) {
+        fmCalls = fmCallsCount - fmCallsAtStart;
+        copies = copyCount - copiesAtStart;
+        searchNanos = System.nanoTime() - startNanos;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+
+    public int getTerminalNodes() {
+        return terminalNodes;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the number of nodes at each depth, from 0 (the root) to getMaxDepth()
+     */
+    public int[] getNodesAtDepth() {
+        return Arrays.copyOf(nodesAtDepth, maxDepth + 1);
+    }
+
+    public double getMeanNodeDepth() {
+        long total = 0;
+        for (int d = 0; d <= maxDepth; d++)
+            total += (long) d * nodesAtDepth[d];
+        return nodes == 0 ? 0.0 : total / (double) nodes;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getIterationsPerSecond() {
+        return searchNanos == 0 ? 0.0 : iterations / (searchNanos / 1e9);
+    }
+
+    /**
+     * @return the number of actions taken in the rollout of each iteration of the last search
+     */
+    public LatencyHistogram getRolloutLengths() {
+        return rolloutLengths;
+    }
+
+    public int getFmCalls() {
+        return fmCalls;
+    }
+
+    public int getCopies() {
+        return copies;
+    }
+
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+}
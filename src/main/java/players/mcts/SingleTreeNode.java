@@ -4,6 +4,7 @@ import core.*;
 import core.actions.AbstractAction;
 import core.actions.DoNothing;
 import core.interfaces.IActionHeuristic;
+import core.interfaces.ITreeActionSpace;
 import players.PlayerConstants;
 import utilities.*;
 
@@ -57,10 +58,15 @@ public class SingleTreeNode {
     boolean terminalNode;
     double timeTaken;
     double initialisationTimeTaken;
+    // Cost of computing available actions over the search (only maintained on the root)
+    long actionGenerationNanos;
+    int actionGenerationCalls, actionsGenerated;
     protected double highReward = Double.NEGATIVE_INFINITY;
     protected double lowReward = Double.POSITIVE_INFINITY;
     protected Map<AbstractAction, Double> regretMatchingAverage = new HashMap<>();
     protected int nodeClash;
+    // Counters maintained during the search (only on the root)
+    protected SearchTelemetry telemetry;
     // Root node of tree
     protected SingleTreeNode root;
     // Parent of this node
@@ -78,6 +84,8 @@ public class SingleTreeNode {
     protected List<SingleTreeNode> currentNodeTrajectory;
     protected List<Pair<Integer, AbstractAction>> actionsInTree;
     List<Pair<Integer, AbstractAction>> actionsInRollout;
+    // Only used (on the root) if params.actionTreeSearch is set; this is updated to the current state on each visit
+    protected ActionTreeNode actionTree;
 
     protected SingleTreeNode() {
     }
@@ -137,6 +145,7 @@ public class SingleTreeNode {
             depth = parent.depth + 1;
             factory = parent.factory;
             decisionPlayer = terminalStateInSelfOnlyTree(state) ? parent.decisionPlayer : state.getCurrentPlayer();
+            root.telemetry.nodeAdded(depth, terminalNode);
         } else { // this is the root node (possibly reused from previous tree)
             resetDepth(this);
             decisionPlayer = state.getCurrentPlayer();
@@ -164,6 +173,10 @@ public class SingleTreeNode {
     protected void resetDepth(SingleTreeNode newRoot) {
         depth = parent == null ? 0 : parent.depth + 1;
         root = newRoot;
+        // we count the nodes in the tree as we go
+        if (newRoot == this)
+            telemetry = new SearchTelemetry();
+        newRoot.telemetry.nodeAdded(depth, terminalNode);
         for (SingleTreeNode[] childArray : children.values()) {
             if (childArray == null) continue;
             for (SingleTreeNode child : childArray) {
@@ -196,7 +209,20 @@ public class SingleTreeNode {
     protected void setActionsFromOpenLoopState(AbstractGameState actionState) {
         openLoopState = actionState;
         if (actionState.getCurrentPlayer() == this.decisionPlayer && actionState.isNotTerminalForPlayer(decisionPlayer)) {
-            actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace);
+            long startTime = System.nanoTime();
+            if (params.actionTreeSearch) {
+                actionsFromOpenLoopState = actionTreeActions(actionState);
+            } else if (params.lazyActionGeneration && params.progressiveWideningConstant >= 1.0) {
+                // We only materialise the actions that Progressive Widening will consider on this visit (and the backup that follows)
+                // the Forward Model (if it implements IOrderedActionSpace) decides which ones these are; otherwise all are generated
+                int maxActions = Math.max(1, (int) Math.floor(params.progressiveWideningConstant * Math.pow(nVisits + 2, params.progressiveWideningExponent)));
+                actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace, maxActions);
+            } else {
+                actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace);
+            }
+            root.actionGenerationNanos += System.nanoTime() - startTime;
+            root.actionGenerationCalls++;
+            root.actionsGenerated += actionsFromOpenLoopState.size();
             //      System.out.printf("Setting OLS actions for P%d (%d)%n%s%n", decisionPlayer, actionState.getCurrentPlayer(),
 //                actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
             if (actionsFromOpenLoopState.size() != actionsFromOpenLoopState.stream().distinct().count())
@@ -294,11 +320,53 @@ public class SingleTreeNode {
         }
     }
 
+    /**
+     * When searching over the action tree, each node in the search tree corresponds to one level of the
+     * ActionTreeNode hierarchy (identified by the ActionTreeBranch that reached it, if any).
+     * The actions available are then the valid leaf actions at that level, plus an ActionTreeBranch for each
+     * branch that contains at least one valid action.
+     */
+    protected List<AbstractAction> actionTreeActions(AbstractGameState actionState) {
+        if (!(forwardModel instanceof ITreeActionSpace treeFM))
+            throw new AssertionError("actionTreeSearch requires a Forward Model that implements ITreeActionSpace");
+        if (root.actionTree == null)
+            root.actionTree = treeFM.initActionTree(actionState);
+        ActionTreeNode current = treeFM.updateActionTree(root.actionTree, actionState);
+        List<String> path = actionToReach instanceof ActionTreeBranch branch ? branch.path : Collections.emptyList();
+        for (String name : path) {
+            current = current.getChildren().stream().filter(c -> c.getName().equals(name)).findFirst()
+                    .orElseThrow(() -> new AssertionError("Action tree has no branch " + name + " in " + path));
+        }
+        List<AbstractAction> retValue = new ArrayList<>();
+        for (ActionTreeNode child : current.getChildren()) {
+            if (child.getChildren().isEmpty()) {
+                if (child.hasValidAction())
+                    retValue.add(child.getAction());
+            } else if (child.hasValidAction()) {
+                List<String> childPath = new ArrayList<>(path);
+                childPath.add(child.getName());
+                retValue.add(new ActionTreeBranch(childPath));
+            }
+        }
+        if (retValue.isEmpty() && path.isEmpty()) {
+            // the action tree does not cover this decision, so we fall back to the flat action space
+            return forwardModel.computeAvailableActions(actionState, params.actionSpace);
+        }
+        return retValue;
+    }
+
+    public SearchTelemetry getTelemetry() {
+        return telemetry;
+    }
+
     protected void initialiseRootMetrics() {
         timeTaken = 0.0;
         initialisationTimeTaken = 0.0;
         nodeClash = 0;
         rolloutActionsTaken = 0;
+        actionGenerationNanos = 0;
+        actionGenerationCalls = 0;
+        actionsGenerated = 0;
         regretMatchingAverage.clear();
     }
 
@@ -320,22 +388,9 @@ public class SingleTreeNode {
         // Tracking number of iterations for iteration budget
         int numIters = 0;
         boolean stop = false;
+        telemetry.startSearch(fmCallsCount, copyCount);
         while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    setActionsFromOpenLoopState(state);
-                    break;
-                case Open_Loop:
-                    setActionsFromOpenLoopState(state.copy());
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    if (redeterminisationPlayer == -1)
-                        redeterminisationPlayer = decisionPlayer;
-                    setActionsFromOpenLoopState(state.copy(redeterminisationPlayer));
-                    copyCount++;
-                    break;
-            }
+            prepareSearchIteration();
 
             // New timer for this iteration
             //      ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
@@ -344,6 +399,7 @@ public class SingleTreeNode {
 
             // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
             oneSearchIteration();
+            telemetry.iterationDone(actionsInRollout.size());
 
             // Finished iteration
             numIters++;
@@ -367,9 +423,53 @@ public class SingleTreeNode {
                 stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
             }
         }
+        telemetry.endSearch(fmCallsCount, copyCount);
         timeTaken = elapsedTimer.elapsedMillis();
     }
 
+    /**
+     * Runs search iterations until stopped, or until maxIterations have been run, ignoring the usual budget.
+     * This is used to ponder on a background thread while other players are taking their turns.
+     *
+     * @return the number of iterations run
+     */
+    public int ponder(BooleanSupplier stop, int maxIterations) {
+        initialiseRootMetrics();
+        ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
+        int numIters = 0;
+        telemetry.startSearch(fmCallsCount, copyCount);
+        while (numIters < maxIterations && !stop.getAsBoolean()) {
+            prepareSearchIteration();
+            oneSearchIteration();
+            telemetry.iterationDone(actionsInRollout.size());
+            numIters++;
+        }
+        telemetry.endSearch(fmCallsCount, copyCount);
+        timeTaken = elapsedTimer.elapsedMillis();
+        return numIters;
+    }
+
+    /**
+     * Sets up the root openLoopState (and available actions) at the start of each iteration
+     */
+    protected void prepareSearchIteration() {
+        switch (params.information) {
+            case Closed_Loop:
+                setActionsFromOpenLoopState(state);
+                break;
+            case Open_Loop:
+                setActionsFromOpenLoopState(state.copy());
+                copyCount++;
+                break;
+            case Information_Set:
+                if (redeterminisationPlayer == -1)
+                    redeterminisationPlayer = decisionPlayer;
+                setActionsFromOpenLoopState(state.copy(redeterminisationPlayer));
+                copyCount++;
+                break;
+        }
+    }
+
     /**
      * oneSearchIteration() implements the strategy for tree search (plus expansion, rollouts, backup and so on)
      * Its result is purely stored in the tree generated from root
@@ -483,8 +583,8 @@ public class SingleTreeNode {
             // In Open_Loop (and all variants other than Closed_Loop), we make a single copy of the state at the start of each iteration
             // this is then updated with all actions (and stored in openLoopState on each node it visits).
             // In Closed_Loop we make a copy of a state only when we expand and add a new node to the tree.
-            if (params.information == Closed_Loop) {
-                // we do not advance
+            if (params.information == Closed_Loop || chosen instanceof ActionTreeBranch) {
+                // we do not advance (moving down the action tree does not change the state)
                 // but we do want to track the actions taken (otherwise done in advanceState)
                 actionsInTree.add(new Pair<>(cur.openLoopState.getCurrentPlayer(), chosen));
             } else {
@@ -499,7 +599,12 @@ public class SingleTreeNode {
             SingleTreeNode nextNode = cur.nextNodeInTree(chosen);
             // if and only if we do not find a new node, then we need to expand and create a new node
             if (nextNode == null) {
-                return cur.expandNode(chosen, cur.openLoopState);
+                SingleTreeNode expanded = cur.expandNode(chosen, cur.openLoopState);
+                // A new node for a level of the action tree is not a decision in its own right, so we
+                // keep going until we have expanded a node after taking an actual action
+                if (!(chosen instanceof ActionTreeBranch))
+                    return expanded;
+                nextNode = expanded;
             }
             cur = nextNode;
         }
@@ -516,10 +621,28 @@ public class SingleTreeNode {
             // It is perfectly possible that a previously expanded action falls out of the considered list
             // depending on the advantage heuristic used.
             // However, we do break ties in favour of already expanded actions
-            List<AbstractAction> sortedActions = new ArrayList<>(allAvailable);
-            sortedActions.sort(Comparator.comparingDouble(a -> -actionValueEstimates.getOrDefault(a, 0.0) -
-                    actionValues.getOrDefault(a, new ActionStats(1)).nVisits * 1e-6));
-            return new ArrayList<>(sortedActions.subList(0, actionsToConsider));
+            // We look up each sort key once, and then only (stably) select the top actionsToConsider, rather than
+            // sorting the whole list
+            int n = allAvailable.size();
+            double[] keys = new double[n];
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                AbstractAction a = allAvailable.get(i);
+                keys[i] = -actionValueEstimates.getOrDefault(a, 0.0) - actionVisits(a) * 1e-6;
+                order[i] = i;
+            }
+            List<AbstractAction> retValue = new ArrayList<>(actionsToConsider);
+            for (int i = 0; i < actionsToConsider; i++) {
+                int best = i;
+                for (int j = i + 1; j < n; j++) {
+                    if (keys[order[j]] < keys[order[best]]) best = j;
+                }
+                int chosen = order[best];
+                System.arraycopy(order, i, order, i + 1, best - i);
+                order[i] = chosen;
+                retValue.add(allAvailable.get(chosen));
+            }
+            return retValue;
         }
         return new ArrayList<>(allAvailable);
     }
@@ -1124,6 +1247,8 @@ public class SingleTreeNode {
     protected void MASTBackup(List<Pair<Integer, AbstractAction>> rolloutActions, double[] delta) {
         for (Pair<Integer, AbstractAction> pair : rolloutActions) {
             AbstractAction action = pair.b;
+            if (action instanceof ActionTreeBranch)
+                continue;  // not a real action in the game
             int player = pair.a;
             Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
             Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
@@ -1198,6 +1323,19 @@ public class SingleTreeNode {
                 throw new AssertionError("Unexpected - no selection made.");
         }
 
+        if (bestAction instanceof ActionTreeBranch) {
+            // we need to carry on down the action tree until we reach an actual action
+            SingleTreeNode[] nodeArray = children.get(bestAction);
+            SingleTreeNode branchNode = nodeArray == null ? null : nodeArray[decisionPlayer];
+            if (branchNode == null)
+                throw new AssertionError("No node found for " + bestAction);
+            if (state != null) {
+                // make sure the branch node only considers actions valid in our actual state
+                branchNode.setActionsFromOpenLoopState(state);
+                branchNode.state = state;
+            }
+            return branchNode.bestAction();
+        }
         return bestAction;
     }
 
@@ -240,6 +240,17 @@ public class ActionTreeNode {
         SubNodes = subNodes;
     }
 
+    // True if there is at least one valid action in the subtree below (and including) this node
+    public boolean hasValidAction() {
+        if (children.isEmpty())
+            return value == 1 && action != null;
+        for (ActionTreeNode child : children) {
+            if (child.hasValidAction())
+                return true;
+        }
+        return false;
+    }
+
     // For testing purposes
     public List<ActionTreeNode> getValidLeaves() {
         List<ActionTreeNode> validLeaves = new ArrayList<ActionTreeNode>();
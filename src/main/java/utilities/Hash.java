@@ -1,23 +1,23 @@
 package utilities;
 
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Hash
 {
-    private static Hash hash;
+    // games may be run concurrently (e.g. by NTBEA), so this is shared between threads
+    private static final Hash hash = new Hash();
 
-    private HashMap<String, Integer> hashmap;
+    private final Map<String, Integer> hashmap;
 
     public static Hash GetInstance()
     {
-        if(hash == null)
-            hash = new Hash();
         return hash;
     }
 
     private Hash()
     {
-        hashmap = new HashMap<>();
+        hashmap = new ConcurrentHashMap<>();
     }
 
 
@@ -386,6 +386,50 @@ public class JSONUtils {
         return sb.toString();
     }
 
+    /**
+     * A String representation of a JSON value in which the keys of every JSONObject are sorted.
+     * Two JSON values that are equal (irrespective of key order) therefore always give the same String, which makes
+     * this suitable for hashing (see canonicalHash). Any key in ignoredKeys is omitted at every level of nesting.
+     */
+    public static String canonicalString(Object value, Set<String> ignoredKeys) {
+        StringBuilder sb = new StringBuilder();
+        appendCanonical(sb, value, ignoredKeys);
+        return sb.toString();
+    }
+
+    private static void appendCanonical(StringBuilder sb, Object value, Set<String> ignoredKeys) {
+        if (value instanceof Map<?, ?> map) {
+            List<String> keys = map.keySet().stream().map(Object::toString)
+                    .filter(k -> !ignoredKeys.contains(k)).sorted().toList();
+            sb.append("{");
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) sb.append(",");
+                sb.append("\"").append(keys.get(i)).append("\":");
+                appendCanonical(sb, map.get(keys.get(i)), ignoredKeys);
+            }
+            sb.append("}");
+        } else if (value instanceof List<?> list) {
+            sb.append("[");
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) sb.append(",");
+                appendCanonical(sb, list.get(i), ignoredKeys);
+            }
+            sb.append("]");
+        } else if (value instanceof String) {
+            sb.append("\"").append(value).append("\"");
+        } else {
+            sb.append(value);
+        }
+    }
+
+    /**
+     * A 64-bit hash (FNV-1a) of the canonicalString of the JSON value.
+     * Unlike hashCode() on JSONObject this is stable across JVMs and runs, so can be used to key persistent data.
+     */
+    public static long canonicalHash(Object value, Set<String> ignoredKeys) {
+        return Utils.stableHash64(canonicalString(value, ignoredKeys));
+    }
+
     @SuppressWarnings("unchecked")
     public static JSONObject createJSONFromMap(Map<String, String> stuff) {
         // first of all we partition the keys by the contents of the key before the first '.'
@@ -7,6 +7,7 @@ import org.json.simple.parser.JSONParser;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -551,5 +552,18 @@ public abstract class Utils {
         return enumNames((Class<? extends Enum<?>>) e.getClass());
     }
 
+    /**
+     * A 64-bit FNV-1a hash of the UTF-8 bytes of the String.
+     * Unlike String.hashCode() this has a low collision rate across large numbers of keys, and (unlike
+     * most hashCode() implementations) it is stable across JVMs, so can be used to key data persisted to disk.
+     */
+    public static long stableHash64(String s) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
 
 }
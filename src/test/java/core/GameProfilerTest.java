@@ -0,0 +1,97 @@
+package core;
+
+import evaluation.summarisers.LatencyHistogram;
+import games.GameType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class GameProfilerTest {
+
+    private static Game playGame(boolean profiling) {
+        Game game = GameType.LoveLetter.createGameInstance(3, 42);
+        List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)),
+                new RandomPlayer(new Random(3)));
+        game.setProfiling(profiling);
+        game.reset(players, 100);
+        game.run();
+        return game;
+    }
+
+    @Test
+    public void histogramQuantilesAreWithinTheBucketSize() {
+        Random rnd = new Random(3);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(rnd.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double q : new double[]{0.01, 0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            long estimate = histogram.quantile(q);
+            assertTrue(estimate >= exact);
+            assertEquals(exact, estimate, exact / (double) LatencyHistogram.SUB_BUCKETS + 1);
+        }
+        assertEquals(values[values.length - 1], histogram.quantile(1.0));
+        assertEquals(values[0], histogram.min());
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(histogram);
+        merged.add(histogram);
+        assertEquals(2 * histogram.count(), merged.count());
+        assertEquals(histogram.quantile(0.5), merged.quantile(0.5));
+    }
+
+    @Test
+    public void profileCoversEveryAction() {
+        assertNull(playGame(false).getProfiler());
+
+        Game game = playGame(true);
+        GameProfiler profiler = game.getProfiler();
+        assertNotNull(profiler);
+        long copies = 0, decisions = 0;
+        for (int p = 0; p < 3; p++) {
+            copies += profiler.histogram(GameProfiler.Phase.COPY, p).count();
+            decisions += profiler.histogram(GameProfiler.Phase.DECISION, p).count();
+        }
+        assertEquals(game.getTick(), copies);
+        assertEquals(game.getTick(), profiler.histogram(GameProfiler.Phase.NEXT).count());
+        assertEquals(game.getNDecisions(), decisions);
+        assertTrue(profiler.histogram(GameProfiler.Phase.NEXT).total() > 0);
+        assertTrue(profiler.allocated(GameProfiler.Phase.COPY) > 0);
+        assertTrue(profiler.allocated() >= profiler.allocated(GameProfiler.Phase.COPY));
+    }
+
+    @Test
+    public void gameProfileIsSentToFlightRecorder() throws Exception {
+        Path file = Files.createTempFile("GameProfilerTest", ".jfr");
+        Game game;
+        try (Recording recording = new Recording()) {
+            recording.enable("tag.GameProfile");
+            recording.enable("tag.GamePhase");
+            recording.start();
+            game = playGame(true);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        List<RecordedEvent> games = events.stream().filter(e -> e.getEventType().getName().equals("tag.GameProfile")).toList();
+        assertEquals(1, games.size());
+        assertEquals("LoveLetter", games.get(0).getString("gameType"));
+        assertEquals(game.getTick(), games.get(0).getInt("ticks"));
+        long nexts = events.stream().filter(e -> e.getEventType().getName().equals("tag.GamePhase")
+                && e.getString("phase").equals("NEXT")).count();
+        assertEquals(game.getTick(), nexts);
+    }
+}
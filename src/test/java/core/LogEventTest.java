@@ -0,0 +1,73 @@
+package core;
+
+import core.actions.LogEvent;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
+import games.GameType;
+import games.loveletter.cards.LoveLetterCard;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LogEventTest {
+
+    @Test
+    public void textIsBuiltOnceAndOnlyWhenAskedFor() {
+        int[] calls = new int[1];
+        LogEvent event = new LogEvent(() -> {
+            calls[0]++;
+            return "Dice roll of 7";
+        });
+        assertEquals(0, calls[0]);
+        assertEquals("Dice roll of 7", event.getText());
+        assertEquals("Dice roll of 7", event.toString());
+        assertEquals(1, calls[0]);
+
+        LogEvent formatted = new LogEvent("Killed player: %d,%d,%s,%d", 0, 2, LoveLetterCard.CardType.Guard, 1);
+        assertEquals(4, formatted.getArgCount());
+        assertEquals(2, (int) formatted.getArg(1));
+        assertEquals(LoveLetterCard.CardType.Guard, formatted.getArg(2));
+        assertEquals("Killed player: 0,2,Guard,1", formatted.getText());
+        assertEquals(new LogEvent("Killed player: 0,2,Guard,1"), formatted);
+    }
+
+    @Test
+    public void gameEventsCarryTypedArguments() {
+        List<LogEvent> events = new ArrayList<>();
+        Game game = GameType.LoveLetter.createGameInstance(3, 42);
+        game.addListener(new IGameListener() {
+            @Override
+            public void onEvent(Event event) {
+                if (event.type == Event.GameEvent.GAME_EVENT)
+                    events.add((LogEvent) event.action);
+            }
+
+            @Override
+            public void report() {
+            }
+
+            @Override
+            public void setGame(Game game) {
+            }
+
+            @Override
+            public Game getGame() {
+                return null;
+            }
+        });
+        game.reset(List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)),
+                new RandomPlayer(new Random(3))), 100);
+        game.run();
+
+        assertFalse(events.isEmpty());
+        List<String> history = game.getGameState().getHistoryAsText();
+        for (LogEvent event : events) {
+            assertTrue(event.<Integer>getArg(0) >= 0);
+            assertTrue(event.getArg(2) instanceof LoveLetterCard.CardType);
+            assertTrue(history.contains(event.getText()));
+        }
+    }
+}
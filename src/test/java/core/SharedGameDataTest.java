@@ -0,0 +1,32 @@
+package core;
+
+import core.components.Component;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SharedGameDataTest {
+
+    @Test
+    public void gamesCopyTheSameLoadedComponents() {
+        for (GameType gameType : List.of(GameType.TerraformingMars, GameType.Pandemic)) {
+            Game first = gameType.createGameInstance(2, 42);
+            first.reset(Collections.emptyList(), 42);
+            Game second = gameType.createGameInstance(2, 42);
+            second.reset(Collections.emptyList(), 43);
+
+            // the components loaded from data files are copies of the same ones (so have the same IDs)...
+            Map<Integer, Component> firstComponents = first.getGameState().getAllComponents().getComponentsMap();
+            Map<Integer, Component> secondComponents = second.getGameState().getAllComponents().getComponentsMap();
+            Set<Integer> shared = new HashSet<>(firstComponents.keySet());
+            shared.retainAll(secondComponents.keySet());
+            assertTrue(gameType.name(), shared.size() > 50);
+            // ...but no component object is shared between the games
+            for (int id : shared)
+                assertNotSame(firstComponents.get(id), secondComponents.get(id));
+        }
+    }
+}
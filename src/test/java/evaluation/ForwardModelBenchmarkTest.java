@@ -0,0 +1,62 @@
+package evaluation;
+
+import games.GameType;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+
+import static evaluation.ForwardModelBenchmark.*;
+import static org.junit.Assert.*;
+
+public class ForwardModelBenchmarkTest {
+
+    @Test
+    public void recordedGamesReplayInFull() {
+        for (GameType game : new GameType[]{GameType.TicTacToe, GameType.LoveLetter}) {
+            Trace trace = record(game, 2, 42, MAX_ACTIONS);
+            assertTrue(trace.terminal());
+            assertTrue(trace.actions().length > 0);
+            // and the same again from the JSON
+            Trace copy = Trace.fromJSON(trace.toJSON());
+            assertArrayEquals(trace.actions(), copy.actions());
+            long[][] totals = new long[Operation.values().length][3];
+            replay(copy, totals);
+            for (Operation op : Operation.values())
+                assertEquals(op.name(), trace.actions().length, totals[op.ordinal()][2]);
+        }
+    }
+
+    @Test
+    public void changedGamesDoNotReplay() {
+        Trace trace = record(GameType.TicTacToe, 2, 42, MAX_ACTIONS);
+        double[] scores = trace.scores().clone();
+        scores[0] += 1;
+        Trace wrongScores = new Trace(trace.game(), 2, 42, trace.actions(), true, scores);
+        assertThrows(AssertionError.class, () -> replay(wrongScores, null));
+        Trace tooShort = new Trace(trace.game(), 2, 42, Arrays.copyOf(trace.actions(), 2), true, trace.scores());
+        assertThrows(AssertionError.class, () -> replay(tooShort, null));
+    }
+
+    private static Result result(double nanos, double bytes) {
+        Result retValue = new Result();
+        Arrays.fill(retValue.nanosPerOp, nanos);
+        Arrays.fill(retValue.bytesPerOp, bytes);
+        return retValue;
+    }
+
+    @Test
+    public void onlySlowerGamesFail() {
+        Map<GameType, Result> baseline = Map.of(GameType.TicTacToe, result(100, 100), GameType.LoveLetter, result(100, 100));
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        assertEquals(0, compare(Map.of(GameType.TicTacToe, result(110, 100), GameType.LoveLetter, result(50, 50)), baseline, 0.2, out));
+        assertEquals(1, compare(Map.of(GameType.TicTacToe, result(130, 100), GameType.LoveLetter, result(100, 100)), baseline, 0.2, out));
+        assertEquals(2, compare(Map.of(GameType.TicTacToe, result(100, 130), GameType.LoveLetter, result(150, 100)), baseline, 0.2, out));
+        // and the baseline is read back as it was written
+        Result copy = Result.fromJSON(result(120, 80).toJSON());
+        assertEquals(120, copy.nanosPerOp(Operation.NEXT), 0.0);
+        assertEquals(80, copy.bytesPerOp(Operation.COPY), 0.0);
+    }
+}
@@ -0,0 +1,122 @@
+package evaluation;
+
+import core.AbstractPlayer;
+import evaluation.tournaments.RoundRobinTournament;
+import games.GameType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class LiveMetricsTest {
+
+    private Path destDir;
+
+    @Before
+    public void setup() throws IOException {
+        destDir = Files.createTempDirectory("LiveMetricsTest");
+    }
+
+    @After
+    public void teardown() throws IOException {
+        LiveMetrics.stop();
+        try (Stream<Path> files = Files.walk(destDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    private static Map<String, Double> scrape(LiveMetrics live) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + live.getPort() + "/metrics").openConnection();
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+        String body;
+        try (InputStream in = connection.getInputStream()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Map<String, Double> retValue = new HashMap<>();
+        Set<String> typed = new HashSet<>();
+        String lastFamily = "";
+        for (String line : body.split("\n")) {
+            if (line.startsWith("# TYPE ")) {
+                String family = line.split(" ")[2];
+                assertTrue("Duplicate TYPE for " + family, typed.add(family));
+                lastFamily = family;
+            } else if (!line.startsWith("#")) {
+                int split = line.lastIndexOf(' ');
+                String name = line.substring(0, split);
+                // each sample must follow the TYPE line of its family
+                assertTrue(line, name.startsWith(lastFamily));
+                retValue.put(name, Double.parseDouble(line.substring(split + 1)));
+            }
+        }
+        return retValue;
+    }
+
+    @Test
+    public void tournamentResultsAreServed() throws IOException {
+        LiveMetrics live = LiveMetrics.start(0);
+        assertSame(live, LiveMetrics.get());
+
+        List<AbstractPlayer> agents = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String name = "Random \"" + i + "\"";
+            agents.add(new RandomPlayer(new Random(i)) {
+                @Override
+                public String toString() {
+                    return name;
+                }
+            });
+        }
+        Map<RunArg, Object> config = RunArg.parseConfig(new String[]{}, Collections.singletonList(RunArg.Usage.RunGames));
+        config.put(RunArg.matchups, 30);
+        config.put(RunArg.mode, "random");
+        config.put(RunArg.listener, new ArrayList<String>());
+        config.put(RunArg.noCache, true);
+        config.put(RunArg.destDir, destDir.toString());
+        RoundRobinTournament tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        tournament.run();
+
+        Map<String, Double> metrics = scrape(live);
+        assertEquals(30.0, metrics.get("tag_games_completed_total"), 0.0);
+        assertTrue(metrics.get("tag_games_per_second") > 0.0);
+        for (int i = 0; i < 3; i++) {
+            String labels = "{game=\"TicTacToe\",players=\"2\",agent=\"Random \\\"" + i + "\\\"\"}";
+            assertEquals(tournament.getNGamesPlayed()[i], metrics.get("tag_agent_games_total" + labels), 0.0);
+            assertEquals(tournament.getWinRate(i), metrics.get("tag_agent_win_rate" + labels), 1e-5);
+            assertTrue(metrics.get("tag_agent_win_rate_lower" + labels) <= metrics.get("tag_agent_win_rate" + labels));
+            assertTrue(metrics.get("tag_agent_win_rate_upper" + labels) >= metrics.get("tag_agent_win_rate" + labels));
+        }
+        assertTrue(metrics.get("jvm_memory_heap_used_bytes") > 0);
+        assertFalse(metrics.containsKey("tag_ntbea_repeats_completed"));
+
+        live.ntbeaRepeatCompleted(0.625, 0.05, "[1, 0, 2]");
+        metrics = scrape(live);
+        assertEquals(1.0, metrics.get("tag_ntbea_repeats_completed"), 0.0);
+        assertEquals(0.625, metrics.get("tag_ntbea_best_estimate{settings=\"[1, 0, 2]\"}"), 0.0);
+    }
+
+    @Test
+    public void nothingIsRecordedWhenNotStarted() {
+        assertNull(LiveMetrics.get());
+        List<AbstractPlayer> agents = List.of(new RandomPlayer(), new RandomPlayer());
+        Map<RunArg, Object> config = RunArg.parseConfig(new String[]{}, Collections.singletonList(RunArg.Usage.RunGames));
+        config.put(RunArg.matchups, 4);
+        config.put(RunArg.listener, new ArrayList<String>());
+        config.put(RunArg.noCache, true);
+        config.put(RunArg.destDir, destDir.toString());
+        new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config).run();
+        assertNull(LiveMetrics.get());
+    }
+}
@@ -1,13 +1,20 @@
 package evaluation;
 
+import core.AbstractGameState;
 import core.AbstractPlayer;
+import core.actions.AbstractAction;
 import evaluation.tournaments.AbstractTournament;
+import evaluation.tournaments.GameResultCache;
 import evaluation.tournaments.RoundRobinTournament;
+import evaluation.tournaments.TournamentCheckpoint;
 import games.GameType;
 import org.junit.*;
+import players.mcts.MCTSPlayer;
 import players.simple.RandomPlayer;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 import static org.junit.Assert.*;
@@ -34,6 +41,7 @@ public class RunGamesTest {
         config.put(RunArg.verbose, false);  // no verbose output
         config.put(RunArg.destDir, "src/test/java/evaluation");
         config.put(RunArg.listener, new ArrayList<String>());  // no listeners
+        config.put(RunArg.noCache, true);
     }
 
     @After
@@ -132,4 +140,203 @@ public class RunGamesTest {
         assertEquals(66, tournament.getNGamesPlayed()[3], 15);
     }
 
+    @Test
+    public void earlyStopRandomMode() {
+        // MCTS should be clearly better than Random well before all 100 games are played
+        agents = Arrays.asList(new MCTSPlayer(), new RandomPlayer());
+        config.put(RunArg.mode, "random");
+        config.put(RunArg.earlyStop, 0.95);
+        tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        tournament.run();
+
+        int played = tournament.getNGamesPlayed()[0];
+        assertEquals(played, tournament.getNGamesPlayed()[1]);
+        assertTrue(played >= RoundRobinTournament.earlyStopMinGames);
+        assertTrue(played < 100);
+        assertEquals(100 - played, tournament.getGamesSaved());
+    }
+
+    @Test
+    public void banditMode() {
+        // the games go to the agents that are closest to the top of the ranking, until the best is separated
+        agents = Arrays.asList(new RandomPlayer(), new RandomPlayer(), new MCTSPlayer(), new RandomPlayer());
+        config.put(RunArg.mode, "bandit");
+        config.put(RunArg.earlyStop, 0.95);
+        tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        tournament.run();
+
+        int[] played = tournament.getNGamesPlayed();
+        int totalGames = Arrays.stream(played).sum() / 2;
+        assertTrue(totalGames < 100);
+        assertEquals(100 - totalGames, tournament.getGamesSaved());
+        assertEquals(2, tournament.getWinnerIndex());
+    }
+
+    @Test
+    public void banditRoundsSeatLeaderAndChallenger() {
+        agents = Arrays.asList(new RandomPlayer(), new RandomPlayer(), new MCTSPlayer(), new RandomPlayer());
+        config.put(RunArg.mode, "bandit");
+        config.put(RunArg.matchups, 40);
+        List<Integer> leaders = new ArrayList<>();
+        List<List<List<Integer>>> rounds = new ArrayList<>();
+        tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config) {
+            @Override
+            protected List<List<Integer>> banditRound(int nTeams) {
+                // with topK = 1 the leader is the agent with the best score (the lowest index of any tied)
+                double[] scores = pairwiseScores()[0];
+                int leader = 0;
+                for (int i = 1; i < scores.length; i++)
+                    if (scores[i] > scores[leader])
+                        leader = i;
+                leaders.add(leader);
+                List<List<Integer>> round = super.banditRound(nTeams);
+                rounds.add(round);
+                return round;
+            }
+        };
+        tournament.run();
+
+        assertEquals(20, rounds.size());
+        for (int r = 0; r < rounds.size(); r++) {
+            // in a two-player game there is one game for the leader, and one for the challenger
+            List<List<Integer>> round = rounds.get(r);
+            int leader = leaders.get(r);
+            assertEquals(2, round.size());
+            assertTrue(round.get(0).contains(leader));
+            assertTrue(round.get(1).stream().anyMatch(i -> i != leader));
+        }
+    }
+
+    @Test
+    public void banditModeError() {
+        config.put(RunArg.mode, "bandit");
+        config.put(RunArg.topK, 4);
+        try {
+            tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+            fail("Should not have created the tournament");
+        } catch (IllegalArgumentException e) {
+            // we expect exception to be thrown
+        }
+    }
+
+    @Test
+    public void earlyStopError() {
+        config.put(RunArg.earlyStop, 1.0);
+        try {
+            tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+            fail("Should not have created the tournament");
+        } catch (IllegalArgumentException e) {
+            // we expect exception to be thrown
+        }
+    }
+
+    @Test
+    public void resultCache() throws Exception {
+        File cacheFile = File.createTempFile("GameResultCache", ".txt");
+        cacheFile.delete();
+        config.put(RunArg.mode, "exhaustive");
+        config.put(RunArg.seed, 42L);
+        config.put(RunArg.noCache, false);
+        // the cache is only used if a file is given
+        assertEquals("", GameResultCache.fileName(config));
+        config.put(RunArg.resultCache, cacheFile.getPath());
+        try {
+            tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+            tournament.run();
+            assertEquals(0, tournament.getGamesFromCache());
+
+            // the same tournament again takes every result from the cache, and gets the same results
+            RoundRobinTournament rerun = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+            rerun.run();
+            assertEquals(96, rerun.getGamesFromCache());
+            for (int i = 0; i < agents.size(); i++) {
+                assertEquals(tournament.getWinRate(i), rerun.getWinRate(i), 0.0);
+                assertEquals(tournament.getOrdinalRank(i), rerun.getOrdinalRank(i), 0.0);
+            }
+
+            // if we change one agent, then only the games with that agent are played
+            agents.set(3, new RandomPlayer() {
+                @Override
+                public String toString() {
+                    return "ChangedRandom";
+                }
+            });
+            rerun = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+            rerun.run();
+            assertEquals(96 - 72, rerun.getGamesFromCache());
+        } finally {
+            cacheFile.delete();
+        }
+    }
+
+    // the number of actions the CrashingPlayers can take before one of them fails (or -1 for no limit)
+    static int actionsBeforeCrash = -1;
+
+    static class CrashingPlayer extends RandomPlayer {
+        @Override
+        public AbstractAction _getAction(AbstractGameState observation, List<AbstractAction> actions) {
+            if (actionsBeforeCrash == 0)
+                throw new IllegalStateException("Simulated crash");
+            if (actionsBeforeCrash > 0)
+                actionsBeforeCrash--;
+            return super._getAction(observation, actions);
+        }
+    }
+
+    @Test
+    public void resumeFromCheckpoint() throws Exception {
+        File dir = Files.createTempDirectory("RunGamesTest").toFile();
+        File cacheFile = new File(dir, "GameResultCache.txt");
+        agents.replaceAll(a -> new CrashingPlayer());
+        config.put(RunArg.mode, "exhaustive");
+        config.put(RunArg.seed, 42L);
+        config.put(RunArg.noCache, false);
+        config.put(RunArg.resultCache, cacheFile.getName()); // in destDir
+        config.put(RunArg.destDir, dir.getPath());
+        // there is only a checkpoint if one is asked for
+        assertNull(TournamentCheckpoint.open(config, ""));
+        assertFalse(new File(dir, TournamentCheckpoint.FILE_NAME).exists());
+        config.put(RunArg.checkpoint, true);
+        int oldPeriod = RoundRobinTournament.checkpointPeriod;
+        RoundRobinTournament.checkpointPeriod = 10;
+        try {
+            TournamentCheckpoint checkpoint = TournamentCheckpoint.open(config, "");
+            tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+            tournament.setCheckpoint(checkpoint, "Poker_3");
+            actionsBeforeCrash = 200;
+            try {
+                tournament.run();
+                fail("The tournament should have crashed");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+            int gamesPlayed = Files.readAllLines(cacheFile.toPath()).size();
+            assertTrue(gamesPlayed > 10 && gamesPlayed < 96);
+            // and the process died while writing the next result
+            Files.writeString(cacheFile.toPath(), "abc\t1\tWIN:1", StandardOpenOption.APPEND);
+
+            // on resume (even with a different seed given) we use the seed of the checkpoint...
+            actionsBeforeCrash = -1;
+            config.put(RunArg.seed, 7L);
+            config.put(RunArg.resume, true);
+            checkpoint = TournamentCheckpoint.open(config, "");
+            assertEquals(42L, config.get(RunArg.seed));
+            assertFalse(checkpoint.isCompleted("Poker_3"));
+            // ...so the games already played are the first ones of the same schedule
+            RoundRobinTournament resumed = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+            resumed.setCheckpoint(checkpoint, "Poker_3");
+            resumed.run();
+            assertEquals(gamesPlayed, resumed.getGamesFromCache());
+            for (int i = 0; i < agents.size(); i++)
+                assertEquals(72, resumed.getNGamesPlayed()[i]);
+            assertEquals(96, Files.readAllLines(cacheFile.toPath()).size());
+            assertTrue(TournamentCheckpoint.load(new File(dir, TournamentCheckpoint.FILE_NAME).getPath()).isCompleted("Poker_3"));
+        } finally {
+            actionsBeforeCrash = -1;
+            RoundRobinTournament.checkpointPeriod = oldPeriod;
+            for (File file : Objects.requireNonNull(dir.listFiles()))
+                file.delete();
+            dir.delete();
+        }
+    }
 }
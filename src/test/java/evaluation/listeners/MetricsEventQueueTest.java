@@ -0,0 +1,85 @@
+package evaluation.listeners;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.GameMetrics;
+import evaluation.metrics.IDataLogger;
+import games.GameType;
+import games.sushigo.metrics.SushiGoMetrics;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MetricsEventQueueTest {
+
+    private static AbstractMetric[] metrics() {
+        return new AbstractMetric[]{
+                new SushiGoMetrics.CardPlayedCount(),
+                new SushiGoMetrics.CardNotChosenInFavourOf(),
+                new SushiGoMetrics.CardPlayedWin(),
+                new SushiGoMetrics.CardPoints(),
+                new GameMetrics.StateSpace(),
+                new GameMetrics.CurrentPlayerVisibility(),
+                new GameMetrics.Winner(),
+                // this one reads the Game, so is always run on the game thread
+                new GameMetrics.FinalScore()
+        };
+    }
+
+    // plays the same games with a new listener, and returns the raw data it writes for each metric
+    // (without the GameID column, as each game gets a new ID)
+    private static Map<String, String> playGames(int queueCapacity) throws Exception {
+        Path dir = Files.createTempDirectory("MetricsEventQueueTest");
+        MetricsGameListener listener = new MetricsGameListener(IDataLogger.ReportDestination.ToFile,
+                new IDataLogger.ReportType[]{IDataLogger.ReportType.RawData}, metrics());
+        listener.setAsync(queueCapacity, MetricsEventQueue.Backpressure.BLOCK);
+        if (queueCapacity > 0)
+            assertNotNull(listener.eventQueue);
+        listener.setOutputDirectory(dir.toString());
+
+        Game game = GameType.SushiGo.createGameInstance(3, 42);
+        List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)),
+                new RandomPlayer(new Random(3)));
+        listener.init(game, 3, new HashSet<>(Arrays.asList("A", "B", "C")));
+        game.addListener(listener);
+        for (int i = 0; i < 5; i++) {
+            game.reset(players, 100 + i);
+            game.run();
+        }
+        listener.report();
+
+        Map<String, String> data = new TreeMap<>();
+        for (File file : Objects.requireNonNull(dir.toFile().listFiles())) {
+            List<String> lines = Files.readAllLines(file.toPath());
+            int gameID = Arrays.asList(lines.get(0).split(",")).indexOf("GameID");
+            StringBuilder sb = new StringBuilder();
+            for (String line : lines) {
+                List<String> fields = new ArrayList<>(Arrays.asList(line.split(",", -1)));
+                fields.remove(gameID);
+                sb.append(String.join(",", fields)).append("\n");
+            }
+            data.put(file.getName(), sb.toString());
+        }
+        return data;
+    }
+
+    @Test
+    public void asyncMetricsRecordTheSameDataAsSynchronous() throws Exception {
+        Map<String, String> sync = playGames(0);
+        // a small queue, so that the game thread often has to wait for the metrics
+        Map<String, String> async = playGames(2);
+        assertEquals(metrics().length, sync.size());
+        assertEquals(sync.keySet(), async.keySet());
+        for (String file : sync.keySet()) {
+            assertTrue(file, sync.get(file).lines().count() > 1);
+            assertEquals(file, sync.get(file), async.get(file));
+        }
+    }
+}
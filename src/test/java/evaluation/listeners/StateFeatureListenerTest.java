@@ -0,0 +1,91 @@
+package evaluation.listeners;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IStatisticLogger;
+import evaluation.metrics.Event;
+import evaluation.summarisers.TAGStatSummary;
+import games.GameType;
+import games.loveletter.features.LLStateFeatures;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StateFeatureListenerTest {
+
+    // records each row that would be written to file (via the default record(String[], double[], int))
+    static class CapturingLogger implements IStatisticLogger {
+        List<Map<String, ?>> rows = new ArrayList<>();
+
+        @Override
+        public void record(Map<String, ?> data) {
+            rows.add(data);
+        }
+
+        @Override
+        public void record(String key, Object datum) {
+        }
+
+        @Override
+        public void processDataAndFinish() {
+        }
+
+        @Override
+        public void processDataAndNotFinish() {
+        }
+
+        @Override
+        public Map<String, TAGStatSummary> summary() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public IStatisticLogger emptyCopy(String id) {
+            return new CapturingLogger();
+        }
+    }
+
+    @Test
+    public void bufferedFeaturesMatchFeatureVector() {
+        LLStateFeatures phi = new LLStateFeatures();
+        List<double[]> expected = new ArrayList<>();
+        StateFeatureListener listener = new StateFeatureListener(phi, Event.GameEvent.ACTION_CHOSEN, false, "unused.data") {
+            @Override
+            public void processState(AbstractGameState state, AbstractAction action) {
+                for (int p = 0; p < state.getNPlayers(); p++)
+                    expected.add(phi.featureVector(state, p));
+                super.processState(state, action);
+            }
+        };
+        CapturingLogger logger = new CapturingLogger();
+        listener.setLogger(logger);
+
+        Game game = GameType.LoveLetter.createGameInstance(3, 42);
+        List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)),
+                new RandomPlayer(new Random(3)));
+        listener.setGame(game);
+        game.addListener(listener);
+        for (int i = 0; i < 3; i++) {
+            game.reset(players, 100 + i);
+            game.run();
+        }
+
+        assertEquals(expected.size(), logger.rows.size());
+        String[] names = phi.names();
+        List<String> keys = new ArrayList<>(logger.rows.get(0).keySet());
+        assertEquals(List.of("GameID", "Player", "Round", "Turn", "CurrentScore"), keys.subList(0, 5));
+        assertEquals(List.of("PlayerCount", "TotalRounds", "TotalTurns", "TotalTicks", "Win", "Ordinal", "FinalScore"),
+                keys.subList(5 + names.length, keys.size()));
+        for (int r = 0; r < expected.size(); r++) {
+            Map<String, ?> row = logger.rows.get(r);
+            for (int i = 0; i < names.length; i++)
+                assertEquals(expected.get(r)[i], (Double) row.get(names[i]), 0.0);
+            assertEquals(r % 3, ((Double) row.get("Player")).intValue());
+        }
+    }
+}
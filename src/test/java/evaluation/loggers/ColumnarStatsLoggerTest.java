@@ -0,0 +1,121 @@
+package evaluation.loggers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import players.learners.ColumnarDataReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ColumnarStatsLoggerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    int oldBlockRows;
+
+    @Before
+    public void setup() {
+        oldBlockRows = ColumnarStatsLogger.blockRows;
+        ColumnarStatsLogger.blockRows = 7;
+    }
+
+    @After
+    public void tearDown() {
+        ColumnarStatsLogger.blockRows = oldBlockRows;
+    }
+
+    private static Map<String, Object> row(int i) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("GameID", i / 10);
+        data.put("Score", i * 1.2345);
+        data.put("Missing", i % 3 == 0 ? null : -i / 7.0);
+        data.put("Player", "P" + (i % 4));
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("Big", (long) i * Integer.MAX_VALUE);
+        nested.put("Ratio", i == 5 ? Double.NaN : i / 3.0);
+        data.put("nested", nested);
+        if (i % 5 != 0)
+            data.put("Sometimes", i);
+        return data;
+    }
+
+    @Test
+    public void convertsToTheSameTextAsFileStatsLogger() throws IOException {
+        String text = new File(folder.getRoot(), "text.txt").getPath();
+        String binary = new File(folder.getRoot(), "binary" + ColumnarStatsLogger.EXTENSION).getPath();
+        FileStatsLogger textLogger = new FileStatsLogger(text, "\t", false);
+        ColumnarStatsLogger binaryLogger = new ColumnarStatsLogger(binary, false);
+        for (int i = 1; i < 40; i++) {
+            textLogger.record(row(i));
+            binaryLogger.record(row(i));
+            if (i % 10 == 0) {
+                textLogger.processDataAndNotFinish();
+                binaryLogger.processDataAndNotFinish();
+            }
+        }
+        textLogger.processDataAndFinish();
+        binaryLogger.processDataAndFinish();
+
+        String converted = new File(folder.getRoot(), "converted.txt").getPath();
+        try (ColumnarDataReader reader = new ColumnarDataReader(binary)) {
+            assertArrayEquals(new String[]{"GameID", "Score", "Missing", "Player", "Big", "Ratio", "Sometimes"}, reader.getHeader());
+            assertEquals(ColumnarStatsLogger.ColumnType.STRING, reader.getTypes()[3]);
+            reader.toTSV(converted);
+        }
+        assertEquals(Files.readAllLines(new File(text).toPath()), Files.readAllLines(new File(converted).toPath()));
+        assertTrue(ColumnarDataReader.isColumnar(binary));
+        assertFalse(ColumnarDataReader.isColumnar(text));
+    }
+
+    @Test
+    public void appendsAfterTheLastCompleteBlock() throws IOException {
+        String binary = new File(folder.getRoot(), "data" + ColumnarStatsLogger.EXTENSION).getPath();
+        ColumnarStatsLogger logger = new ColumnarStatsLogger(binary);
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            data.put("A", i);
+            data.put("B", i / 2.0);
+            logger.record(data);
+        }
+        logger.processDataAndFinish();
+        // simulate a run that was killed part way through writing a block
+        try (RandomAccessFile file = new RandomAccessFile(binary, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        try (ColumnarDataReader reader = new ColumnarDataReader(binary)) {
+            assertEquals(7, reader.readRows().size());
+        }
+
+        logger = new ColumnarStatsLogger(binary);
+        data.put("A", null);
+        data.put("B", 100.0);
+        logger.record(data);
+        logger.processDataAndFinish();
+        try (ColumnarDataReader reader = new ColumnarDataReader(binary)) {
+            List<double[]> rows = reader.readRows();
+            assertEquals(8, rows.size());
+            assertArrayEquals(new double[]{6, 3.0}, rows.get(6), 0.0);
+            assertTrue(Double.isNaN(rows.get(7)[0]));
+            assertEquals(100.0, rows.get(7)[1], 0.0);
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void cannotAppendDifferentColumns() {
+        String binary = new File(folder.getRoot(), "data" + ColumnarStatsLogger.EXTENSION).getPath();
+        ColumnarStatsLogger logger = new ColumnarStatsLogger(binary);
+        logger.record(Map.of("A", 1));
+        logger.processDataAndFinish();
+        logger = new ColumnarStatsLogger(binary);
+        logger.record(Map.of("B", 1));
+    }
+}
@@ -0,0 +1,118 @@
+package evaluation.metrics.tablessaw;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.listeners.MetricsGameListener;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.GameMetrics;
+import evaluation.metrics.IDataLogger;
+import games.GameType;
+import games.sushigo.metrics.SushiGoMetrics;
+import org.junit.After;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class DataTableSawTest {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+\\.\\d+(E-?\\d+)?");
+
+    private final List<Path> dirs = new ArrayList<>();
+
+    @After
+    public void teardown() throws IOException {
+        for (Path dir : dirs) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+            }
+        }
+    }
+
+    private static AbstractMetric[] metrics() {
+        return new AbstractMetric[]{
+                // per action, with String, Integer and Double columns
+                new SushiGoMetrics.CardPlayedCount(),
+                new SushiGoMetrics.CardPoints(),
+                new GameMetrics.StateSpace(),
+                new GameMetrics.CurrentPlayerVisibility(),
+                // per game
+                new GameMetrics.Winner(),
+                new GameMetrics.FinalScore()
+        };
+    }
+
+    private MetricsGameListener listener(int spillRows, AbstractMetric[] metrics) throws IOException {
+        Path dir = Files.createTempDirectory("DataTableSawTest");
+        dirs.add(dir);
+        MetricsGameListener retValue = new MetricsGameListener(IDataLogger.ReportDestination.ToFile,
+                new IDataLogger.ReportType[]{IDataLogger.ReportType.RawData, IDataLogger.ReportType.Summary,
+                        IDataLogger.ReportType.Plot, IDataLogger.ReportType.RawDataPerEvent}, metrics);
+        retValue.setSpillRows(spillRows);
+        retValue.setOutputDirectory(dir.toString());
+        return retValue;
+    }
+
+    // the relative path and content of each file under the directory
+    private static Map<String, String> files(Path dir) throws IOException {
+        Map<String, String> retValue = new TreeMap<>();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList())
+                retValue.put(dir.relativize(file).toString(), Files.readString(file));
+        }
+        return retValue;
+    }
+
+    @Test
+    public void spilledReportsAreTheSameAsInMemory() throws IOException {
+        MetricsGameListener inMemory = listener(0, metrics());
+        AbstractMetric[] spilledMetrics = metrics();
+        MetricsGameListener spilled = listener(100, spilledMetrics);
+        DataTableSaw cardsPlayed = (DataTableSaw) spilledMetrics[0].getDataLogger();
+
+        // both listen to the same games, and there are enough for more than 127 distinct game IDs
+        Game game = GameType.SushiGo.createGameInstance(3, 42);
+        List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)),
+                new RandomPlayer(new Random(3)));
+        Set<String> names = new HashSet<>(Arrays.asList("A", "B", "C"));
+        for (MetricsGameListener listener : List.of(inMemory, spilled)) {
+            listener.init(game, 3, names);
+            game.addListener(listener);
+        }
+        for (int i = 0; i < 140; i++) {
+            game.reset(players, 100 + i);
+            game.run();
+            // at most one game of rows more than the limit is kept in memory
+            assertTrue(cardsPlayed.data.rowCount() < 100);
+        }
+        assertNotNull(cardsPlayed.spillFile);
+        inMemory.report();
+        spilled.report();
+
+        Map<String, String> expected = files(dirs.get(0));
+        Map<String, String> actual = files(dirs.get(1));
+        assertEquals(expected.keySet(), actual.keySet());
+        assertTrue(expected.keySet().stream().anyMatch(f -> f.startsWith("plots")));
+        for (String file : expected.keySet()) {
+            if (file.startsWith("plots")) {
+                // the means in progression plots are summed in a different order, so may differ in the last digit
+                assertEquals(file, NUMBER.matcher(expected.get(file)).replaceAll("0"), NUMBER.matcher(actual.get(file)).replaceAll("0"));
+                Matcher e = NUMBER.matcher(expected.get(file)), a = NUMBER.matcher(actual.get(file));
+                while (e.find() && a.find()) {
+                    double x = Double.parseDouble(e.group()), y = Double.parseDouble(a.group());
+                    assertEquals(file, x, y, Math.abs(x) * 1e-12);
+                }
+            } else {
+                assertEquals(file, expected.get(file), actual.get(file));
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package evaluation.optimisation;
+
+import evaluation.RunArg;
+import games.GameType;
+import ntbea.NTupleSystem;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class NTBEATest {
+
+    // the instances used for each repeat
+    List<NTBEA> repeats = new ArrayList<>();
+    int evalGames = 4;
+    double earlyStop = 0.0;
+    int pairedSeeds = 0;
+
+    private NTBEA runNTBEA(int batchSize, int threads) {
+        return runNTBEA(batchSize, threads, 1);
+    }
+
+    private NTBEA runNTBEA(int batchSize, int threads, int nRepeats) {
+        repeats.clear();
+        Map<RunArg, Object> config = RunArg.parseConfig(new String[]{}, Collections.singletonList(RunArg.Usage.ParameterSearch));
+        config.put(RunArg.game, "TicTacToe");
+        config.put(RunArg.searchSpace, "src/test/java/evaluation/optimisation/MCTSSearch_Batch.json");
+        config.put(RunArg.iterations, 30);
+        config.put(RunArg.repeats, nRepeats);
+        config.put(RunArg.evalGames, evalGames);
+        config.put(RunArg.earlyStop, earlyStop);
+        config.put(RunArg.matchups, 0);
+        config.put(RunArg.seed, 42);
+        config.put(RunArg.batchSize, batchSize);
+        config.put(RunArg.threads, threads);
+        config.put(RunArg.pairedSeeds, pairedSeeds);
+        config.put(RunArg.listener, new ArrayList<String>());
+        File destDir = new File(System.getProperty("java.io.tmpdir"), "NTBEATest");
+        destDir.mkdirs();
+        config.put(RunArg.destDir, destDir.getPath());
+        NTBEAParameters params = new NTBEAParameters(config);
+        params.logFile = "";
+        NTBEA ntbea = new NTBEA(params, GameType.TicTacToe, 2) {
+            @Override
+            protected NTBEA createRepeat(long seed) {
+                NTBEA repeat = super.createRepeat(seed);
+                repeats.add(repeat);
+                return repeat;
+            }
+        };
+        ntbea.setOpponents(Collections.singletonList(new RandomPlayer(new Random(7))));
+        ntbea.run();
+        return ntbea;
+    }
+
+    @Test
+    public void batchedRunIsIndependentOfThreads() {
+        NTBEA sequential = runNTBEA(6, 1);
+        NTupleSystem sequentialModel = repeats.get(0).landscapeModel;
+        NTBEA concurrent = runNTBEA(6, 3);
+        NTupleSystem concurrentModel = repeats.get(0).landscapeModel;
+
+        assertEquals(30, sequentialModel.numberOfSamples());
+        assertEquals(30, concurrentModel.numberOfSamples());
+        assertArrayEquals(sequential.winnerSettings.get(0), concurrent.winnerSettings.get(0));
+        assertEquals(sequential.bestResult.a.a, concurrent.bestResult.a.a, 0.0);
+        for (int[] point : sequentialModel.getSampledPoints())
+            assertEquals(sequentialModel.getMeanEstimate(point), concurrentModel.getMeanEstimate(point), 0.0);
+    }
+
+    @Test
+    public void batchIsTruncatedToIterations() {
+        runNTBEA(8, 2);
+        assertEquals(30, repeats.get(0).landscapeModel.numberOfSamples());
+        assertEquals(30 + 4, repeats.get(0).evaluator.nEvals());
+    }
+
+    @Test
+    public void concurrentRepeatsMatchSequentialRepeats() {
+        NTBEA sequential = runNTBEA(3, 1, 3);
+        NTBEA concurrent = runNTBEA(3, 3, 3);
+        assertEquals(3, repeats.size());
+        assertNotSame(repeats.get(0).evaluator, repeats.get(1).evaluator);
+        assertNotSame(repeats.get(0).evaluator.opponents.get(0), repeats.get(1).evaluator.opponents.get(0));
+
+        assertEquals(3, sequential.winnerSettings.size());
+        for (int i = 0; i < 3; i++)
+            assertArrayEquals(sequential.winnerSettings.get(i), concurrent.winnerSettings.get(i));
+        assertArrayEquals(sequential.bestResult.b, concurrent.bestResult.b);
+        for (int i = 0; i < 3; i++)
+            assertTrue(new File(System.getProperty("java.io.tmpdir"), "NTBEATest" + File.separator + "Recommended_" + i + ".json").exists());
+    }
+
+    @Test
+    public void repeatWinnersAreRacedWithEarlyStop() {
+        evalGames = 12;
+        earlyStop = 0.9;
+        NTBEA ntbea = runNTBEA(1, 1, 3);
+
+        // the repeats do not evaluate their own recommendations...
+        for (NTBEA repeat : repeats)
+            assertEquals(30, repeat.evaluator.nEvals());
+        // ...instead they are all played by the parent, which stops early once one is clearly better
+        int raceGames = ntbea.evaluator.nEvals();
+        assertTrue(raceGames >= 3 * 10);
+        assertTrue(raceGames <= 3 * 12);
+        assertEquals(3, ntbea.winnerSettings.size());
+    }
+
+    @Test
+    public void pairedEvaluationReusesIncumbentGames() {
+        pairedSeeds = 5;
+        NTBEA sequential = runNTBEA(6, 1);
+        GameEvaluator evaluator = repeats.get(0).evaluator;
+        NTupleSystem sequentialModel = repeats.get(0).landscapeModel;
+
+        assertEquals(30, sequentialModel.numberOfSamples());
+        // the incumbent plays each seed in each seat at most once, however many candidates are evaluated
+        assertEquals(10, evaluator.incumbentResults.size());
+        assertEquals(30, evaluator.pairs);
+        // and the final evaluation games are not paired
+        assertFalse(evaluator.paired);
+        assertEquals(30 + 4, evaluator.nEvals());
+
+        NTBEA concurrent = runNTBEA(6, 3);
+        NTupleSystem concurrentModel = repeats.get(0).landscapeModel;
+        assertArrayEquals(sequential.winnerSettings.get(0), concurrent.winnerSettings.get(0));
+        for (int[] point : sequentialModel.getSampledPoints())
+            assertEquals(sequentialModel.getMeanEstimate(point), concurrentModel.getMeanEstimate(point), 0.0);
+    }
+
+    @Test
+    public void incumbentIsTheBestSettingsSoFar() {
+        pairedSeeds = 5;
+        runNTBEA(6, 1);
+        GameEvaluator evaluator = repeats.get(0).evaluator;
+        evaluator.reset();
+        evaluator.incumbent = new int[]{0, 0, 0};
+        // each result is {candidate, incumbent, generation of the incumbent}
+        for (int i = 0; i < 5; i++)
+            evaluator.adjustForIncumbent(new int[]{1, 0, 0}, new double[]{0.2, 0.4, 0});
+        assertArrayEquals(new int[]{0, 0, 0}, evaluator.incumbent);
+        assertEquals(5, evaluator.pairs);
+        // a better setting takes over once it has been evaluated often enough
+        evaluator.adjustForIncumbent(new int[]{2, 0, 0}, new double[]{1.0, 0.4, 0});
+        evaluator.adjustForIncumbent(new int[]{2, 0, 0}, new double[]{1.0, 0.4, 0});
+        assertArrayEquals(new int[]{0, 0, 0}, evaluator.incumbent);
+        evaluator.adjustForIncumbent(new int[]{2, 0, 0}, new double[]{0.7, 0.4, 0});
+        assertArrayEquals(new int[]{2, 0, 0}, evaluator.incumbent);
+        assertEquals(1, evaluator.incumbentGeneration);
+        assertEquals(0, evaluator.pairs);
+        assertTrue(evaluator.incumbentResults.isEmpty());
+        // and results paired with the old incumbent are not used against the new one
+        assertEquals(0.3, evaluator.adjustForIncumbent(new int[]{1, 0, 0}, new double[]{0.3, 0.4, 0}), 0.0);
+        assertEquals(0, evaluator.pairs);
+        evaluator.adjustForIncumbent(new int[]{1, 0, 0}, new double[]{0.3, 0.8, 1});
+        assertEquals(1, evaluator.pairs);
+    }
+}
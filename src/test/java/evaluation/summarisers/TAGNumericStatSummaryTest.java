@@ -0,0 +1,92 @@
+package evaluation.summarisers;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TAGNumericStatSummaryTest {
+
+    private static void assertSameMoments(TAGNumericStatSummary expected, TAGNumericStatSummary actual) {
+        assertEquals(expected.n(), actual.n());
+        assertEquals(expected.mean(), actual.mean(), 1e-9 * Math.abs(expected.mean()));
+        assertEquals(expected.sd(), actual.sd(), 1e-9 * expected.sd());
+        assertEquals(expected.skew(), actual.skew(), 1e-6);
+        assertEquals(expected.kurtosis(), actual.kurtosis(), 1e-6);
+        assertEquals(expected.min(), actual.min(), 0.0);
+        assertEquals(expected.max(), actual.max(), 0.0);
+        assertEquals(expected.getSummary().get("Delta"), actual.getSummary().get("Delta"));
+    }
+
+    @Test
+    public void streamingMatchesExact() {
+        Random rnd = new Random(42);
+        TAGNumericStatSummary exact = new TAGNumericStatSummary("exact", true);
+        TAGNumericStatSummary streaming = new TAGNumericStatSummary("streaming");
+        for (int i = 0; i < QuantileSketch.defaultK - 1; i++) {
+            // skewed, with some repeats
+            double x = Math.floor(Math.exp(rnd.nextGaussian()) * 10) + 100;
+            exact.add(x);
+            streaming.add(x);
+        }
+        assertSameMoments(exact, streaming);
+        // nothing has been compacted yet, so the quantiles are exact
+        assertEquals(exact.median(), streaming.median(), 0.0);
+        assertEquals(exact.quantile(0.9), streaming.quantile(0.9), 0.0);
+        assertTrue(exact.skew() > 0.5);
+    }
+
+    @Test
+    public void mergingMatchesAddingInOrder() {
+        Random rnd = new Random(7);
+        TAGNumericStatSummary all = new TAGNumericStatSummary("all", true);
+        TAGNumericStatSummary merged = new TAGNumericStatSummary("merged");
+        for (int part = 0; part < 5; part++) {
+            TAGNumericStatSummary partSummary = new TAGNumericStatSummary("part");
+            for (int i = 0; i < 1000 * (part + 1); i++) {
+                double x = rnd.nextInt(20) * rnd.nextDouble();
+                all.add(x);
+                partSummary.add(x);
+            }
+            merged.add(partSummary);
+        }
+        assertSameMoments(all, merged);
+    }
+
+    @Test
+    public void quantilesAreCloseWithBoundedMemory() {
+        Random rnd = new Random(1);
+        TAGNumericStatSummary exact = new TAGNumericStatSummary("exact", true);
+        TAGNumericStatSummary streaming = new TAGNumericStatSummary("streaming");
+        TAGNumericStatSummary merged = new TAGNumericStatSummary("merged");
+        TAGNumericStatSummary part = new TAGNumericStatSummary("part");
+        int n = 200000;
+        for (int i = 0; i < n; i++) {
+            double x = rnd.nextGaussian();
+            exact.add(x);
+            streaming.add(x);
+            part.add(x);
+            if (i % 1000 == 999) {
+                merged.add(part);
+                part = new TAGNumericStatSummary("part");
+            }
+        }
+        for (TAGNumericStatSummary summary : new TAGNumericStatSummary[]{streaming, merged}) {
+            for (double q : new double[]{0.01, 0.1, 0.5, 0.9, 0.99}) {
+                // compare the ranks of the estimate and the true quantile
+                double estimate = summary.quantile(q);
+                long rank = exact.getElements().stream().filter(x -> x <= estimate).count();
+                assertEquals("Quantile " + q, q * n, rank, 0.01 * n);
+            }
+        }
+        assertEquals(exact.median(), streaming.median(), 0.02);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void elementsAreOnlyKeptInExactMode() {
+        TAGNumericStatSummary streaming = new TAGNumericStatSummary();
+        streaming.add(1.0);
+        streaming.getElements();
+    }
+}
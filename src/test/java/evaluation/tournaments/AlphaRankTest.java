@@ -0,0 +1,81 @@
+package evaluation.tournaments;
+
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AlphaRankTest {
+
+    int nAgents = 12;
+    int[][] wins = new int[nAgents][nAgents];
+    int[][] games = new int[nAgents][nAgents];
+
+    private void playAll(Random rnd, int gamesPerPair) {
+        // agent i beats agent j with probability (i + 1) / (i + j + 2)
+        for (int i = 0; i < nAgents; i++)
+            for (int j = i + 1; j < nAgents; j++)
+                for (int g = 0; g < gamesPerPair; g++) {
+                    if (rnd.nextDouble() < (i + 1.0) / (i + j + 2.0)) wins[i][j]++;
+                    else wins[j][i]++;
+                    games[i][j]++;
+                    games[j][i]++;
+                }
+    }
+
+    private int[][] symmetrised() {
+        int[][] values = new int[nAgents][nAgents];
+        for (int i = 0; i < nAgents; i++)
+            for (int j = 0; j < nAgents; j++)
+                values[i][j] = wins[i][j] - wins[j][i];
+        return values;
+    }
+
+    @Test
+    public void matchesEigenDecomposition() {
+        playAll(new Random(3), 20);
+        AlphaRank alphaRank = new AlphaRank(symmetrised(), games, 10.0);
+        double[] pi = alphaRank.stationaryDistribution(null);
+
+        EigenDecomposition eig = new EigenDecomposition(MatrixUtils.createRealMatrix(alphaRank.transitionMatrix()).transpose());
+        double[] eigenValues = eig.getRealEigenvalues();
+        int index = 0;
+        while (Math.abs(eigenValues[index] - 1.0) > 1e-6)
+            index++;
+        double[] expected = eig.getEigenvector(index).toArray();
+        double sum = Arrays.stream(expected).sum();
+        for (int i = 0; i < nAgents; i++)
+            assertEquals(expected[i] / sum, pi[i], 1e-8);
+    }
+
+    @Test
+    public void warmStartGivesSameResult() {
+        Random rnd = new Random(5);
+        playAll(rnd, 10);
+        double[] previous = new AlphaRank(symmetrised(), games, 10.0).stationaryDistribution(null);
+        playAll(rnd, 2);
+        double[] cold = new AlphaRank(symmetrised(), games, 10.0).stationaryDistribution(null);
+        double[] warm = new AlphaRank(symmetrised(), games, 10.0).stationaryDistribution(previous);
+        assertArrayEquals(cold, warm, 1e-8);
+    }
+
+    @Test
+    public void pairsThatHaveNotPlayedAreIgnored() {
+        // only adjacent agents have played each other
+        for (int i = 0; i + 1 < nAgents; i++) {
+            wins[i + 1][i] = 3;
+            wins[i][i + 1] = 1;
+            games[i][i + 1] = 4;
+            games[i + 1][i] = 4;
+        }
+        double[] pi = new AlphaRank(symmetrised(), games, 10.0).stationaryDistribution(null);
+        assertNotNull(pi);
+        assertEquals(1.0, Arrays.stream(pi).sum(), 1e-9);
+        for (int i = 0; i + 1 < nAgents; i++)
+            assertTrue(pi[i + 1] > pi[i]);
+    }
+}
@@ -0,0 +1,16 @@
+package evaluation.tournaments;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * A worker that takes the first game it is sent, and then exits without replying.
+ */
+public class CrashingTournamentWorker {
+
+    public static void main(String[] args) throws IOException {
+        new BufferedReader(new InputStreamReader(System.in)).readLine();
+        System.exit(1);
+    }
+}
@@ -0,0 +1,16 @@
+package evaluation.tournaments;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * A worker that takes the first game it is sent, and then never replies.
+ */
+public class HangingTournamentWorker {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        new BufferedReader(new InputStreamReader(System.in)).readLine();
+        Thread.sleep(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,124 @@
+package evaluation.tournaments;
+
+import evaluation.RunGames;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TournamentWorkersTest {
+
+    // the default agents (BasicMCTS, Random, RMHC, OSLA), with 2 games for each of the 12 permutations
+    String[] args = new String[]{"game=TicTacToe", "nPlayers=2", "mode=exhaustive", "matchups=24", "budget=20",
+            "listener=", "noCache=true", "seed=42",
+            "destDir=" + System.getProperty("java.io.tmpdir") + File.separator + "TournamentWorkersTest"};
+    RunGames runGames;
+    List<String> crashingWorker = List.of(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath(),
+            "-cp", System.getProperty("java.class.path"), CrashingTournamentWorker.class.getName());
+    List<String> hangingWorker = List.of(crashingWorker.get(0), "-cp", System.getProperty("java.class.path"),
+            HangingTournamentWorker.class.getName());
+
+    @Before
+    public void setup() {
+        runGames = RunGames.fromArgs(args);
+    }
+
+    private RoundRobinTournament runWith(List<List<String>> commands) {
+        return runWith(commands, 0);
+    }
+
+    private RoundRobinTournament runWith(List<List<String>> commands, long timeoutMillis) {
+        RoundRobinTournament tournament = runGames.createTournament(GameType.TicTacToe, 2, false);
+        try (TournamentWorkers workers = new TournamentWorkers(commands, timeoutMillis)) {
+            tournament.setWorkers(workers);
+            tournament.run();
+        }
+        return tournament;
+    }
+
+    private List<String> worker(int index) {
+        return TournamentWorkers.workerCommand(GameType.TicTacToe, 2, index, "now", args);
+    }
+
+    @Test
+    public void workersPlayAllGames() {
+        RoundRobinTournament tournament = runWith(List.of(worker(0), worker(1)));
+        for (int i = 0; i < 4; i++)
+            assertEquals(12, tournament.getNGamesPlayed()[i]);
+    }
+
+    @Test
+    public void gamesOfCrashedWorkerAreReassigned() {
+        RoundRobinTournament tournament = runWith(List.of(crashingWorker, worker(1)));
+        for (int i = 0; i < 4; i++)
+            assertEquals(12, tournament.getNGamesPlayed()[i]);
+    }
+
+    @Test
+    public void gamesArePlayedLocallyIfAllWorkersCrash() {
+        List<List<String>> commands = new ArrayList<>();
+        commands.add(crashingWorker);
+        commands.add(crashingWorker);
+        RoundRobinTournament tournament = runWith(commands);
+        for (int i = 0; i < 4; i++)
+            assertEquals(12, tournament.getNGamesPlayed()[i]);
+    }
+
+    @Test
+    public void gamesOfStuckWorkerAreAbandoned() throws IOException {
+        File results = new File(args[args.length - 1].substring("destDir=".length()), "TournamentResults.txt");
+        results.delete();
+        RoundRobinTournament tournament = runWith(List.of(hangingWorker, worker(1)), 15000);
+        // the one game taken by the stuck worker is not played, but all the others are (the limit allows for the
+        // other worker starting up, which is counted in the time for its first game)
+        int seats = 0;
+        for (int i = 0; i < 4; i++)
+            seats += tournament.getNGamesPlayed()[i];
+        assertEquals(46, seats);
+        // and the totals reported only count the games played
+        assertEquals(23, tournament.getTotalGamesRun());
+        assertEquals(1, tournament.getGamesAbandoned());
+        assertEquals(0, tournament.getGamesSaved());
+        String report = Files.readString(results.toPath());
+        assertTrue(report.contains("of the 23 games of the tournament"));
+        assertTrue(report.contains("(not counted above): 1"));
+    }
+
+    @Test
+    public void metricsOfWorkersAreMerged() throws IOException {
+        String destination = System.getProperty("java.io.tmpdir") + File.separator + "TournamentWorkersMetrics";
+        String[] metricsArgs = new String[]{"game=TicTacToe", "nPlayers=2", "mode=exhaustive", "matchups=24",
+                "budget=20", "noCache=true", "seed=42", "addTimeStamp=false", "destDir=" + destination};
+        File gameOver = new File(destination, "GAME_OVER.csv");
+        gameOver.delete();
+        runGames = RunGames.fromArgs(metricsArgs);
+        RoundRobinTournament tournament = runGames.createTournament(GameType.TicTacToe, 2, true);
+        try (TournamentWorkers workers = new TournamentWorkers(List.of(
+                TournamentWorkers.workerCommand(GameType.TicTacToe, 2, 0, "now", metricsArgs),
+                TournamentWorkers.workerCommand(GameType.TicTacToe, 2, 1, "now", metricsArgs)))) {
+            tournament.setWorkers(workers);
+            tournament.run();
+        }
+        // one row for each game, with a distinct GameID, as if they had all been played here
+        List<String> lines = Files.readAllLines(gameOver.toPath());
+        assertEquals(25, lines.size());
+        int gameIDColumn = Arrays.asList(lines.get(0).split(",")).indexOf("GameID");
+        assertEquals(24, lines.stream().skip(1).map(line -> line.split(",")[gameIDColumn]).distinct().count());
+        assertFalse(new File(destination, "Worker_0").exists());
+        assertFalse(new File(destination, "Worker_1").exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void earlyStopIsNotSupported() {
+        runGames = RunGames.fromArgs(new String[]{"game=TicTacToe", "nPlayers=2", "earlyStop=0.95", "listener=", "noCache=true"});
+        runGames.createTournament(GameType.TicTacToe, 2, false).setWorkers(new TournamentWorkers(List.of()));
+    }
+}
@@ -0,0 +1,74 @@
+package games.catan;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.actions.ActionSpace;
+import core.forwardModels.ActionClassDecorator;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CatanOrderedActionsTest {
+
+    private final ActionSpace actionSpace = new ActionSpace();
+
+    // plays random actions until the current player has at least this many actions, not counting the setup phase
+    private Game gameWithActions(int minActions) {
+        Game game = GameType.Catan.createGameInstance(3, 42);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(42);
+        while (state.isNotTerminal()) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state, actionSpace);
+            if (state.getGamePhase() != CatanGameState.CatanGamePhase.Setup && !state.isActionInProgress()
+                    && actions.size() >= minActions)
+                return game;
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        throw new AssertionError("No state found with " + minActions + " actions");
+    }
+
+    @Test
+    public void filteredActionsDoNotCountTowardsMaxActions() {
+        Game game = gameWithActions(10);
+        AbstractGameState state = game.getGameState();
+        CatanForwardModel fm = (CatanForwardModel) game.getForwardModel();
+        // we filter out the kind of action that comes first in the priority order
+        Iterator<AbstractAction> ordered = fm.orderedActions(state, actionSpace);
+        Class<?> filtered = ordered.next().getClass();
+        fm.addPlayerDecorator(new ActionClassDecorator(filtered.getName()));
+
+        List<AbstractAction> allActions = fm.computeAvailableActions(state, actionSpace);
+        assertTrue(allActions.size() >= 3);
+        List<AbstractAction> actions = fm.computeAvailableActions(state, actionSpace, 3);
+        assertEquals(3, actions.size());
+        for (AbstractAction action : actions) {
+            assertFalse(filtered.isInstance(action));
+            assertTrue(allActions.contains(action));
+        }
+    }
+
+    @Test
+    public void allActionsAreReturnedIfAllAreFiltered() {
+        Game game = gameWithActions(2);
+        AbstractGameState state = game.getGameState();
+        CatanForwardModel fm = (CatanForwardModel) game.getForwardModel();
+        // filtering out every action leaves them all (as in computeAvailableActions())
+        fm.addPlayerDecorator(new ActionClassDecorator(AbstractAction.class.getName()));
+        assertEquals(fm.computeAvailableActions(state, actionSpace).size(),
+                fm.computeAvailableActions(state, actionSpace, 1).size());
+    }
+
+    @Test
+    public void unorderedActionsAreNotCut() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        assertEquals(9, game.getForwardModel().computeAvailableActions(game.getGameState(), actionSpace, 2).size());
+    }
+}
@@ -0,0 +1,59 @@
+package players.MCRave;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import players.PlayerConstants;
+
+import java.util.List;
+
+/**
+ * Measures the search speed of MCRavePlayer, in iterations per second: a fixed-iteration search at each of the first
+ * few decisions of a number of seeded games, timed after one untimed pass over the same games to warm the JVM.
+ * <p>
+ * Run from the project root (the games load data/ relatively), with the arguments game (SushiGo), players (3),
+ * games (20), decisions (5) and iterations (500), e.g. "game=Connect4 players=2". Run it on each side of a change to
+ * compare them; the timings are specific to the machine, and vary by several percent from run to run.
+ */
+public class MCRaveBenchmark {
+
+    public static void main(String[] args) {
+        GameType game = GameType.valueOf(utilities.Utils.getArg(args, "game", "SushiGo"));
+        int nPlayers = utilities.Utils.getArg(args, "players", 3);
+        int nGames = utilities.Utils.getArg(args, "games", 20);
+        int decisions = utilities.Utils.getArg(args, "decisions", 5);
+        int iterations = utilities.Utils.getArg(args, "iterations", 500);
+
+        search(game, nPlayers, nGames, decisions, iterations);
+        long start = System.nanoTime();
+        int searches = search(game, nPlayers, nGames, decisions, iterations);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s (%dp): %d searches of %d iterations in %.2fs, %.0f iterations/sec%n", game.name(),
+                nPlayers, searches, iterations, seconds, searches * (double) iterations / seconds);
+    }
+
+    // plays the first decisions of each game with MCRavePlayer, and returns the number of searches
+    private static int search(GameType gameType, int nPlayers, int nGames, int decisions, int iterations) {
+        int searches = 0;
+        for (int g = 0; g < nGames; g++) {
+            Game game = gameType.createGameInstance(nPlayers, g);
+            AbstractGameState state = game.getGameState();
+            AbstractForwardModel forwardModel = game.getForwardModel();
+            MCRaveParams params = new MCRaveParams();
+            params.setRandomSeed(g);
+            params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+            params.budget = iterations;
+            MCRavePlayer player = new MCRavePlayer(params);
+            player.setForwardModel(forwardModel);
+            for (int d = 0; d < decisions && state.isNotTerminal(); d++) {
+                List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+                AbstractAction action = player.getAction(state.copy(state.getCurrentPlayer()), actions);
+                forwardModel.next(state, action);
+                searches++;
+            }
+        }
+        return searches;
+    }
+}
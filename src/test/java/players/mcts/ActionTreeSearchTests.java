@@ -0,0 +1,72 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import games.sushigo.SGForwardModel;
+import games.sushigo.SGGameState;
+import games.sushigo.SGParameters;
+import games.sushigo.actions.ChooseCard;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ActionTreeSearchTests {
+
+    SGForwardModel fm = new SGForwardModel();
+    SGGameState state;
+    MCTSParams params = new MCTSParams();
+    TestMCTSPlayer player;
+
+    @Before
+    public void setup() {
+        SGParameters gameParams = new SGParameters();
+        gameParams.setRandomSeed(4902);
+        state = new SGGameState(gameParams, 3);
+        fm.setup(state);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.actionTreeSearch = true;
+        params.setRandomSeed(2373);
+        player = new TestMCTSPlayer(params, null);
+        player.setForwardModel(fm);
+        player.initializePlayer(state);
+    }
+
+    @Test
+    public void rootActionsAreBranchesOfTheActionTree() {
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        AbstractAction chosen = player._getAction(state, actions);
+
+        // No chopsticks have been played, so the only branch is 'play'
+        SingleTreeNode root = player.getRoot();
+        assertEquals(1, root.actionValues.size());
+        assertEquals(new ActionTreeBranch(List.of("play")), root.actionValues.keySet().iterator().next());
+        assertEquals(200, root.getVisits());
+
+        // The next level down has the actual cards to play, and all the visits
+        SingleTreeNode playNode = root.getChildren().get(new ActionTreeBranch(List.of("play")))[state.getCurrentPlayer()];
+        assertNotNull(playNode);
+        assertEquals(actions.size(), playNode.actionValues.size());
+        assertTrue(playNode.actionValues.keySet().stream().allMatch(a -> a instanceof ChooseCard));
+        assertEquals(200, playNode.getVisits());
+
+        // and the action we get back is a real one
+        assertTrue(chosen instanceof ChooseCard);
+        assertTrue(actions.contains(chosen));
+    }
+
+    @Test
+    public void branchesAreNotUsedInMASTStatistics() {
+        params.MAST = MCTSEnums.MASTType.Tree;
+        params.useMAST = true;
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        player._getAction(state, actions);
+
+        SingleTreeNode root = player.getRoot();
+        assertFalse(root.MASTStatistics.get(state.getCurrentPlayer()).isEmpty());
+        assertTrue(root.MASTStatistics.stream().allMatch(m -> m.keySet().stream().noneMatch(k -> k instanceof ActionTreeBranch)));
+    }
+}
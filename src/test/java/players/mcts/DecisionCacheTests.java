@@ -0,0 +1,130 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import games.connect4.Connect4ForwardModel;
+import games.connect4.Connect4GameParameters;
+import games.connect4.Connect4GameState;
+import games.connect4.Connect4StateVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import utilities.JSONUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DecisionCacheTests {
+
+    Connect4ForwardModel fm = new Connect4ForwardModel();
+    Connect4GameState state;
+    MCTSParams params = new MCTSParams();
+    File cacheFile;
+
+    @Before
+    public void setup() throws IOException {
+        state = new Connect4GameState(new Connect4GameParameters(), 2);
+        fm.setup(state);
+        cacheFile = File.createTempFile("decisionCache", ".bin");
+        cacheFile.delete();
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.decisionCacheFile = cacheFile.getPath();
+        params.decisionCacheKey = new Connect4StateVector();
+        params.setRandomSeed(3901);
+    }
+
+    @After
+    public void cleanup() {
+        DecisionCache.close(cacheFile.getPath());
+        cacheFile.delete();
+    }
+
+    private TestMCTSPlayer newPlayer() {
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.setForwardModel(fm);
+        player.initializePlayer(state);
+        return player;
+    }
+
+    @Test
+    public void searchIsRecordedAndFoundByLaterPlayers() {
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        TestMCTSPlayer first = newPlayer();
+        first._getAction(state, actions);
+        assertEquals(1, first.cacheLookups);
+        assertEquals(0, first.cacheHits);
+
+        // simulate a new run by re-opening the file
+        DecisionCache.close(cacheFile.getPath());
+        TestMCTSPlayer second = newPlayer();
+        second._getAction(state, actions);
+        assertEquals(1, second.cacheHits);
+        assertTrue(second.lastDecisionCacheHit);
+        assertFalse(second.lastDecisionSkipped);
+
+        DecisionCache.Entry entry = second.decisionCache.get(
+                DecisionCache.key(second.decisionCacheParamsHash, params.decisionCacheKey, state));
+        assertNotNull(entry);
+        assertEquals(actions.size(), entry.actionHashes().length);
+    }
+
+    @Test
+    public void differentParametersDoNotShareEntries() {
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        newPlayer()._getAction(state, actions);
+
+        params.setParameterValue("K", 0.1);
+        TestMCTSPlayer other = newPlayer();
+        other._getAction(state, actions);
+        assertEquals(0, other.cacheHits);
+    }
+
+    @Test
+    public void searchIsSkippedWithEnoughCachedVisits() {
+        params.decisionCacheSkipVisits = 200;
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        TestMCTSPlayer player = newPlayer();
+        player._getAction(state, actions);
+        SingleTreeNode root = player.getRoot();
+        AbstractAction mostVisited = root.actionValues.keySet().stream()
+                .max(Comparator.comparingInt(a -> root.actionValues.get(a).nVisits)).orElseThrow();
+
+        AbstractAction cached = player._getAction(state, actions);
+        assertTrue(player.lastDecisionSkipped);
+        assertNull(player.getRoot());
+        assertEquals(mostVisited, cached);
+        assertEquals(1, player.cacheSkips);
+        assertTrue(player.decisionCacheSavedMillis() > 0.0);
+    }
+
+    @Test
+    public void rootIsSeededFromCache() {
+        params.decisionCacheSeedVisits = 50;
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        TestMCTSPlayer player = newPlayer();
+        player._getAction(state, actions);
+        assertEquals(200, player.getRoot().getVisits());
+
+        player._getAction(state, actions);
+        int seeded = player.cacheSeededVisits;
+        assertEquals(50, seeded, actions.size()); // rounding of the visits per action
+        assertEquals(200 + seeded, player.getRoot().getVisits());
+    }
+
+    @Test
+    public void keysDoNotDependOnHashCodes() {
+        // an enum, and a set of them, are written by name and in sorted order
+        assertEquals("[\"BUDGET_FM_CALLS\",\"BUDGET_TIME\"]", JSONUtils.canonicalString(DecisionCache.canonicalKey(
+                new LinkedHashSet<>(List.of(PlayerConstants.BUDGET_TIME, PlayerConstants.BUDGET_FM_CALLS))), Set.of()));
+        assertEquals("[1.0,2.0]", JSONUtils.canonicalString(DecisionCache.canonicalKey(new double[]{1.0, 2.0}), Set.of()));
+        // and an object with only the identity toString() cannot be used
+        assertThrows(AssertionError.class, () -> DecisionCache.canonicalKey(new Object()));
+    }
+}
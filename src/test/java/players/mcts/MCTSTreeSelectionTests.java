@@ -1,12 +1,17 @@
 package players.mcts;
 
+import core.AbstractGameState;
 import core.actions.AbstractAction;
+import core.actions.ActionSpace;
+import core.interfaces.IOrderedActionSpace;
 import org.junit.Test;
 import utilities.Pair;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static players.mcts.MCTSEnums.TreePolicy.*;
 
@@ -603,6 +608,48 @@ public class MCTSTreeSelectionTests {
         assertEquals(3, node.actionsToConsider(node.actionsFromOpenLoopState).size());
     }
 
+    static class OrderedLMRForwardModel extends LMRForwardModel implements IOrderedActionSpace {
+        int actionsConstructed = 0;
+
+        @Override
+        public Iterator<AbstractAction> orderedActions(AbstractGameState gameState, ActionSpace actionSpace) {
+            return Stream.of("Right", "Left", "Middle")
+                    .map(name -> {
+                        actionsConstructed++;
+                        return (AbstractAction) new LMRAction(name);
+                    }).iterator();
+        }
+    }
+
+    @Test
+    public void progressiveWideningLazyGeneration() {
+        OrderedLMRForwardModel orderedFM = new OrderedLMRForwardModel();
+        fm = orderedFM;
+        params.progressiveWideningConstant = 1.0;
+        params.progressiveWideningExponent = 0.5;
+        params.lazyActionGeneration = true;
+        params.actionHeuristic = (a, s, l) -> 0.0;
+        setupPlayer();
+
+        // Only enough actions for the first visit (and its backup) are generated, in the FM's priority order
+        assertEquals(1, node.actionsFromOpenLoopState.size());
+        assertEquals(new LMRAction("Right"), node.actionsFromOpenLoopState.get(0));
+        assertEquals(1, orderedFM.actionsConstructed);
+
+        node.actionsInTree = List.of(new Pair<>(0, new LMRAction("Right")));
+        node.currentNodeTrajectory = List.of(node);
+        for (int i = 0; i < 2; i++) {
+            node.backUp(new double[]{1.0});
+        }
+        // sqrt(2 + 2) = 2 actions are now needed
+        orderedFM.actionsConstructed = 0;
+        node.setActionsFromOpenLoopState(game);
+        assertEquals(2, node.actionsFromOpenLoopState.size());
+        assertEquals(2, orderedFM.actionsConstructed);
+        assertTrue(node.actionsFromOpenLoopState.contains(new LMRAction("Left")));
+        assertNull(node.getActionStats(new LMRAction("Middle")));
+    }
+
     @Test
     public void progressiveWideningIII() {
         // check that only the available actions are used up to the point of widening
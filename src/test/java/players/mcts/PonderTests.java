@@ -0,0 +1,120 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import games.connect4.Connect4ForwardModel;
+import games.connect4.Connect4GameParameters;
+import games.connect4.Connect4GameState;
+import games.connect4.Connect4StateVector;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PonderTests {
+
+    Connect4ForwardModel fm = new Connect4ForwardModel();
+    Connect4GameState state;
+    MCTSParams params = new MCTSParams();
+    TestMCTSPlayer player;
+
+    @Before
+    public void setup() {
+        state = new Connect4GameState(new Connect4GameParameters(), 2);
+        fm.setup(state);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.ponder = true;
+        params.ponderBudget = 500;
+        params.setRandomSeed(3901);
+        player = new TestMCTSPlayer(params, null);
+        player.setForwardModel(fm);
+        player.initializePlayer(state);
+    }
+
+    @Test
+    public void ponderedSubtreeIsReusedForNextDecision() throws InterruptedException {
+        AbstractAction ourAction = player._getAction(state.copy(0), fm.computeAvailableActions(state));
+        assertNotNull(player.ponderThread);
+        // the ponder tree starts after our action, with the opponent to move
+        assertEquals(1, player.ponderRoot.decisionPlayer);
+        player.ponderThread.join(); // wait for ponderBudget to be used up
+
+        fm.next(state, ourAction);
+        List<AbstractAction> opponentActions = fm.computeAvailableActions(state);
+        fm.next(state, opponentActions.get(3));
+        player._getAction(state.copy(0), fm.computeAvailableActions(state));
+
+        assertEquals(500, player.ponderIterations);
+        assertTrue(player.ponderCpuNanos > 0);
+        SingleTreeNode root = player.getRoot();
+        assertEquals(0, root.decisionPlayer);
+        assertTrue(root.inheritedVisits > 0);
+        assertTrue(root.inheritedVisits < 500);
+        assertEquals(200 + root.inheritedVisits, root.getVisits());
+    }
+
+    @Test
+    public void mainTreeIsNotChangedWhilePondering() throws InterruptedException {
+        player._getAction(state.copy(0), fm.computeAvailableActions(state));
+        SingleTreeNode root = player.getRoot();
+        int visits = root.getVisits();
+        player.ponderThread.join();
+        assertSame(root, player.getRoot());
+        assertEquals(visits, root.getVisits());
+    }
+
+    @Test
+    public void finalizeStopsPondering() {
+        params.ponderBudget = Integer.MAX_VALUE;
+        player._getAction(state.copy(0), fm.computeAvailableActions(state));
+        Thread ponderThread = player.ponderThread;
+        assertTrue(ponderThread.isAlive());
+        player.finalizePlayer(state.copy(0));
+        assertFalse(ponderThread.isAlive());
+        assertNull(player.ponderThread);
+        assertNull(player.ponderRoot);
+    }
+
+    @Test
+    public void ponderedTreeIsNotUsedAfterACachedDecision() throws IOException {
+        File cacheFile = File.createTempFile("decisionCache", ".bin");
+        cacheFile.delete();
+        params.decisionCacheFile = cacheFile.getPath();
+        params.decisionCacheKey = new Connect4StateVector();
+        params.decisionCacheSkipVisits = 200;
+        try {
+            player.initializePlayer(state);
+            AbstractAction ourAction = player._getAction(state.copy(0), fm.computeAvailableActions(state));
+            fm.next(state, ourAction);
+            fm.next(state, fm.computeAvailableActions(state).get(3));
+
+            // another player has already searched this state, so our decision comes from the cache without search
+            TestMCTSPlayer other = new TestMCTSPlayer(params, null);
+            other.setForwardModel(fm);
+            other.initializePlayer(state);
+            other._getAction(state.copy(0), fm.computeAvailableActions(state));
+            other.finalizePlayer(state.copy(0));
+            ourAction = player._getAction(state.copy(0), fm.computeAvailableActions(state));
+            assertTrue(player.lastDecisionSkipped);
+            assertNull(player.ponderRoot);
+
+            // the tree pondered after our first action does not follow the cached one, so the next search starts afresh
+            fm.next(state, ourAction);
+            fm.next(state, fm.computeAvailableActions(state).get(3));
+            player._getAction(state.copy(0), fm.computeAvailableActions(state));
+            assertFalse(player.lastDecisionSkipped);
+            assertEquals(0, player.getRoot().inheritedVisits);
+            assertEquals(200, player.getRoot().getVisits());
+            assertNotNull(player.ponderRoot);
+        } finally {
+            player.finalizePlayer(state.copy(0));
+            DecisionCache.close(cacheFile.getPath());
+            cacheFile.delete();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package players.mcts;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.features.StateKeyFromFeatureVector;
+import games.GameType;
+import games.tictactoe.TicTacToeStateVector;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SearchTelemetryTest {
+
+    private static MCTSParams params(boolean reuseTree) {
+        MCTSParams params = new MCTSParams();
+        params.budget = 200;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.reuseTree = reuseTree;
+        params.setRandomSeed(23);
+        return params;
+    }
+
+    // plays a game of TicTacToe, and checks the telemetry against a walk of the tree after each decision
+    private static void checkTelemetry(MCTSParams params) {
+        MCTSPlayer player = new MCTSPlayer(params);
+        Game game = GameType.TicTacToe.createGameInstance(2, 404);
+        List<AbstractPlayer> players = List.of(player, new RandomPlayer(new Random(1)));
+        game.reset(players);
+        int decisions = 0;
+        while (game.getGameState().isNotTerminal()) {
+            boolean mctsToMove = game.getGameState().getCurrentPlayer() == 0;
+            game.oneAction();
+            if (!mctsToMove)
+                continue;
+            decisions++;
+            SearchTelemetry telemetry = player.root.getTelemetry();
+            assertEquals(params.budget, telemetry.getIterations());
+            assertEquals(params.budget, telemetry.getRolloutLengths().count());
+            assertTrue(telemetry.getFmCalls() > 0);
+            assertTrue(telemetry.getIterationsPerSecond() > 0);
+
+            TreeStatistics stats = new TreeStatistics(player.root);
+            if (player.root instanceof MCGSNode mcgsRoot) {
+                // nodes left in the map from earlier searches, but no longer reachable, have a depth of -1
+                long reachable = mcgsRoot.getTranspositionMap().values().stream().filter(n -> n.getDepth() >= 0).count();
+                assertEquals(reachable, telemetry.getNodes());
+            } else {
+                assertEquals(stats.totalNodes, telemetry.getNodes());
+                assertArrayEquals(Arrays.copyOf(stats.nodesAtDepth, stats.depthReached + 1), telemetry.getNodesAtDepth());
+                assertEquals(Arrays.stream(stats.gameTerminalNodesAtDepth).sum(), telemetry.getTerminalNodes());
+            }
+            assertEquals(stats.depthReached, telemetry.getMaxDepth());
+        }
+        assertTrue(decisions > 1);
+    }
+
+    @Test
+    public void telemetryMatchesTreeStatistics() {
+        checkTelemetry(params(false));
+    }
+
+    @Test
+    public void telemetryMatchesTreeStatisticsWithTreeReuse() {
+        checkTelemetry(params(true));
+    }
+
+    @Test
+    public void telemetryCountsMCGSNodes() {
+        MCTSParams params = params(true);
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.MCGSStateKey = new StateKeyFromFeatureVector(new TicTacToeStateVector());
+        checkTelemetry(params);
+    }
+}